@@ -0,0 +1,176 @@
+package benchmark;
+
+import model.ConnectionPool;
+import model.DatabaseConfig;
+import model.DatabaseHelper;
+import model.DateRange;
+import model.Entry;
+import model.EntryStore;
+import model.InMemoryEntryStore;
+import model.JournalEntryStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eingebettete H2-Datenbank im MySQL-Modus als Ersatz für den MySQL-Server,
+ * damit die Benchmarks ohne Netzwerk laufen.
+ *
+ * H2 kennt die MySQL-Funktionen GET_LOCK und RELEASE_LOCK (vom
+ * SchemaMigrator verwendet) nicht; sie werden als Java-Funktionen
+ * nachgebildet. Ausserdem wird MONTH als Schlüsselwort abgeschaltet. Die
+ * absoluten Zeiten sind nicht mit MySQL vergleichbar, die Verhältnisse
+ * zwischen Varianten und Datenmengen aber schon.
+ *
+ * Zum Vergleich der Speicher (store.engine) gibt es dieselben Testdaten auch
+ * im {@link InMemoryEntryStore} und im {@link JournalEntryStore} (in einem
+ * temporären Verzeichnis, das beim Beenden gelöscht wird).
+ */
+public final class BenchmarkDatabase {
+	private static final AtomicInteger COUNTER = new AtomicInteger();
+	// Anzahl verschiedener Titel (= Kategorien) in den Testdaten
+	private static final int TITLES = 500;
+	private static final int FILL_CHUNK = 10000;
+	// Die Testdaten verteilen sich über zwei Jahre
+	private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+	private static final int DAYS = 731;
+
+	/** Ein Monat der Testdaten für die Monatsfilter-Benchmarks. */
+	public static final DateRange SAMPLE_MONTH = DateRange.ofMonth(YearMonth.of(2025, 3));
+	/** Ein Jahr der Testdaten (etwa die Hälfte der Einträge). */
+	public static final DateRange SAMPLE_YEAR = DateRange.ofYear(2025);
+
+	private BenchmarkDatabase() {
+	}
+
+	/**
+	 * Legt eine neue, leere In-Memory-Datenbank an und gibt einen
+	 * DatabaseHelper darauf zurück.
+	 *
+	 * @return der DatabaseHelper (Schema bereits migriert).
+	 * @throws SQLException bei einem Fehler.
+	 */
+	public static DatabaseHelper create() throws SQLException {
+		// MONTH ist in H2 ein Schlüsselwort, in MySQL nicht (Spaltenalias "month")
+		String url = "jdbc:h2:mem:liquiplanner" + COUNTER.incrementAndGet()
+				+ ";MODE=MySQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=MONTH";
+		try (Connection conn = DriverManager.getConnection(url, "sa", "");
+			 Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE ALIAS GET_LOCK FOR 'benchmark.BenchmarkDatabase.getLock'");
+			stmt.execute("CREATE ALIAS RELEASE_LOCK FOR 'benchmark.BenchmarkDatabase.releaseLock'");
+		}
+		Properties properties = new Properties();
+		properties.setProperty("db.url", url);
+		properties.setProperty("db.user", "sa");
+		properties.setProperty("db.password", "");
+		properties.setProperty("pool.maxSize", "4");
+		return new DatabaseHelper(new ConnectionPool(new DatabaseConfig(properties)));
+	}
+
+	/**
+	 * Legt eine Datenbank an und füllt sie mit {@code rows} Einträgen.
+	 *
+	 * @param rows Anzahl Einträge.
+	 * @return der DatabaseHelper.
+	 * @throws SQLException bei einem Fehler.
+	 */
+	public static DatabaseHelper create(int rows) throws SQLException {
+		DatabaseHelper dbHelper = create();
+		fill(dbHelper, rows);
+		return dbHelper;
+	}
+
+	/**
+	 * Legt einen Speicher an und füllt ihn mit {@code rows} Einträgen.
+	 *
+	 * @param engine "h2" (DatabaseHelper auf H2), "memory" oder "journal".
+	 * @param rows   Anzahl Einträge.
+	 * @return der Speicher.
+	 * @throws SQLException bei einem Fehler.
+	 */
+	public static EntryStore create(String engine, int rows) throws SQLException {
+		EntryStore store;
+		if ("memory".equals(engine)) {
+			store = new InMemoryEntryStore(new DatabaseConfig(new Properties()));
+		} else if ("journal".equals(engine)) {
+			store = new JournalEntryStore(new DatabaseConfig(journalProperties()));
+		} else {
+			return create(rows);
+		}
+		fill(store, rows);
+		return store;
+	}
+
+	private static Properties journalProperties() throws SQLException {
+		try {
+			Path directory = Files.createTempDirectory("liquiplanner-journal");
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> deleteDirectory(directory)));
+			Properties properties = new Properties();
+			properties.setProperty("journal.dir", directory.toString());
+			return properties;
+		} catch (IOException e) {
+			throw new SQLException("Temporäres Verzeichnis kann nicht angelegt werden.", e);
+		}
+	}
+
+	private static void deleteDirectory(Path directory) {
+		File[] files = directory.toFile().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.toFile().delete();
+	}
+
+	private static void fill(EntryStore dbHelper, int rows) throws SQLException {
+		Random random = new Random(42);
+		List<Entry> chunk = new ArrayList<>(FILL_CHUNK);
+		for (int i = 0; i < rows; i++) {
+			chunk.add(randomEntry(random, i));
+			if (chunk.size() == FILL_CHUNK || i == rows - 1) {
+				if (dbHelper.insertEntries(chunk).size() != chunk.size()) {
+					throw new SQLException("Testdaten konnten nicht vollständig gespeichert werden.");
+				}
+				chunk.clear();
+			}
+		}
+		// Fehler protokolliert DatabaseHelper nur; leere Ergebnisse würden die Messung verfälschen
+		if (dbHelper.countEntries(null) != rows || dbHelper.fetchMonthlyTotals().isEmpty() && rows > 0) {
+			throw new SQLException("Testdatenbank ist unvollständig, siehe Fehlermeldungen oben.");
+		}
+	}
+
+	/**
+	 * Erzeugt einen zufälligen, noch nicht gespeicherten Eintrag.
+	 */
+	public static Entry randomEntry(Random random, int i) {
+		boolean income = random.nextInt(4) == 0;
+		long cents = 100 + random.nextInt(500000);
+		return new Entry(0, "Kategorie " + (i % TITLES), income ? cents : -cents,
+				income ? Entry.EINNAHME : Entry.AUSGABE, FIRST_DAY.plusDays(random.nextInt(DAYS)));
+	}
+
+	/** Nachbildung von MySQL GET_LOCK für H2 (es gibt nur einen Prozess). */
+	public static int getLock(String name, int timeoutSeconds) {
+		return 1;
+	}
+
+	/** Nachbildung von MySQL RELEASE_LOCK für H2. */
+	public static int releaseLock(String name) {
+		return 1;
+	}
+}
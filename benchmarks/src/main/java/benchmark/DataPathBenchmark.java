@@ -0,0 +1,95 @@
+package benchmark;
+
+import model.BalanceAggregates;
+import model.Entry;
+import model.EntrySnapshot;
+import model.EntryStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Datenpfad: Speichern einzelner Einträge und Lesen aller Einträge bzw. der
+ * Einträge eines Monats, jeweils bei 1'000, 100'000 und 1'000'000 Einträgen
+ * und für alle Speicher: DatabaseHelper auf H2 ("h2"), InMemoryEntryStore
+ * ("memory") und JournalEntryStore ("journal").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class DataPathBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int rows;
+
+	@Param({ "h2", "memory", "journal" })
+	public String engine;
+
+	private EntryStore dbHelper;
+	private Random random;
+	private int inserted;
+
+	@Setup(Level.Trial)
+	public void setUp() throws SQLException {
+		dbHelper = BenchmarkDatabase.create(engine, rows);
+		random = new Random(7);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dbHelper.close();
+	}
+
+	/** Ein Eintrag mit Kategorie, einzeln committet (wie beim Klick auf "Hinzufügen"). */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Entry insertEntry() {
+		Entry entry = BenchmarkDatabase.randomEntry(random, inserted++);
+		return dbHelper.insertEntry(entry.getTitle(), entry.getAmount(), entry.getType(), entry.getDate());
+	}
+
+	@Benchmark
+	public List<Entry> fetchAllEntries() {
+		return dbHelper.fetchAllEntries();
+	}
+
+	@Benchmark
+	public List<Entry> fetchEntriesByMonth() {
+		return dbHelper.fetchEntriesByMonth(BenchmarkDatabase.SAMPLE_MONTH);
+	}
+
+	/** Alle Einträge eines Jahres (Bereich über zwölf Monate). */
+	@Benchmark
+	public List<Entry> fetchEntriesByYear() {
+		return dbHelper.fetchEntriesByMonth(BenchmarkDatabase.SAMPLE_YEAR);
+	}
+
+	/** Lesen direkt in den spaltenweisen Snapshot, wie beim Aktualisieren der Anzeige. */
+	@Benchmark
+	public EntrySnapshot loadSnapshot() {
+		return EntrySnapshot.load(dbHelper, null);
+	}
+
+	/** Summen pro Monat und Typ beim Start (GROUP BY über den deckenden Index). */
+	@Benchmark
+	public BalanceAggregates buildAggregates() {
+		return BalanceAggregates.build(dbHelper);
+	}
+}
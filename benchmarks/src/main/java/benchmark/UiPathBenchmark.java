@@ -0,0 +1,159 @@
+package benchmark;
+
+import model.BalanceAggregates;
+import model.DatabaseHelper;
+import model.DateRange;
+import model.Entry;
+import model.EntrySnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import view.EntryListModel;
+import view.EntryTableModel;
+import view.PdfReportExporter;
+
+import javax.swing.table.DefaultTableModel;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Oberflächenpfad: Aufbau der Modelle beim Monatsfilter, Nachführen eines
+ * neuen bzw. gelöschten Eintrags, Bilanzanzeige und PDF-Export, jeweils bei 1'000, 100'000 und 1'000'000 Einträgen. Läuft ohne
+ * Bildschirm (die Modelle brauchen keine sichtbaren Komponenten).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx4g", "-Djava.awt.headless=true" })
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class UiPathBenchmark {
+	// So viele Zeilen zeichnet die Tabelle ungefähr auf einmal
+	private static final int VISIBLE_ROWS = 40;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int rows;
+
+	private DatabaseHelper dbHelper;
+	private EntrySnapshot snapshot;
+	private BalanceAggregates aggregates;
+	// Modelle wie in der Anzeige: die Listen hängen an der Tabelle
+	private EntryTableModel liveModel;
+	private Entry added;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		dbHelper = BenchmarkDatabase.create(rows);
+		snapshot = EntrySnapshot.load(dbHelper, null);
+		aggregates = BalanceAggregates.build(dbHelper);
+		EntrySnapshot live = EntrySnapshot.load(dbHelper, null);
+		liveModel = new EntryTableModel(live);
+		liveModel.addTableModelListener(new EntryListModel(live, true, ""));
+		liveModel.addTableModelListener(new EntryListModel(live, false, ""));
+		added = new Entry(Integer.MAX_VALUE, "Neu", 12345, Entry.EINNAHME,
+				BenchmarkDatabase.SAMPLE_MONTH.getStartDate());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		dbHelper.close();
+	}
+
+	/**
+	 * Modelle für Tabelle und Listen aus einem geladenen Snapshot, inklusive
+	 * der Werte der sichtbaren Zeilen (wie beim ersten Zeichnen).
+	 */
+	@Benchmark
+	public void applyMonthFilter(Blackhole blackhole) {
+		EntryTableModel tableModel = new EntryTableModel(snapshot);
+		blackhole.consume(new EntryListModel(snapshot, true, ""));
+		blackhole.consume(new EntryListModel(snapshot, false, ""));
+		int visible = Math.min(VISIBLE_ROWS, tableModel.getRowCount());
+		for (int row = 0; row < visible; row++) {
+			for (int column = 0; column < tableModel.getColumnCount(); column++) {
+				blackhole.consume(tableModel.getValueAt(row, column));
+			}
+		}
+	}
+
+	/**
+	 * Ein neuer Eintrag wird in Tabelle und Liste eingefügt und wieder
+	 * entfernt, wie nach Hinzufügen und Löschen; sollte unabhängig von der
+	 * Anzahl Einträge gleich viel kosten.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Entry addAndRemoveEntry() {
+		liveModel.addEntries(Collections.singletonList(added));
+		aggregates.add(added);
+		aggregates.remove(added);
+		return liveModel.removeEntry(added.getId());
+	}
+
+	/**
+	 * Zum Vergleich: das frühere DefaultTableModel mit einer Zeile aus
+	 * Objekten und vorformatiertem Betrag pro Eintrag.
+	 */
+	@Benchmark
+	public DefaultTableModel applyMonthFilterDefaultTableModel() {
+		DefaultTableModel tableModel = new DefaultTableModel(new String[] { "ID", "Titel", "Betrag (CHF)", "Typ", "Datum" },
+				0);
+		for (int row = 0; row < snapshot.size(); row++) {
+			tableModel.addRow(new Object[] { snapshot.getId(row), snapshot.getTitle(row),
+					Entry.formatAmount(snapshot.getAmountCents(row), snapshot.isIncome(row)),
+					snapshot.getType(row), Entry.formatDate(snapshot.getDate(row)) });
+		}
+		return tableModel;
+	}
+
+	/** Bilanz aus den nachgeführten Summen (für einen Monat und für alle). */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public long updateBalance() {
+		DateRange month = BenchmarkDatabase.SAMPLE_MONTH;
+		return aggregates.getIncome(month) - aggregates.getExpense(month) + aggregates.getIncome(null)
+				- aggregates.getExpense(null);
+	}
+
+	/** Zum Vergleich: Bilanz durch Summieren über alle Einträge des Snapshots. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long updateBalanceByScan() {
+		long balance = 0;
+		for (int row = 0; row < snapshot.size(); row++) {
+			balance += snapshot.getAmountCents(row);
+		}
+		return balance;
+	}
+
+	/** PDF-Bericht über alle Einträge, gestreamt aus der Datenbank. */
+	@Benchmark
+	public int pdfExport() throws Exception {
+		return new PdfReportExporter(dbHelper).export(null, new DiscardingOutputStream(), null);
+	}
+
+	/**
+	 * Verwirft alles Geschriebene, damit nur die Erzeugung gemessen wird.
+	 */
+	private static final class DiscardingOutputStream extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import model.DatabaseHelper;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Prüft die Ausführungspläne von {@link DatabaseHelper#explainHotQueries()}
+ * (Aufruf "--explain") auf der H2-Datenbank der Benchmarks: Jede häufige
+ * Abfrage muss die Tabelle "Einträge" über einen Index lesen, nie über einen
+ * Table Scan.
+ *
+ * H2 schreibt den gewählten Zugriff als Kommentar hinter die Tabelle: den
+ * Namen des Index (z. B. PUBLIC.IDX_EINTRAG_DATUM_TYP_BETRAG), ohne
+ * passenden Index den Namen der Tabelle mit dem Zusatz "tableScan". Welcher
+ * Index gewählt wird, ist Sache des Optimierers und wird nicht geprüft.
+ */
+public class ExplainHotQueriesTest {
+	// Zugriff auf "Einträge" (mit oder ohne Alias e) und der Kommentar dahinter
+	private static final Pattern ENTRIES_ACCESS = Pattern
+			.compile("U&\"EINTR\\\\00c4GE\"(?:\\s+\"E\")?\\s+/\\*\\s*([^*]+?)\\s*\\*/");
+	// Abfragen, die explainHotQueries() mindestens liefern muss
+	private static final String[] EXPECTED = { "Alle Einträge", "Einträge eines Monats", "Einträge eines Jahres",
+			"Anzahl Einträge eines Monats", "Seite (Keyset)", "Seite eines Monats (Keyset)",
+			"Seitengrenze eines Monats", "Seitengrenze vom Ende", "Seite der Suchtreffer", "Summen pro Monat und Typ",
+			"Summen pro Kategorie" };
+
+	private static Map<String, List<String>> plans;
+
+	@BeforeClass
+	public static void explain() throws Exception {
+		DatabaseHelper dbHelper = BenchmarkDatabase.create(5000);
+		plans = dbHelper.explainHotQueries();
+	}
+
+	@Test
+	public void allHotQueriesAreExplained() {
+		for (String query : EXPECTED) {
+			assertTrue("Kein Plan für \"" + query + "\"", plans.containsKey(query));
+		}
+		assertEquals("Neue Abfrage in explainHotQueries(), bitte hier aufnehmen", EXPECTED.length, plans.size());
+	}
+
+	@Test
+	public void everyHotQueryReadsEntriesThroughAnIndex() {
+		for (Map.Entry<String, List<String>> plan : plans.entrySet()) {
+			String text = String.join("\n", plan.getValue());
+			Matcher access = ENTRIES_ACCESS.matcher(text);
+			assertTrue("\"" + plan.getKey() + "\" liest Einträge nicht:\n" + text, access.find());
+			do {
+				String index = access.group(1);
+				assertFalse("\"" + plan.getKey() + "\" liest Einträge ohne Index:\n" + text,
+						index.contains("tableScan"));
+				assertTrue("\"" + plan.getKey() + "\" nennt keinen Index:\n" + text, index.startsWith("PUBLIC."));
+			} while (access.find());
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Wiederherstellung des {@link JournalEntryStore} nach einem Absturz, nach
+ * einem abgebrochenen Schreibvorgang und über Snapshots hinweg.
+ *
+ * Ein Absturz wird nachgebildet, indem der Speicher nicht geschlossen und
+ * ein zweiter auf demselben Verzeichnis geöffnet wird: Ohne close() gibt es
+ * keinen Snapshot, alles steht nur im Journal.
+ */
+public class JournalEntryStoreTest {
+	// Kopf des Journals (Magic, Generation, reserviert), siehe JournalEntryStore
+	private static final int HEADER_BYTES = 16;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = folder.newFolder("journal");
+	}
+
+	@Test
+	public void replaysJournalAfterUncleanClose() {
+		JournalEntryStore store = open();
+		List<Entry> saved = store.insertEntries(Arrays.asList(entry("Lohn", 500000, 25), entry("Miete", -150000, 1),
+				entry("Coop", -8550, 3)));
+		store.deleteEntryById(saved.get(1).getId());
+		store.saveRecurringEntry(
+				new RecurringEntry(0, "Abo", -1500, Entry.AUSGABE, LocalDate.of(2025, 1, 5), null, 1));
+
+		JournalEntryStore reopened = open();
+		assertEntries(Arrays.asList(saved.get(0), saved.get(2)), reopened);
+		assertEquals(1, reopened.fetchRecurringEntries().size());
+		assertEquals("Abo", reopened.fetchRecurringEntries().get(0).getTitle());
+		// Neue IDs setzen nach den nachgespielten an
+		Entry next = reopened.insertEntry("Kino", -2000, Entry.AUSGABE, LocalDate.of(2025, 3, 1));
+		assertTrue(next.getId() > saved.get(2).getId());
+	}
+
+	@Test
+	public void discardsTornLastRecord() throws IOException {
+		JournalEntryStore store = open();
+		Entry first = store.insertEntry("Lohn", 5000, Entry.EINNAHME, LocalDate.of(2025, 2, 25));
+		Entry second = store.insertEntry("Miete", -1500, Entry.AUSGABE, LocalDate.of(2025, 2, 1));
+		store.insertEntry("Coop", -85.5, Entry.AUSGABE, LocalDate.of(2025, 2, 3));
+
+		// Der letzte Datensatz wurde nur zur Hälfte geschrieben
+		File journal = journalFile();
+		List<Integer> starts = recordStarts(journal);
+		int last = starts.get(starts.size() - 1);
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+			int length = readInt(journal, last);
+			channel.write(ByteBuffer.allocate(length / 2), last + 8 + length - length / 2);
+		}
+
+		JournalEntryStore reopened = open();
+		assertEntries(Arrays.asList(first, second), reopened);
+		assertEquals("Rest ab dem defekten Datensatz ist verworfen", 0, readInt(journal, last));
+
+		// Danach wird an der Stelle des verworfenen Datensatzes weitergeschrieben
+		Entry after = reopened.insertEntry("Kino", -20, Entry.AUSGABE, LocalDate.of(2025, 2, 4));
+		assertEntries(Arrays.asList(first, second, after), open());
+	}
+
+	@Test
+	public void reopensFromSnapshotAfterCompaction() throws IOException {
+		JournalEntryStore store = open();
+		List<Entry> saved = store.insertEntries(Arrays.asList(entry("Lohn", 500000, 25), entry("Miete", -150000, 1)));
+		store.saveRecurringEntry(new RecurringEntry(0, "Abo", -1500, Entry.AUSGABE, LocalDate.of(2025, 1, 5),
+				LocalDate.of(2025, 12, 31), 1));
+		store.close();
+
+		File snapshot = new File(directory, "snapshot.dat");
+		assertTrue(snapshot.exists());
+		assertEquals("LPS2", new String(Files.readAllBytes(snapshot.toPath()), 0, 4, "US-ASCII"));
+		assertTrue("Journal der neuen Generation ist leer", recordStarts(journalFile()).isEmpty());
+
+		JournalEntryStore reopened = open();
+		assertEntries(saved, reopened);
+		RecurringEntry item = reopened.fetchRecurringEntries().get(0);
+		assertEquals(LocalDate.of(2025, 12, 31), item.getEnd());
+		Entry next = reopened.insertEntry("Kino", -20, Entry.AUSGABE, LocalDate.of(2025, 3, 1));
+		assertTrue(next.getId() > saved.get(1).getId());
+		reopened.close();
+
+		List<Entry> expected = new ArrayList<>(saved);
+		expected.add(next);
+		assertEntries(expected, open());
+	}
+
+	@Test
+	public void replaysDeleteAfterSnapshot() {
+		JournalEntryStore store = open();
+		List<Entry> saved = store.insertEntries(Arrays.asList(entry("Lohn", 500000, 25), entry("Miete", -150000, 1),
+				entry("Coop", -8550, 3)));
+		store.close();
+
+		// Gelöscht wird ein Eintrag aus dem Snapshot, danach Absturz
+		JournalEntryStore reopened = open();
+		assertTrue(reopened.deleteEntryById(saved.get(0).getId()));
+
+		List<Entry> expected = Arrays.asList(saved.get(1), saved.get(2));
+		JournalEntryStore afterCrash = open();
+		assertEntries(expected, afterCrash);
+		assertEquals(-158550, afterCrash.recomputeMonthlyTotals().stream().mapToLong(MonthlyTotal::getSumCents)
+				.sum());
+		afterCrash.close();
+		assertEntries(expected, open());
+	}
+
+	@Test
+	public void refusesIntactRecordWithUnknownOperation() throws IOException {
+		JournalEntryStore store = open();
+		store.insertEntry("Lohn", 5000, Entry.EINNAHME, LocalDate.of(2025, 2, 25));
+
+		// Unversehrter Datensatz einer neueren Version
+		File journal = journalFile();
+		List<Integer> starts = recordStarts(journal);
+		int end = starts.get(starts.size() - 1);
+		end += 8 + readInt(journal, end);
+		byte[] data = { 99, 1, 2, 3 };
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ByteBuffer record = ByteBuffer.allocate(8 + data.length);
+		record.putInt(data.length).putInt((int) crc.getValue()).put(data).flip();
+		try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.WRITE)) {
+			channel.write(record, end);
+		}
+		byte[] before = Files.readAllBytes(journal.toPath());
+
+		try {
+			open();
+			fail("Unbekannte Operation muss das Öffnen abbrechen");
+		} catch (UncheckedIOException e) {
+			assertNotNull(e.getMessage());
+		}
+		assertArrayEquals("Journal bleibt unverändert", before, Files.readAllBytes(journal.toPath()));
+	}
+
+	/** Vergleicht über toString(), Entry hat kein equals(). */
+	private static void assertEntries(List<Entry> expected, EntryStore store) {
+		List<String> actual = new ArrayList<>();
+		for (Entry entry : store.fetchEntriesByMonth(null)) {
+			actual.add(entry.toString());
+		}
+		List<String> wanted = new ArrayList<>();
+		for (Entry entry : expected) {
+			wanted.add(entry.toString());
+		}
+		assertEquals(wanted, actual);
+	}
+
+	private JournalEntryStore open() {
+		Properties properties = new Properties();
+		properties.setProperty("journal.dir", directory.getPath());
+		return new JournalEntryStore(new DatabaseConfig(properties));
+	}
+
+	private static Entry entry(String title, long cents, int day) {
+		return new Entry(0, title, cents, cents >= 0 ? Entry.EINNAHME : Entry.AUSGABE, LocalDate.of(2025, 2, day));
+	}
+
+	/** Das einzige Journal im Verzeichnis (der aktuellen Generation). */
+	private File journalFile() {
+		File[] journals = directory.listFiles((dir, name) -> name.startsWith("journal-"));
+		assertNotNull(journals);
+		assertEquals(1, journals.length);
+		return journals[0];
+	}
+
+	/** Anfangspositionen der Datensätze [Länge][CRC32][Daten] bis zur ersten Länge 0. */
+	private static List<Integer> recordStarts(File journal) throws IOException {
+		List<Integer> starts = new ArrayList<>();
+		int position = HEADER_BYTES;
+		int length;
+		while ((length = readInt(journal, position)) > 0) {
+			starts.add(position);
+			position += 8 + length;
+		}
+		return starts;
+	}
+
+	private static int readInt(File file, int position) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(4);
+			channel.read(buffer, position);
+			buffer.flip();
+			return buffer.remaining() == 4 ? buffer.getInt() : 0;
+		}
+	}
+}
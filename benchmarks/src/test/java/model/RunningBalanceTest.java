@@ -0,0 +1,188 @@
+package model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+/**
+ * Vergleicht {@link RunningBalance} mit einer naiven Präfixsumme über
+ * (Buchungsdatum, ID) nach zufälligen Einfügungen und Löschungen.
+ *
+ * Die Abläufe decken die Wege im Baum ab: Anhängen am Ende, rückdatierte
+ * Einträge (Neuaufbau), viele Löschungen (Verdichten der leeren Plätze) und
+ * das Wiederaufnehmen eines gelöschten Eintrags auf seinem alten Platz.
+ */
+public class RunningBalanceTest {
+	private static final int START_DAY = (int) LocalDate.of(2025, 1, 1).toEpochDay();
+
+	@Test
+	public void buildsFromUnsortedSnapshot() {
+		List<Entry> entries = Arrays.asList(entry(1, 500000, 25), entry(2, -150000, 1), entry(3, -8550, 1),
+				entry(4, -2000, 10));
+		RunningBalance balance = new RunningBalance(EntrySnapshot.of(null, entries));
+
+		Naive expected = new Naive();
+		for (Entry entry : entries) {
+			expected.put((int) entry.getDate().toEpochDay(), entry.getId(), entry.getAmountCents());
+		}
+		expected.check(balance);
+		// Am 1. Februar zuerst ID 2, dann ID 3; der Lohn am 25. kommt zuletzt
+		assertEquals(-158550, balance.getBalance(day(1), 3));
+		assertEquals(339450, balance.getBalance(day(25), 1));
+	}
+
+	@Test
+	public void matchesNaivePrefixSumWhenAppending() {
+		run(new Random(1), 2000, 0.0, 0.1);
+	}
+
+	@Test
+	public void matchesNaivePrefixSumWithBackdatedEntries() {
+		run(new Random(2), 2000, 0.3, 0.2);
+	}
+
+	@Test
+	public void matchesNaivePrefixSumWithManyDeletes() {
+		// Mehr Löschungen als Einfügungen: Der Baum muss wiederholt verdichten
+		run(new Random(3), 3000, 0.1, 0.6);
+	}
+
+	@Test
+	public void reinsertsRemovedEntryOnItsOldSlot() {
+		RunningBalance balance = new RunningBalance(EntrySnapshot.of(null, new ArrayList<>()));
+		Naive expected = new Naive();
+		for (int id = 1; id <= 10; id++) {
+			balance.insert(START_DAY + id, id, id * 100);
+			expected.put(START_DAY + id, id, id * 100);
+		}
+		balance.remove(START_DAY + 4, 4);
+		expected.remove(START_DAY + 4, 4);
+		expected.check(balance);
+
+		assertTrue("Spätere Salden ändern sich", balance.insert(START_DAY + 4, 4, 4000));
+		expected.put(START_DAY + 4, 4, 4000);
+		expected.check(balance);
+
+		// Unbekannte Einträge: Entfernen ändert nichts, ein Duplikat wird ignoriert
+		balance.remove(START_DAY + 4, 99);
+		balance.remove(START_DAY, 4);
+		balance.insert(START_DAY + 5, 5, 123456);
+		expected.check(balance);
+	}
+
+	/**
+	 * Führt zufällige Operationen aus und vergleicht nach jeder einzelnen.
+	 *
+	 * @param random       die Zufallsquelle (fester Seed).
+	 * @param operations   Anzahl Operationen.
+	 * @param backdated    Anteil der Einfügungen mit einem früheren Datum.
+	 * @param deleteChance Anteil der Löschungen.
+	 */
+	private static void run(Random random, int operations, double backdated, double deleteChance) {
+		RunningBalance balance = new RunningBalance(EntrySnapshot.of(null, new ArrayList<>()));
+		Naive expected = new Naive();
+		List<long[]> removed = new ArrayList<>();
+		int lastDay = START_DAY;
+		int nextId = 1;
+		for (int i = 0; i < operations; i++) {
+			double choice = random.nextDouble();
+			if (choice < deleteChance && !expected.amounts.isEmpty()) {
+				long key = expected.randomKey(random);
+				int day = (int) (key >> 32);
+				int id = (int) key;
+				balance.remove(day, id);
+				removed.add(new long[] { key, expected.remove(day, id) });
+			} else if (choice < deleteChance + 0.05 && !removed.isEmpty()) {
+				// Gelöschten Eintrag mit demselben Schlüssel wieder aufnehmen
+				long[] old = removed.remove(random.nextInt(removed.size()));
+				insert(balance, expected, (int) (old[0] >> 32), (int) old[0], old[1]);
+			} else {
+				int day;
+				if (random.nextDouble() < backdated) {
+					day = START_DAY + random.nextInt(lastDay - START_DAY + 1);
+				} else {
+					day = lastDay + random.nextInt(3);
+					lastDay = day;
+				}
+				insert(balance, expected, day, nextId++, random.nextInt(200001) - 100000);
+			}
+			expected.check(balance);
+		}
+	}
+
+	private static void insert(RunningBalance balance, Naive expected, int day, int id, long amount) {
+		boolean later = expected.hasLater(day, id);
+		boolean affected = balance.insert(day, id, amount);
+		expected.put(day, id, amount);
+		if (later) {
+			assertTrue("Einfügen vor bestehenden Einträgen muss gemeldet werden", affected);
+		}
+	}
+
+	/** Naive Präfixsumme über eine sortierte Map (Datum, ID) auf Betrag. */
+	private static final class Naive {
+		private final TreeMap<Long, Long> amounts = new TreeMap<>();
+		private final List<Long> keys = new ArrayList<>();
+
+		void put(int day, int id, long amount) {
+			long key = key(day, id);
+			if (amounts.put(key, amount) == null) {
+				keys.add(key);
+			}
+		}
+
+		long remove(int day, int id) {
+			long key = key(day, id);
+			keys.remove(Long.valueOf(key));
+			return amounts.remove(key);
+		}
+
+		boolean hasLater(int day, int id) {
+			return amounts.higherKey(key(day, id)) != null;
+		}
+
+		long randomKey(Random random) {
+			return keys.get(random.nextInt(keys.size()));
+		}
+
+		void check(RunningBalance balance) {
+			assertEquals(amounts.size(), balance.size());
+			long sum = 0;
+			for (Map.Entry<Long, Long> entry : amounts.entrySet()) {
+				sum += entry.getValue();
+				long key = entry.getKey();
+				assertEquals("Saldo von " + key, sum, balance.getBalance((int) (key >> 32), (int) key));
+			}
+			assertEquals(sum, balance.getTotal());
+			if (!amounts.isEmpty()) {
+				// Nicht enthaltene Schlüssel: Summe aller Einträge davor
+				long first = amounts.firstKey();
+				assertEquals(0, balance.getBalance((int) (first >> 32) - 1, 0));
+				long last = amounts.lastKey();
+				assertEquals(sum, balance.getBalance((int) (last >> 32), Integer.MAX_VALUE));
+			}
+		}
+
+		private static long key(int day, int id) {
+			return (long) day << 32 | (id & 0xFFFFFFFFL);
+		}
+	}
+
+	private static Entry entry(int id, long cents, int day) {
+		return new Entry(id, "Eintrag " + id, cents, cents >= 0 ? Entry.EINNAHME : Entry.AUSGABE,
+				LocalDate.of(2025, 2, day));
+	}
+
+	private static int day(int dayOfMonth) {
+		return (int) LocalDate.of(2025, 2, dayOfMonth).toEpochDay();
+	}
+}
@@ -1,17 +1,42 @@
 package app;
 
+import controller.BatchReportRunner;
 import controller.MainController;
+import model.DatabaseConfig;
+import model.DatabaseHelper;
+import model.EntryStore;
 import view.MainView;
 
+import java.io.File;
+import java.time.Year;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Startet die Liquid-Planner Anwendung.
  * Diese Klasse erstellt ein Exemplar der MainView und instanziiert
  * anschliessend den MainController, welcher die Interaktionen zwischen der View
- * und der Datenbank (über DatabaseHelper) steuert. Zum Schluss wird die GUI
+ * und der Datenbank (über einen EntryStore) steuert. Zum Schluss wird die GUI
  * sichtbar gemacht.
+ *
+ * Mit dem Argument "--explain" wird statt der GUI der Ausführungsplan der
+ * wichtigsten Abfragen ausgegeben (nach dem Ausführen der Schema-Migrationen).
+ *
+ * Mit "--report Verzeichnis" (optional "--year jjjj" und "--threads n") werden
+ * ohne Bildschirm die PDF-Berichte für alle Monate und das ganze Jahr
+ * erstellt (ohne "--year" für das laufende Jahr), z. B. als geplanter Auftrag
+ * auf einem Server. Der Exit-Code ist 0, wenn alle Berichte
+ * erstellt wurden.
  */
 public class Main {
 	public static void main(String[] args) {
+		if (args.length > 0 && "--explain".equals(args[0])) {
+			explain();
+			return;
+		}
+		if (args.length > 0 && "--report".equals(args[0])) {
+			System.exit(report(args));
+		}
 		// Erstelle die Benutzeroberfläche (View)
 		MainView view = new MainView();
 		// Erstelle den Controller, der die Interaktion zwischen View und Model
@@ -20,4 +45,62 @@ public class Main {
 		// Zeige die GUI an
 		view.setVisible(true);
 	}
+
+	/**
+	 * Erstellt die Berichte im Stapelbetrieb.
+	 *
+	 * @return der Exit-Code.
+	 */
+	private static int report(String[] args) {
+		String usage = "Aufruf: java app.Main --report <Verzeichnis> [--year <jjjj>] [--threads <n>]";
+		if (args.length < 2) {
+			System.err.println(usage);
+			return 2;
+		}
+		int year = Year.now().getValue();
+		int threads = 0;
+		for (int i = 2; i < args.length; i += 2) {
+			if (i + 1 >= args.length || !"--year".equals(args[i]) && !"--threads".equals(args[i])) {
+				System.err.println(usage);
+				return 2;
+			}
+			try {
+				if ("--year".equals(args[i])) {
+					year = Integer.parseInt(args[i + 1]);
+				} else {
+					threads = Integer.parseInt(args[i + 1]);
+				}
+			} catch (NumberFormatException e) {
+				System.err.println("Ungültige Zahl für " + args[i] + ": " + args[i + 1]);
+				return 2;
+			}
+		}
+		// Ohne Bildschirm lauffähig, auch wenn kein Display vorhanden ist
+		System.setProperty("java.awt.headless", "true");
+		try (EntryStore dbHelper = EntryStore.open(DatabaseConfig.load())) {
+			return new BatchReportRunner(dbHelper, new File(args[1]), year, threads).run() == 0 ? 0 : 1;
+		} catch (Exception e) {
+			System.err.println("Fehler beim Erstellen der Berichte: " + e.getMessage());
+			e.printStackTrace();
+			return 1;
+		}
+	}
+
+	/**
+	 * Gibt für jede häufige Abfrage die Zeilen von EXPLAIN aus.
+	 */
+	private static void explain() {
+		try (DatabaseHelper dbHelper = new DatabaseHelper()) {
+			for (Map.Entry<String, List<String>> plan : dbHelper.explainHotQueries().entrySet()) {
+				System.out.println(plan.getKey() + ":");
+				for (String row : plan.getValue()) {
+					System.out.println("  " + row);
+				}
+			}
+		} catch (Exception e) {
+			System.err.println("Fehler beim Ermitteln der Ausführungspläne: " + e.getMessage());
+			e.printStackTrace();
+			System.exit(1);
+		}
+	}
 }
@@ -0,0 +1,99 @@
+package controller;
+
+import model.DatabaseConfig;
+import model.Span;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Verfolgt Benutzeraktionen und hält langsame fest.
+ *
+ * Jede Aktion des Controllers (Hinzufügen, Löschen, Filter, PDF-Export,
+ * Drucken) ist ein {@link Span}; seine SQL-Anweisungen und Schritte hängen als
+ * Kinder daran. Dauert eine Aktion länger als trace.slowMillis, wird ihr
+ * ganzer Baum in ein rotierendes Protokoll geschrieben (trace.logFile, höchstens
+ * trace.logFiles Dateien zu je trace.logMaxBytes). Meldet ein Benutzer, die
+ * Anwendung sei "hängen geblieben", steht dort, welcher Schritt bzw. welche
+ * Anweisung die Zeit gebraucht hat.
+ */
+public class ActionTracer implements AutoCloseable {
+	private final long thresholdNanos;
+	private final String logFile;
+	// null, wenn das Protokoll nicht geöffnet werden konnte oder abgeschaltet ist
+	private final FileHandler log;
+
+	/**
+	 * @param config die Konfiguration (trace.*).
+	 */
+	public ActionTracer(DatabaseConfig config) {
+		long thresholdMillis = config.getLong("trace.slowMillis", 1000);
+		this.thresholdNanos = thresholdMillis * 1_000_000;
+		this.logFile = config.getString("trace.logFile", "liquiplanner-langsam.%g.log");
+		this.log = thresholdMillis < 0 ? null
+				: openLog(logFile, config.getInt("trace.logMaxBytes", 1024 * 1024),
+						config.getInt("trace.logFiles", 5));
+	}
+
+	private static FileHandler openLog(String pattern, int maxBytes, int files) {
+		try {
+			FileHandler handler = new FileHandler(pattern, Math.max(0, maxBytes), Math.max(1, files), true);
+			handler.setEncoding(StandardCharsets.UTF_8.name());
+			handler.setFormatter(new Formatter() {
+				@Override
+				public String format(LogRecord record) {
+					return record.getMessage() + System.lineSeparator();
+				}
+			});
+			return handler;
+		} catch (IOException | RuntimeException e) {
+			System.err.println("Protokoll für langsame Aktionen kann nicht geöffnet werden: " + e.getMessage());
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Beginnt eine Aktion. Damit ihre Datenbankzugriffe dazugehören, muss der
+	 * Abschnitt beim Einreichen der Hintergrundarbeit aktiv sein
+	 * ({@link Span#activate()}).
+	 *
+	 * @param action Name der Aktion.
+	 * @param detail Zusatzangabe (z. B. Titel oder Zeitraum) oder null.
+	 * @return der Abschnitt der Aktion.
+	 */
+	public Span start(String action, String detail) {
+		return Span.start(action, detail);
+	}
+
+	/**
+	 * Beendet eine Aktion (falls noch nicht geschehen) und schreibt sie ins
+	 * Protokoll, wenn sie länger als trace.slowMillis gedauert hat.
+	 *
+	 * @param span der Abschnitt der Aktion.
+	 */
+	public void finish(Span span) {
+		span.end();
+		if (log == null || span.getDurationNanos() < thresholdNanos) {
+			return;
+		}
+		System.out.println(String.format("Langsame Aktion: %s (%.0f ms), siehe %s", span.getName(),
+				span.getDurationNanos() / 1_000_000.0, logFile.replace("%g", "0")));
+		log.publish(new LogRecord(Level.WARNING, span.format()));
+		log.flush();
+	}
+
+	/**
+	 * Schliesst das Protokoll.
+	 */
+	@Override
+	public void close() {
+		if (log != null) {
+			log.close();
+		}
+	}
+}
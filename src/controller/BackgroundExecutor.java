@@ -0,0 +1,156 @@
+package controller;
+
+import model.Span;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Führt Datenbankarbeit ausserhalb des Event Dispatch Threads (EDT) aus und
+ * liefert die Ergebnisse wieder im EDT ab.
+ *
+ * Ab Java 21 werden virtuelle Threads verwendet, sonst ein kleiner Pool von
+ * Daemon-Threads. Über den Busy-Listener erfährt die Oberfläche, ob gerade
+ * Aufgaben laufen, und kann einen Hinweis anzeigen statt einzufrieren.
+ *
+ * Ein beim Einreichen aktiver {@link Span} bleibt für die Arbeit und die
+ * Rückrufe im EDT aktiv, so dass deren SQL-Anweisungen zur auslösenden
+ * Aktion gehören.
+ */
+public class BackgroundExecutor implements Executor {
+	private static final int FALLBACK_THREADS = 4;
+
+	private final ExecutorService executor;
+	private final AtomicInteger running = new AtomicInteger();
+	private final Consumer<Boolean> busyListener;
+
+	/**
+	 * @param busyListener wird im EDT mit true aufgerufen, sobald eine Aufgabe
+	 *                     läuft, und mit false, wenn keine mehr läuft.
+	 */
+	public BackgroundExecutor(Consumer<Boolean> busyListener) {
+		this.busyListener = busyListener;
+		this.executor = createExecutor();
+	}
+
+	/**
+	 * Erstellt einen Executor mit virtuellen Threads, falls die Laufzeitumgebung
+	 * sie anbietet (Aufruf per Reflection, damit der Code auch mit Java 8
+	 * kompiliert).
+	 */
+	private static ExecutorService createExecutor() {
+		try {
+			Object executor = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			System.out.println("Datenbankzugriffe laufen auf virtuellen Threads.");
+			return (ExecutorService) executor;
+		} catch (ReflectiveOperationException e) {
+			AtomicInteger counter = new AtomicInteger();
+			return Executors.newFixedThreadPool(FALLBACK_THREADS, r -> {
+				Thread t = new Thread(r, "LiquiPlanner-DB-" + counter.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	/**
+	 * Führt eine Aufgabe im Hintergrund aus.
+	 *
+	 * @param work      die Arbeit (läuft ausserhalb des EDT).
+	 * @param onSuccess erhält das Ergebnis im EDT.
+	 * @param onError   erhält eine aufgetretene Ausnahme im EDT.
+	 * @return das Future, über das die Aufgabe abgebrochen werden kann.
+	 */
+	public <T> Future<?> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+		return submit(Span.current(), work, onSuccess, onError);
+	}
+
+	/**
+	 * Führt eine Aufgabe als Teil einer verfolgten Aktion im Hintergrund aus:
+	 * Der Abschnitt ist während der Arbeit und der Rückrufe aktiv.
+	 *
+	 * @param span      der Abschnitt der Aktion oder null.
+	 * @param work      die Arbeit (läuft ausserhalb des EDT).
+	 * @param onSuccess erhält das Ergebnis im EDT.
+	 * @param onError   erhält eine aufgetretene Ausnahme im EDT.
+	 * @return das Future, über das die Aufgabe abgebrochen werden kann.
+	 */
+	public <T> Future<?> submit(Span span, Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onError) {
+		if (running.getAndIncrement() == 0) {
+			SwingUtilities.invokeLater(() -> busyListener.accept(true));
+		}
+		FutureTask<Void> task = new FutureTask<Void>(() -> inSpan(span, () -> {
+			try {
+				T result = work.call();
+				if (!Thread.currentThread().isInterrupted()) {
+					SwingUtilities.invokeLater(() -> inSpan(span, () -> onSuccess.accept(result)));
+				}
+			} catch (Throwable t) {
+				if (!Thread.currentThread().isInterrupted()) {
+					SwingUtilities.invokeLater(() -> inSpan(span, () -> onError.accept(t)));
+				}
+			}
+		}), null) {
+			// Wird genau einmal aufgerufen: nach Abschluss oder beim Abbrechen,
+			// auch wenn die Aufgabe noch gar nicht gestartet wurde.
+			@Override
+			protected void done() {
+				if (running.decrementAndGet() == 0) {
+					SwingUtilities.invokeLater(() -> {
+						// Zwischenzeitlich könnte eine neue Aufgabe gestartet worden sein
+						if (running.get() == 0) {
+							busyListener.accept(false);
+						}
+					});
+				}
+			}
+		};
+		executor.execute(task);
+		return task;
+	}
+
+	/**
+	 * Führt die Arbeit mit dem Abschnitt als aktivem aus (falls es einen gibt).
+	 */
+	private static void inSpan(Span span, Runnable work) {
+		if (span == null) {
+			work.run();
+			return;
+		}
+		Span.Scope scope = span.activate();
+		try {
+			work.run();
+		} finally {
+			scope.close();
+		}
+	}
+
+	/**
+	 * Führt eine Arbeit ohne Ergebnis im Hintergrund aus (z. B. das Nachladen
+	 * von Tabellenseiten). Fehler werden nur protokolliert.
+	 *
+	 * @param work die Arbeit.
+	 */
+	@Override
+	public void execute(Runnable work) {
+		submit(Executors.callable(work), ignored -> {
+		}, error -> {
+			System.err.println("Fehler im Hintergrund: " + error.getMessage());
+			error.printStackTrace();
+		});
+	}
+
+	/**
+	 * Beendet den Executor; laufende Aufgaben werden unterbrochen.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,106 @@
+package controller;
+
+import model.DateRange;
+import model.EntryStore;
+import view.PdfReportExporter;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Erstellt ohne Oberfläche die PDF-Berichte für die zwölf Monate eines Jahres
+ * und den Jahresbericht in einem Verzeichnis, z. B. "LiquiPlanner_2025.pdf"
+ * und "LiquiPlanner_Februar_2025.pdf". Jeder Bericht liest nur die Einträge
+ * seines Zeitraums (bei partitionierter Tabelle nur die Partition des Jahres).
+ *
+ * Die Berichte werden parallel auf einem begrenzten Pool von Threads erzeugt.
+ * Alle Threads teilen sich einen EntryStore und damit einen
+ * Verbindungspool; mehr Threads als Verbindungen würden nur warten, daher wird
+ * die Anzahl Threads auf pool.maxSize begrenzt.
+ */
+public class BatchReportRunner {
+	private final EntryStore dbHelper;
+	private final File directory;
+	private final int year;
+	private final int threads;
+
+	/**
+	 * @param dbHelper  der gemeinsam genutzte Datenbankzugriff.
+	 * @param directory Zielverzeichnis (wird bei Bedarf angelegt).
+	 * @param year      das Jahr der Berichte.
+	 * @param threads   gewünschte Anzahl Threads (0 = Anzahl Prozessoren).
+	 */
+	public BatchReportRunner(EntryStore dbHelper, File directory, int year, int threads) {
+		this.dbHelper = dbHelper;
+		this.directory = directory;
+		this.year = year;
+		int wanted = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		this.threads = Math.max(1, Math.min(wanted, dbHelper.getConfig().getPoolMaxSize()));
+	}
+
+	/**
+	 * Erstellt alle Berichte und wartet, bis sie fertig sind.
+	 *
+	 * @return Anzahl fehlgeschlagener Berichte (0 = alles in Ordnung).
+	 * @throws IOException          wenn das Zielverzeichnis nicht angelegt werden kann.
+	 * @throws InterruptedException wenn das Warten unterbrochen wird.
+	 */
+	public int run() throws IOException, InterruptedException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Verzeichnis kann nicht angelegt werden: " + directory);
+		}
+		List<DateRange> reports = new ArrayList<>();
+		reports.add(DateRange.ofYear(year)); // Jahresbericht zuerst, er ist der grösste
+		for (int month = 1; month <= 12; month++) {
+			reports.add(DateRange.ofMonth(YearMonth.of(year, month)));
+		}
+
+		long start = System.nanoTime();
+		AtomicInteger counter = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "LiquiPlanner-Bericht-" + counter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		List<Future<Integer>> futures = new ArrayList<>();
+		try {
+			for (DateRange range : reports) {
+				futures.add(pool.submit(() -> render(range)));
+			}
+			int failed = 0;
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch (ExecutionException e) {
+					failed++;
+					System.err.println("Fehler beim Bericht " + reports.get(i).getLabel() + ": "
+							+ e.getCause().getMessage());
+					e.getCause().printStackTrace();
+				}
+			}
+			System.out.println(String.format("%d Berichte in %.1f s mit %d Threads erstellt (%d Fehler).",
+					reports.size() - failed, (System.nanoTime() - start) / 1_000_000_000.0, threads, failed));
+			return failed;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private int render(DateRange range) throws Exception {
+		String name = range.getLabel();
+		File target = new File(directory, "LiquiPlanner_" + name.replace(' ', '_') + ".pdf");
+		long start = System.nanoTime();
+		int rows = new PdfReportExporter(dbHelper).exportToFile(range, target, null);
+		System.out.println(String.format("%s: %d Einträge, %.1f s -> %s", name, rows,
+				(System.nanoTime() - start) / 1_000_000_000.0, target.getPath()));
+		return rows;
+	}
+}
@@ -0,0 +1,202 @@
+package controller;
+
+import model.CsvEntryReader;
+import model.Entry;
+import model.EntryStore;
+import model.Metrics;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Importiert eine CSV-Datei im Hintergrund.
+ *
+ * Die Datei wird zeilenweise gelesen und in Blöcken über
+ * EntryStore.insertEntries() gespeichert, so dass auch Dateien mit
+ * zehntausenden Zeilen mit wenig Speicher und wenigen Commits auskommen. Der
+ * Fortschritt wird anhand der gelesenen Bytes in einem ProgressMonitor
+ * angezeigt; der Import kann dort abgebrochen werden (bereits gespeicherte
+ * Blöcke bleiben erhalten).
+ *
+ * Jeder gespeicherte Block wird vom Speicher als Änderung gemeldet; Bilanz
+ * und Tabelle werden dadurch schon während des Imports nachgeführt.
+ */
+public class CsvImportTask extends SwingWorker<CsvImportTask.Result, Void> {
+	private final File file;
+	private final EntryStore dbHelper;
+	private final int chunkSize;
+	private final Component parent;
+	private final ProgressMonitor monitor;
+	private final Runnable onFinished;
+	// Dauer vom Start bis zum Ende des Imports ("CSV-Import")
+	private final Metrics metrics;
+	private final long createdNanos = System.nanoTime();
+	// Für die Fortschrittsanzeige (wird im Hintergrund geschrieben, im EDT gelesen)
+	private volatile int importedSoFar;
+	private volatile long startNanos;
+
+	/**
+	 * @param parent     Elternkomponente für Dialoge.
+	 * @param file       die zu importierende CSV-Datei.
+	 * @param dbHelper   der Datenbankzugriff.
+	 * @param chunkSize  Anzahl Einträge pro Block.
+	 * @param metrics    erhält die Dauer des Imports.
+	 * @param onFinished wird nach dem Import im EDT ausgeführt.
+	 */
+	public CsvImportTask(Component parent, File file, EntryStore dbHelper, int chunkSize, Metrics metrics,
+			Runnable onFinished) {
+		this.file = file;
+		this.dbHelper = dbHelper;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.metrics = metrics;
+		this.onFinished = onFinished;
+		this.parent = parent;
+		this.monitor = new ProgressMonitor(parent, "CSV-Import: " + file.getName(), "", 0, 100);
+		this.monitor.setMillisToDecideToPopup(200);
+		addPropertyChangeListener(evt -> {
+			if ("progress".equals(evt.getPropertyName())) {
+				monitor.setProgress((Integer) evt.getNewValue());
+				double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1_000_000_000.0);
+				monitor.setNote(String.format("%d Einträge gespeichert (%.0f Zeilen/s)", importedSoFar,
+						importedSoFar / seconds));
+				if (monitor.isCanceled()) {
+					cancel(false);
+				}
+			}
+		});
+	}
+
+	@Override
+	protected Result doInBackground() throws IOException {
+		long start = System.nanoTime();
+		startNanos = start;
+		long fileSize = Math.max(1, file.length());
+		int imported = 0;
+		try (CountingInputStream counter = new CountingInputStream(new FileInputStream(file));
+				CsvEntryReader reader = new CsvEntryReader(new InputStreamReader(counter, StandardCharsets.UTF_8))) {
+			List<Entry> chunk = new ArrayList<>(chunkSize);
+			Entry entry;
+			while (!isCancelled() && (entry = reader.next()) != null) {
+				chunk.add(entry);
+				if (chunk.size() == chunkSize) {
+					imported += store(chunk);
+					importedSoFar = imported;
+					setProgress((int) Math.min(99, counter.getCount() * 100 / fileSize));
+				}
+			}
+			if (!isCancelled() && !chunk.isEmpty()) {
+				imported += store(chunk);
+			}
+			setProgress(100);
+			return new Result(imported, reader.getSkippedLines(), System.nanoTime() - start);
+		}
+	}
+
+	private int store(List<Entry> chunk) {
+		// Bilanz und Anzeige folgen über die EntryListener des Speichers
+		int saved = dbHelper.insertEntries(chunk).size();
+		chunk.clear();
+		return saved;
+	}
+
+	@Override
+	protected void done() {
+		monitor.close();
+		try {
+			if (isCancelled()) {
+				JOptionPane.showMessageDialog(parent,
+						"Import abgebrochen. Bereits gespeicherte Blöcke bleiben erhalten.", "CSV-Import",
+						JOptionPane.WARNING_MESSAGE);
+			} else {
+				Result result = get();
+				metrics.record("CSV-Import", createdNanos, result.imported);
+				System.out.println("CSV-Import: " + result);
+				JOptionPane.showMessageDialog(parent, result.toString(), "CSV-Import",
+						JOptionPane.INFORMATION_MESSAGE);
+			}
+		} catch (Exception e) {
+			metrics.recordError("CSV-Import", createdNanos);
+			e.printStackTrace();
+			JOptionPane.showMessageDialog(parent, "Fehler beim Import: " + e.getMessage(), "Fehler",
+					JOptionPane.ERROR_MESSAGE);
+		} finally {
+			onFinished.run();
+		}
+	}
+
+	/**
+	 * Ergebnis eines Imports.
+	 */
+	public static class Result {
+		private final int imported;
+		private final int skipped;
+		private final long durationNanos;
+
+		Result(int imported, int skipped, long durationNanos) {
+			this.imported = imported;
+			this.skipped = skipped;
+			this.durationNanos = durationNanos;
+		}
+
+		public int getImported() {
+			return imported;
+		}
+
+		public int getSkipped() {
+			return skipped;
+		}
+
+		/** Importierte Zeilen pro Sekunde. */
+		public double getRowsPerSecond() {
+			return durationNanos == 0 ? 0 : imported / (durationNanos / 1_000_000_000.0);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d Einträge importiert, %d Zeilen übersprungen, %.1f s (%.0f Zeilen/s)", imported,
+					skipped, durationNanos / 1_000_000_000.0, getRowsPerSecond());
+		}
+	}
+
+	/**
+	 * Zählt die gelesenen Bytes für die Fortschrittsanzeige.
+	 */
+	private static class CountingInputStream extends FilterInputStream {
+		private volatile long count;
+
+		CountingInputStream(InputStream in) {
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b >= 0) {
+				count++;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int n = super.read(b, off, len);
+			if (n > 0) {
+				count += n;
+			}
+			return n;
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
+}
@@ -1,36 +1,202 @@
 package controller;
 
-import model.DatabaseHelper;
-import model.ListItem;
+import model.BalanceAggregates;
+import model.CategoryAnalytics;
+import model.CategorySnapshot;
+import model.DatabaseConfig;
+import model.DateRange;
+import model.Entry;
+import model.EntryListener;
+import model.EntrySnapshot;
+import model.EntryStore;
+import model.LiquidityProjection;
+import model.Metrics;
+import model.RecurringEntry;
+import model.SearchIndex;
+import model.Span;
+import view.AutoCompleter;
+import view.EntryListModel;
+import view.EntryRowModel;
+import view.EntryTableModel;
+import view.DiagnosticsDialog;
 import view.MainView;
+import view.PagedEntryTableModel;
+import view.ProjectionPanel;
+import view.RecurringTableModel;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableModel;
 import java.awt.Color;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.io.File;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Der MainController verwaltet die Interaktionen zwischen der View und der
- * Datenbank. Er übernimmt das Laden der Daten, das Anwenden des Monatsfilters,
+ * Datenbank. Er übernimmt das Laden der Daten, das Anwenden des Filters nach
+ * Jahr und Monat,
  * die Bilanzberechnung, das Hinzufügen neuer Einträge sowie das Löschen
  * ausgewählter Datensätze.
+ *
+ * Änderungen am Datenbestand meldet der EntryStore über einen EntryListener;
+ * neue und gelöschte Einträge werden einzeln in Tabelle, Listen und Bilanz
+ * nachgeführt, ohne neu zu laden.
+ *
+ * Die Dauer jeder Benutzeraktion von der Eingabe bis zur Anzeige, die Zeilen
+ * und der geschätzte Speicher der Modelle werden in {@link Metrics} ("Aktionen")
+ * erfasst und zusammen mit denen des EntryStore per JMX veröffentlicht
+ * (metrics.jmx) sowie unter Extras/Diagnose angezeigt. Jede Aktion ist
+ * zudem ein Abschnitt ({@link Span}) mit ihren SQL-Anweisungen als Kindern;
+ * langsame Aktionen schreibt der {@link ActionTracer} ins Protokoll.
+ *
+ * Das Suchfeld filtert die Tabelle nach Titel, das Titelfeld schlägt
+ * vorhandene Titel vor; beides über einen im Speicher nachgeführten
+ * {@link SearchIndex}.
+ *
+ * Das Register "Analyse" zeigt Summen, Rangliste und Veränderung zum
+ * Vormonat pro Kategorie ({@link CategoryAnalytics}). Die Einträge mit
+ * Kategorie werden dafür einmal geladen und bis zur nächsten Änderung
+ * behalten; ein anderer Zeitraum kostet dann nur die Auswertung.
+ *
+ * Das Register "Prognose" zeigt die Vorlagen für wiederkehrende Einträge und
+ * den daraus erwarteten Kontostand ({@link LiquidityProjection}). Geänderte
+ * Vorlagen, Einträge und das Ein- und Ausschliessen von Vorlagen werden
+ * einzeln in der Prognose nachgeführt; gespeichert wird im Hintergrund.
  */
 public class MainController {
+	// Einträge pro Block beim CSV-Import (ein Commit pro Block)
+	private static final int IMPORT_CHUNK_SIZE = 5000;
+	// Höchstens so viele Vorschläge im Titelfeld
+	private static final int MAX_SUGGESTIONS = 8;
+	// Kategorien in der Rangliste der Ausgaben
+	private static final int TOP_CATEGORIES = 10;
+
 	private final MainView view;
-	private final DatabaseHelper dbHelper;
+	// Führt alle Datenbankzugriffe ausserhalb des EDT aus
+	private final BackgroundExecutor executor;
+	// Dauer der Benutzeraktionen, Zeilen und Speicher der angezeigten Modelle
+	private final Metrics metrics = new Metrics("Aktionen");
+	// Wird im Hintergrund aufgebaut; bis dahin sind die Eingaben gesperrt
+	private EntryStore dbHelper;
+	// Hält langsame Aktionen fest; existiert ab dem Verbindungsaufbau
+	private ActionTracer tracer;
+	// Laufend nachgeführte Summen pro Monat und Typ für die Bilanz
+	private BalanceAggregates aggregates;
+	// Die im Jahresfilter angebotenen Jahre
+	private List<Integer> filterYears = Collections.emptyList();
+	// Ab so vielen Einträgen wird die Tabelle seitenweise geladen (table.windowThreshold)
+	private int windowThreshold;
+	// Zeilen pro Seite und höchstens gehaltene Seiten im seitenweisen Modus
+	private int pageSize;
+	private int cachedPages;
+	// Fasst Aufforderungen zum Neuladen zusammen; existiert erst nach dem Verbindungsaufbau
+	private RefreshScheduler refreshScheduler;
+	// Aktion und Abfragezähler der ersten noch nicht angezeigten Aufforderung
+	private String refreshAction;
+	private long refreshQueriesBefore;
+	private long refreshStartNanos;
+	// Abschnitt der ersten noch nicht angezeigten Aufforderung
+	private Span refreshSpan;
+	// Änderungen, die während eines Ladevorgangs gemeldet wurden; sie werden
+	// nach dem Anzeigen auf das neue Modell angewendet
+	private final List<Entry> addedWhileLoading = new ArrayList<>();
+	private final List<Integer> removedWhileLoading = new ArrayList<>();
+	// Titelsuche; wird nach dem Start im Hintergrund aufgebaut. Bis dahin
+	// gemeldete Änderungen werden gesammelt und danach nachgetragen.
+	private SearchIndex searchIndex;
+	private final List<Entry> addedBeforeIndex = new ArrayList<>();
+	private final List<Integer> removedBeforeIndex = new ArrayList<>();
+	private boolean clearedBeforeIndex;
+	// Die zur aktuellen Suche gefundenen Titel (normalisiert) oder null ohne Suche
+	private Set<String> searchTitles;
+	// Treffer, durch die die seitenweise Tabelle blättert; null, wenn sie ungefiltert ist
+	private SearchIndex.Selection pagedSearch;
+	// Einträge mit Kategorie für die Analyse; null, wenn neu zu laden
+	private CategorySnapshot categorySnapshot;
+	// Wird bei jeder Änderung erhöht; ältere Snapshots werden nicht behalten
+	private int categoryVersion;
+	// Eine Auswertung läuft bzw. soll danach gleich noch einmal laufen
+	private boolean analyticsRunning;
+	private boolean analyticsPending;
+	// Prognose; wird beim ersten Anzeigen des Registers geladen
+	private LiquidityProjection projection;
+	private boolean projectionLoading;
+	// Pro Vorlage läuft höchstens ein Speichervorgang; spätere Änderungen warten hier
+	private final Set<Integer> savingRecurring = new HashSet<>();
+	private final Map<Integer, RecurringEntry> queuedRecurring = new HashMap<>();
 
 	/**
 	 * Konstruktor: Initialisiert den Controller, richtet ActionListener ein und
-	 * lädt die Daten.
+	 * lädt die Daten. Verbindungsaufbau und erstes Laden laufen im Hintergrund,
+	 * das Fenster bleibt dabei bedienbar.
 	 *
 	 * @param view die zugehörige Benutzeroberfläche.
 	 */
 	public MainController(MainView view) {
 		this.view = view;
-		this.dbHelper = new DatabaseHelper();
+		this.executor = new BackgroundExecutor(view::setBusy);
+		Runtime runtime = Runtime.getRuntime();
+		metrics.registerGauge("jvm.heapBenutztBytes", () -> runtime.totalMemory() - runtime.freeMemory());
+		metrics.registerGauge("jvm.heapMaxBytes", runtime::maxMemory);
 		initialize();
-		loadEntriesFromDatabase();
+		view.setInputEnabled(false);
+		view.getStatusLabel().setText("Verbindung zur Datenbank wird aufgebaut...");
+		executor.submit(() -> EntryStore.open(DatabaseConfig.load()), helper -> {
+			dbHelper = helper;
+			ActionTracer actionTracer = new ActionTracer(helper.getConfig());
+			tracer = actionTracer;
+			if (helper.getConfig().getBoolean("metrics.jmx", true)) {
+				helper.getMetrics().registerMBean();
+				metrics.registerMBean();
+			}
+			// Beim Beenden (auch über System.exit) Pool bzw. Journal und Protokoll sauber schliessen
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				helper.close();
+				actionTracer.close();
+			}, "LiquiPlanner-Beenden"));
+			windowThreshold = helper.getConfig().getInt("table.windowThreshold", 50000);
+			pageSize = Math.max(1, helper.getConfig().getInt("table.pageSize", 500));
+			cachedPages = helper.getConfig().getInt("table.cachedPages", 20);
+			view.getProjectionPanel().getYearsSpinner()
+					.setValue(Math.max(1, Math.min(30, helper.getConfig().getInt("projection.years", 3))));
+			executor.submit(() -> BalanceAggregates.build(helper), built -> {
+				aggregates = built;
+				helper.addEntryListener(new EntryListener() {
+					@Override
+					public void entriesAdded(List<Entry> entries) {
+						SwingUtilities.invokeLater(() -> onEntriesAdded(entries));
+					}
+
+					@Override
+					public void entryRemoved(int id) {
+						SwingUtilities.invokeLater(() -> onEntryRemoved(id));
+					}
+
+					@Override
+					public void entriesCleared() {
+						SwingUtilities.invokeLater(() -> onEntriesCleared());
+					}
+				});
+				refreshScheduler = new RefreshScheduler(helper.getConfig().getInt("refresh.debounceMillis", 150),
+						this::load);
+				updateFilterYears();
+				view.setInputEnabled(true);
+				refresh("Start", 0);
+				buildSearchIndex(helper);
+			}, this::showError);
+		}, this::showError);
 	}
 
 	/**
@@ -39,107 +205,847 @@ public class MainController {
 	private void initialize() {
 		view.getAddButton().addActionListener(e -> addEntry());
 		view.getDeleteButton().addActionListener(e -> deleteSelectedEntry());
-		view.getFilterMonthCombo().addActionListener(e -> applyMonthFilter());
+		view.getSearchField().getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				applySearch();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				applySearch();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				// Nur Attribute geändert
+			}
+		});
+		new AutoCompleter(view.getTitleField(), text -> searchIndex != null
+				? searchIndex.complete(text, MAX_SUGGESTIONS) : Collections.<String>emptyList());
+		view.getFilterYearCombo().addActionListener(e -> {
+			// Ein Monat ohne Jahr ist kein Zeitraum: bei "Alle Jahre" auch alle Monate
+			if (view.getFilterYearCombo().getSelectedIndex() == 0) {
+				view.getFilterMonthCombo().setSelectedIndex(0);
+			}
+			if (refreshScheduler != null) {
+				refresh("Jahresfilter", dbHelper.getQueryCount());
+			}
+		});
+		view.getFilterMonthCombo().addActionListener(e -> {
+			// Monat gewählt, aber kein Jahr: das neueste Jahr nehmen
+			if (view.getFilterMonthCombo().getSelectedIndex() > 0 && view.getFilterYearCombo().getSelectedIndex() == 0
+					&& view.getFilterYearCombo().getItemCount() > 1) {
+				view.getFilterYearCombo().setSelectedIndex(1);
+			}
+			if (refreshScheduler != null) {
+				refresh("Monatsfilter", dbHelper.getQueryCount());
+			}
+		});
 
 		if (view.getSaveMenuItem() != null) {
-			view.getSaveMenuItem().addActionListener(e -> view.saveToPDF());
+			view.getSaveMenuItem().addActionListener(e -> exportPdf());
+		}
+		if (view.getImportMenuItem() != null) {
+			view.getImportMenuItem().addActionListener(e -> importCsv());
 		}
 		if (view.getPrintMenuItem() != null) {
-			view.getPrintMenuItem().addActionListener(e -> view.printTable());
+			view.getPrintMenuItem().addActionListener(e -> printTable());
+		}
+		if (view.getOverviewMenuItem() != null) {
+			view.getOverviewMenuItem().addActionListener(e -> showOverview());
+		}
+		if (view.getVerifyBalanceMenuItem() != null) {
+			view.getVerifyBalanceMenuItem().addActionListener(e -> verifyBalance());
+		}
+		if (view.getDiagnosticsMenuItem() != null) {
+			view.getDiagnosticsMenuItem().addActionListener(e -> showDiagnostics());
 		}
+		view.getMainTabs().addChangeListener(e -> {
+			if (view.isAnalyticsVisible()) {
+				refreshAnalytics();
+			}
+			if (view.isProjectionVisible() && projection == null) {
+				loadProjection();
+			}
+		});
+		view.getAnalyticsPanel().getRefreshButton().addActionListener(e -> refreshAnalytics());
+		ProjectionPanel projectionPanel = view.getProjectionPanel();
+		projectionPanel.getAddButton().addActionListener(e -> addRecurringEntry());
+		projectionPanel.getDeleteButton().addActionListener(e -> deleteSelectedRecurringEntry());
+		projectionPanel.getYearsSpinner().addChangeListener(e -> {
+			if (projection != null) {
+				rebuildProjection();
+			}
+		});
+		projectionPanel.getRecurringModel().setEditListener(new RecurringTableModel.EditListener() {
+			@Override
+			public void edited(RecurringEntry before, RecurringEntry after) {
+				if (projection != null && projection.contains(after.getId())) {
+					updateProjection(after, true);
+				}
+				saveRecurringEntry(after, before);
+			}
+
+			@Override
+			public void includedChanged(RecurringEntry item, boolean included) {
+				if (projection != null) {
+					updateProjection(item, included);
+				}
+			}
+
+			@Override
+			public void rejected(String message) {
+				JOptionPane.showMessageDialog(view, message, "Fehler", JOptionPane.ERROR_MESSAGE);
+			}
+		});
 		if (view.getExitMenuItem() != null) {
 			view.getExitMenuItem().addActionListener(e -> System.exit(0));
 		}
 	}
 
 	/**
-	 * Lädt alle Einträge aus der Datenbank in das TableModel der GUI.
+	 * Fordert ein Neuladen der Anzeige an. Aufforderungen kurz hintereinander
+	 * (refresh.debounceMillis) werden vom RefreshScheduler zu einem Ladevorgang
+	 * zusammengefasst, der den dann gewählten Zeitraum lädt; es läuft nie
+	 * mehr als einer gleichzeitig.
+	 *
+	 * @param action        Name der Benutzeraktion für die Statusanzeige.
+	 * @param queriesBefore Stand des Abfragezählers zu Beginn der Aktion.
+	 */
+	private void refresh(String action, long queriesBefore) {
+		if (refreshAction == null) {
+			refreshQueriesBefore = queriesBefore;
+			refreshStartNanos = System.nanoTime();
+		}
+		if (refreshSpan == null) {
+			refreshSpan = tracer.start(action, null);
+		} else {
+			// Zusammengefasste Aufforderung: nur vermerken
+			refreshSpan.startChild("Aufforderung", action).end();
+		}
+		// Die Statuszeile nennt die letzte Aktion und zählt die Abfragen ab der ersten
+		refreshAction = action;
+		refreshScheduler.request();
+	}
+
+	/**
+	 * Lädt genau einen Snapshot für den gewählten Zeitraum im Hintergrund
+	 * und baut daraus im EDT Tabelle, Listen und Bilanz auf. Anschliessend wird
+	 * angezeigt, wie viele Datenbankabfragen die auslösenden Benutzeraktionen
+	 * insgesamt benötigt haben.
+	 * 
+	 * Übersteigt die Anzahl Einträge (laut den nachgeführten Summen)
+	 * table.windowThreshold, wird kein Snapshot geladen: Die Tabelle erhält
+	 * die Anzahl aus den Summen und lädt ihre Zeilen seitenweise beim Scrollen
+	 * nach.
 	 * 
-	 * Hier werden die Spaltenwerte formatiert: - Bei Einnahmen wird in der Spalte
-	 * "Betrag (CHF)" ein Pluszeichen vorangestellt. - Bei Ausgaben wird der Betrag
-	 * als negativer Wert angezeigt.
+	 * Wurde während des Ladens erneut angefordert, wird das Ergebnis nicht
+	 * mehr angezeigt, der RefreshScheduler lädt gleich noch einmal. Während des
+	 * Ladens gemeldete Änderungen werden danach nachgetragen.
+	 *
+	 * Erfasst werden die Dauer des Ladevorgangs ("Laden") und die der
+	 * auslösenden Aktion ab ihrer ersten Aufforderung, also samt Wartezeit.
+	 *
+	 * @param done wird im EDT aufgerufen, wenn der Ladevorgang abgeschlossen ist.
 	 */
-	private void loadEntriesFromDatabase() {
-		DefaultTableModel tableModel = (DefaultTableModel) view.getTable().getModel();
-		tableModel.setRowCount(0);
-		try {
-			ResultSet rs = dbHelper.fetchAllEntries();
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String title = rs.getString("title");
-				double amount = rs.getDouble("amount");
-				String type = rs.getString("type");
-				String month = rs.getString("month");
-				String formattedAmount;
-				if ("Einnahme".equals(type)) {
-					formattedAmount = String.format("+%.2f CHF", amount);
-				} else {
-					formattedAmount = String.format("-%.2f CHF", Math.abs(amount));
-				}
-				tableModel.addRow(new Object[] { id, title, formattedAmount, type, month });
+	private void load(Runnable done) {
+		DateRange range = getSelectedRange();
+		long start = System.nanoTime();
+		addedWhileLoading.clear();
+		removedWhileLoading.clear();
+		// Die Anzahl kommt aus den nachgeführten Summen; ein COUNT(*) liefe über alle Zeilen
+		int count = aggregates.getCount(range);
+		boolean windowed = count > windowThreshold;
+		Span span = refreshSpan;
+		executor.submit(span, () -> windowed
+				? new SimpleImmutableEntry<Integer, EntrySnapshot>(count, null)
+				: new SimpleImmutableEntry<Integer, EntrySnapshot>(-1, EntrySnapshot.load(dbHelper, range)),
+				loaded -> {
+					if (refreshScheduler.isOutdated()) {
+						done.run(); // veraltet, es wird gleich neu geladen
+						return;
+					}
+					Span rendering = span.startChild("Anzeigen", range != null ? range.getLabel() : "alle Jahre");
+					if (loaded.getValue() != null) {
+						render(loaded.getValue());
+						// Ein Snapshot kann Einträge schon enthalten; Hinzufügen und Entfernen sind idempotent
+						EntryRowModel model = getRowModel();
+						model.addEntries(addedWhileLoading);
+						for (int id : removedWhileLoading) {
+							model.removeEntry(id);
+						}
+					} else {
+						renderWindowed(range, loaded.getKey());
+						rendering.end();
+						if (!addedWhileLoading.isEmpty() || !removedWhileLoading.isEmpty()) {
+							// Die Zählung kann die Änderungen enthalten oder nicht
+							refreshScheduler.request();
+							done.run();
+							return;
+						}
+					}
+					addedWhileLoading.clear();
+					removedWhileLoading.clear();
+					String action = refreshAction;
+					refreshAction = null;
+					int rows = getRowModel().getRowCount();
+					metrics.record("Laden", start, rows);
+					metrics.record(action, refreshStartNanos, rows);
+					rendering.addRows(rows);
+					rendering.end();
+					refreshSpan = null;
+					tracer.finish(span);
+					showStatus(action, refreshQueriesBefore);
+					if (view.isAnalyticsVisible()) {
+						refreshAnalytics();
+					}
+					done.run();
+				}, error -> {
+					metrics.recordError("Laden", start);
+					span.fail(error);
+					refreshSpan = null;
+					tracer.finish(span);
+					done.run();
+					showError(error);
+				});
+	}
+
+	/**
+	 * Zeigt in der Statuszeile an, wie viele Datenbankabfragen eine
+	 * Benutzeraktion benötigt hat und wie viele Einträge angezeigt werden,
+	 * dazu die bisher durch Zusammenfassen eingesparten Ladevorgänge. Die
+	 * Messgrössen der Modelle werden dabei nachgeführt.
+	 *
+	 * @param action        Name der Benutzeraktion.
+	 * @param queriesBefore Stand des Abfragezählers zu Beginn der Aktion.
+	 */
+	private void showStatus(String action, long queriesBefore) {
+		EntryRowModel model = getRowModel();
+		long queries = dbHelper.getQueryCount() - queriesBefore;
+		long saved = refreshScheduler.getSavedCount();
+		String status = action + ": " + queries + (queries == 1 ? " Datenbankabfrage" : " Datenbankabfragen")
+				+ ", " + (model != null ? model.getRowCount() : 0) + " Einträge"
+				+ (model instanceof PagedEntryTableModel ? " (seitenweise geladen)" : "")
+				+ (saved > 0 ? ", " + saved + " Aktualisierungen eingespart" : "");
+		view.getStatusLabel().setText(status);
+		System.out.println(status);
+		updateModelGauges(model);
+	}
+
+	/**
+	 * Setzt Zeilen und geschätzten Speicher der angezeigten Modelle in den
+	 * Kennzahlen.
+	 */
+	private void updateModelGauges(EntryRowModel model) {
+		metrics.setGauge("tabelle.zeilen", model != null ? model.getRowCount() : 0);
+		metrics.setGauge("tabelle.geschaetzteBytes", model != null ? model.estimateHeapBytes() : 0);
+		metrics.setGauge("einnahmen.zeilen", view.getIncomeList().getModel().getSize());
+		metrics.setGauge("ausgaben.zeilen", view.getExpenseList().getModel().getSize());
+		metrics.setGauge("bilanz.monate", aggregates.getMonthCount());
+		metrics.setGauge("suchindex.eintraege", searchIndex != null ? searchIndex.getEntryCount() : 0);
+		metrics.setGauge("suchindex.titel", searchIndex != null ? searchIndex.getTitleCount() : 0);
+	}
+
+	/**
+	 * Das angezeigte TableModel oder null, solange noch nichts geladen ist.
+	 */
+	private EntryRowModel getRowModel() {
+		TableModel model = view.getTable().getModel();
+		return model instanceof EntryRowModel ? (EntryRowModel) model : null;
+	}
+
+	/**
+	 * Trägt neu gespeicherte Einträge in Bilanz, Tabelle und Listen nach. Nur
+	 * die neuen Zeilen werden gemeldet, die Kosten hängen also nicht von der
+	 * Anzahl vorhandener Einträge ab. Überschreitet der Zeitraum dadurch
+	 * table.windowThreshold, wird auf die seitenweise Anzeige umgeschaltet.
+	 *
+	 * @param entries die neuen Einträge.
+	 */
+	private void onEntriesAdded(List<Entry> entries) {
+		DateRange range = getSelectedRange();
+		List<Entry> visible = new ArrayList<>(entries.size());
+		String query = view.getSearchField().getText();
+		for (Entry entry : entries) {
+			aggregates.add(entry);
+			if (range == null || range.contains(entry.getDate())) {
+				visible.add(entry);
+			}
+			// Vor dem Einfügen in die Tabelle, damit der RowFilter neue Titel kennt
+			if (searchTitles != null && SearchIndex.matches(entry.getTitle(), query)) {
+				searchTitles.add(SearchIndex.normalize(entry.getTitle()));
+			}
+		}
+		if (searchIndex != null) {
+			searchIndex.addAll(entries);
+		} else {
+			addedBeforeIndex.addAll(entries);
+		}
+		if (projection != null) {
+			for (Entry entry : entries) {
+				projection.addBooked(entry, 1);
+			}
+			view.getProjectionPanel().showProjection(projection);
+		}
+		updateBalance();
+		updateFilterYears();
+		invalidateAnalytics();
+		if (visible.isEmpty()) {
+			return;
+		}
+		EntryRowModel model = getRowModel();
+		if (refreshScheduler.isPending()) {
+			addedWhileLoading.addAll(visible);
+		} else if (model instanceof EntryTableModel && aggregates.getCount(range) > windowThreshold) {
+			refresh("Umschalten auf seitenweise Anzeige", dbHelper.getQueryCount());
+			return;
+		}
+		if (pagedSearch != null) {
+			// Die seitenweise Tabelle zeigt nur die Treffer; die Auswahl kennt sie schon aus dem Index
+			visible.removeIf(entry -> !SearchIndex.matches(entry.getTitle(), query));
+		}
+		if (model != null) {
+			model.addEntries(visible);
+		}
+	}
+
+	/**
+	 * Entfernt einen gelöschten Eintrag aus Tabelle, Listen und Bilanz. Ist er
+	 * nicht (geladen) angezeigt, werden die Summen im Hintergrund neu
+	 * aufgebaut, in der seitenweisen Anzeige wird zudem neu gezählt.
+	 *
+	 * @param id die ID des gelöschten Eintrags.
+	 */
+	private void onEntryRemoved(int id) {
+		if (searchIndex != null) {
+			searchIndex.remove(id);
+		} else {
+			removedBeforeIndex.add(id);
+		}
+		invalidateAnalytics();
+		EntryRowModel model = getRowModel();
+		Entry removed = model != null ? model.removeEntry(id) : null;
+		if (refreshScheduler.isPending()) {
+			removedWhileLoading.add(id);
+		}
+		if (removed != null) {
+			aggregates.remove(removed);
+			if (projection != null) {
+				projection.addBooked(removed, -1);
+				view.getProjectionPanel().showProjection(projection);
 			}
-			applyMonthFilter();
 			updateBalance();
-		} catch (SQLException e) {
-			e.printStackTrace();
+			return;
+		}
+		executor.submit(() -> BalanceAggregates.build(dbHelper), rebuilt -> {
+			aggregates = rebuilt;
+			resetProjectionBooked();
+			updateBalance();
+			updateFilterYears();
+		}, this::showError);
+		if (model instanceof PagedEntryTableModel && !refreshScheduler.isPending()) {
+			refresh("Löschen", dbHelper.getQueryCount());
+		}
+	}
+
+	/**
+	 * Alle Einträge wurden gelöscht: Summen zurücksetzen und neu laden.
+	 */
+	private void onEntriesCleared() {
+		aggregates.clear();
+		resetProjectionBooked();
+		if (searchIndex != null) {
+			searchIndex.clear();
+		} else {
+			clearedBeforeIndex = true;
+			addedBeforeIndex.clear();
+			removedBeforeIndex.clear();
+		}
+		invalidateAnalytics();
+		updateBalance();
+		refresh("Alle löschen", dbHelper.getQueryCount());
+	}
+
+	/**
+	 * Zeigt einen Fehler aus einer Hintergrundaufgabe an.
+	 */
+	private void showError(Throwable error) {
+		error.printStackTrace();
+		view.getStatusLabel().setText("Fehler: " + error.getMessage());
+		JOptionPane.showMessageDialog(view, "Fehler beim Datenbankzugriff: " + error.getMessage(), "Fehler",
+				JOptionPane.ERROR_MESSAGE);
+	}
+
+	/**
+	 * Gibt den im Filter gewählten Zeitraum zurück: einen Monat, ein ganzes
+	 * Jahr ("Alle Monate") oder null bei "Alle Jahre".
+	 */
+	private DateRange getSelectedRange() {
+		int yearIndex = view.getFilterYearCombo().getSelectedIndex();
+		if (yearIndex <= 0) {
+			return null;
+		}
+		int year = Integer.parseInt((String) view.getFilterYearCombo().getSelectedItem());
+		int month = view.getFilterMonthCombo().getSelectedIndex();
+		return month <= 0 ? DateRange.ofYear(year) : DateRange.ofMonth(YearMonth.of(year, month));
+	}
+
+	/**
+	 * Bietet im Jahresfilter alle Jahre mit Einträgen und das laufende Jahr
+	 * an. Die Auswahl wird nur neu gesetzt, wenn ein Jahr dazugekommen ist.
+	 */
+	private void updateFilterYears() {
+		List<Integer> years = new ArrayList<>(aggregates.getYears());
+		int currentYear = Year.now().getValue();
+		if (!years.contains(currentYear)) {
+			years.add(currentYear);
+			Collections.sort(years);
+		}
+		if (!years.equals(filterYears)) {
+			filterYears = years;
+			view.setFilterYears(years);
 		}
 	}
 
 	/**
-	 * Wendet den Monatsfilter an und aktualisiert das Tabellenmodel sowie die
-	 * Listen.
+	 * Setzt TableModel und Listen auf den Snapshot. Die Modelle lesen direkt aus
+	 * dessen Spalten, es werden also keine Zeilen kopiert. Die Bilanz kommt aus
+	 * den nachgeführten Summen. Spätere Änderungen trägt das TableModel in den
+	 * Snapshot ein und meldet sie an die Listen weiter.
 	 * 
 	 * In der Listenanzeige: - Bei Einnahmen wird der Text im Format "Titel -
-	 * +Betrag CHF (Monat)" angezeigt. - Bei Ausgaben wird der Text im Format "Titel
+	 * +Betrag CHF (Datum)" angezeigt. - Bei Ausgaben wird der Text im Format "Titel
 	 * - -Betrag CHF" angezeigt, wobei nur ein Minus erscheint.
+	 *
+	 * @param snapshot die geladenen Einträge.
 	 */
-	private void applyMonthFilter() {
-		String selectedMonth = (String) view.getFilterMonthCombo().getSelectedItem();
-		DefaultTableModel filteredModel = new DefaultTableModel(
-				new String[] { "ID", "Titel", "Betrag (CHF)", "Typ", "Monat" }, 0);
-		DefaultListModel<ListItem> incomeModel = new DefaultListModel<>();
-		DefaultListModel<ListItem> expenseModel = new DefaultListModel<>();
+	private void render(EntrySnapshot snapshot) {
+		String label = snapshot.getRange() != null ? snapshot.getRange().getLabel() : "alle Jahre";
+		EntryTableModel tableModel = new EntryTableModel(snapshot);
+		EntryListModel incomeModel = new EntryListModel(snapshot, true, "Keine Einnahmen für " + label);
+		EntryListModel expenseModel = new EntryListModel(snapshot, false, "Keine Ausgaben für " + label);
+		// Die Listen folgen den eingefügten und gelöschten Zeilen der Tabelle
+		tableModel.addTableModelListener(incomeModel);
+		tableModel.addTableModelListener(expenseModel);
+		pagedSearch = null;
+		view.setTableModel(tableModel);
+		view.getIncomeList().setModel(incomeModel);
+		view.getExpenseList().setModel(expenseModel);
+		updateBalance();
+	}
 
-		try {
-			ResultSet rs;
-			if ("Alle Monate".equals(selectedMonth)) {
-				rs = dbHelper.fetchAllEntries();
-			} else {
-				rs = dbHelper.fetchEntriesByMonth(selectedMonth);
-			}
-			boolean hasIncome = false;
-			boolean hasExpense = false;
-			while (rs.next()) {
-				int id = rs.getInt("id");
-				String title = rs.getString("title");
-				double amount = rs.getDouble("amount");
-				String type = rs.getString("type");
-				String month = rs.getString("month");
-				String formattedAmount;
-				if ("Einnahme".equals(type)) {
-					formattedAmount = String.format("+%.2f CHF", amount);
-					incomeModel.addElement(new ListItem(title + "  " + formattedAmount + " (" + month + ")"));
-					hasIncome = true;
-				} else {
-					formattedAmount = String.format("-%.2f CHF", Math.abs(amount));
-					expenseModel.addElement(new ListItem(title + "  " + formattedAmount + " (" + month + ")"));
-					hasExpense = true;
+	/**
+	 * Zeigt die Einträge seitenweise an: Die Tabelle kennt nur die Anzahl und
+	 * lädt beim Scrollen Seiten per Keyset nach. Die Listen zeigen in diesem
+	 * Modus nur einen Hinweis, die Bilanz kommt weiterhin aus den Summen.
+	 *
+	 * @param range    der gefilterte Zeitraum oder null für alle Einträge.
+	 * @param rowCount Anzahl Einträge laut den nachgeführten Summen.
+	 */
+	private void renderWindowed(DateRange range, int rowCount) {
+		showPages(range, rowCount);
+		EntrySnapshot none = EntrySnapshot.of(range, Collections.<Entry>emptyList());
+		String hint = rowCount + " Einträge, siehe Tabelle";
+		view.getIncomeList().setModel(new EntryListModel(none, true, hint));
+		view.getExpenseList().setModel(new EntryListModel(none, false, hint));
+		updateBalance();
+	}
+
+	/**
+	 * Setzt die seitenweise Tabelle. Ein RowFilter würde alle Seiten laden;
+	 * läuft eine Suche, blättert die Tabelle deshalb nur durch die Treffer:
+	 * Der Suchindex liefert deren IDs wie ein Keyset, die Einträge einer Seite
+	 * werden über ihre IDs gelesen.
+	 *
+	 * @param range    der gefilterte Zeitraum oder null für alle Einträge.
+	 * @param rowCount Anzahl Einträge ohne Suche.
+	 */
+	private void showPages(DateRange range, int rowCount) {
+		PagedEntryTableModel.PageSource source;
+		if (searchTitles != null) {
+			SearchIndex.Selection selection = searchIndex.select(view.getSearchField().getText(), range);
+			rowCount = selection.count();
+			pagedSearch = selection;
+			source = new PagedEntryTableModel.PageSource() {
+				@Override
+				public List<Entry> fetchAfter(int afterKey, int limit) {
+					return dbHelper.fetchEntriesById(selection.idsAfter(afterKey, limit));
 				}
-				filteredModel.addRow(new Object[] { id, title, formattedAmount, type, month });
+
+				@Override
+				public int seekKey(int fromKey, int steps) {
+					return selection.seekId(fromKey, steps);
+				}
+			};
+		} else {
+			pagedSearch = null;
+			source = new PagedEntryTableModel.PageSource() {
+				@Override
+				public List<Entry> fetchAfter(int afterKey, int limit) {
+					return dbHelper.fetchEntryPage(range, afterKey, limit);
+				}
+
+				@Override
+				public int seekKey(int fromKey, int steps) {
+					return dbHelper.seekKey(range, fromKey, steps);
+				}
+			};
+		}
+		view.setRowFilter(null);
+		view.setTableModel(new PagedEntryTableModel(rowCount, pageSize, cachedPages, source, executor));
+	}
+
+	/**
+	 * Baut den Suchindex im Hintergrund auf und trägt danach die inzwischen
+	 * gemeldeten Änderungen nach; Einfügen und Entfernen sind idempotent.
+	 *
+	 * @param helper der Speicher.
+	 */
+	private void buildSearchIndex(EntryStore helper) {
+		long start = System.nanoTime();
+		executor.submit(() -> SearchIndex.build(helper), built -> {
+			if (clearedBeforeIndex) {
+				built.clear();
+			}
+			built.addAll(addedBeforeIndex);
+			for (int id : removedBeforeIndex) {
+				built.remove(id);
 			}
-			if (!hasIncome) {
-				incomeModel.addElement(new ListItem("Keine Einnahmen für " + selectedMonth));
+			addedBeforeIndex.clear();
+			removedBeforeIndex.clear();
+			clearedBeforeIndex = false;
+			searchIndex = built;
+			metrics.record("Suchindex aufbauen", start, built.getEntryCount());
+			if (!view.getSearchField().getText().trim().isEmpty()) {
+				applySearch();
 			}
-			if (!hasExpense) {
-				expenseModel.addElement(new ListItem("Keine Ausgaben für " + selectedMonth));
+		}, this::showError);
+	}
+
+	/**
+	 * Filtert die Tabelle nach den Begriffen im Suchfeld. Der Suchindex
+	 * liefert die passenden Titel, der RowFilter zeigt nur deren Zeilen an.
+	 * In der seitenweisen Anzeige müsste ein RowFilter alle Seiten laden;
+	 * dort wird stattdessen eine Tabelle über die Treffer gesetzt (siehe
+	 * {@link #showPages}).
+	 */
+	private void applySearch() {
+		String query = view.getSearchField().getText();
+		if (query.trim().isEmpty()) {
+			searchTitles = null;
+			if (pagedSearch != null) {
+				DateRange range = getSelectedRange();
+				showPages(range, aggregates.getCount(range));
+			} else {
+				view.setRowFilter(null);
 			}
-		} catch (SQLException e) {
-			e.printStackTrace();
+			return;
 		}
-		view.setTableModel(filteredModel);
-		view.getIncomeList().setModel(incomeModel);
-		view.getExpenseList().setModel(expenseModel);
-		updateBalance();
+		if (searchIndex == null) {
+			view.getStatusLabel().setText("Suche: Suchindex wird noch aufgebaut...");
+			return;
+		}
+		long start = System.nanoTime();
+		Set<String> titles = new HashSet<>(searchIndex.findTitles(query));
+		metrics.record("Suchindex", start, titles.size());
+		searchTitles = titles;
+		EntryRowModel model = getRowModel();
+		if (model instanceof PagedEntryTableModel) {
+			DateRange range = getSelectedRange();
+			int total = aggregates.getCount(range);
+			showPages(range, total);
+			int shown = view.getTable().getRowCount();
+			metrics.record("Suche", start, shown);
+			view.getStatusLabel().setText("Suche: " + shown + " von " + total + " Einträgen (seitenweise geladen)");
+			return;
+		}
+		view.setRowFilter(new RowFilter<TableModel, Integer>() {
+			@Override
+			public boolean include(RowFilter.Entry<? extends TableModel, ? extends Integer> row) {
+				Object title = row.getValue(EntryTableModel.COLUMN_TITLE);
+				return title != null && titles.contains(SearchIndex.normalize(title.toString()));
+			}
+		});
+		int shown = view.getTable().getRowCount();
+		metrics.record("Suche", start, shown);
+		view.getStatusLabel().setText("Suche: " + shown + " von " + (model != null ? model.getRowCount() : 0)
+				+ " Einträgen");
+	}
+
+	/**
+	 * Wertet die Kategorien für den gewählten Zeitraum im Hintergrund aus
+	 * und zeigt das Ergebnis im Register "Analyse". Verglichen wird der
+	 * gewählte Monat mit seinem Vormonat, bei einem Jahr dessen letzter
+	 * Monat (höchstens der laufende), sonst der laufende Monat.
+	 *
+	 * Geladen wird nur, wenn sich die Einträge seit dem letzten Mal geändert
+	 * haben. Läuft schon eine Auswertung, wird danach noch einmal ausgewertet.
+	 */
+	private void refreshAnalytics() {
+		if (refreshScheduler == null) {
+			return; // noch keine Verbindung
+		}
+		if (analyticsRunning) {
+			analyticsPending = true;
+			return;
+		}
+		DateRange range = getSelectedRange();
+		YearMonth now = YearMonth.now();
+		YearMonth month = range == null ? now
+				: range.isSingleMonth() ? range.getFrom() : min(range.getTo().minusMonths(1), now);
+		CategorySnapshot cached = categorySnapshot;
+		int version = categoryVersion;
+		long start = System.nanoTime();
+		Span span = tracer.start("Analyse", range != null ? range.getLabel() : "alle Jahre");
+		analyticsRunning = true;
+		view.getAnalyticsPanel().showMessage(cached != null ? "Wird ausgewertet..." : "Wird geladen...");
+		executor.submit(span, () -> {
+			CategorySnapshot snapshot = cached != null ? cached : dbHelper.fetchCategorySnapshot();
+			return new SimpleImmutableEntry<>(snapshot,
+					CategoryAnalytics.compute(snapshot, range, month, TOP_CATEGORIES));
+		}, result -> {
+			if (version == categoryVersion) {
+				categorySnapshot = result.getKey();
+			}
+			metrics.record("Analyse", start, result.getKey().size());
+			metrics.setGauge("analyse.geschaetzteBytes", result.getKey().estimateHeapBytes());
+			tracer.finish(span);
+			view.getAnalyticsPanel().showAnalytics(result.getValue(), (System.nanoTime() - start) / 1_000_000.0);
+			analyticsDone();
+		}, error -> {
+			metrics.recordError("Analyse", start);
+			span.fail(error);
+			tracer.finish(span);
+			view.getAnalyticsPanel().showMessage("Fehler: " + error.getMessage());
+			analyticsDone();
+			showError(error);
+		});
+	}
+
+	private void analyticsDone() {
+		analyticsRunning = false;
+		if (analyticsPending) {
+			analyticsPending = false;
+			refreshAnalytics();
+		}
+	}
+
+	private static YearMonth min(YearMonth a, YearMonth b) {
+		return a.isBefore(b) ? a : b;
+	}
+
+	/**
+	 * Verwirft die geladenen Einträge der Analyse nach einer Änderung; ist das
+	 * Register sichtbar, wird gleich neu ausgewertet.
+	 */
+	private void invalidateAnalytics() {
+		categorySnapshot = null;
+		categoryVersion++;
+		if (view.isAnalyticsVisible()) {
+			refreshAnalytics();
+		}
+	}
+
+	/**
+	 * Lädt die Vorlagen für wiederkehrende Einträge im Hintergrund und zeigt
+	 * sie mit der daraus berechneten Prognose im Register "Prognose" an.
+	 */
+	private void loadProjection() {
+		if (refreshScheduler == null || projectionLoading) {
+			return; // noch keine Verbindung bzw. wird schon geladen
+		}
+		long start = System.nanoTime();
+		Span span = tracer.start("Prognose laden", null);
+		projectionLoading = true;
+		view.getProjectionPanel().showMessage("Wird geladen...");
+		executor.submit(span, () -> dbHelper.fetchRecurringEntries(), items -> {
+			projectionLoading = false;
+			view.getProjectionPanel().getRecurringModel().setItems(items);
+			rebuildProjection();
+			metrics.record("Prognose laden", start, items.size());
+			tracer.finish(span);
+		}, error -> {
+			projectionLoading = false;
+			metrics.recordError("Prognose laden", start);
+			span.fail(error);
+			tracer.finish(span);
+			view.getProjectionPanel().showMessage("Fehler: " + error.getMessage());
+			showError(error);
+		});
+	}
+
+	/**
+	 * Berechnet die Prognose aus den nachgeführten Summen und den
+	 * einbezogenen Vorlagen neu, z. B. für eine andere Anzahl Jahre.
+	 */
+	private void rebuildProjection() {
+		long start = System.nanoTime();
+		RecurringTableModel model = view.getProjectionPanel().getRecurringModel();
+		List<RecurringEntry> included = new ArrayList<>(model.getRowCount());
+		for (int row = 0; row < model.getRowCount(); row++) {
+			if (model.isIncluded(row)) {
+				included.add(model.getItem(row));
+			}
+		}
+		int years = (Integer) view.getProjectionPanel().getYearsSpinner().getValue();
+		projection = new LiquidityProjection(aggregates, included, LocalDate.now(), years);
+		view.getProjectionPanel().showProjection(projection);
+		metrics.record("Prognose", start, projection.getMonthCount());
+		metrics.setGauge("prognose.vorlagen", model.getRowCount());
+	}
+
+	/**
+	 * Führt eine einzelne Vorlage in der Prognose nach, ohne sie neu zu
+	 * berechnen ("Was wäre, wenn").
+	 *
+	 * @param item     die Vorlage.
+	 * @param included true, um sie (neu) einzubeziehen, false, um sie herauszunehmen.
+	 */
+	private void updateProjection(RecurringEntry item, boolean included) {
+		long start = System.nanoTime();
+		if (included) {
+			projection.put(item);
+		} else {
+			projection.remove(item.getId());
+		}
+		view.getProjectionPanel().showProjection(projection);
+		metrics.record("Prognose nachführen", start, 1);
+	}
+
+	/**
+	 * Übernimmt die gebuchten Beträge neu aus den Summen, nachdem diese neu
+	 * aufgebaut oder zurückgesetzt wurden.
+	 */
+	private void resetProjectionBooked() {
+		if (projection != null) {
+			projection.resetBooked(aggregates);
+			view.getProjectionPanel().showProjection(projection);
+		}
+	}
+
+	/**
+	 * Speichert eine geänderte Vorlage im Hintergrund. Läuft für dieselbe
+	 * Vorlage schon ein Speichervorgang, wird danach nur die letzte Änderung
+	 * gespeichert. Schlägt das Speichern fehl, wird die Änderung in Tabelle
+	 * und Prognose zurückgenommen.
+	 *
+	 * @param item     die geänderte Vorlage.
+	 * @param previous der zuletzt gespeicherte Stand.
+	 */
+	private void saveRecurringEntry(RecurringEntry item, RecurringEntry previous) {
+		int id = item.getId();
+		if (!savingRecurring.add(id)) {
+			queuedRecurring.put(id, item);
+			return;
+		}
+		long start = System.nanoTime();
+		Span span = tracer.start("Vorlage speichern", item.getTitle());
+		executor.submit(span, () -> dbHelper.saveRecurringEntry(item), saved -> {
+			savingRecurring.remove(id);
+			RecurringEntry queued = queuedRecurring.remove(id);
+			if (saved == null) {
+				metrics.recordError("Vorlage speichern", start);
+				revertRecurringEntry(previous);
+			} else {
+				metrics.record("Vorlage speichern", start, 1);
+				if (queued != null) {
+					saveRecurringEntry(queued, saved);
+				}
+			}
+			tracer.finish(span);
+		}, error -> {
+			savingRecurring.remove(id);
+			queuedRecurring.remove(id);
+			metrics.recordError("Vorlage speichern", start);
+			span.fail(error);
+			tracer.finish(span);
+			revertRecurringEntry(previous);
+			showError(error);
+		});
+	}
+
+	private void revertRecurringEntry(RecurringEntry previous) {
+		view.getProjectionPanel().getRecurringModel().replaceItem(previous);
+		if (projection.contains(previous.getId())) {
+			updateProjection(previous, true);
+		}
+		view.getStatusLabel().setText("Vorlage konnte nicht gespeichert werden: " + previous.getTitle());
+	}
+
+	/**
+	 * Legt eine neue Vorlage (monatliche Ausgabe ab dem nächsten Monat, Betrag
+	 * 0) an und öffnet ihren Titel zum Bearbeiten.
+	 */
+	private void addRecurringEntry() {
+		if (projection == null) {
+			return;
+		}
+		RecurringEntry item = new RecurringEntry(0, "Neue Vorlage", 0, Entry.AUSGABE,
+				YearMonth.now().plusMonths(1).atDay(1), null, 1);
+		long start = System.nanoTime();
+		Span span = tracer.start("Vorlage hinzufügen", null);
+		ProjectionPanel panel = view.getProjectionPanel();
+		panel.getAddButton().setEnabled(false);
+		executor.submit(span, () -> dbHelper.saveRecurringEntry(item), saved -> {
+			panel.getAddButton().setEnabled(true);
+			if (saved != null) {
+				metrics.record("Vorlage hinzufügen", start, 1);
+				int row = panel.getRecurringModel().addItem(saved);
+				projection.put(saved);
+				panel.showProjection(projection);
+				metrics.setGauge("prognose.vorlagen", panel.getRecurringModel().getRowCount());
+				JTable table = panel.getRecurringTable();
+				table.setRowSelectionInterval(row, row);
+				table.editCellAt(row, table.convertColumnIndexToView(RecurringTableModel.COLUMN_TITLE));
+			} else {
+				metrics.recordError("Vorlage hinzufügen", start);
+			}
+			tracer.finish(span);
+		}, error -> {
+			metrics.recordError("Vorlage hinzufügen", start);
+			span.fail(error);
+			tracer.finish(span);
+			panel.getAddButton().setEnabled(true);
+			showError(error);
+		});
+	}
+
+	/**
+	 * Löscht die ausgewählte Vorlage; bereits gebuchte Einträge bleiben.
+	 */
+	private void deleteSelectedRecurringEntry() {
+		ProjectionPanel panel = view.getProjectionPanel();
+		JTable table = panel.getRecurringTable();
+		if (projection == null || table.getSelectedRow() < 0) {
+			JOptionPane.showMessageDialog(view, "Bitte eine Vorlage zum Löschen auswählen!", "Fehler",
+					JOptionPane.WARNING_MESSAGE);
+			return;
+		}
+		if (table.isEditing()) {
+			table.getCellEditor().cancelCellEditing();
+		}
+		RecurringEntry item = panel.getRecurringModel().getItem(table.convertRowIndexToModel(table.getSelectedRow()));
+		long start = System.nanoTime();
+		Span span = tracer.start("Vorlage löschen", item.getTitle());
+		panel.getDeleteButton().setEnabled(false);
+		executor.submit(span, () -> dbHelper.deleteRecurringEntry(item.getId()), deleted -> {
+			panel.getDeleteButton().setEnabled(true);
+			metrics.record("Vorlage löschen", start, deleted ? 1 : 0);
+			if (deleted) {
+				panel.getRecurringModel().removeItem(item.getId());
+				projection.remove(item.getId());
+				panel.showProjection(projection);
+				metrics.setGauge("prognose.vorlagen", panel.getRecurringModel().getRowCount());
+			}
+			tracer.finish(span);
+		}, error -> {
+			metrics.recordError("Vorlage löschen", start);
+			span.fail(error);
+			tracer.finish(span);
+			panel.getDeleteButton().setEnabled(true);
+			showError(error);
+		});
 	}
 
 	/**
@@ -147,36 +1053,21 @@ public class MainController {
 	 * 
 	 * Die Bilanz wird als Differenz berechnet: Summe der Einnahmen minus Summe der
 	 * Ausgaben. Dabei werden nur die Einträge berücksichtigt, die dem aktuell
-	 * gewählten Monatsfilter entsprechen. In der Anzeige: - Das Einnahmen-Label
+	 * gewählten Zeitraum entsprechen. In der Anzeige: - Das Einnahmen-Label
 	 * erscheint mit einem vorangestellten "+" in dunkelgrün. - Das Ausgaben-Label
 	 * erscheint mit einem vorangestellten "-" in rot. - Das Bilanz-Label zeigt die
 	 * Differenz; ist sie >= 0, erscheint sie in dunkelgruen (mit "+"), andernfalls
 	 * in rot.
+	 * 
+	 * Die Summen stammen aus den im Speicher nachgeführten BalanceAggregates, die
+	 * Anzeige kostet also unabhängig von der Anzahl Einträge gleich viel. Daraus
+	 * kommt auch der Kontostand vor dem Zeitraum (alle Einträge mit früherem
+	 * Buchungsdatum), auf dem die Saldo-Spalte der Tabelle aufbaut.
 	 */
 	private void updateBalance() {
-		double sumEinnahmen = 0.0;
-		double sumAusgaben = 0.0;
-		// Hole den aktuell gewählten Monat aus dem Filter
-		String selectedMonth = (String) view.getFilterMonthCombo().getSelectedItem();
-		try {
-			ResultSet rs;
-			if ("Alle Monate".equals(selectedMonth)) {
-				rs = dbHelper.fetchAllEntries();
-			} else {
-				rs = dbHelper.fetchEntriesByMonth(selectedMonth);
-			}
-			while (rs.next()) {
-				double amount = rs.getDouble("amount");
-				String type = rs.getString("type");
-				if ("Einnahme".equals(type)) {
-					sumEinnahmen += amount;
-				} else if ("Ausgabe".equals(type)) {
-					sumAusgaben += Math.abs(amount);
-				}
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
+		DateRange range = getSelectedRange();
+		double sumEinnahmen = aggregates.getIncome(range) / 100.0;
+		double sumAusgaben = aggregates.getExpense(range) / 100.0;
 		double bilanz = sumEinnahmen - sumAusgaben;
 		view.getIncomeLabel().setText(String.format("Einnahmen: %+.2f CHF", sumEinnahmen));
 		view.getExpenseLabel().setText(String.format("Ausgaben: -%.2f CHF", sumAusgaben));
@@ -188,13 +1079,19 @@ public class MainController {
 		} else {
 			view.getBalanceLabel().setForeground(Color.RED); // rot, wenn Bilanz negativ
 		}
+		EntryRowModel model = getRowModel();
+		if (model instanceof EntryTableModel) {
+			EntryTableModel tableModel = (EntryTableModel) model;
+			DateRange shown = tableModel.getSnapshot().getRange();
+			tableModel.setOpeningBalance(shown != null ? aggregates.getNetBefore(shown.getFrom()) : 0);
+		}
 	}
 
 	/**
 	 * Fügt einen neuen Eintrag zur Datenbank hinzu.
 	 * 
 	 * Liest die Eingabefelder aus der View aus, überprüft diese und fügt dann
-	 * den Eintrag über DatabaseHelper in die Datenbank ein. Falls der Typ
+	 * den Eintrag über den EntryStore in die Datenbank ein. Falls der Typ
 	 * "Ausgabe" ist, wird der eingegebene Betrag in einen negativen Wert
 	 * umgewandelt.
 	 */
@@ -202,12 +1099,18 @@ public class MainController {
 		String title = view.getTitleField().getText();
 		String amountText = view.getAmountField().getText();
 		String type = (String) view.getTypeCombo().getSelectedItem();
-		String month = (String) view.getMonthCombo().getSelectedItem();
+		String dateText = view.getDateField().getText();
 
-		if (title.isEmpty() || amountText.isEmpty()) {
+		if (title.isEmpty() || amountText.isEmpty() || dateText.trim().isEmpty()) {
 			JOptionPane.showMessageDialog(view, "Bitte alle Felder ausfüllen!", "Fehler", JOptionPane.ERROR_MESSAGE);
 			return;
 		}
+		LocalDate date = Entry.parseDate(dateText);
+		if (date == null) {
+			JOptionPane.showMessageDialog(view, "Datum im Format TT.MM.JJJJ eingeben (z. B. 25.01.2025)!", "Fehler",
+					JOptionPane.ERROR_MESSAGE);
+			return;
+		}
 		try {
 			double amount = Double.parseDouble(amountText);
 			if ("Ausgabe".equals(type)) {
@@ -215,8 +1118,28 @@ public class MainController {
 			} else {
 				amount = Math.abs(amount);
 			}
-			dbHelper.insertEntry(title, amount, type, month);
-			loadEntriesFromDatabase();
+			double betrag = amount;
+			long queriesBefore = dbHelper.getQueryCount();
+			long start = System.nanoTime();
+			Span span = tracer.start("Hinzufügen", title);
+			view.getAddButton().setEnabled(false);
+			executor.submit(span, () -> dbHelper.insertEntry(title, betrag, type, date), saved -> {
+				view.getAddButton().setEnabled(true);
+				// Tabelle und Bilanz sind bereits über onEntriesAdded nachgeführt
+				if (saved != null) {
+					metrics.record("Hinzufügen", start, 1);
+				} else {
+					metrics.recordError("Hinzufügen", start);
+				}
+				tracer.finish(span);
+				showStatus("Hinzufügen", queriesBefore);
+			}, error -> {
+				metrics.recordError("Hinzufügen", start);
+				span.fail(error);
+				tracer.finish(span);
+				view.getAddButton().setEnabled(true);
+				showError(error);
+			});
 		} catch (NumberFormatException e) {
 			JOptionPane.showMessageDialog(view, "Betrag muss eine Zahl sein!", "Fehler", JOptionPane.ERROR_MESSAGE);
 		}
@@ -225,24 +1148,145 @@ public class MainController {
 	/**
 	 * Löscht den aktuell ausgewählten Eintrag.
 	 * 
-	 * Ermittelt die ID des ausgewählten Eintrags (aus dem zugrunde liegenden
-	 * TableModel) und löscht diesen über DatabaseHelper. Anschliessend werden die
-	 * Daten neu geladen.
+	 * Ermittelt den ausgewählten Eintrag (aus dem zugrunde liegenden
+	 * TableModel) und löscht diesen über den EntryStore. Die Zeile verschwindet
+	 * über onEntryRemoved, ohne dass neu geladen wird.
 	 */
 	private void deleteSelectedEntry() {
-		int selectedRow = view.getTable().getSelectedRow();
-		if (selectedRow != -1) {
-			Object idObj = ((DefaultTableModel) view.getTable().getModel()).getValueAt(selectedRow, 0);
-			try {
-				int id = Integer.parseInt(idObj.toString());
-				dbHelper.deleteEntryById(id);
-				loadEntriesFromDatabase();
-			} catch (NumberFormatException e) {
-				JOptionPane.showMessageDialog(view, "Fehler: Ungültige ID.", "Fehler", JOptionPane.ERROR_MESSAGE);
-			}
+		Entry selected = getSelectedEntry();
+		if (selected != null) {
+			int id = selected.getId();
+			long queriesBefore = dbHelper.getQueryCount();
+			long start = System.nanoTime();
+			Span span = tracer.start("Löschen", "ID " + id);
+			view.getDeleteButton().setEnabled(false);
+			executor.submit(span, () -> dbHelper.deleteEntryById(id), deleted -> {
+				view.getDeleteButton().setEnabled(true);
+				metrics.record("Löschen", start, deleted ? 1 : 0);
+				tracer.finish(span);
+				showStatus("Löschen", queriesBefore);
+			}, error -> {
+				metrics.recordError("Löschen", start);
+				span.fail(error);
+				tracer.finish(span);
+				view.getDeleteButton().setEnabled(true);
+				showError(error);
+			});
 		} else {
 			JOptionPane.showMessageDialog(view, "Bitte eine Zeile zum Löschen auswählen!", "Fehler",
 					JOptionPane.WARNING_MESSAGE);
 		}
 	}
+
+	/**
+	 * Liefert den in der Tabelle ausgewählten Eintrag oder null, wenn keine
+	 * (geladene) Zeile ausgewählt ist.
+	 */
+	private Entry getSelectedEntry() {
+		JTable table = view.getTable();
+		int selectedRow = table.getSelectedRow();
+		if (selectedRow == -1 || !(table.getModel() instanceof EntryRowModel)) {
+			return null;
+		}
+		return ((EntryRowModel) table.getModel()).getEntry(table.convertRowIndexToModel(selectedRow));
+	}
+
+	/**
+	 * Lädt die Summen pro Monat und Kategorie im Hintergrund und zeigt sie an.
+	 */
+	private void showOverview() {
+		executor.submit(
+				() -> new SimpleImmutableEntry<>(dbHelper.fetchMonthlyTotals(), dbHelper.fetchCategoryTotals()),
+				totals -> view.showOverview(totals.getKey(), totals.getValue()), this::showError);
+	}
+
+	/**
+	 * Vergleicht die nachgeführten Summen mit einer vollständigen Neuberechnung.
+	 * Bei Abweichungen werden diese angezeigt und die Summen neu aufgebaut. Die
+	 * Datenbankarbeit läuft im Hintergrund.
+	 */
+	private void verifyBalance() {
+		BalanceAggregates current = aggregates;
+		executor.submit(() -> current.verify(dbHelper), differences -> {
+			if (differences == null) {
+				JOptionPane.showMessageDialog(view, "Die Bilanz stimmt mit der Datenbank überein.", "Bilanz prüfen",
+						JOptionPane.INFORMATION_MESSAGE);
+				return;
+			}
+			executor.submit(() -> {
+				dbHelper.rebuildRollup();
+				return BalanceAggregates.build(dbHelper);
+			}, rebuilt -> {
+				aggregates = rebuilt;
+				resetProjectionBooked();
+				updateBalance();
+				JOptionPane.showMessageDialog(view,
+						"Abweichungen gefunden, die Bilanz wurde neu berechnet:\n" + differences, "Bilanz prüfen",
+						JOptionPane.WARNING_MESSAGE);
+			}, this::showError);
+		}, this::showError);
+	}
+
+	/**
+	 * Exportiert die Einträge des gewählten Zeitraums im Hintergrund als
+	 * PDF. Während des Exports ist der Menüpunkt gesperrt.
+	 */
+	private void exportPdf() {
+		File file = view.chooseExportFile();
+		if (file == null) {
+			return;
+		}
+		DateRange range = getSelectedRange();
+		Span span = tracer.start("PDF-Export", file.getName() + ", " + (range != null ? range.getLabel() : "alle Jahre"));
+		view.getSaveMenuItem().setEnabled(false);
+		new PdfExportTask(view, file, dbHelper, range, aggregates.getCount(range), metrics, span, () -> {
+			view.getSaveMenuItem().setEnabled(true);
+			tracer.finish(span);
+		}).execute();
+	}
+
+	/**
+	 * Druckt die Tabelle. Die Dauer enthält die Druckdialoge; Seiten, die dabei
+	 * nachgeladen werden, gehören zur Aktion.
+	 */
+	private void printTable() {
+		if (tracer == null) {
+			view.printTable(); // vor dem Verbindungsaufbau gibt es nichts zu verfolgen
+			return;
+		}
+		Span span = tracer.start("Drucken", null);
+		Span.Scope scope = span.activate();
+		try {
+			view.printTable();
+		} finally {
+			scope.close();
+			tracer.finish(span);
+		}
+	}
+
+	/**
+	 * Importiert eine vom Benutzer gewählte CSV-Datei im Hintergrund. Während
+	 * des Imports ist der Menüpunkt gesperrt; die Anzeige wird blockweise über
+	 * onEntriesAdded nachgeführt.
+	 */
+	private void importCsv() {
+		File file = view.chooseImportFile();
+		if (file == null) {
+			return;
+		}
+		long queriesBefore = dbHelper.getQueryCount();
+		view.getImportMenuItem().setEnabled(false);
+		new CsvImportTask(view, file, dbHelper, IMPORT_CHUNK_SIZE, metrics, () -> {
+			view.getImportMenuItem().setEnabled(true);
+			showStatus("CSV-Import", queriesBefore);
+		}).execute();
+	}
+
+	/**
+	 * Öffnet das Diagnosefenster mit den Kennzahlen des Speichers und der
+	 * Benutzeraktionen.
+	 */
+	private void showDiagnostics() {
+		new DiagnosticsDialog(view, Arrays.asList(dbHelper.getMetrics(), metrics)).setVisible(true);
+	}
 }
@@ -0,0 +1,112 @@
+package controller;
+
+import model.DateRange;
+import model.EntryStore;
+import model.Metrics;
+import model.Span;
+import view.PdfReportExporter;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.io.File;
+
+/**
+ * Exportiert den Bericht im Hintergrund als PDF.
+ *
+ * Die Einträge werden über den PdfReportExporter direkt aus der Datenbank
+ * gestreamt. Der Fortschritt wird in einem ProgressMonitor angezeigt, dort
+ * kann der Export abgebrochen werden; eine bestehende Datei bleibt dann
+ * unverändert.
+ */
+public class PdfExportTask extends SwingWorker<Integer, Void> {
+	private final Component parent;
+	private final File target;
+	private final EntryStore dbHelper;
+	private final DateRange range;
+	private final int expectedRows;
+	private final ProgressMonitor monitor;
+	private final Runnable onFinished;
+	// Dauer vom Start bis zum Ende des Exports ("PDF-Export")
+	private final Metrics metrics;
+	private final long startNanos = System.nanoTime();
+	// Abschnitt der Aktion; die Anweisungen des Exports werden als Kinder aufgezeichnet
+	private final Span span;
+	// Für die Fortschrittsanzeige (wird im Hintergrund geschrieben, im EDT gelesen)
+	private volatile int writtenSoFar;
+
+	/**
+	 * @param parent       Elternkomponente für Dialoge.
+	 * @param target       die Zieldatei.
+	 * @param dbHelper     der Datenbankzugriff.
+	 * @param range        der Zeitraum oder null für alle Einträge.
+	 * @param expectedRows erwartete Anzahl Zeilen (für die Fortschrittsanzeige).
+	 * @param metrics      erhält die Dauer des Exports.
+	 * @param span         der Abschnitt der Aktion; wird vor den Meldungen beendet.
+	 * @param onFinished   wird nach dem Export im EDT ausgeführt.
+	 */
+	public PdfExportTask(Component parent, File target, EntryStore dbHelper, DateRange range, int expectedRows,
+			Metrics metrics, Span span, Runnable onFinished) {
+		this.parent = parent;
+		this.target = target;
+		this.dbHelper = dbHelper;
+		this.range = range;
+		this.expectedRows = Math.max(1, expectedRows);
+		this.metrics = metrics;
+		this.span = span;
+		this.onFinished = onFinished;
+		this.monitor = new ProgressMonitor(parent, "PDF-Export: " + target.getName(), "", 0, 100);
+		this.monitor.setMillisToDecideToPopup(200);
+		addPropertyChangeListener(evt -> {
+			if ("progress".equals(evt.getPropertyName())) {
+				monitor.setProgress((Integer) evt.getNewValue());
+				monitor.setNote(writtenSoFar + " Einträge geschrieben");
+				if (monitor.isCanceled()) {
+					cancel(false);
+				}
+			}
+		});
+	}
+
+	@Override
+	protected Integer doInBackground() throws Exception {
+		Span.Scope scope = span.activate();
+		try {
+			int rows = new PdfReportExporter(dbHelper).exportToFile(range, target, written -> {
+				writtenSoFar = written;
+				setProgress((int) Math.min(99, (long) written * 100 / expectedRows));
+				return !isCancelled();
+			});
+			setProgress(100);
+			return rows;
+		} finally {
+			scope.close();
+		}
+	}
+
+	@Override
+	protected void done() {
+		monitor.close();
+		span.end();
+		try {
+			if (isCancelled()) {
+				// Ein abgebrochener Export zählt weder als Aufruf noch als Fehler
+				JOptionPane.showMessageDialog(parent, "PDF-Export abgebrochen.", "PDF-Export",
+						JOptionPane.WARNING_MESSAGE);
+			} else {
+				int rows = get();
+				metrics.record("PDF-Export", startNanos, rows);
+				System.out.println("PDF-Export: " + rows + " Einträge nach " + target.getAbsolutePath());
+				JOptionPane.showMessageDialog(parent, "PDF gespeichert unter: " + target.getAbsolutePath());
+			}
+		} catch (Exception e) {
+			metrics.recordError("PDF-Export", startNanos);
+			e.printStackTrace();
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			span.fail(cause);
+			JOptionPane.showMessageDialog(parent, "Fehler beim PDF-Export: " + cause.getMessage(), "Fehler",
+					JOptionPane.ERROR_MESSAGE);
+		} finally {
+			onFinished.run();
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package controller;
+
+import javax.swing.Timer;
+import java.util.function.Consumer;
+
+/**
+ * Fasst Aufforderungen zum Neuladen zusammen.
+ *
+ * Jede Aufforderung startet eine kurze Wartezeit neu (Debounce); erst wenn in
+ * dieser Zeit keine weitere kommt, wird geladen. Es läuft nie mehr als ein
+ * Ladevorgang gleichzeitig: Kommt während des Ladens eine Aufforderung, wird
+ * danach genau einmal mit dem dann aktuellen Stand nachgeladen. So endet eine
+ * Folge von Aufforderungen (z. B. beim Durchblättern des Monatsfilters mit der
+ * Tastatur) immer mit dem zuletzt gewünschten Stand.
+ *
+ * Alle Methoden laufen im EDT.
+ */
+public class RefreshScheduler {
+	private final Timer timer;
+	private final Consumer<Runnable> load;
+	// Ladevorgang läuft; weitere werden erst danach gestartet
+	private boolean loading;
+	// Während des Ladens kam eine neue Aufforderung
+	private boolean requestedWhileLoading;
+	private long requests;
+	private long loads;
+
+	/**
+	 * @param delayMillis Wartezeit nach der letzten Aufforderung (0 = sofort laden).
+	 * @param load        startet einen Ladevorgang und ruft den übergebenen
+	 *                    Runnable im EDT auf, sobald er abgeschlossen ist (auch
+	 *                    bei einem Fehler).
+	 */
+	public RefreshScheduler(int delayMillis, Consumer<Runnable> load) {
+		this.load = load;
+		this.timer = new Timer(Math.max(0, delayMillis), e -> start());
+		this.timer.setRepeats(false);
+	}
+
+	/**
+	 * Fordert ein Neuladen an.
+	 */
+	public void request() {
+		requests++;
+		if (loading) {
+			requestedWhileLoading = true;
+		} else {
+			timer.restart();
+		}
+	}
+
+	/**
+	 * @return true, wenn ein Ladevorgang läuft oder angefordert ist.
+	 */
+	public boolean isPending() {
+		return loading || timer.isRunning();
+	}
+
+	/**
+	 * @return true, wenn nach dem laufenden Ladevorgang noch einmal geladen
+	 *         wird; sein Ergebnis muss dann nicht mehr angezeigt werden.
+	 */
+	public boolean isOutdated() {
+		return requestedWhileLoading || timer.isRunning();
+	}
+
+	/** Anzahl Aufforderungen zum Neuladen. */
+	public long getRequestCount() {
+		return requests;
+	}
+
+	/** Anzahl tatsächlich gestarteter Ladevorgänge. */
+	public long getLoadCount() {
+		return loads;
+	}
+
+	/** Anzahl durch Zusammenfassen eingesparter Ladevorgänge. */
+	public long getSavedCount() {
+		return requests - loads - (isOutdated() ? 1 : 0);
+	}
+
+	private void start() {
+		loading = true;
+		requestedWhileLoading = false;
+		loads++;
+		try {
+			load.accept(this::finished);
+		} catch (RuntimeException e) {
+			finished();
+			throw e;
+		}
+	}
+
+	private void finished() {
+		if (!loading) {
+			return;
+		}
+		loading = false;
+		if (requestedWhileLoading) {
+			requestedWhileLoading = false;
+			start();
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Hält die Summen der Einnahmen und Ausgaben pro Monat im Speicher.
+ *
+ * Die Summen werden einmal beim Start aufgebaut und danach bei jedem
+ * Hinzufügen oder Löschen in O(1) nachgeführt. Damit können die Bilanz-Labels
+ * sofort aktualisiert werden, ohne die Einträge erneut zu lesen. Alle Beträge
+ * sind in Rappen; Ausgaben werden als positive Summe geführt.
+ *
+ * Die Monate sind nach Jahr getrennt; die Summe eines Zeitraums (ein Monat
+ * oder ein Jahr) läuft über höchstens zwölf Monate.
+ */
+public class BalanceAggregates {
+	private static final int EINNAHME = 0;
+	private static final int AUSGABE = 1;
+
+	// Monat -> [Summe Einnahmen, Anzahl Einnahmen, Summe Ausgaben, Anzahl Ausgaben]
+	private final NavigableMap<YearMonth, long[]> months = new TreeMap<>();
+	// Summen über alle Monate für "Alle Monate"
+	private final long[] totals = new long[2];
+	private int totalCount;
+
+	/**
+	 * Baut die Summen aus den von der Datenbank aggregierten Monatssummen auf.
+	 * Übertragen werden nur die Summen pro Monat und Typ, nicht die Einträge.
+	 *
+	 * @param dbHelper der Datenbankzugriff.
+	 * @return die aufgebauten Summen.
+	 */
+	public static BalanceAggregates build(EntryStore dbHelper) {
+		return fromTotals(dbHelper.fetchMonthlyTotals());
+	}
+
+	private static BalanceAggregates fromTotals(List<MonthlyTotal> monthlyTotals) {
+		BalanceAggregates aggregates = new BalanceAggregates();
+		for (MonthlyTotal total : monthlyTotals) {
+			aggregates.apply(total.getMonth(), total.isIncome() ? EINNAHME : AUSGABE,
+					Math.abs(total.getSumCents()), total.getCount());
+		}
+		return aggregates;
+	}
+
+	/**
+	 * Berücksichtigt einen neu gespeicherten Eintrag.
+	 *
+	 * @param entry der hinzugefügte Eintrag.
+	 */
+	public synchronized void add(Entry entry) {
+		apply(entry.getYearMonth(), entry.isIncome() ? EINNAHME : AUSGABE, Math.abs(entry.getAmountCents()), 1);
+	}
+
+	/**
+	 * Entfernt einen gelöschten Eintrag aus den Summen.
+	 *
+	 * @param entry der gelöschte Eintrag.
+	 */
+	public synchronized void remove(Entry entry) {
+		apply(entry.getYearMonth(), entry.isIncome() ? EINNAHME : AUSGABE, -Math.abs(entry.getAmountCents()), -1);
+	}
+
+	/**
+	 * Setzt alle Summen zurück (nach dem Löschen aller Einträge).
+	 */
+	public synchronized void clear() {
+		months.clear();
+		totals[EINNAHME] = 0;
+		totals[AUSGABE] = 0;
+		totalCount = 0;
+	}
+
+	private void apply(YearMonth month, int type, long amount, int count) {
+		long[] sums = months.computeIfAbsent(month, k -> new long[4]);
+		sums[type * 2] += amount;
+		sums[type * 2 + 1] += count;
+		totals[type] += amount;
+		totalCount += count;
+		if (sums[1] == 0 && sums[3] == 0) {
+			months.remove(month);
+		}
+	}
+
+	/**
+	 * @param range der Zeitraum oder null für alle Einträge.
+	 * @return Summe der Einnahmen in Rappen.
+	 */
+	public synchronized long getIncome(DateRange range) {
+		return get(range, EINNAHME * 2);
+	}
+
+	/**
+	 * @param range der Zeitraum oder null für alle Einträge.
+	 * @return Summe der Ausgaben in Rappen (positiv).
+	 */
+	public synchronized long getExpense(DateRange range) {
+		return get(range, AUSGABE * 2);
+	}
+
+	/**
+	 * @param range der Zeitraum oder null für alle Einträge.
+	 * @return Anzahl Einträge (Einnahmen und Ausgaben).
+	 */
+	public synchronized int getCount(DateRange range) {
+		if (range == null) {
+			return totalCount;
+		}
+		return (int) (get(range, EINNAHME * 2 + 1) + get(range, AUSGABE * 2 + 1));
+	}
+
+	/**
+	 * @param month ein Monat.
+	 * @return Einnahmen minus Ausgaben dieses Monats in Rappen.
+	 */
+	public synchronized long getNet(YearMonth month) {
+		long[] sums = months.get(month);
+		return sums != null ? sums[EINNAHME * 2] - sums[AUSGABE * 2] : 0;
+	}
+
+	/**
+	 * @param month ein Monat.
+	 * @return Einnahmen minus Ausgaben aller Monate vor diesem in Rappen
+	 *         (der Kontostand zu Beginn des Monats).
+	 */
+	public synchronized long getNetBefore(YearMonth month) {
+		long net = 0;
+		for (long[] sums : months.headMap(month, false).values()) {
+			net += sums[EINNAHME * 2] - sums[AUSGABE * 2];
+		}
+		return net;
+	}
+
+	/**
+	 * @return Anzahl Monate mit Einträgen.
+	 */
+	public synchronized int getMonthCount() {
+		return months.size();
+	}
+
+	/**
+	 * @return die Jahre, in denen es Einträge gibt, aufsteigend.
+	 */
+	public synchronized List<Integer> getYears() {
+		TreeSet<Integer> years = new TreeSet<>();
+		for (YearMonth month : months.keySet()) {
+			years.add(month.getYear());
+		}
+		return new ArrayList<>(years);
+	}
+
+	private long get(DateRange range, int index) {
+		if (range == null) {
+			return index % 2 == 0 ? totals[index / 2] : 0;
+		}
+		long sum = 0;
+		for (long[] sums : months.subMap(range.getFrom(), true, range.getTo(), false).values()) {
+			sum += sums[index];
+		}
+		return sum;
+	}
+
+	/**
+	 * Vergleicht die nachgeführten Summen mit einer vollständigen Neuberechnung
+	 * aus der Tabelle "Einträge" (ohne Summentabelle).
+	 *
+	 * @param dbHelper der Datenbankzugriff.
+	 * @return null, wenn alles übereinstimmt, sonst eine Beschreibung der
+	 *         Abweichungen.
+	 */
+	public String verify(EntryStore dbHelper) {
+		BalanceAggregates expected = fromTotals(dbHelper.recomputeMonthlyTotals());
+		StringBuilder differences = new StringBuilder();
+		synchronized (this) {
+			TreeSet<YearMonth> all = new TreeSet<>(months.keySet());
+			all.addAll(expected.months.keySet());
+			for (YearMonth month : all) {
+				long[] actual = months.getOrDefault(month, new long[4]);
+				long[] wanted = expected.months.getOrDefault(month, new long[4]);
+				for (int t = 0; t < 2; t++) {
+					if (actual[t * 2] != wanted[t * 2] || actual[t * 2 + 1] != wanted[t * 2 + 1]) {
+						differences.append(String.format("%s/%s: %s (%d) statt %s (%d)%n", Months.label(month),
+								t == EINNAHME ? Entry.EINNAHME : Entry.AUSGABE,
+								Entry.formatAmount(actual[t * 2], true), actual[t * 2 + 1],
+								Entry.formatAmount(wanted[t * 2], true), wanted[t * 2 + 1]));
+					}
+				}
+			}
+		}
+		return differences.length() == 0 ? null : differences.toString();
+	}
+}
@@ -0,0 +1,235 @@
+package model;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Auswertung pro Kategorie: Summen eines Zeitraums, die Kategorien mit den
+ * höchsten Ausgaben und die Veränderung jeder Kategorie gegenüber dem
+ * Vormonat.
+ *
+ * Alles entsteht in einem einzigen Durchlauf über einen
+ * {@link CategorySnapshot}, gruppiert in {@link IntLongHashMap}s nach
+ * Kategorie, statt einer Abfrage pro Kategorie. Ab
+ * {@value #PARALLEL_THRESHOLD} Zeilen werden Teilbereiche im Fork-Join-Pool
+ * parallel gruppiert und die Teilergebnisse zusammengeführt.
+ */
+public final class CategoryAnalytics {
+	/** Ab so vielen Zeilen wird parallel gruppiert. */
+	public static final int PARALLEL_THRESHOLD = 100_000;
+	// Zeilen pro Teilaufgabe bei paralleler Gruppierung
+	private static final int CHUNK_SIZE = 32 * 1024;
+
+	private final DateRange range;
+	private final YearMonth month;
+	private final int rowCount;
+	private final boolean parallel;
+	private final List<CategoryTotal> totals;
+	private final List<CategoryTotal> topExpenses;
+	private final List<CategoryDelta> deltas;
+
+	private CategoryAnalytics(DateRange range, YearMonth month, int rowCount, boolean parallel,
+			List<CategoryTotal> totals, List<CategoryTotal> topExpenses, List<CategoryDelta> deltas) {
+		this.range = range;
+		this.month = month;
+		this.rowCount = rowCount;
+		this.parallel = parallel;
+		this.totals = totals;
+		this.topExpenses = topExpenses;
+		this.deltas = deltas;
+	}
+
+	/**
+	 * Wertet einen Snapshot aus.
+	 *
+	 * @param snapshot die Einträge mit Kategorie.
+	 * @param range    Zeitraum für Summen und Rangliste oder null für alle Einträge.
+	 * @param month    der Monat, der mit seinem Vormonat verglichen wird.
+	 * @param topN     Anzahl Kategorien in der Rangliste der Ausgaben.
+	 * @return die Auswertung.
+	 */
+	public static CategoryAnalytics compute(CategorySnapshot snapshot, DateRange range, YearMonth month, int topN) {
+		int from = range != null ? CategorySnapshot.monthIndex(range.getFrom()) : Integer.MIN_VALUE;
+		int to = range != null ? CategorySnapshot.monthIndex(range.getTo()) : Integer.MAX_VALUE;
+		int current = CategorySnapshot.monthIndex(month);
+		boolean parallel = snapshot.size() >= PARALLEL_THRESHOLD;
+		GroupTask task = new GroupTask(snapshot, 0, snapshot.size(), from, to, current);
+		Groups groups = parallel ? task.invoke() : task.group();
+
+		List<CategoryTotal> totals = new ArrayList<>();
+		for (int category : groups.keys()) {
+			String name = snapshot.getName(category);
+			long incomeCount = groups.incomeCount.get(category);
+			long expenseCount = groups.expenseCount.get(category);
+			if (incomeCount > 0) {
+				totals.add(new CategoryTotal(name, Entry.EINNAHME, groups.income.get(category), (int) incomeCount));
+			}
+			if (expenseCount > 0) {
+				totals.add(new CategoryTotal(name, Entry.AUSGABE, groups.expense.get(category), (int) expenseCount));
+			}
+		}
+		totals.sort(Comparator.comparingLong((CategoryTotal t) -> Math.abs(t.getSumCents())).reversed()
+				.thenComparing(CategoryTotal::getCategory));
+
+		List<CategoryTotal> topExpenses = new ArrayList<>();
+		for (CategoryTotal total : totals) {
+			if (topExpenses.size() >= topN) {
+				break;
+			}
+			if (!total.isIncome()) {
+				topExpenses.add(total);
+			}
+		}
+
+		List<CategoryDelta> deltas = new ArrayList<>();
+		IntLongHashMap compared = new IntLongHashMap(groups.current.size() + groups.previous.size());
+		compared.addAll(groups.current);
+		compared.addAll(groups.previous);
+		for (int category : compared.keys()) {
+			deltas.add(new CategoryDelta(snapshot.getName(category), groups.previous.get(category),
+					groups.current.get(category)));
+		}
+		deltas.sort(Comparator.comparingLong((CategoryDelta d) -> Math.abs(d.getDeltaCents())).reversed()
+				.thenComparing(CategoryDelta::getCategory));
+
+		return new CategoryAnalytics(range, month, snapshot.size(), parallel, Collections.unmodifiableList(totals),
+				Collections.unmodifiableList(topExpenses), Collections.unmodifiableList(deltas));
+	}
+
+	/** Der Zeitraum der Summen oder null für alle Einträge. */
+	public DateRange getRange() {
+		return range;
+	}
+
+	/** Der mit dem Vormonat verglichene Monat. */
+	public YearMonth getMonth() {
+		return month;
+	}
+
+	/** Anzahl ausgewerteter Zeilen (alle Einträge des Snapshots). */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/** true, wenn parallel gruppiert wurde. */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/** Summe und Anzahl pro Kategorie und Typ im Zeitraum, absteigend nach Betrag. */
+	public List<CategoryTotal> getTotals() {
+		return totals;
+	}
+
+	/** Die Kategorien mit den höchsten Ausgaben im Zeitraum. */
+	public List<CategoryTotal> getTopExpenses() {
+		return topExpenses;
+	}
+
+	/**
+	 * Summe pro Kategorie im Monat und im Vormonat, nach Grösse der
+	 * Veränderung absteigend; nur Kategorien mit Einträgen in einem der beiden.
+	 */
+	public List<CategoryDelta> getDeltas() {
+		return deltas;
+	}
+
+	/**
+	 * Teilergebnis einer Gruppierung: pro Kategorie Summe und Anzahl je Typ
+	 * im Zeitraum sowie die Summe im Vergleichsmonat und seinem Vormonat.
+	 */
+	private static final class Groups {
+		final IntLongHashMap income = new IntLongHashMap();
+		final IntLongHashMap incomeCount = new IntLongHashMap();
+		final IntLongHashMap expense = new IntLongHashMap();
+		final IntLongHashMap expenseCount = new IntLongHashMap();
+		final IntLongHashMap current = new IntLongHashMap();
+		final IntLongHashMap previous = new IntLongHashMap();
+
+		void merge(Groups other) {
+			income.addAll(other.income);
+			incomeCount.addAll(other.incomeCount);
+			expense.addAll(other.expense);
+			expenseCount.addAll(other.expenseCount);
+			current.addAll(other.current);
+			previous.addAll(other.previous);
+		}
+
+		/** Die Kategorien mit Einträgen im Zeitraum. */
+		int[] keys() {
+			IntLongHashMap all = new IntLongHashMap(incomeCount.size() + expenseCount.size());
+			all.addAll(incomeCount);
+			all.addAll(expenseCount);
+			return all.keys();
+		}
+	}
+
+	/**
+	 * Gruppiert einen Bereich von Zeilen; grosse Bereiche werden halbiert und
+	 * parallel gruppiert.
+	 */
+	private static final class GroupTask extends RecursiveTask<Groups> {
+		private static final long serialVersionUID = 1L;
+
+		private final transient CategorySnapshot snapshot;
+		private final int start;
+		private final int end;
+		private final int from;
+		private final int to;
+		private final int current;
+
+		GroupTask(CategorySnapshot snapshot, int start, int end, int from, int to, int current) {
+			this.snapshot = snapshot;
+			this.start = start;
+			this.end = end;
+			this.from = from;
+			this.to = to;
+			this.current = current;
+		}
+
+		@Override
+		protected Groups compute() {
+			if (end - start <= CHUNK_SIZE) {
+				return group();
+			}
+			int middle = (start + end) >>> 1;
+			GroupTask left = new GroupTask(snapshot, start, middle, from, to, current);
+			GroupTask right = new GroupTask(snapshot, middle, end, from, to, current);
+			left.fork();
+			Groups result = right.compute();
+			result.merge(left.join());
+			return result;
+		}
+
+		/**
+		 * Gruppiert den Bereich in einem Durchlauf im aktuellen Thread.
+		 */
+		Groups group() {
+			Groups groups = new Groups();
+			for (int row = start; row < end; row++) {
+				int category = snapshot.getCategory(row);
+				int month = snapshot.getMonth(row);
+				long amount = snapshot.getAmountCents(row);
+				if (month >= from && month < to) {
+					if (snapshot.isIncome(row)) {
+						groups.income.add(category, amount);
+						groups.incomeCount.add(category, 1);
+					} else {
+						groups.expense.add(category, amount);
+						groups.expenseCount.add(category, 1);
+					}
+				}
+				if (month == current) {
+					groups.current.add(category, amount);
+				} else if (month == current - 1) {
+					groups.previous.add(category, amount);
+				}
+			}
+			return groups;
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package model;
+
+/**
+ * Veränderung der Summe einer Kategorie von einem Monat zum nächsten.
+ */
+public final class CategoryDelta {
+	private final String category;
+	private final long previousCents;
+	private final long currentCents;
+
+	/**
+	 * @param category      der Kategoriename.
+	 * @param previousCents Summe im Vormonat in Rappen (Ausgaben negativ).
+	 * @param currentCents  Summe im Monat in Rappen (Ausgaben negativ).
+	 */
+	public CategoryDelta(String category, long previousCents, long currentCents) {
+		this.category = category;
+		this.previousCents = previousCents;
+		this.currentCents = currentCents;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	/** Summe im Vormonat in Rappen. */
+	public long getPreviousCents() {
+		return previousCents;
+	}
+
+	/** Summe im Monat in Rappen. */
+	public long getCurrentCents() {
+		return currentCents;
+	}
+
+	/** Veränderung in Rappen (positiv: mehr Einnahmen bzw. weniger Ausgaben). */
+	public long getDeltaCents() {
+		return currentCents - previousCents;
+	}
+}
@@ -0,0 +1,156 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Alle Einträge mit ihrer Kategorie (aus "Transaktionen" und "Kategorien"),
+ * spaltenweise in primitiven Arrays für die {@link CategoryAnalytics}.
+ *
+ * Pro Zeile werden nur Kategorie (katKey), Betrag in Rappen, Typ und Monat
+ * gehalten, etwa 17 Bytes; die Kategorienamen stehen einmal in einer
+ * eigenen Tabelle. Titel, Datum und ID werden für die Auswertung nicht
+ * gebraucht und deshalb gar nicht erst geladen.
+ *
+ * Der Snapshot wird nach dem Aufbau nicht mehr verändert und darf von
+ * mehreren Threads gleichzeitig gelesen werden.
+ */
+public final class CategorySnapshot {
+	private final int size;
+	private final int[] categories;
+	private final long[] amounts;
+	private final byte[] types;
+	private final int[] months;
+	// katKey -> katName
+	private final Map<Integer, String> names;
+
+	private CategorySnapshot(int size, int[] categories, long[] amounts, byte[] types, int[] months,
+			Map<Integer, String> names) {
+		this.size = size;
+		this.categories = categories;
+		this.amounts = amounts;
+		this.types = types;
+		this.months = months;
+		this.names = names;
+	}
+
+	/**
+	 * Nummeriert einen Monat fortlaufend (Jahr * 12 + Monat - 1), so dass der
+	 * Vormonat immer um eins kleiner ist.
+	 *
+	 * @param month der Monat.
+	 * @return die Monatsnummer.
+	 */
+	public static int monthIndex(YearMonth month) {
+		return month.getYear() * 12 + month.getMonthValue() - 1;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** Der Schlüssel der Kategorie (katKey). */
+	public int getCategory(int row) {
+		return categories[row];
+	}
+
+	/** Betrag in Rappen (negativ bei Ausgaben). */
+	public long getAmountCents(int row) {
+		return amounts[row];
+	}
+
+	public boolean isIncome(int row) {
+		return types[row] == EntrySnapshot.EINNAHME;
+	}
+
+	/** Monatsnummer wie {@link #monthIndex(YearMonth)}. */
+	public int getMonth(int row) {
+		return months[row];
+	}
+
+	/**
+	 * @param category der Schlüssel der Kategorie.
+	 * @return der Name der Kategorie oder "#Schlüssel", wenn er fehlt.
+	 */
+	public String getName(int category) {
+		String name = names.get(category);
+		return name != null ? name : "#" + category;
+	}
+
+	/** Anzahl Kategorien mit Namen. */
+	public int getCategoryCount() {
+		return names.size();
+	}
+
+	/**
+	 * Schätzt den Speicherbedarf der Spalten in Bytes (ohne Namen).
+	 *
+	 * @return geschätzte Bytes.
+	 */
+	public long estimateHeapBytes() {
+		return (long) categories.length * 4 + (long) amounts.length * 8 + types.length + (long) months.length * 4;
+	}
+
+	/**
+	 * Baut einen Snapshot zeilenweise auf; die Arrays wachsen bei Bedarf.
+	 */
+	public static final class Builder {
+		private int size;
+		private int[] categories = new int[64];
+		private long[] amounts = new long[64];
+		private byte[] types = new byte[64];
+		private int[] months = new int[64];
+		private final Map<Integer, String> names = new HashMap<>();
+
+		/**
+		 * Legt den Namen einer Kategorie fest.
+		 *
+		 * @param category der Schlüssel (katKey).
+		 * @param name     der Name (katName).
+		 */
+		public void addCategory(int category, String name) {
+			names.put(category, name);
+		}
+
+		/**
+		 * Hängt eine Zeile an.
+		 *
+		 * @param category    der Schlüssel der Kategorie.
+		 * @param amountCents der Betrag in Rappen.
+		 * @param income      true für eine Einnahme.
+		 * @param month       die Monatsnummer wie {@link CategorySnapshot#monthIndex}.
+		 */
+		public void add(int category, long amountCents, boolean income, int month) {
+			if (size == categories.length) {
+				int capacity = size + (size >> 1);
+				categories = Arrays.copyOf(categories, capacity);
+				amounts = Arrays.copyOf(amounts, capacity);
+				types = Arrays.copyOf(types, capacity);
+				months = Arrays.copyOf(months, capacity);
+			}
+			categories[size] = category;
+			amounts[size] = amountCents;
+			types[size] = income ? EntrySnapshot.EINNAHME : EntrySnapshot.AUSGABE;
+			months[size] = month;
+			size++;
+		}
+
+		/**
+		 * Hängt eine Zeile mit dem Buchungsdatum an.
+		 */
+		public void add(int category, long amountCents, boolean income, LocalDate date) {
+			add(category, amountCents, income, date.getYear() * 12 + date.getMonthValue() - 1);
+		}
+
+		/**
+		 * @return der fertige Snapshot mit auf die Grösse gekürzten Arrays.
+		 */
+		public CategorySnapshot build() {
+			return new CategorySnapshot(size, Arrays.copyOf(categories, size), Arrays.copyOf(amounts, size),
+					Arrays.copyOf(types, size), Arrays.copyOf(months, size), names);
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Summe und Anzahl der Einträge einer Kategorie (aus "Kategorien" über
+ * "Transaktionen") für einen Typ.
+ */
+public final class CategoryTotal {
+	private final String category;
+	private final String type;
+	private final long sumCents;
+	private final int count;
+
+	/**
+	 * @param category der Kategoriename (katName).
+	 * @param type     "Einnahme" oder "Ausgabe".
+	 * @param sumCents die Summe der Beträge in Rappen (Ausgaben negativ).
+	 * @param count    die Anzahl Einträge.
+	 */
+	public CategoryTotal(String category, String type, long sumCents, int count) {
+		this.category = category;
+		this.type = type;
+		this.sumCents = sumCents;
+		this.count = count;
+	}
+
+	public String getCategory() {
+		return category;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/** Summe in Rappen (Ausgaben negativ). */
+	public long getSumCents() {
+		return sumCents;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public boolean isIncome() {
+		return Entry.EINNAHME.equals(type);
+	}
+}
@@ -0,0 +1,307 @@
+package model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Einfacher, begrenzter Pool für JDBC-Verbindungen.
+ *
+ * Statt für jeden Datenbankzugriff eine neue Verbindung (TCP-Aufbau und
+ * Anmeldung) zu öffnen, werden Verbindungen nach dem Schliessen in den Pool
+ * zurückgelegt und wiederverwendet. Der Pool
+ * - begrenzt die Anzahl gleichzeitig geöffneter Verbindungen,
+ * - wartet höchstens pool.maxWaitMillis auf eine freie Verbindung,
+ * - prüft länger unbenutzte Verbindungen vor der Ausgabe mit isValid(),
+ * - schliesst im Hintergrund Verbindungen, die zu lange unbenutzt waren,
+ * - führt Statistiken über Ausleihen, Wartezeiten und Fehler.
+ *
+ * Die ausgegebenen Verbindungen sind Stellvertreter: close() gibt die
+ * Verbindung an den Pool zurück, statt sie zu schliessen. Ist beim Erstellen
+ * einer Anweisung ein {@link Span} aktiv, wird jede Ausführung als
+ * Kind-Abschnitt mit SQL-Text und Zeilen aufgezeichnet (siehe
+ * {@link StatementTracer}).
+ */
+public class ConnectionPool implements AutoCloseable {
+	private final DatabaseConfig config;
+	private final String url;
+	private final String user;
+	private final String password;
+	private final int maxSize;
+	private final int minIdle;
+	private final long maxWaitMillis;
+	private final long idleTimeoutMillis;
+	private final long validationIntervalMillis;
+	private final int validationTimeoutSeconds;
+
+	private final Semaphore permits;
+	private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+	private final ScheduledExecutorService evictor;
+	private volatile boolean closed;
+
+	// Statistik
+	private final AtomicLong created = new AtomicLong();
+	private final AtomicLong destroyed = new AtomicLong();
+	private final AtomicLong borrowed = new AtomicLong();
+	private final AtomicLong waitTimeouts = new AtomicLong();
+	private final AtomicLong validationFailures = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	/**
+	 * Erstellt einen Pool mit den Werten aus der Konfiguration.
+	 *
+	 * @param config die Anwendungskonfiguration.
+	 */
+	public ConnectionPool(DatabaseConfig config) {
+		this.config = config;
+		this.url = config.getUrl();
+		this.user = config.getUser();
+		this.password = config.getPassword();
+		this.maxSize = Math.max(1, config.getPoolMaxSize());
+		this.minIdle = Math.max(0, Math.min(config.getPoolMinIdle(), maxSize));
+		this.maxWaitMillis = config.getPoolMaxWaitMillis();
+		this.idleTimeoutMillis = config.getPoolIdleTimeoutMillis();
+		this.validationIntervalMillis = config.getPoolValidationIntervalMillis();
+		this.validationTimeoutSeconds = config.getPoolValidationTimeoutSeconds();
+		this.permits = new Semaphore(maxSize, true);
+
+		this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "LiquiPlanner-Pool-Evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		long interval = Math.max(1000, config.getPoolEvictionIntervalMillis());
+		evictor.scheduleWithFixedDelay(this::evictIdleConnections, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return die Konfiguration, mit der dieser Pool erstellt wurde.
+	 */
+	public DatabaseConfig getConfig() {
+		return config;
+	}
+
+	/**
+	 * Leiht eine Verbindung aus dem Pool aus. Die Verbindung muss mit close()
+	 * zurückgegeben werden (am besten mit try-with-resources).
+	 *
+	 * @return eine gültige Verbindung.
+	 * @throws SQLException wenn innerhalb von pool.maxWaitMillis keine Verbindung
+	 *                      frei wurde oder keine neue aufgebaut werden konnte.
+	 */
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Der Verbindungspool wurde bereits geschlossen.");
+		}
+		long start = System.nanoTime();
+		try {
+			if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				waitTimeouts.incrementAndGet();
+				throw new SQLException("Zeitüberschreitung: Nach " + maxWaitMillis
+						+ " ms war keine Datenbankverbindung frei (" + maxSize + " in Gebrauch).");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Warten auf eine Datenbankverbindung wurde unterbrochen.", e);
+		}
+		long waited = System.nanoTime() - start;
+		totalWaitNanos.addAndGet(waited);
+		maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+		try {
+			Connection physical = takeIdleConnection();
+			if (physical == null) {
+				physical = DriverManager.getConnection(url, user, password);
+				created.incrementAndGet();
+			}
+			borrowed.incrementAndGet();
+			return wrap(physical);
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Holt die zuletzt zurückgegebene Verbindung aus dem Leerlauf. Verbindungen,
+	 * die länger als pool.validationIntervalMillis unbenutzt waren, werden vorher
+	 * geprüft und bei Bedarf verworfen.
+	 */
+	private Connection takeIdleConnection() {
+		IdleConnection candidate;
+		while ((candidate = idle.pollFirst()) != null) {
+			long idleMillis = System.currentTimeMillis() - candidate.returnedAt;
+			if (idleMillis < validationIntervalMillis || isValid(candidate.connection)) {
+				return candidate.connection;
+			}
+			validationFailures.incrementAndGet();
+			destroy(candidate.connection);
+		}
+		return null;
+	}
+
+	private boolean isValid(Connection connection) {
+		try {
+			return connection.isValid(validationTimeoutSeconds);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Nimmt eine Verbindung zurück. Offene Transaktionen werden zurückgesetzt,
+	 * damit der nächste Benutzer eine saubere Verbindung erhält.
+	 */
+	private void release(Connection physical) {
+		try {
+			if (closed || physical.isClosed()) {
+				destroy(physical);
+				return;
+			}
+			if (!physical.getAutoCommit()) {
+				physical.rollback();
+				physical.setAutoCommit(true);
+			}
+			if (physical.isReadOnly()) {
+				physical.setReadOnly(false);
+			}
+			idle.offerFirst(new IdleConnection(physical, System.currentTimeMillis()));
+		} catch (SQLException e) {
+			System.err.println("Verbindung konnte nicht zurückgegeben werden: " + e.getMessage());
+			destroy(physical);
+		} finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * Schliesst Verbindungen, die länger als pool.idleTimeoutMillis unbenutzt
+	 * waren. Es bleiben mindestens pool.minIdle Verbindungen offen.
+	 */
+	private void evictIdleConnections() {
+		long now = System.currentTimeMillis();
+		// Die ältesten Verbindungen liegen am Ende der Warteschlange.
+		Iterator<IdleConnection> it = idle.descendingIterator();
+		while (it.hasNext() && idle.size() > minIdle) {
+			IdleConnection candidate = it.next();
+			if (now - candidate.returnedAt >= idleTimeoutMillis && idle.remove(candidate)) {
+				destroy(candidate.connection);
+			}
+		}
+	}
+
+	private void destroy(Connection physical) {
+		try {
+			physical.close();
+		} catch (SQLException e) {
+			// Verbindung ist ohnehin unbrauchbar
+		}
+		destroyed.incrementAndGet();
+	}
+
+	/**
+	 * Liefert eine Momentaufnahme der Pool-Statistik.
+	 *
+	 * @return die aktuellen Kennzahlen.
+	 */
+	public PoolStatistics getStatistics() {
+		int idleCount = idle.size();
+		int active = maxSize - permits.availablePermits();
+		return new PoolStatistics(maxSize, active, idleCount, created.get(), destroyed.get(), borrowed.get(),
+				waitTimeouts.get(), validationFailures.get(), totalWaitNanos.get(), maxWaitNanos.get());
+	}
+
+	/**
+	 * Schliesst alle Verbindungen im Leerlauf und beendet den Hintergrund-Thread.
+	 * Ausgeliehene Verbindungen werden bei ihrer Rückgabe geschlossen.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		evictor.shutdownNow();
+		IdleConnection candidate;
+		while ((candidate = idle.pollFirst()) != null) {
+			destroy(candidate.connection);
+		}
+	}
+
+	private Connection wrap(Connection physical) {
+		return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+				new Class<?>[] { Connection.class }, new PooledConnectionHandler(physical));
+	}
+
+	/**
+	 * Leitet alle Aufrufe an die echte Verbindung weiter, ausser close(), das die
+	 * Verbindung an den Pool zurückgibt.
+	 */
+	private final class PooledConnectionHandler implements InvocationHandler {
+		private Connection physical;
+
+		PooledConnectionHandler(Connection physical) {
+			this.physical = physical;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("close".equals(name)) {
+				if (physical != null) {
+					Connection toRelease = physical;
+					physical = null;
+					release(toRelease);
+				}
+				return null;
+			}
+			if ("isClosed".equals(name)) {
+				return physical == null || physical.isClosed();
+			}
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("toString".equals(name)) {
+				return "PooledConnection[" + physical + "]";
+			}
+			if (physical == null) {
+				throw new SQLException("Die Verbindung wurde bereits an den Pool zurückgegeben.");
+			}
+			Object result;
+			try {
+				result = method.invoke(physical, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			Span span = Span.current();
+			if (span != null && result instanceof Statement) {
+				String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+				return StatementTracer.wrap((Statement) result, sql, span);
+			}
+			return result;
+		}
+	}
+
+	private static final class IdleConnection {
+		final Connection connection;
+		final long returnedAt;
+
+		IdleConnection(Connection connection, long returnedAt) {
+			this.connection = connection;
+			this.returnedAt = returnedAt;
+		}
+	}
+}
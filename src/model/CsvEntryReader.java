@@ -0,0 +1,161 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liest Einträge zeilenweise aus einer CSV-Datei, ohne die ganze Datei in den
+ * Speicher zu laden.
+ *
+ * Erwartetes Format (Trennzeichen ";" oder ","; eine Kopfzeile wird erkannt
+ * und übersprungen):
+ * Titel;Betrag;Typ;Datum
+ * Lohn;5200.00;Einnahme;25.01.2025
+ * Miete;-1850.00;Ausgabe;2025-01-01
+ *
+ * Das Datum steht als "25.01.2025" oder "2025-01-25". Ältere Dateien mit
+ * einem Monatsnamen ("Januar") werden weiterhin gelesen; der Eintrag erhält
+ * dann den ersten Tag dieses Monats im laufenden Jahr. Fehlt der Typ, wird
+ * er aus dem Vorzeichen des Betrags abgeleitet. Wie im Formular werden Ausgaben immer negativ und Einnahmen immer positiv
+ * gespeichert. Ungültige Zeilen werden gemeldet und übersprungen.
+ */
+public class CsvEntryReader implements Closeable {
+	private final BufferedReader reader;
+	// Jahr für Zeilen, die nur einen Monatsnamen enthalten
+	private final int year = Year.now().getValue();
+	private int lineNumber;
+	private int skippedLines;
+
+	/**
+	 * @param reader die Quelle der CSV-Daten.
+	 */
+	public CsvEntryReader(Reader reader) {
+		this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+	}
+
+	/**
+	 * Liest den nächsten gültigen Eintrag.
+	 *
+	 * @return der Eintrag (mit ID 0) oder null am Dateiende.
+	 * @throws IOException bei einem Lesefehler.
+	 */
+	public Entry next() throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			lineNumber++;
+			// Von Excel als "CSV UTF-8" gespeicherte Dateien beginnen mit einem BOM
+			if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+				line = line.substring(1);
+			}
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			List<String> fields = split(line);
+			if (lineNumber == 1 && isHeader(fields)) {
+				continue;
+			}
+			Entry entry = parse(fields);
+			if (entry != null) {
+				return entry;
+			}
+			skippedLines++;
+			System.err.println("CSV-Zeile " + lineNumber + " ungültig, übersprungen: " + line);
+		}
+		return null;
+	}
+
+	/** Anzahl der bisher übersprungenen, ungültigen Zeilen. */
+	public int getSkippedLines() {
+		return skippedLines;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	private static boolean isHeader(List<String> fields) {
+		return !fields.isEmpty() && "titel".equalsIgnoreCase(fields.get(0).trim());
+	}
+
+	private Entry parse(List<String> fields) {
+		if (fields.size() < 3) {
+			return null;
+		}
+		String title = fields.get(0).trim();
+		if (title.isEmpty()) {
+			return null;
+		}
+		long cents;
+		try {
+			// Tausendertrennzeichen (1'234.50) und Dezimalkomma zulassen
+			String amount = fields.get(1).trim().replace("'", "").replace(" ", "").replace(',', '.');
+			cents = new BigDecimal(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+		} catch (NumberFormatException | ArithmeticException e) {
+			return null;
+		}
+		String type;
+		String date;
+		if (fields.size() >= 4) {
+			type = fields.get(2).trim();
+			date = fields.get(3).trim();
+		} else {
+			type = cents < 0 ? Entry.AUSGABE : Entry.EINNAHME;
+			date = fields.get(2).trim();
+		}
+		if (!Entry.EINNAHME.equals(type) && !Entry.AUSGABE.equals(type)) {
+			return null;
+		}
+		int month = Months.indexOf(date);
+		LocalDate booked = month >= 0 ? LocalDate.of(year, month + 1, 1) : Entry.parseDate(date);
+		if (booked == null) {
+			return null;
+		}
+		cents = Entry.AUSGABE.equals(type) ? -Math.abs(cents) : Math.abs(cents);
+		return new Entry(0, title, cents, type, booked);
+	}
+
+	/**
+	 * Zerlegt eine Zeile an ";" bzw. "," (falls kein ";" vorkommt). Felder in
+	 * Anführungszeichen dürfen das Trennzeichen enthalten; "" steht für ein
+	 * einzelnes Anführungszeichen.
+	 */
+	private static List<String> split(String line) {
+		char separator = line.indexOf(';') >= 0 ? ';' : ',';
+		List<String> fields = new ArrayList<>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"') {
+					if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+						field.append('"');
+						i++;
+					} else {
+						quoted = false;
+					}
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == separator) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields;
+	}
+}
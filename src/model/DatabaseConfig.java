@@ -0,0 +1,181 @@
+package model;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+/**
+ * Liest die Konfiguration der Anwendung (Datenbankzugang, Verbindungspool) aus
+ * einer externen Properties-Datei.
+ *
+ * Gesucht wird in dieser Reihenfolge:
+ * 1. Pfad aus der System-Property "liquiplanner.config"
+ * 2. Datei "liquiplanner.properties" im Arbeitsverzeichnis
+ * 3. Ressource "/liquiplanner.properties" im Klassenpfad
+ * Fehlt ein Wert, wird der eingebaute Standardwert verwendet.
+ */
+public class DatabaseConfig {
+	public static final String CONFIG_PROPERTY = "liquiplanner.config";
+	public static final String CONFIG_FILE = "liquiplanner.properties";
+
+	private final Properties properties;
+
+	/**
+	 * Erstellt eine Konfiguration aus bereits geladenen Properties.
+	 *
+	 * @param properties die Konfigurationswerte.
+	 */
+	public DatabaseConfig(Properties properties) {
+		this.properties = properties;
+	}
+
+	/**
+	 * Lädt die Konfiguration aus der ersten gefundenen Quelle.
+	 *
+	 * @return die geladene Konfiguration (leer, falls keine Datei gefunden wurde).
+	 */
+	public static DatabaseConfig load() {
+		Properties props = new Properties();
+		String explicitPath = System.getProperty(CONFIG_PROPERTY);
+		File file = explicitPath != null ? new File(explicitPath) : new File(CONFIG_FILE);
+		try {
+			if (file.isFile()) {
+				try (InputStream in = new FileInputStream(file)) {
+					readUtf8(props, in);
+				}
+				System.out.println("Konfiguration geladen: " + file.getAbsolutePath());
+			} else {
+				try (InputStream in = DatabaseConfig.class.getResourceAsStream("/" + CONFIG_FILE)) {
+					if (in != null) {
+						readUtf8(props, in);
+						System.out.println("Konfiguration aus dem Klassenpfad geladen.");
+					} else {
+						System.out.println("Keine Konfigurationsdatei gefunden, Standardwerte werden verwendet.");
+					}
+				}
+			}
+		} catch (IOException e) {
+			System.err.println("Fehler beim Lesen der Konfiguration: " + e.getMessage());
+			e.printStackTrace();
+		}
+		return new DatabaseConfig(props);
+	}
+
+	private static void readUtf8(Properties props, InputStream in) throws IOException {
+		try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+			props.load(reader);
+		}
+	}
+
+	// Datenbankzugang
+
+	/**
+	 * Die JDBC-URL. Der Standard schaltet "useCursorFetch=true" ein, damit
+	 * {@link #getFetchSize()} wirkt und grosse Abfragen nicht vollständig im
+	 * Speicher des Treibers landen.
+	 */
+	public String getUrl() {
+		return getString("db.url", "jdbc:mysql://localhost:3307/LiquiPlanner?rewriteBatchedStatements=true"
+				+ "&useLocalSessionState=true&useCursorFetch=true");
+	}
+
+	public String getUser() {
+		return getString("db.user", "deinBenutzername");
+	}
+
+	public String getPassword() {
+		return getString("db.password", "deinPasswort");
+	}
+
+	/**
+	 * Anzahl Zeilen, die der Treiber pro Abruf holt. Bei MySQL wirkt ein positiver
+	 * Wert nur mit "useCursorFetch=true" in der URL (im Standard von
+	 * {@link #getUrl()} gesetzt); ohne liest der Treiber das ganze Ergebnis in
+	 * den Speicher. -1 schaltet das zeilenweise Streaming des Treibers ein
+	 * (Integer.MIN_VALUE), das ohne diese Option auskommt.
+	 */
+	public int getFetchSize() {
+		int value = getInt("db.fetchSize", 500);
+		return value < 0 ? Integer.MIN_VALUE : value;
+	}
+
+	// Verbindungspool
+
+	/** Maximale Anzahl gleichzeitig geöffneter Verbindungen. */
+	public int getPoolMaxSize() {
+		return getInt("pool.maxSize", 8);
+	}
+
+	/** Anzahl Verbindungen, die auch bei Leerlauf offen gehalten werden. */
+	public int getPoolMinIdle() {
+		return getInt("pool.minIdle", 1);
+	}
+
+	/** Maximale Wartezeit auf eine freie Verbindung in Millisekunden. */
+	public long getPoolMaxWaitMillis() {
+		return getLong("pool.maxWaitMillis", 5000);
+	}
+
+	/** Nach dieser Leerlaufzeit (ms) wird eine Verbindung geschlossen. */
+	public long getPoolIdleTimeoutMillis() {
+		return getLong("pool.idleTimeoutMillis", 300000);
+	}
+
+	/** Intervall (ms), in dem nach abgelaufenen Verbindungen gesucht wird. */
+	public long getPoolEvictionIntervalMillis() {
+		return getLong("pool.evictionIntervalMillis", 60000);
+	}
+
+	/** Verbindungen, die länger als diese Zeit (ms) unbenutzt waren, werden vor der Ausgabe geprüft. */
+	public long getPoolValidationIntervalMillis() {
+		return getLong("pool.validationIntervalMillis", 30000);
+	}
+
+	/** Zeitlimit für die Prüfung einer Verbindung in Sekunden. */
+	public int getPoolValidationTimeoutSeconds() {
+		return getInt("pool.validationTimeoutSeconds", 2);
+	}
+
+	// Allgemeine Zugriffsmethoden
+
+	public String getString(String key, String defaultValue) {
+		String value = properties.getProperty(key);
+		return value != null ? value.trim() : defaultValue;
+	}
+
+	public int getInt(String key, int defaultValue) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			System.err.println("Ungültiger Wert für " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	public long getLong(String key, long defaultValue) {
+		String value = properties.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			System.err.println("Ungültiger Wert für " + key + ": " + value);
+			return defaultValue;
+		}
+	}
+
+	public boolean getBoolean(String key, boolean defaultValue) {
+		String value = properties.getProperty(key);
+		return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+	}
+}
@@ -1,68 +1,231 @@
 package model;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Verwaltet die Datenbankverbindung und -operationen für Einnahmen und Ausgaben.
  * Diese Klasse stellt Methoden zur Verfügung, um Tabellen zu erstellen,
  * Einträge hinzuzufügen, Einträge abzurufen und zu löschen.
+ *
+ * Standard-Implementierung von {@link EntryStore} (store.engine=mysql).
+ * Pool-Statistik, EXPLAIN und die Schlüssel-Caches gibt es nur hier.
  */
-public class DatabaseHelper {
-    // Datenbankkonfiguration (Ersetze Benutzername und Passwort mit deinen eigenen Werten)
-    private static final String DB_URL = "jdbc:mysql://localhost:3307/LiquiPlanner";
-    private static final String DB_USER = "deinBenutzername"; // Dein MySQL-Benutzername
-    private static final String DB_PASSWORD = "deinPasswort"; // Dein MySQL-Passwort
+public class DatabaseHelper implements EntryStore {
+    // Gemeinsamer Anfang der Abfragen, die Einträge lesen (siehe readEntry)
+    private static final String ENTRY_SELECT = "SELECT e.eintragKey AS id, e.eintragTitel AS title, "
+            + "e.eintragBetrag AS amount, e.eintragTyp AS type, e.eintragDatum AS datum FROM Einträge e";
+    // Bedingung für den Zeitraum; erwartet ersten Tag und ersten Tag danach
+    // als Parameter. Bereichszugriff über idx_eintrag_datum_typ_betrag, bei
+    // partitionierter Tabelle nur auf die Partitionen der betroffenen Jahre.
+    private static final String RANGE_FILTER = "e.eintragDatum >= ? AND e.eintragDatum < ?";
+    // Summen pro Jahr, Monat und Typ allein über den deckenden Index
+    private static final String MONTHLY_TOTALS_SQL = "SELECT YEAR(eintragDatum) AS jahr, MONTH(eintragDatum) AS monat, "
+            + "eintragTyp AS type, SUM(eintragBetrag) AS total, COUNT(*) AS cnt FROM Einträge "
+            + "GROUP BY YEAR(eintragDatum), MONTH(eintragDatum), eintragTyp";
+    private static final String CATEGORY_TOTALS_SQL = "SELECT k.katName AS category, e.eintragTyp AS type, "
+            + "SUM(e.eintragBetrag) AS total, COUNT(*) AS cnt FROM Transaktionen t "
+            + "JOIN Kategorien k ON k.katKey = t.transKatId "
+            + "JOIN Einträge e ON e.eintragKey = t.transEintragId "
+            + "GROUP BY k.katName, e.eintragTyp ORDER BY ABS(SUM(e.eintragBetrag)) DESC";
+
+    // Monatsnummer wie CategorySnapshot.monthIndex, damit kein Datum pro Zeile entsteht
+    private static final String CATEGORY_ROWS_SQL = "SELECT t.transKatId AS category, e.eintragBetrag AS amount, "
+            + "e.eintragTyp AS type, YEAR(e.eintragDatum) * 12 + MONTH(e.eintragDatum) - 1 AS monat "
+            + "FROM Transaktionen t JOIN Einträge e ON e.eintragKey = t.transEintragId";
+
+    // Verbindungen kommen aus dem Pool; Zugangsdaten stehen in liquiplanner.properties
+    private final ConnectionPool pool;
+    // Anzahl Zeilen, die der Treiber pro Netzwerk-Abruf holt
+    private final int fetchSize;
+    // Anzahl Zeilen pro Batch und Commit bei insertEntries
+    private final int batchSize;
+    // Anzahl der seit dem Start ausgeführten Abfragen und Änderungen
+    private final AtomicLong queryCount = new AtomicLong();
+    // true, wenn die Summentabelle "JahresMonatsSummen" mitgeführt wird (db.rollup)
+    private final boolean rollupEnabled;
+    // true, wenn "Transaktionen" nicht per ON DELETE CASCADE an "Einträge"
+    // hängt, z. B. nach dem Partitionieren (Migration 8). Die Zeilen in
+    // "Transaktionen" werden dann beim Löschen selbst entfernt. Bestimmt wird
+    // das aus dem Schema, nicht aus der Konfiguration.
+    private boolean deleteDependents = true;
+
+    // Zwischengespeicherte Schlüssel: monatName -> monatKey, Titel -> katKey.
+    // Der Cache ist nach dem Titel des Eintrags geschlüsselt, nicht nach dem
+    // gespeicherten katName: MySQL vergleicht katName ohne Gross-/Kleinschreibung
+    // und Akzente, "miete" kann also den Schlüssel von "Miete" erhalten.
+    private static final int MAX_CACHED_CATEGORIES = 50000;
+    // Länge von katName (VARCHAR(100)); längere Titel werden dafür gekürzt
+    static final int CATEGORY_NAME_LENGTH = 100;
+    private final boolean keyCacheEnabled;
+    private final Map<String, Integer> monthKeys = new ConcurrentHashMap<>();
+    private final Map<String, Integer> categoryKeys = new ConcurrentHashMap<>();
+    // Dauer, Zeilen und Fehler pro Operation (per JMX und im Diagnosefenster)
+    private final Metrics metrics = new Metrics("Speicher");
+    private final EntryEvents events = new EntryEvents();
 
     /**
-     * Konstruktor: Erstellt die benötigten Tabellen und fügt Standardmonate hinzu.
+     * Konstruktor: Lädt die Konfiguration, erstellt den Verbindungspool sowie die
+     * benötigten Tabellen und fügt Standardmonate hinzu.
      */
     public DatabaseHelper() {
-        createTables();
+        this(new ConnectionPool(DatabaseConfig.load()));
+    }
+
+    /**
+     * Konstruktor für einen bereits vorhandenen (z. B. gemeinsam genutzten)
+     * Verbindungspool.
+     *
+     * @param pool der zu verwendende Verbindungspool.
+     */
+    public DatabaseHelper(ConnectionPool pool) {
+        this.pool = pool;
+        this.fetchSize = pool.getConfig().getFetchSize();
+        this.batchSize = Math.max(1, pool.getConfig().getInt("db.batchSize", 1000));
+        this.rollupEnabled = pool.getConfig().getBoolean("db.rollup", false);
+        this.keyCacheEnabled = pool.getConfig().getBoolean("db.keyCache", true);
+        createTables(pool.getConfig().getBoolean("db.partitionByYear", false));
         insertDefaultMonths();
+        inspectSchema();
+        if (rollupEnabled) {
+            initRollup();
+        }
+        if (keyCacheEnabled) {
+            warmKeyCaches();
+        }
+        metrics.registerGauge("abfragen", queryCount::get);
+        metrics.registerGauge("pool.aktiv", () -> pool.getStatistics().getActive());
+        metrics.registerGauge("pool.frei", () -> pool.getStatistics().getIdle());
+        metrics.registerGauge("pool.ausgeliehen", () -> pool.getStatistics().getBorrowed());
+        metrics.registerGauge("pool.zeitueberschreitungen", () -> pool.getStatistics().getWaitTimeouts());
     }
 
     /**
-     * Erstellt die Tabellen "Monate", "Einträge", "Kategorien" und "Transaktionen".
+     * Lädt alle Monats- und (bis zur Höchstgrenze) Kategorieschlüssel in den
+     * Cache, damit schon das erste insertEntry() ohne Nachschlagen auskommt.
      */
-    private void createTables() {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+    private void warmKeyCaches() {
+        try (Connection conn = pool.getConnection();
              Statement stmt = conn.createStatement()) {
+            monthKeys.putAll(loadMonthKeys(conn));
+            stmt.setMaxRows(MAX_CACHED_CATEGORIES);
+            try (ResultSet rs = stmt.executeQuery("SELECT katKey, katName FROM Kategorien")) {
+                while (rs.next()) {
+                    categoryKeys.put(rs.getString("katName"), rs.getInt("katKey"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Laden der Schlüssel: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Liefert die Konfiguration, mit der der Verbindungspool erstellt wurde.
+     *
+     * @return die Konfiguration.
+     */
+    public DatabaseConfig getConfig() {
+        return pool.getConfig();
+    }
+
+    /**
+     * Liefert die aktuellen Kennzahlen des Verbindungspools.
+     *
+     * @return Statistik des Pools.
+     */
+    public PoolStatistics getPoolStatistics() {
+        return pool.getStatistics();
+    }
+
+    /**
+     * Meldet einen Listener an. Er wird nach jedem erfolgreichen Commit
+     * benachrichtigt, im Thread, der geschrieben hat.
+     *
+     * @param listener der Listener.
+     */
+    public void addEntryListener(EntryListener listener) {
+        events.add(listener);
+    }
+
+    /**
+     * @param listener der zu entfernende Listener.
+     */
+    public void removeEntryListener(EntryListener listener) {
+        events.remove(listener);
+    }
+
+    /**
+     * Liefert die Anzahl der bisher ausgeführten SQL-Anweisungen (ohne das
+     * Anlegen der Tabellen). Die Differenz zweier Werte ergibt die Anzahl
+     * Datenbankzugriffe einer Benutzeraktion.
+     *
+     * @return Anzahl ausgeführter Anweisungen.
+     */
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    /**
+     * Liefert die Kennzahlen pro Operation (Dauer, gelesene bzw. geänderte
+     * Zeilen, Fehler) und des Verbindungspools.
+     *
+     * @return die Kennzahlen.
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Schliesst den Verbindungspool.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Bringt das Schema über den SchemaMigrator auf den aktuellen Stand und
+     * legt bei Bedarf die optionale Summentabelle an. Das Partitionieren nach
+     * Jahr ist eine optionale Migration und läuft wie alle unter der
+     * Schema-Sperre.
+     *
+     * @param partitionByYear true, wenn "Einträge" nach Jahr partitioniert werden soll.
+     */
+    private void createTables(boolean partitionByYear) {
+        try (Connection conn = pool.getConnection()) {
+            new SchemaMigrator(SchemaMigrator.migrations(partitionByYear)).migrate(conn);
 
-            // Tabelle für Monate
-            String sqlMonate = "CREATE TABLE IF NOT EXISTS Monate ("
-                    + "monatKey INT AUTO_INCREMENT PRIMARY KEY, "
-                    + "monatName VARCHAR(20) UNIQUE NOT NULL"
-                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-            stmt.execute(sqlMonate);
-
-            // Tabelle für Einträge
-            String sqlEintraege = "CREATE TABLE IF NOT EXISTS Einträge ("
-                    + "eintragKey INT AUTO_INCREMENT PRIMARY KEY, "
-                    + "eintragTitel VARCHAR(255) NOT NULL, "
-                    + "eintragBetrag DECIMAL(15,2) NOT NULL, "
-                    + "eintragTyp ENUM('Einnahme','Ausgabe') NOT NULL, "
-                    + "eintragMonat INT, "
-                    + "erstellt_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
-                    + "FOREIGN KEY (eintragMonat) REFERENCES Monate(monatKey) ON DELETE CASCADE"
-                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-            stmt.execute(sqlEintraege);
-
-            // Tabelle für Kategorien (Spalten: katKey, katName)
-            String sqlKategorien = "CREATE TABLE IF NOT EXISTS Kategorien ("
-                    + "katKey INT AUTO_INCREMENT PRIMARY KEY, "
-                    + "katName VARCHAR(100) NOT NULL UNIQUE"
-                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-            stmt.execute(sqlKategorien);
-
-            // Tabelle für Transaktionen (Spalten: transEintragId, transKatId)
-            String sqlTransaktionen = "CREATE TABLE IF NOT EXISTS Transaktionen ("
-                    + "transEintragId INT NOT NULL, "
-                    + "transKatId INT NOT NULL, "
-                    + "PRIMARY KEY (transEintragId, transKatId), "
-                    + "FOREIGN KEY (transEintragId) REFERENCES Einträge(eintragKey) ON DELETE CASCADE ON UPDATE CASCADE, "
-                    + "FOREIGN KEY (transKatId) REFERENCES Kategorien(katKey) ON DELETE CASCADE ON UPDATE CASCADE"
-                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;";
-            stmt.execute(sqlTransaktionen);
+            // Optionale Summentabelle pro Jahr, Monat und Typ (wird bei jeder
+            // Änderung nachgeführt). Die frühere Tabelle "MonatsSummen" ohne Jahr
+            // wird nicht mehr verwendet.
+            if (rollupEnabled) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("CREATE TABLE IF NOT EXISTS JahresMonatsSummen ("
+                            + "summenJahr SMALLINT NOT NULL, "
+                            + "summenMonat TINYINT NOT NULL, "
+                            + "summenTyp ENUM('Einnahme','Ausgabe') NOT NULL, "
+                            + "summe DECIMAL(17,2) NOT NULL DEFAULT 0, "
+                            + "anzahl INT NOT NULL DEFAULT 0, "
+                            + "PRIMARY KEY (summenJahr, summenMonat, summenTyp)"
+                            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;");
+                }
+            }
 
             System.out.println("Tabellen überprüft oder erstellt.");
         } catch (SQLException e) {
@@ -75,9 +238,8 @@ public class DatabaseHelper {
      * Fügt Standardmonate in die Tabelle "Monate" ein, falls sie nicht existieren.
      */
     private void insertDefaultMonths() {
-        String[] monate = { "Januar", "Februar", "März", "April", "Mai", "Juni", "Juli", "August", "September",
-                "Oktober", "November", "Dezember" };
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        String[] monate = Months.NAMES;
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement("INSERT IGNORE INTO Monate (monatName) VALUES (?)")) {
             for (String monat : monate) {
                 pstmt.setString(1, monat);
@@ -90,88 +252,650 @@ public class DatabaseHelper {
         }
     }
 
+    /**
+     * Liest aus dem Schema, ob das Löschen abhängige Zeilen selbst entfernen
+     * muss, und legt in einer partitionierten Tabelle bei jedem Start die
+     * Partition für das nächste Jahr an. Beides hängt vom tatsächlichen
+     * Zustand ab: Eine einmal partitionierte Tabelle bleibt es, auch wenn
+     * db.partitionByYear später wieder ausgeschaltet wird.
+     */
+    private void inspectSchema() {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            String table = meta.storesUpperCaseIdentifiers() ? "TRANSAKTIONEN" : "Transaktionen";
+            boolean cascade = false;
+            try (ResultSet rs = meta.getImportedKeys(conn.getCatalog(), null, table)) {
+                while (rs.next()) {
+                    cascade |= "Einträge".equalsIgnoreCase(rs.getString("PKTABLE_NAME"))
+                            && rs.getShort("DELETE_RULE") == DatabaseMetaData.importedKeyCascade;
+                }
+            }
+            deleteDependents = !cascade;
+            // Eine partitionierte Tabelle hat keine Fremdschlüssel
+            if (deleteDependents && SchemaMigrator.isPartitioned(conn)) {
+                addYearPartitions(stmt);
+            }
+        } catch (SQLException e) {
+            // Im Zweifel abhängige Zeilen selbst löschen; mit Fremdschlüssel schadet das nicht
+            deleteDependents = true;
+            System.err.println("Fehler beim Prüfen des Schemas: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Spaltet die fehlenden Jahre bis zum nächsten aus der Partition "pmax"
+     * ab. Nur Jahre nach der letzten Jahrespartition können so angelegt werden.
+     */
+    private void addYearPartitions(Statement stmt) throws SQLException {
+        int nextYear = Year.now().getValue() + 1;
+        Set<String> partitions = new LinkedHashSet<>();
+        try (ResultSet rs = stmt.executeQuery("SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Einträge' AND PARTITION_NAME IS NOT NULL")) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        if (partitions.contains("p" + nextYear) || !partitions.contains("pmax")) {
+            return;
+        }
+        int lastYear = nextYear;
+        while (lastYear > nextYear - 100 && !partitions.contains("p" + lastYear)) {
+            lastYear--;
+        }
+        StringBuilder sql = new StringBuilder("ALTER TABLE Einträge REORGANIZE PARTITION pmax INTO (");
+        for (int year = lastYear + 1; year <= nextYear; year++) {
+            sql.append("PARTITION p").append(year).append(" VALUES LESS THAN (").append(year + 1).append("), ");
+        }
+        stmt.execute(sql.append("PARTITION pmax VALUES LESS THAN MAXVALUE)").toString());
+        System.out.println("Partitionen bis " + nextYear + " ergänzt.");
+    }
+
     /**
      * Ruft alle Einträge aus der Tabelle "Einträge" ab.
      *
-     * @return ResultSet mit allen Einträgen.
+     * @return Liste mit allen Einträgen (leer bei einem Fehler).
+     */
+    public List<Entry> fetchAllEntries() {
+        return fetchEntriesByMonth(null);
+    }
+
+    /**
+     * Ruft alle Einträge eines Zeitraums ab.
+     *
+     * @param range Der Zeitraum (z. B. Februar 2025) oder null für alle Einträge.
+     * @return Liste mit den Einträgen des Zeitraums (leer bei einem Fehler).
      */
-    public ResultSet fetchAllEntries() {
-        String sql = "SELECT eintragKey AS id, eintragTitel AS title, eintragBetrag AS amount, eintragTyp AS type, "
-                + "(SELECT monatName FROM Monate WHERE monatKey = Einträge.eintragMonat) AS month "
-                + "FROM Einträge";
+    public List<Entry> fetchEntriesByMonth(DateRange range) {
+        List<Entry> entries = new ArrayList<>();
+        forEachEntry(range, entry -> entries.add(entry));
+        return entries;
+    }
 
+    /**
+     * Liest Einträge zeilenweise und übergibt sie dem Visitor, ohne das ganze
+     * Ergebnis im Speicher zu halten. Es wird ein Vorwärts-Cursor mit der
+     * konfigurierten Fetch-Grösse (db.fetchSize) verwendet; Statement und
+     * Verbindung werden in jedem Fall wieder freigegeben.
+     *
+     * @param range   Der Zeitraum oder null für alle Einträge.
+     * @param visitor erhält jeden Eintrag; gibt er false zurück, wird abgebrochen.
+     * @return Anzahl der gelesenen Einträge.
+     */
+    public int forEachEntry(DateRange range, EntryVisitor visitor) {
         try {
-            Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            Statement stmt = conn.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
-            return stmt.executeQuery(sql);
+            return streamEntries(range, visitor);
         } catch (SQLException e) {
             System.err.println("Fehler beim Abrufen der Einträge: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
-        return null;
     }
 
     /**
-     * Ruft alle Einträge für einen bestimmten Monat ab.
+     * Wie {@link #forEachEntry(DateRange, EntryVisitor)}, gibt Datenbankfehler
+     * aber weiter, statt sie nur zu protokollieren. Für Aufrufer, die einen
+     * unvollständigen Durchlauf erkennen müssen (z. B. Berichte).
      *
-     * @param monat Der Monatsname (z. B. "Februar").
-     * @return ResultSet mit den Einträgen des angegebenen Monats.
+     * @param range   Der Zeitraum oder null für alle Einträge.
+     * @param visitor erhält jeden Eintrag; gibt er false zurück, wird abgebrochen.
+     * @return Anzahl der gelesenen Einträge.
+     * @throws SQLException bei einem Datenbankfehler.
      */
-    public ResultSet fetchEntriesByMonth(String monat) {
-        String sql = "SELECT eintragKey AS id, eintragTitel AS title, eintragBetrag AS amount, eintragTyp AS type, "
-                + "(SELECT monatName FROM Monate WHERE monatKey = Einträge.eintragMonat) AS month "
-                + "FROM Einträge WHERE eintragMonat = (SELECT monatKey FROM Monate WHERE monatName = ? LIMIT 1)";
+    public int streamEntries(DateRange range, EntryVisitor visitor) throws SQLException {
+        String sql = entriesSql(range != null);
 
-        try {
-            Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_SCROLL_INSENSITIVE,
-                    ResultSet.CONCUR_READ_ONLY);
-            pstmt.setString(1, monat);
-            return pstmt.executeQuery();
+        long start = System.nanoTime();
+        int count = 0;
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                     ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize);
+            setRange(pstmt, 1, range);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    count++;
+                    if (!visitor.visit(readEntry(rs))) {
+                        // Bei MySQL-Streaming muss der Rest nicht mehr gelesen werden
+                        pstmt.cancel();
+                        break;
+                    }
+                }
+            }
         } catch (SQLException e) {
-            System.err.println("Fehler beim Abrufen der Monatsdaten: " + e.getMessage());
+            metrics.recordError("streamEntries", start);
+            throw e;
+        }
+        metrics.record("streamEntries", start, count);
+        return count;
+    }
+
+    /**
+     * Zählt die Einträge eines Zeitraums oder alle Einträge. Es wird nur der
+     * Index gelesen, keine Zeilen übertragen.
+     *
+     * @param range Der Zeitraum oder null für alle Einträge.
+     * @return die Anzahl Einträge (0 bei einem Fehler).
+     */
+    public int countEntries(DateRange range) {
+        String sql = countSql(range != null);
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            setRange(pstmt, 1, range);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int count = rs.next() ? rs.getInt(1) : 0;
+                metrics.record("countEntries", start, 1);
+                return count;
+            }
+        } catch (SQLException e) {
+            metrics.recordError("countEntries", start);
+            System.err.println("Fehler beim Zählen der Einträge: " + e.getMessage());
             e.printStackTrace();
+            return 0;
         }
-        return null;
+    }
+
+    /**
+     * Liest eine Seite von Einträgen per Keyset-Paginierung: die nächsten
+     * höchstens {@code limit} Einträge mit einem Schlüssel grösser als
+     * {@code afterKey}. Anders als bei LIMIT/OFFSET kostet eine Seite damit
+     * gleich viel, egal wie weit hinten sie liegt.
+     *
+     * @param range    Der Zeitraum oder null für alle Einträge.
+     * @param afterKey Schlüssel des letzten Eintrags der vorherigen Seite (0 für die erste Seite).
+     * @param limit    maximale Anzahl Einträge.
+     * @return die Einträge der Seite, aufsteigend nach Schlüssel (leer bei einem Fehler).
+     */
+    public List<Entry> fetchEntryPage(DateRange range, int afterKey, int limit) {
+        String sql = pageSql(range != null);
+
+        long start = System.nanoTime();
+        List<Entry> entries = new ArrayList<>(limit);
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            pstmt.setInt(index++, afterKey);
+            index = setRange(pstmt, index, range);
+            pstmt.setInt(index, limit);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(readEntry(rs));
+                }
+            }
+            metrics.record("fetchEntryPage", start, entries.size());
+        } catch (SQLException e) {
+            metrics.recordError("fetchEntryPage", start);
+            System.err.println("Fehler beim Abrufen einer Seite: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return entries;
+    }
+
+    /**
+     * Ermittelt eine Seitengrenze ausgehend von einem bekannten Schlüssel. Wird
+     * gebraucht, wenn direkt zu einer Seite gesprungen wird, deren
+     * Vorgängerseite noch nicht geladen ist; das PagedEntryTableModel geht
+     * dafür von der nächsten bekannten Grenze oder vom Ende aus. Es wird nur
+     * der Primärschlüssel-Index durchlaufen, und zwar nur über
+     * {@code steps} Schlüssel statt über alle davor (wie bei OFFSET ab dem
+     * Anfang).
+     *
+     * @param range   Der Zeitraum oder null für alle Einträge.
+     * @param fromKey der Ausgangsschlüssel (0 für den Anfang, Integer.MAX_VALUE für das Ende).
+     * @param steps   Anzahl Einträge nach (positiv) bzw. vor (negativ) fromKey.
+     * @return der Schlüssel, {@code fromKey} bei 0 Schritten oder -1, wenn es die Zeile nicht gibt.
+     */
+    public int seekKey(DateRange range, int fromKey, int steps) {
+        if (steps == 0) {
+            return fromKey;
+        }
+        String sql = seekKeySql(range != null, steps > 0);
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, fromKey);
+            int index = setRange(pstmt, 2, range);
+            pstmt.setInt(index, Math.abs(steps) - 1);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int key = rs.next() ? rs.getInt(1) : -1;
+                metrics.record("seekKey", start, 1);
+                return key;
+            }
+        } catch (SQLException e) {
+            metrics.recordError("seekKey", start);
+            System.err.println("Fehler beim Suchen der Seitengrenze: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * Liest Einträge über ihre IDs mit einer Abfrage über den
+     * Primärschlüssel, z. B. eine Seite der Suchtreffer aus dem Suchindex.
+     *
+     * @param ids die IDs, aufsteigend.
+     * @return die noch vorhandenen Einträge, aufsteigend nach ID (leer bei einem Fehler).
+     */
+    public List<Entry> fetchEntriesById(int[] ids) {
+        List<Entry> entries = new ArrayList<>(ids.length);
+        if (ids.length == 0) {
+            return entries;
+        }
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(byIdsSql(ids.length))) {
+            for (int i = 0; i < ids.length; i++) {
+                pstmt.setInt(i + 1, ids[i]);
+            }
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(readEntry(rs));
+                }
+            }
+            metrics.record("fetchEntriesById", start, entries.size());
+        } catch (SQLException e) {
+            metrics.recordError("fetchEntriesById", start);
+            System.err.println("Fehler beim Abrufen der Einträge: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return entries;
+    }
+
+    /**
+     * Setzt die Parameter von RANGE_FILTER ab {@code index}, falls ein
+     * Zeitraum angegeben ist.
+     *
+     * @return der Index des nächsten Parameters.
+     */
+    private static int setRange(PreparedStatement pstmt, int index, DateRange range) throws SQLException {
+        if (range == null) {
+            return index;
+        }
+        pstmt.setDate(index, Date.valueOf(range.getStartDate()));
+        pstmt.setDate(index + 1, Date.valueOf(range.getEndDate()));
+        return index + 2;
+    }
+
+    private static String entriesSql(boolean byRange) {
+        return ENTRY_SELECT + (byRange ? " WHERE " + RANGE_FILTER : "") + " ORDER BY e.eintragKey";
+    }
+
+    private static String countSql(boolean byRange) {
+        return "SELECT COUNT(*) FROM Einträge e" + (byRange ? " WHERE " + RANGE_FILTER : "");
+    }
+
+    private static String pageSql(boolean byRange) {
+        return ENTRY_SELECT + " WHERE e.eintragKey > ?" + (byRange ? " AND " + RANGE_FILTER : "")
+                + " ORDER BY e.eintragKey LIMIT ?";
+    }
+
+    private static String byIdsSql(int count) {
+        StringBuilder sql = new StringBuilder(ENTRY_SELECT).append(" WHERE e.eintragKey IN (");
+        for (int i = 0; i < count; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        return sql.append(") ORDER BY e.eintragKey").toString();
+    }
+
+    /**
+     * Überspringt ab einem bekannten Schlüssel vorwärts oder rückwärts im
+     * Primärschlüssel; gelesen werden nur die übersprungenen Schlüssel, nicht
+     * alle davor.
+     */
+    private static String seekKeySql(boolean byRange, boolean forward) {
+        return "SELECT e.eintragKey FROM Einträge e WHERE e.eintragKey " + (forward ? ">" : "<") + " ?"
+                + (byRange ? " AND " + RANGE_FILTER : "") + " ORDER BY e.eintragKey" + (forward ? "" : " DESC")
+                + " LIMIT 1 OFFSET ?";
+    }
+
+    /**
+     * Führt EXPLAIN für die häufigsten Abfragen aus, so wie sie die Anwendung
+     * stellt (Filter auf den aktuellen Monat bzw. das aktuelle Jahr, erste
+     * Seite). Bei partitionierter Tabelle zeigt die Spalte "partitions", ob nur
+     * die Partition des Jahres gelesen wird. Damit lässt sich nach
+     * einer Schemaänderung prüfen, ob die Indizes greifen (Aufruf über
+     * "--explain", siehe Main).
+     *
+     * @return Name der Abfrage -> Zeilen des Ausführungsplans.
+     * @throws SQLException bei einem Fehler.
+     */
+    public Map<String, List<String>> explainHotQueries() throws SQLException {
+        DateRange month = DateRange.ofMonth(YearMonth.now());
+        Date from = Date.valueOf(month.getStartDate());
+        Date to = Date.valueOf(month.getEndDate());
+        DateRange year = DateRange.ofYear(month.getFrom().getYear());
+        Map<String, List<String>> plans = new LinkedHashMap<>();
+        try (Connection conn = pool.getConnection()) {
+            plans.put("Alle Einträge", explain(conn, entriesSql(false)));
+            plans.put("Einträge eines Monats", explain(conn, entriesSql(true), from, to));
+            plans.put("Einträge eines Jahres", explain(conn, entriesSql(true),
+                    Date.valueOf(year.getStartDate()), Date.valueOf(year.getEndDate())));
+            plans.put("Anzahl Einträge eines Monats", explain(conn, countSql(true), from, to));
+            plans.put("Seite (Keyset)", explain(conn, pageSql(false), 0, 500));
+            plans.put("Seite eines Monats (Keyset)", explain(conn, pageSql(true), 0, from, to, 500));
+            plans.put("Seitengrenze eines Monats", explain(conn, seekKeySql(true, true), 0, from, to, 499));
+            plans.put("Seitengrenze vom Ende", explain(conn, seekKeySql(false, false), Integer.MAX_VALUE, 499));
+            plans.put("Seite der Suchtreffer", explain(conn, byIdsSql(3), 1, 2, 3));
+            plans.put("Summen pro Monat und Typ", explain(conn, MONTHLY_TOTALS_SQL));
+            plans.put("Summen pro Kategorie", explain(conn, CATEGORY_TOTALS_SQL));
+        }
+        return plans;
+    }
+
+    private List<String> explain(Connection conn, String sql, Object... params) throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ResultSetMetaData meta = rs.getMetaData();
+                while (rs.next()) {
+                    StringBuilder row = new StringBuilder();
+                    for (int c = 1; c <= meta.getColumnCount(); c++) {
+                        String value = rs.getString(c);
+                        if (value != null) {
+                            row.append(row.length() == 0 ? "" : ", ").append(meta.getColumnLabel(c)).append('=')
+                                    .append(value);
+                        }
+                    }
+                    rows.add(row.toString());
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Wandelt die aktuelle Zeile eines ResultSet in einen Entry um.
+     */
+    private static Entry readEntry(ResultSet rs) throws SQLException {
+        return new Entry(rs.getInt("id"), rs.getString("title"), toCents(rs.getBigDecimal("amount")),
+                rs.getString("type"), rs.getDate("datum").toLocalDate());
+    }
+
+    /**
+     * Liefert Summe und Anzahl der Einträge pro Jahr, Monat und Typ. Ist die
+     * Summentabelle aktiviert (db.rollup=true), wird sie gelesen, sonst rechnet
+     * die Datenbank mit GROUP BY. In beiden Fällen werden nur höchstens 24
+     * Zeilen pro Jahr übertragen statt aller Einträge.
+     *
+     * @return die Summen pro Monat und Typ (leer bei einem Fehler).
+     */
+    public List<MonthlyTotal> fetchMonthlyTotals() {
+        if (!rollupEnabled) {
+            return recomputeMonthlyTotals();
+        }
+        String sql = "SELECT summenJahr AS jahr, summenMonat AS monat, summenTyp AS type, summe AS total, "
+                + "anzahl AS cnt FROM JahresMonatsSummen WHERE anzahl > 0";
+        return queryMonthlyTotals("fetchMonthlyTotals", sql);
+    }
+
+    /**
+     * Berechnet Summe und Anzahl pro Monat und Typ direkt aus "Einträge",
+     * unabhängig von der Summentabelle.
+     *
+     * @return die Summen pro Monat und Typ (leer bei einem Fehler).
+     */
+    public List<MonthlyTotal> recomputeMonthlyTotals() {
+        return queryMonthlyTotals("recomputeMonthlyTotals", MONTHLY_TOTALS_SQL);
+    }
+
+    private List<MonthlyTotal> queryMonthlyTotals(String operation, String sql) {
+        long start = System.nanoTime();
+        List<MonthlyTotal> totals = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            queryCount.incrementAndGet();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    totals.add(new MonthlyTotal(YearMonth.of(rs.getInt("jahr"), rs.getInt("monat")),
+                            rs.getString("type"), toCents(rs.getBigDecimal("total")), rs.getInt("cnt")));
+                }
+            }
+            metrics.record(operation, start, totals.size());
+        } catch (SQLException e) {
+            metrics.recordError(operation, start);
+            System.err.println("Fehler beim Abrufen der Monatssummen: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    /**
+     * Liefert Summe und Anzahl der Einträge pro Kategorie und Typ über die
+     * Tabellen "Transaktionen" und "Kategorien", absteigend nach Betrag.
+     *
+     * @return die Summen pro Kategorie (leer bei einem Fehler).
+     */
+    public List<CategoryTotal> fetchCategoryTotals() {
+        String sql = CATEGORY_TOTALS_SQL;
+        long start = System.nanoTime();
+        List<CategoryTotal> totals = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            queryCount.incrementAndGet();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    totals.add(new CategoryTotal(rs.getString("category"), rs.getString("type"),
+                            toCents(rs.getBigDecimal("total")), rs.getInt("cnt")));
+                }
+            }
+            metrics.record("fetchCategoryTotals", start, totals.size());
+        } catch (SQLException e) {
+            metrics.recordError("fetchCategoryTotals", start);
+            System.err.println("Fehler beim Abrufen der Kategoriesummen: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return totals;
+    }
+
+    /**
+     * Lädt alle Einträge mit ihrer Kategorie für die Auswertung pro Kategorie:
+     * eine Abfrage für die Namen aus "Kategorien" und eine über
+     * "Transaktionen", die pro Eintrag nur Kategorie, Betrag, Typ und Monat
+     * überträgt. Die Zeilen werden direkt in die Spalten des Snapshots
+     * geschrieben.
+     *
+     * @return der Snapshot (leer bei einem Fehler).
+     */
+    public CategorySnapshot fetchCategorySnapshot() {
+        long start = System.nanoTime();
+        CategorySnapshot.Builder builder = new CategorySnapshot.Builder();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            queryCount.addAndGet(2);
+            try (ResultSet rs = stmt.executeQuery("SELECT katKey, katName FROM Kategorien")) {
+                while (rs.next()) {
+                    builder.addCategory(rs.getInt("katKey"), rs.getString("katName"));
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(CATEGORY_ROWS_SQL, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                pstmt.setFetchSize(fetchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        builder.add(rs.getInt("category"), toCents(rs.getBigDecimal("amount")),
+                                Entry.EINNAHME.equals(rs.getString("type")), rs.getInt("monat"));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            metrics.recordError("fetchCategorySnapshot", start);
+            System.err.println("Fehler beim Laden der Einträge pro Kategorie: " + e.getMessage());
+            e.printStackTrace();
+            return new CategorySnapshot.Builder().build();
+        }
+        CategorySnapshot snapshot = builder.build();
+        metrics.record("fetchCategorySnapshot", start, snapshot.size());
+        return snapshot;
+    }
+
+    /**
+     * Füllt die Summentabelle beim ersten Start, falls sie noch leer ist.
+     */
+    private void initRollup() {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM JahresMonatsSummen")) {
+            if (rs.next() && rs.getInt(1) == 0) {
+                rebuildRollup();
+            }
+        } catch (SQLException e) {
+            System.err.println("Fehler beim Prüfen der Summentabelle: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Berechnet die Summentabelle "JahresMonatsSummen" vollständig neu. Ohne
+     * aktivierte Summentabelle passiert nichts.
+     */
+    public void rebuildRollup() {
+        if (!rollupEnabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            queryCount.addAndGet(2);
+            stmt.executeUpdate("DELETE FROM JahresMonatsSummen");
+            int rows = stmt.executeUpdate(
+                    "INSERT INTO JahresMonatsSummen (summenJahr, summenMonat, summenTyp, summe, anzahl) "
+                    + "SELECT YEAR(eintragDatum), MONTH(eintragDatum), eintragTyp, SUM(eintragBetrag), COUNT(*) "
+                    + "FROM Einträge GROUP BY YEAR(eintragDatum), MONTH(eintragDatum), eintragTyp");
+            conn.commit();
+            metrics.record("rebuildRollup", start, rows);
+            System.out.println("Summentabelle neu berechnet.");
+        } catch (SQLException e) {
+            metrics.recordError("rebuildRollup", start);
+            System.err.println("Fehler beim Neuberechnen der Summentabelle: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
     }
 
     /**
      * Löscht einen Eintrag anhand seiner ID.
      *
      * @param id Die ID des zu löschenden Eintrags.
+     * @return true, wenn ein Eintrag gelöscht wurde.
      */
-    public void deleteEntryById(int id) {
+    public boolean deleteEntryById(int id) {
         String sql = "DELETE FROM Einträge WHERE eintragKey = ?";
+        // Summentabelle vor dem Löschen um den Betrag des Eintrags verringern
+        String sqlSumme = "UPDATE JahresMonatsSummen s JOIN Einträge e "
+                + "ON s.summenJahr = YEAR(e.eintragDatum) AND s.summenMonat = MONTH(e.eintragDatum) "
+                + "AND s.summenTyp = e.eintragTyp "
+                + "SET s.summe = s.summe - e.eintragBetrag, s.anzahl = s.anzahl - 1 WHERE e.eintragKey = ?";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            if (rollupEnabled) {
+                try (PreparedStatement pstmtSumme = conn.prepareStatement(sqlSumme)) {
+                    pstmtSumme.setInt(1, id);
+                    queryCount.incrementAndGet();
+                    pstmtSumme.executeUpdate();
+                }
+            }
+            if (deleteDependents) {
+                // Ohne Fremdschlüssel kein ON DELETE CASCADE
+                try (PreparedStatement pstmtTrans = conn
+                        .prepareStatement("DELETE FROM Transaktionen WHERE transEintragId = ?")) {
+                    pstmtTrans.setInt(1, id);
+                    queryCount.incrementAndGet();
+                    pstmtTrans.executeUpdate();
+                }
+            }
             pstmt.setInt(1, id);
+            queryCount.incrementAndGet();
             int rowsAffected = pstmt.executeUpdate();
+            conn.commit();
+            metrics.record("deleteEntryById", start, rowsAffected);
             if (rowsAffected > 0) {
                 System.out.println("Eintrag mit ID " + id + " wurde gelöscht.");
-            } else {
-                System.err.println("Kein Eintrag mit ID " + id + " gefunden.");
+                events.fireRemoved(id);
+                return true;
             }
+            System.err.println("Kein Eintrag mit ID " + id + " gefunden.");
         } catch (SQLException e) {
+            metrics.recordError("deleteEntryById", start);
             System.err.println("Fehler beim Löschen des Eintrags: " + e.getMessage());
             e.printStackTrace();
         }
+        return false;
     }
 
     /**
      * Löscht alle Einträge in der Tabelle "Einträge".
+     *
+     * @return Anzahl gelöschter Einträge oder -1 bei einem Fehler.
      */
-    public void deleteAllEntries() {
+    public int deleteAllEntries() {
         String sql = "DELETE FROM Einträge";
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
              Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            if (rollupEnabled) {
+                queryCount.incrementAndGet();
+                stmt.executeUpdate("DELETE FROM JahresMonatsSummen");
+            }
+            if (deleteDependents) {
+                queryCount.incrementAndGet();
+                stmt.executeUpdate("DELETE FROM Transaktionen");
+            }
+            queryCount.incrementAndGet();
             int rowsAffected = stmt.executeUpdate(sql);
+            conn.commit();
+            metrics.record("deleteAllEntries", start, rowsAffected);
             System.out.println("Alle " + rowsAffected + " Einträge wurden gelöscht.");
+            events.fireCleared();
+            return rowsAffected;
         } catch (SQLException e) {
+            metrics.recordError("deleteAllEntries", start);
             System.err.println("Fehler beim Löschen aller Einträge: " + e.getMessage());
             e.printStackTrace();
         }
+        return -1;
     }
 
     /**
@@ -180,67 +904,90 @@ public class DatabaseHelper {
      * @param titel  Titel des Eintrags (z. B. "Lohn", "Miete").
      * @param betrag Betrag der Einnahme oder Ausgabe.
      * @param typ    "Einnahme" oder "Ausgabe".
-     * @param monat  Monat als Text (z. B. "Februar").
+     * @param datum  Buchungsdatum.
+     * @return der gespeicherte Eintrag mit seiner ID oder null bei einem Fehler.
      */
-    public void insertEntry(String titel, double betrag, String typ, String monat) {
+    public Entry insertEntry(String titel, double betrag, String typ, LocalDate datum) {
+        long start = System.nanoTime();
         Connection conn = null;
-        PreparedStatement pstmtMonat = null;
         PreparedStatement pstmtEintrag = null;
-        PreparedStatement pstmtKategorie = null;
         PreparedStatement pstmtTransaktion = null;
 
         try {
-            conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
+            conn = pool.getConnection();
             conn.setAutoCommit(false); // Beginne Transaktion
 
-            // 1. Monatsschlüssel (monatKey) aus der Tabelle "Monate" abrufen
-            String monatQuery = "SELECT monatKey FROM Monate WHERE monatName = ? LIMIT 1";
-            pstmtMonat = conn.prepareStatement(monatQuery);
-            pstmtMonat.setString(1, monat);
-            ResultSet rs = pstmtMonat.executeQuery();
-
-            int monatId = -1;
-            if (rs.next()) {
-                monatId = rs.getInt("monatKey"); // Monat existiert, speichere die ID
-            } else {
-                System.err.println("Fehler: Monat wurde nicht gefunden!");
-                return; // Falls der Monat nicht existiert, beenden
+            // 1. Monatsschlüssel (monatKey) aus dem Cache bzw. der Tabelle "Monate";
+            // eintragMonat wird für ältere Versionen weiterhin gefüllt
+            Entry entry = new Entry(0, titel, Math.round(betrag * 100), typ, datum);
+            Integer monatId = datum == null ? null : resolveMonthKey(conn, entry.getMonth());
+            if (monatId == null) {
+                metrics.recordError("insertEntry", start);
+                System.err.println("Fehler: Datum fehlt oder Monat wurde nicht gefunden!");
+                return null; // Ohne gültiges Datum beenden
             }
 
-            // 2. Eintrag in "Einträge" speichern
-            String sqlEintrag = "INSERT INTO Einträge (eintragTitel, eintragBetrag, eintragTyp, eintragMonat) "
-                    + "VALUES (?, ?, ?, ?)";
+            // 2. Eintrag in "Einträge" speichern (die ID kommt mit der Antwort zurück)
+            String sqlEintrag = "INSERT INTO Einträge (eintragTitel, eintragBetrag, eintragTyp, eintragMonat, "
+                    + "eintragDatum) VALUES (?, ?, ?, ?, ?)";
             pstmtEintrag = conn.prepareStatement(sqlEintrag, Statement.RETURN_GENERATED_KEYS);
             pstmtEintrag.setString(1, titel);
             pstmtEintrag.setDouble(2, betrag);
             pstmtEintrag.setString(3, typ);
             pstmtEintrag.setInt(4, monatId);
+            pstmtEintrag.setDate(5, Date.valueOf(datum));
+            queryCount.incrementAndGet();
             pstmtEintrag.executeUpdate();
 
             // 3. Automatisch generierte ID des Eintrags abrufen
-            rs = pstmtEintrag.getGeneratedKeys();
             int eintragId = -1;
-            if (rs.next()) {
-                eintragId = rs.getInt(1);
+            try (ResultSet rs = pstmtEintrag.getGeneratedKeys()) {
+                if (rs.next()) {
+                    eintragId = rs.getInt(1);
+                }
             }
 
-            // 4. Eintrag in "Kategorien" speichern (falls nicht vorhanden)
-            String sqlKategorie = "INSERT IGNORE INTO Kategorien (katName) VALUES (?)";
-            pstmtKategorie = conn.prepareStatement(sqlKategorie);
-            pstmtKategorie.setString(1, titel);
-            pstmtKategorie.executeUpdate();
+            // 4. Kategorieschlüssel aus dem Cache bzw. per Upsert in "Kategorien"
+            int katId = resolveCategoryKey(conn, titel);
 
             // 5. Eintrag in "Transaktionen" speichern
-            String sqlTransaktion = "INSERT INTO Transaktionen (transEintragId, transKatId) "
-                    + "VALUES (?, (SELECT katKey FROM Kategorien WHERE katName = ? LIMIT 1))";
+            String sqlTransaktion = "INSERT INTO Transaktionen (transEintragId, transKatId) VALUES (?, ?)";
             pstmtTransaktion = conn.prepareStatement(sqlTransaktion);
             pstmtTransaktion.setInt(1, eintragId);
-            pstmtTransaktion.setString(2, titel);
-            pstmtTransaktion.executeUpdate();
+            pstmtTransaktion.setInt(2, katId);
+            queryCount.incrementAndGet();
+            try {
+                pstmtTransaktion.executeUpdate();
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // Kategorie wurde inzwischen von aussen gelöscht: Cache verwerfen, neu anlegen
+                categoryKeys.remove(titel);
+                pstmtTransaktion.setInt(2, resolveCategoryKey(conn, titel));
+                queryCount.incrementAndGet();
+                pstmtTransaktion.executeUpdate();
+            }
+
+            // 6. Summentabelle nachführen (falls aktiviert)
+            if (rollupEnabled) {
+                String sqlSumme = "INSERT INTO JahresMonatsSummen (summenJahr, summenMonat, summenTyp, summe, anzahl) "
+                        + "VALUES (?, ?, ?, ?, 1) "
+                        + "ON DUPLICATE KEY UPDATE summe = summe + VALUES(summe), anzahl = anzahl + 1";
+                try (PreparedStatement pstmtSumme = conn.prepareStatement(sqlSumme)) {
+                    pstmtSumme.setInt(1, datum.getYear());
+                    pstmtSumme.setInt(2, datum.getMonthValue());
+                    pstmtSumme.setString(3, typ);
+                    pstmtSumme.setDouble(4, betrag);
+                    queryCount.incrementAndGet();
+                    pstmtSumme.executeUpdate();
+                }
+            }
 
-            // 6. Transaktion abschliessen
+            // 7. Transaktion abschliessen
             conn.commit();
+            metrics.record("insertEntry", start, 1);
             System.out.println("Eintrag erfolgreich gespeichert: " + titel);
+            Entry saved = new Entry(eintragId, titel, entry.getAmountCents(), typ, datum);
+            events.fireAdded(Collections.singletonList(saved));
+            return saved;
 
         } catch (SQLException e) {
             if (conn != null) {
@@ -250,17 +997,16 @@ public class DatabaseHelper {
                     ex.printStackTrace();
                 }
             }
+            metrics.recordError("insertEntry", start);
+            // Nach einem Fehler könnten zwischengespeicherte Schlüssel veraltet sein
+            invalidateKeyCaches();
             System.err.println("Fehler beim Speichern des Eintrags: " + e.getMessage());
             e.printStackTrace();
         } finally {
             // Ressourcen schliessen
             try {
-                if (pstmtMonat != null)
-                    pstmtMonat.close();
                 if (pstmtEintrag != null)
                     pstmtEintrag.close();
-                if (pstmtKategorie != null)
-                    pstmtKategorie.close();
                 if (pstmtTransaktion != null)
                     pstmtTransaktion.close();
                 if (conn != null)
@@ -269,5 +1015,409 @@ public class DatabaseHelper {
                 e.printStackTrace();
             }
         }
+        return null;
+    }
+
+    /**
+     * Liefert den monatKey eines Monats. Die Tabelle "Monate" ändert sich nicht,
+     * daher wird sie nur beim ersten Zugriff (oder nach invalidateKeyCaches())
+     * vollständig gelesen.
+     *
+     * @return der Schlüssel oder null, wenn der Monat nicht existiert.
+     */
+    private Integer resolveMonthKey(Connection conn, String monat) throws SQLException {
+        if (keyCacheEnabled) {
+            Integer key = monthKeys.get(monat);
+            if (key != null) {
+                return key;
+            }
+            monthKeys.putAll(loadMonthKeys(conn));
+            return monthKeys.get(monat);
+        }
+        String sql = "SELECT monatKey FROM Monate WHERE monatName = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, monat);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Liefert den katKey einer Kategorie und legt sie bei Bedarf an. Ist der
+     * Schlüssel nicht im Cache, genügt ein einziger Round-Trip: Der Upsert
+     * setzt LAST_INSERT_ID auch dann auf katKey, wenn die Kategorie bereits
+     * existiert (z. B. weil ein anderer Client sie gleichzeitig angelegt hat).
+     */
+    private int resolveCategoryKey(Connection conn, String title) throws SQLException {
+        if (keyCacheEnabled) {
+            Integer key = categoryKeys.get(title);
+            if (key != null) {
+                return key;
+            }
+        }
+        String katName = categoryName(title);
+        String sql = "INSERT INTO Kategorien (katName) VALUES (?) "
+                + "ON DUPLICATE KEY UPDATE katKey = LAST_INSERT_ID(katKey)";
+        int key = -1;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, katName);
+            queryCount.incrementAndGet();
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    key = rs.getInt(1);
+                }
+            }
+        }
+        if (key <= 0) {
+            // Manche Treiber liefern bei einem Duplikat keinen Schlüssel; die
+            // Datenbank findet die Kategorie mit ihrem eigenen Vergleich
+            key = findCategoryKey(conn, katName);
+        }
+        cacheCategoryKey(title, key);
+        return key;
+    }
+
+    /**
+     * Liest den katKey einer bestehenden Kategorie. Verglichen wird in der
+     * Datenbank (mit der Sortierfolge von katName), nicht in Java.
+     */
+    private int findCategoryKey(Connection conn, String katName) throws SQLException {
+        try (PreparedStatement pstmt = conn
+                .prepareStatement("SELECT katKey FROM Kategorien WHERE katName = ? LIMIT 1")) {
+            pstmt.setString(1, katName);
+            queryCount.incrementAndGet();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Kategorie konnte nicht angelegt werden: " + katName);
+                }
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Kürzt einen Titel auf die Länge von katName (in Zeichen, nicht in
+     * UTF-16-Einheiten), statt das Kürzen der Datenbank zu überlassen.
+     *
+     * @param title der Titel eines Eintrags (bis 255 Zeichen).
+     * @return der Name der Kategorie.
+     */
+    static String categoryName(String title) {
+        if (title.codePointCount(0, title.length()) <= CATEGORY_NAME_LENGTH) {
+            return title;
+        }
+        return title.substring(0, title.offsetByCodePoints(0, CATEGORY_NAME_LENGTH));
+    }
+
+    private void cacheCategoryKey(String title, int key) {
+        if (!keyCacheEnabled) {
+            return;
+        }
+        if (categoryKeys.size() >= MAX_CACHED_CATEGORIES) {
+            categoryKeys.clear();
+        }
+        categoryKeys.put(title, key);
+    }
+
+    /**
+     * Verwirft die zwischengespeicherten Monats- und Kategorieschlüssel, z. B.
+     * wenn Kategorien von aussen gelöscht wurden.
+     */
+    public void invalidateKeyCaches() {
+        monthKeys.clear();
+        categoryKeys.clear();
+    }
+
+    /**
+     * Fügt viele Einträge auf einmal ein. Die Einträge werden in Blöcken von
+     * db.batchSize Zeilen per JDBC-Batch geschrieben und pro Block committet.
+     * Mit "rewriteBatchedStatements=true" in der URL fasst der MySQL-Treiber
+     * jeden Batch zu einem mehrzeiligen INSERT zusammen, so dass pro Block nur
+     * wenige Round-Trips anfallen. Die ID der übergebenen Einträge wird ignoriert.
+     *
+     * Schlägt ein Block fehl, wird er zurückgesetzt und der Import beendet;
+     * bereits committete Blöcke bleiben erhalten.
+     *
+     * @param entries die neuen Einträge (Ausgaben mit negativem Betrag).
+     * @return die gespeicherten Einträge mit ihren neuen IDs.
+     */
+    public List<Entry> insertEntries(Collection<Entry> entries) {
+        List<Entry> saved = new ArrayList<>(entries.size());
+        if (entries.isEmpty()) {
+            return saved;
+        }
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection()) {
+            Map<String, Integer> monthKeys = keyCacheEnabled && !this.monthKeys.isEmpty() ? this.monthKeys
+                    : loadMonthKeys(conn);
+            if (keyCacheEnabled) {
+                this.monthKeys.putAll(monthKeys);
+            }
+            conn.setAutoCommit(false);
+            List<Entry> chunk = new ArrayList<>(Math.min(batchSize, entries.size()));
+            for (Entry entry : entries) {
+                chunk.add(entry);
+                if (chunk.size() == batchSize) {
+                    insertChunk(conn, chunk, monthKeys, saved);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(conn, chunk, monthKeys, saved);
+            }
+            metrics.record("insertEntries", start, saved.size());
+        } catch (SQLException e) {
+            metrics.recordError("insertEntries", start);
+            System.err.println("Fehler beim Speichern mehrerer Einträge: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Auch nach einem Fehler: die bereits committeten Blöcke sind gespeichert
+            events.fireAdded(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Schreibt einen Block von Einträgen in einer Transaktion: ein Batch für
+     * "Einträge", für noch unbekannte Kategorien je ein Upsert wie in
+     * insertEntry() und ein Batch für "Transaktionen".
+     *
+     * Die Schlüssel der Kategorien werden nicht über die zurückgelesenen
+     * katName-Werte zugeordnet: MySQL betrachtet "Miete" und "miete" als
+     * dieselbe Kategorie und kürzt zu lange Namen, ein Vergleich in Java fände
+     * den Titel dann nicht wieder. Der Upsert liefert den Schlüssel direkt zum
+     * angefragten Titel.
+     */
+    private void insertChunk(Connection conn, List<Entry> chunk, Map<String, Integer> monthKeys, List<Entry> saved)
+            throws SQLException {
+        String sqlEintrag = "INSERT INTO Einträge (eintragTitel, eintragBetrag, eintragTyp, eintragMonat, "
+                + "eintragDatum) VALUES (?, ?, ?, ?, ?)";
+        List<Entry> inserted = new ArrayList<>(chunk.size());
+        try {
+            // 1. Einträge
+            List<Entry> valid = new ArrayList<>(chunk.size());
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlEintrag, Statement.RETURN_GENERATED_KEYS)) {
+                for (Entry entry : chunk) {
+                    Integer monatId = entry.getDate() == null ? null : monthKeys.get(entry.getMonth());
+                    if (monatId == null) {
+                        System.err.println("Datum fehlt oder Monat nicht gefunden, Eintrag übersprungen: "
+                                + entry.getTitle());
+                        continue;
+                    }
+                    pstmt.setString(1, entry.getTitle());
+                    pstmt.setBigDecimal(2, BigDecimal.valueOf(entry.getAmountCents(), 2));
+                    pstmt.setString(3, entry.getType());
+                    pstmt.setInt(4, monatId);
+                    pstmt.setDate(5, Date.valueOf(entry.getDate()));
+                    pstmt.addBatch();
+                    valid.add(entry);
+                }
+                if (valid.isEmpty()) {
+                    return;
+                }
+                queryCount.incrementAndGet();
+                pstmt.executeBatch();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    for (Entry entry : valid) {
+                        if (!keys.next()) {
+                            throw new SQLException("Der Treiber lieferte nicht für jeden Eintrag eine ID.");
+                        }
+                        inserted.add(new Entry(keys.getInt(1), entry.getTitle(), entry.getAmountCents(),
+                                entry.getType(), entry.getDate()));
+                    }
+                }
+            }
+
+            // 2. Kategorien: aus dem Cache oder per Upsert, einmal pro Titel des Blocks
+            Map<String, Integer> blockKeys = new HashMap<>();
+            for (Entry entry : inserted) {
+                if (!blockKeys.containsKey(entry.getTitle())) {
+                    blockKeys.put(entry.getTitle(), resolveCategoryKey(conn, entry.getTitle()));
+                }
+            }
+
+            // 3. Transaktionen
+            try (PreparedStatement pstmt = conn
+                    .prepareStatement("INSERT INTO Transaktionen (transEintragId, transKatId) VALUES (?, ?)")) {
+                for (Entry entry : inserted) {
+                    pstmt.setInt(1, entry.getId());
+                    pstmt.setInt(2, blockKeys.get(entry.getTitle()));
+                    pstmt.addBatch();
+                }
+                queryCount.incrementAndGet();
+                pstmt.executeBatch();
+            }
+
+            // 4. Summentabelle (eine Zeile pro Monat und Typ des Blocks)
+            if (rollupEnabled) {
+                updateRollup(conn, inserted);
+            }
+
+            conn.commit();
+            saved.addAll(inserted);
+        } catch (SQLException e) {
+            conn.rollback();
+            invalidateKeyCaches();
+            throw e;
+        }
+    }
+
+    private void updateRollup(Connection conn, List<Entry> inserted) throws SQLException {
+        Map<String, long[]> sums = new HashMap<>();
+        for (Entry entry : inserted) {
+            long[] sum = sums.computeIfAbsent(entry.getYearMonth() + "|" + entry.getType(), k -> new long[2]);
+            sum[0] += entry.getAmountCents();
+            sum[1]++;
+        }
+        String sqlSumme = "INSERT INTO JahresMonatsSummen (summenJahr, summenMonat, summenTyp, summe, anzahl) "
+                + "VALUES (?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE summe = summe + VALUES(summe), anzahl = anzahl + VALUES(anzahl)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlSumme)) {
+            for (Map.Entry<String, long[]> sum : sums.entrySet()) {
+                String[] key = sum.getKey().split("\\|");
+                YearMonth month = YearMonth.parse(key[0]);
+                pstmt.setInt(1, month.getYear());
+                pstmt.setInt(2, month.getMonthValue());
+                pstmt.setString(3, key[1]);
+                pstmt.setBigDecimal(4, BigDecimal.valueOf(sum.getValue()[0], 2));
+                pstmt.setLong(5, sum.getValue()[1]);
+                pstmt.addBatch();
+            }
+            queryCount.incrementAndGet();
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Lädt alle Vorlagen für wiederkehrende Einträge aus
+     * "WiederkehrendeEinträge".
+     *
+     * @return die Vorlagen aufsteigend nach ID (leer bei einem Fehler).
+     */
+    public List<RecurringEntry> fetchRecurringEntries() {
+        String sql = "SELECT wkKey, wkTitel, wkBetrag, wkTyp, wkStart, wkEnde, wkIntervall "
+                + "FROM WiederkehrendeEinträge ORDER BY wkKey";
+        long start = System.nanoTime();
+        List<RecurringEntry> items = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            queryCount.incrementAndGet();
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    Date end = rs.getDate("wkEnde");
+                    items.add(new RecurringEntry(rs.getInt("wkKey"), rs.getString("wkTitel"),
+                            toCents(rs.getBigDecimal("wkBetrag")), rs.getString("wkTyp"),
+                            rs.getDate("wkStart").toLocalDate(), end != null ? end.toLocalDate() : null,
+                            rs.getInt("wkIntervall")));
+                }
+            }
+            metrics.record("fetchRecurringEntries", start, items.size());
+        } catch (SQLException | IllegalArgumentException e) {
+            metrics.recordError("fetchRecurringEntries", start);
+            System.err.println("Fehler beim Laden der wiederkehrenden Einträge: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return items;
+    }
+
+    /**
+     * Speichert eine Vorlage in "WiederkehrendeEinträge": mit ID 0 als neue
+     * Zeile, sonst anstelle der Zeile mit dieser ID.
+     *
+     * @param item die Vorlage.
+     * @return die gespeicherte Vorlage mit ID oder null bei einem Fehler.
+     */
+    public RecurringEntry saveRecurringEntry(RecurringEntry item) {
+        boolean insert = item.getId() == 0;
+        String sql = insert
+                ? "INSERT INTO WiederkehrendeEinträge (wkTitel, wkBetrag, wkTyp, wkStart, wkEnde, wkIntervall) "
+                        + "VALUES (?, ?, ?, ?, ?, ?)"
+                : "UPDATE WiederkehrendeEinträge SET wkTitel = ?, wkBetrag = ?, wkTyp = ?, wkStart = ?, "
+                        + "wkEnde = ?, wkIntervall = ? WHERE wkKey = ?";
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, item.getTitle());
+            pstmt.setBigDecimal(2, BigDecimal.valueOf(item.getAmountCents(), 2));
+            pstmt.setString(3, item.getType());
+            pstmt.setDate(4, Date.valueOf(item.getStart()));
+            if (item.getEnd() != null) {
+                pstmt.setDate(5, Date.valueOf(item.getEnd()));
+            } else {
+                pstmt.setNull(5, Types.DATE);
+            }
+            pstmt.setInt(6, item.getIntervalMonths());
+            if (!insert) {
+                pstmt.setInt(7, item.getId());
+            }
+            queryCount.incrementAndGet();
+            int rowsAffected = pstmt.executeUpdate();
+            RecurringEntry saved = item;
+            if (insert) {
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    saved = rs.next() ? item.withId(rs.getInt(1)) : null;
+                }
+            }
+            if (rowsAffected == 0 || saved == null) {
+                metrics.recordError("saveRecurringEntry", start);
+                System.err.println("Wiederkehrender Eintrag mit ID " + item.getId() + " nicht gefunden.");
+                return null;
+            }
+            metrics.record("saveRecurringEntry", start, rowsAffected);
+            System.out.println("Wiederkehrender Eintrag gespeichert: " + saved);
+            return saved;
+        } catch (SQLException e) {
+            metrics.recordError("saveRecurringEntry", start);
+            System.err.println("Fehler beim Speichern des wiederkehrenden Eintrags: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Löscht eine Vorlage aus "WiederkehrendeEinträge"; die bereits
+     * gebuchten Einträge bleiben.
+     *
+     * @param id die ID der Vorlage.
+     * @return true, wenn eine Vorlage gelöscht wurde.
+     */
+    public boolean deleteRecurringEntry(int id) {
+        long start = System.nanoTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM WiederkehrendeEinträge WHERE wkKey = ?")) {
+            pstmt.setInt(1, id);
+            queryCount.incrementAndGet();
+            int rowsAffected = pstmt.executeUpdate();
+            metrics.record("deleteRecurringEntry", start, rowsAffected);
+            if (rowsAffected > 0) {
+                System.out.println("Wiederkehrender Eintrag mit ID " + id + " wurde gelöscht.");
+                return true;
+            }
+            System.err.println("Kein wiederkehrender Eintrag mit ID " + id + " gefunden.");
+        } catch (SQLException e) {
+            metrics.recordError("deleteRecurringEntry", start);
+            System.err.println("Fehler beim Löschen des wiederkehrenden Eintrags: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Liest die Zuordnung Monatsname -> monatKey.
+     */
+    private Map<String, Integer> loadMonthKeys(Connection conn) throws SQLException {
+        Map<String, Integer> keys = new HashMap<>();
+        try (Statement stmt = conn.createStatement()) {
+            queryCount.incrementAndGet();
+            try (ResultSet rs = stmt.executeQuery("SELECT monatKey, monatName FROM Monate")) {
+                while (rs.next()) {
+                    keys.put(rs.getString("monatName"), rs.getInt("monatKey"));
+                }
+            }
+        }
+        return keys;
     }
 }
@@ -0,0 +1,109 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Zeitraum für Filter und Berichte: ein Monat eines Jahres oder ein ganzes
+ * Jahr. Er umfasst immer ganze Monate, von {@link #getFrom()} (einschliesslich)
+ * bis {@link #getTo()} (ausschliesslich). Wo ein Zeitraum erwartet wird, steht
+ * null für alle Einträge.
+ *
+ * In der Datenbank wird daraus eine Bereichsbedingung auf dem Buchungsdatum
+ * ("eintragDatum >= ? AND eintragDatum < ?"), die den Index und bei
+ * partitionierter Tabelle nur die Partition des Jahres liest.
+ */
+public final class DateRange {
+	private final YearMonth from;
+	private final YearMonth to;
+	private final String label;
+
+	private DateRange(YearMonth from, YearMonth to, String label) {
+		this.from = from;
+		this.to = to;
+		this.label = label;
+	}
+
+	/**
+	 * @param month der Monat.
+	 * @return der Zeitraum vom ersten bis zum letzten Tag des Monats.
+	 */
+	public static DateRange ofMonth(YearMonth month) {
+		return new DateRange(month, month.plusMonths(1), Months.label(month));
+	}
+
+	/**
+	 * @param year das Jahr.
+	 * @return der Zeitraum vom 1. Januar bis zum 31. Dezember.
+	 */
+	public static DateRange ofYear(int year) {
+		return new DateRange(YearMonth.of(year, 1), YearMonth.of(year + 1, 1), String.valueOf(year));
+	}
+
+	/** Erster Monat des Zeitraums. */
+	public YearMonth getFrom() {
+		return from;
+	}
+
+	/** Erster Monat nach dem Zeitraum. */
+	public YearMonth getTo() {
+		return to;
+	}
+
+	/** Erster Tag des Zeitraums. */
+	public LocalDate getStartDate() {
+		return from.atDay(1);
+	}
+
+	/** Erster Tag nach dem Zeitraum. */
+	public LocalDate getEndDate() {
+		return to.atDay(1);
+	}
+
+	/**
+	 * @return true, wenn der Zeitraum genau einen Monat umfasst.
+	 */
+	public boolean isSingleMonth() {
+		return from.plusMonths(1).equals(to);
+	}
+
+	/**
+	 * @param date ein Buchungsdatum.
+	 * @return true, wenn das Datum im Zeitraum liegt.
+	 */
+	public boolean contains(LocalDate date) {
+		return date != null && !date.isBefore(getStartDate()) && date.isBefore(getEndDate());
+	}
+
+	/**
+	 * @param month ein Monat.
+	 * @return true, wenn der Monat im Zeitraum liegt.
+	 */
+	public boolean contains(YearMonth month) {
+		return !month.isBefore(from) && month.isBefore(to);
+	}
+
+	/** Bezeichnung für Anzeige und Berichte, z. B. "Februar 2025" oder "2025". */
+	public String getLabel() {
+		return label;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof DateRange)) {
+			return false;
+		}
+		DateRange other = (DateRange) obj;
+		return from.equals(other.from) && to.equals(other.to);
+	}
+
+	@Override
+	public int hashCode() {
+		return from.hashCode() * 31 + to.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
@@ -0,0 +1,141 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Unveränderlicher, typisierter Datensatz aus der Tabelle "Einträge".
+ *
+ * Der Betrag wird in Rappen (Hundertstel CHF) als long gespeichert, damit
+ * Summen exakt bleiben. Ausgaben haben einen negativen Betrag.
+ *
+ * Jeder Eintrag hat ein Buchungsdatum; Monat und Jahr werden daraus
+ * abgeleitet.
+ */
+public final class Entry {
+	public static final String EINNAHME = "Einnahme";
+	public static final String AUSGABE = "Ausgabe";
+	/** Format des Buchungsdatums in Anzeige, Eingabe und Berichten. */
+	public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.uuuu");
+
+	private final int id;
+	private final String title;
+	private final long amountCents;
+	private final String type;
+	private final LocalDate date;
+
+	/**
+	 * @param id          der Primärschlüssel (eintragKey), 0 für noch nicht
+	 *                    gespeicherte Einträge.
+	 * @param title       der Titel des Eintrags.
+	 * @param amountCents der Betrag in Rappen (negativ bei Ausgaben).
+	 * @param type        "Einnahme" oder "Ausgabe".
+	 * @param date        das Buchungsdatum.
+	 */
+	public Entry(int id, String title, long amountCents, String type, LocalDate date) {
+		this.id = id;
+		this.title = title;
+		this.amountCents = amountCents;
+		this.type = type;
+		this.date = date;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	/** Betrag in Rappen. */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
+	/** Betrag in CHF. */
+	public double getAmount() {
+		return amountCents / 100.0;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/** Das Buchungsdatum. */
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/** Monat und Jahr des Buchungsdatums. */
+	public YearMonth getYearMonth() {
+		return YearMonth.from(date);
+	}
+
+	/** Der Monatsname des Buchungsdatums (z. B. "Februar"). */
+	public String getMonth() {
+		return Months.NAMES[date.getMonthValue() - 1];
+	}
+
+	public boolean isIncome() {
+		return EINNAHME.equals(type);
+	}
+
+	/**
+	 * Formatiert den Betrag für die Anzeige: Einnahmen mit "+", Ausgaben mit "-".
+	 *
+	 * @return z. B. "+12.00 CHF" oder "-7.50 CHF".
+	 */
+	public String getFormattedAmount() {
+		return formatAmount(amountCents, isIncome());
+	}
+
+	/**
+	 * Formatiert einen Betrag in Rappen wie "+12.00 CHF" bzw. "-7.50 CHF".
+	 *
+	 * @param amountCents der Betrag in Rappen.
+	 * @param income      true für Einnahmen, false für Ausgaben.
+	 * @return der formatierte Betrag.
+	 */
+	public static String formatAmount(long amountCents, boolean income) {
+		long abs = Math.abs(amountCents);
+		StringBuilder sb = new StringBuilder(16);
+		sb.append(income ? '+' : '-').append(abs / 100).append('.');
+		long rappen = abs % 100;
+		if (rappen < 10) {
+			sb.append('0');
+		}
+		return sb.append(rappen).append(" CHF").toString();
+	}
+
+	/**
+	 * @param date ein Datum.
+	 * @return z. B. "15.02.2025".
+	 */
+	public static String formatDate(LocalDate date) {
+		return DATE_FORMAT.format(date);
+	}
+
+	/**
+	 * Liest ein Datum im Format "15.02.2025" oder "2025-02-15".
+	 *
+	 * @param text der Text.
+	 * @return das Datum oder null, wenn der Text kein gültiges Datum ist.
+	 */
+	public static LocalDate parseDate(String text) {
+		String trimmed = text.trim();
+		try {
+			return trimmed.indexOf('-') > 0 ? LocalDate.parse(trimmed) : LocalDate.parse(trimmed, DATE_FORMAT);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Entry[" + id + ", " + title + ", " + getFormattedAmount() + ", " + type + ", " + formatDate(date)
+				+ "]";
+	}
+}
@@ -0,0 +1,59 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Verwaltet die {@link EntryListener} eines EntryStore und benachrichtigt
+ * sie. Ein fehlerhafter Listener wird protokolliert, bricht aber weder die
+ * Benachrichtigung der übrigen noch den Schreibvorgang ab.
+ */
+final class EntryEvents {
+	private final List<EntryListener> listeners = new CopyOnWriteArrayList<>();
+
+	void add(EntryListener listener) {
+		listeners.add(listener);
+	}
+
+	void remove(EntryListener listener) {
+		listeners.remove(listener);
+	}
+
+	void fireAdded(List<Entry> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		for (EntryListener listener : listeners) {
+			try {
+				listener.entriesAdded(entries);
+			} catch (RuntimeException e) {
+				report(e);
+			}
+		}
+	}
+
+	void fireRemoved(int id) {
+		for (EntryListener listener : listeners) {
+			try {
+				listener.entryRemoved(id);
+			} catch (RuntimeException e) {
+				report(e);
+			}
+		}
+	}
+
+	void fireCleared() {
+		for (EntryListener listener : listeners) {
+			try {
+				listener.entriesCleared();
+			} catch (RuntimeException e) {
+				report(e);
+			}
+		}
+	}
+
+	private static void report(RuntimeException e) {
+		System.err.println("Fehler in einem EntryListener: " + e.getMessage());
+		e.printStackTrace();
+	}
+}
@@ -0,0 +1,34 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Wird über Änderungen an den Einträgen eines {@link EntryStore} informiert,
+ * damit die Anzeige einzelne Zeilen nachführen kann, statt alles neu zu
+ * laden.
+ *
+ * Die Methoden werden nach dem erfolgreichen Speichern im schreibenden
+ * Thread aufgerufen (meist nicht im EDT) und sollten nur kurz arbeiten.
+ */
+public interface EntryListener {
+
+	/**
+	 * Einträge wurden gespeichert (einer bei insertEntry, ein ganzer Block bei
+	 * insertEntries).
+	 *
+	 * @param entries die gespeicherten Einträge mit ihren IDs.
+	 */
+	void entriesAdded(List<Entry> entries);
+
+	/**
+	 * Ein Eintrag wurde gelöscht.
+	 *
+	 * @param id die ID des gelöschten Eintrags.
+	 */
+	void entryRemoved(int id);
+
+	/**
+	 * Alle Einträge wurden gelöscht.
+	 */
+	void entriesCleared();
+}
@@ -0,0 +1,188 @@
+package model;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Speicher für Einträge. Controller, Berichte und Import arbeiten nur gegen
+ * diese Schnittstelle; welche Implementierung verwendet wird, bestimmt
+ * "store.engine" in der Konfiguration (siehe {@link #open(DatabaseConfig)}):
+ *
+ * - "mysql" (Standard): {@link DatabaseHelper}, Daten in der MySQL-Datenbank.
+ * - "memory": {@link InMemoryEntryStore}, Daten nur im Arbeitsspeicher, ohne
+ * externen Dienst (für Entwicklung, Tests und Benchmarks).
+ * - "journal": {@link JournalEntryStore}, wie "memory", aber mit Journal und
+ * Snapshots in lokalen Dateien (Einzelplatz ohne Datenbankserver).
+ *
+ * Beträge werden in Rappen übergeben und geliefert (Ausgaben negativ).
+ * Gefiltert wird nach Buchungsdatum über einen {@link DateRange} (ein Monat
+ * oder ein Jahr); null steht für alle Einträge.
+ */
+public interface EntryStore extends AutoCloseable {
+
+	/**
+	 * Öffnet den in der Konfiguration gewählten Speicher.
+	 *
+	 * @param config die Konfiguration.
+	 * @return der Speicher.
+	 */
+	static EntryStore open(DatabaseConfig config) {
+		String engine = config.getString("store.engine", "mysql").trim();
+		if ("memory".equalsIgnoreCase(engine)) {
+			System.out.println("Einträge werden nur im Arbeitsspeicher gehalten (store.engine=memory).");
+			return new InMemoryEntryStore(config);
+		}
+		if ("journal".equalsIgnoreCase(engine)) {
+			return new JournalEntryStore(config);
+		}
+		if (!"mysql".equalsIgnoreCase(engine)) {
+			System.err.println("Unbekannter Wert für store.engine: " + engine + ", MySQL wird verwendet.");
+		}
+		return new DatabaseHelper(new ConnectionPool(config));
+	}
+
+	/**
+	 * Meldet einen Listener für Änderungen an (Hinzufügen, Löschen, alles
+	 * Löschen).
+	 *
+	 * @param listener der Listener.
+	 */
+	void addEntryListener(EntryListener listener);
+
+	/**
+	 * @param listener der zu entfernende Listener.
+	 */
+	void removeEntryListener(EntryListener listener);
+
+	/** Die Konfiguration, mit der der Speicher geöffnet wurde. */
+	DatabaseConfig getConfig();
+
+	/** Anzahl bisher ausgeführter Speicherzugriffe (für die Statuszeile). */
+	long getQueryCount();
+
+	/**
+	 * Kennzahlen pro Speicherzugriff (Dauer als Histogramm, Zeilen, Fehler),
+	 * mit denselben Operationsnamen in allen Implementierungen.
+	 */
+	Metrics getMetrics();
+
+	/** @return alle Einträge, aufsteigend nach ID (leer bei einem Fehler). */
+	List<Entry> fetchAllEntries();
+
+	/** @return die Einträge eines Zeitraums oder alle (leer bei einem Fehler). */
+	List<Entry> fetchEntriesByMonth(DateRange range);
+
+	/**
+	 * Übergibt die Einträge aufsteigend nach ID dem Visitor. Fehler werden
+	 * protokolliert.
+	 *
+	 * @return Anzahl gelesener Einträge.
+	 */
+	int forEachEntry(DateRange range, EntryVisitor visitor);
+
+	/**
+	 * Wie {@link #forEachEntry}, gibt Fehler aber weiter.
+	 *
+	 * @return Anzahl gelesener Einträge.
+	 * @throws SQLException bei einem Fehler.
+	 */
+	int streamEntries(DateRange range, EntryVisitor visitor) throws SQLException;
+
+	/** @return Anzahl Einträge eines Zeitraums oder aller Einträge. */
+	int countEntries(DateRange range);
+
+	/**
+	 * @return höchstens {@code limit} Einträge mit einer ID grösser als
+	 *         {@code afterKey}, aufsteigend nach ID.
+	 */
+	List<Entry> fetchEntryPage(DateRange range, int afterKey, int limit);
+
+	/**
+	 * Sucht eine Seitengrenze ausgehend von einem bekannten Schlüssel per
+	 * Keyset; die Kosten wachsen mit {@code steps}, nicht mit der Zeilennummer.
+	 *
+	 * @param range   der Zeitraum oder null für alle Einträge.
+	 * @param fromKey der Ausgangsschlüssel (selbst nicht mitgezählt): 0 für
+	 *                den Anfang, Integer.MAX_VALUE für das Ende.
+	 * @param steps   Anzahl Einträge nach (positiv) bzw. vor (negativ) fromKey.
+	 * @return die ID des gesuchten Eintrags, {@code fromKey} bei 0 Schritten
+	 *         oder -1, wenn es ihn nicht gibt.
+	 */
+	int seekKey(DateRange range, int fromKey, int steps);
+
+	/**
+	 * Liest Einträge über ihre IDs, z. B. eine Seite der Suchtreffer.
+	 *
+	 * @param ids die IDs, aufsteigend.
+	 * @return die noch vorhandenen Einträge, aufsteigend nach ID.
+	 */
+	List<Entry> fetchEntriesById(int[] ids);
+
+	/** @return Summe und Anzahl pro Monat (eines Jahres) und Typ. */
+	List<MonthlyTotal> fetchMonthlyTotals();
+
+	/** @return Summe und Anzahl pro Monat und Typ, ohne zwischengespeicherte Summen. */
+	List<MonthlyTotal> recomputeMonthlyTotals();
+
+	/** @return Summe und Anzahl pro Kategorie und Typ, absteigend nach Betrag. */
+	List<CategoryTotal> fetchCategoryTotals();
+
+	/**
+	 * Lädt alle Einträge mit Kategorie, Betrag, Typ und Monat für die
+	 * Auswertung pro Kategorie ({@link CategoryAnalytics}).
+	 *
+	 * @return der Snapshot (leer bei einem Fehler).
+	 */
+	CategorySnapshot fetchCategorySnapshot();
+
+	/** Berechnet zwischengespeicherte Summen neu (falls es welche gibt). */
+	void rebuildRollup();
+
+	/** @return true, wenn ein Eintrag gelöscht wurde. */
+	boolean deleteEntryById(int id);
+
+	/** @return Anzahl gelöschter Einträge oder -1 bei einem Fehler. */
+	int deleteAllEntries();
+
+	/**
+	 * Speichert einen neuen Eintrag.
+	 *
+	 * @param titel  Titel (zugleich Kategorie).
+	 * @param betrag Betrag in CHF (negativ bei Ausgaben).
+	 * @param typ    "Einnahme" oder "Ausgabe".
+	 * @param datum  Buchungsdatum.
+	 * @return der gespeicherte Eintrag mit ID oder null bei einem Fehler.
+	 */
+	Entry insertEntry(String titel, double betrag, String typ, LocalDate datum);
+
+	/**
+	 * Speichert viele Einträge auf einmal; die IDs der übergebenen Einträge
+	 * werden ignoriert.
+	 *
+	 * @return die gespeicherten Einträge mit ihren neuen IDs.
+	 */
+	List<Entry> insertEntries(Collection<Entry> entries);
+
+	/**
+	 * @return alle Vorlagen für wiederkehrende Einträge, aufsteigend nach ID
+	 *         (leer bei einem Fehler).
+	 */
+	List<RecurringEntry> fetchRecurringEntries();
+
+	/**
+	 * Speichert eine Vorlage für wiederkehrende Einträge: neu, wenn ihre ID 0
+	 * ist, sonst anstelle der Vorlage mit dieser ID.
+	 *
+	 * @param item die Vorlage.
+	 * @return die gespeicherte Vorlage mit ID oder null bei einem Fehler.
+	 */
+	RecurringEntry saveRecurringEntry(RecurringEntry item);
+
+	/** @return true, wenn eine Vorlage gelöscht wurde. */
+	boolean deleteRecurringEntry(int id);
+
+	@Override
+	void close();
+}
@@ -0,0 +1,17 @@
+package model;
+
+/**
+ * Rückruf für das zeilenweise Lesen von Einträgen, ohne alle Zeilen im
+ * Speicher zu halten.
+ */
+@FunctionalInterface
+public interface EntryVisitor {
+
+	/**
+	 * Wird für jeden gelesenen Eintrag aufgerufen.
+	 *
+	 * @param entry der aktuelle Eintrag.
+	 * @return true, um weiterzulesen; false, um das Lesen abzubrechen.
+	 */
+	boolean visit(Entry entry);
+}
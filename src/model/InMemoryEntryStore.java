@@ -0,0 +1,764 @@
+package model;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hält alle Einträge im Arbeitsspeicher (store.engine=memory). Es wird kein
+ * Datenbankserver gebraucht; beim Beenden gehen die Daten verloren.
+ *
+ * Indizes:
+ * - alle Einträge nach ID (für "Alle Monate" und die Seiten),
+ * - pro Monat (eines Jahres) die Einträge nach ID (Filter, Seiten),
+ * - pro Monat und Typ Summe und Anzahl (Bilanz, Monatssummen, Zählen),
+ * - pro Kategorie (= Titel) und Typ Summe und Anzahl (Übersicht).
+ *
+ * Pro Kategorie werden nur diese Summen geführt, keine Liste der Einträge:
+ * Keine Abfrage liest die Einträge einer einzelnen Kategorie, und
+ * fetchCategorySnapshot() braucht ohnehin alle Einträge.
+ *
+ * Ein Zeitraum über mehrere Monate (ein Jahr) wird gelesen, indem die
+ * Monatsindizes nach ID zusammengeführt werden; die übrigen Jahre werden
+ * dabei nicht berührt.
+ *
+ * Schreibzugriffe werden nacheinander ausgeführt, damit die Indizes
+ * zueinander passen und die IDs aufsteigend vergeben werden. Lesezugriffe
+ * brauchen keine Sperre: Die Indizes sind nebenläufige Maps, ein Durchlauf
+ * sieht einen gleichzeitig gespeicherten Eintrag oder eben nicht, so wie ein
+ * Datenbank-Cursor ohne Sperren.
+ *
+ * Unterklassen können Änderungen über die Hooks (beforeInsert, beforeDelete,
+ * beforeClear, beforeSaveRecurring, beforeDeleteRecurring, afterWrite)
+ * zusätzlich festhalten, siehe
+ * {@link JournalEntryStore}.
+ */
+public class InMemoryEntryStore implements EntryStore {
+	private static final int EINNAHME = 0;
+	private static final int AUSGABE = 1;
+
+	private final DatabaseConfig config;
+	// Schreibzugriffe laufen nacheinander unter dieser Sperre (auch in Unterklassen)
+	protected final Object writeLock = new Object();
+	private int nextId = 1;
+
+	private final ConcurrentSkipListMap<Integer, Entry> byId = new ConcurrentSkipListMap<>();
+	// Leere Monate bleiben stehen; es gibt höchstens einen pro Monat mit Einträgen
+	private final ConcurrentSkipListMap<YearMonth, ConcurrentSkipListMap<Integer, Entry>> byMonth =
+			new ConcurrentSkipListMap<>();
+	// Monat -> [Summe Einnahmen, Anzahl Einnahmen, Summe Ausgaben, Anzahl Ausgaben]
+	private final ConcurrentSkipListMap<YearMonth, AtomicLongArray> byMonthStats = new ConcurrentSkipListMap<>();
+	// Kategorie -> [Summe Einnahmen, Anzahl Einnahmen, Summe Ausgaben, Anzahl Ausgaben], nur Summen
+	private final Map<String, AtomicLongArray> byCategory = new ConcurrentHashMap<>();
+	// Vorlagen für wiederkehrende Einträge nach ID
+	private final ConcurrentSkipListMap<Integer, RecurringEntry> recurring = new ConcurrentSkipListMap<>();
+	private int nextRecurringId = 1;
+
+	private final AtomicLong queryCount = new AtomicLong();
+	// Dauer, Zeilen und Fehler pro Operation, mit denselben Namen wie bei DatabaseHelper
+	private final Metrics metrics = new Metrics("Speicher");
+	// Benachrichtigt wird noch unter writeLock, damit die Reihenfolge der Ereignisse stimmt
+	private final EntryEvents events = new EntryEvents();
+
+	/**
+	 * Erstellt einen leeren Speicher.
+	 *
+	 * @param config die Konfiguration (für table.* und pool.maxSize).
+	 */
+	public InMemoryEntryStore(DatabaseConfig config) {
+		this.config = config;
+		metrics.registerGauge("abfragen", queryCount::get);
+		metrics.registerGauge("eintraege", () -> count(null));
+	}
+
+	@Override
+	public DatabaseConfig getConfig() {
+		return config;
+	}
+
+	@Override
+	public void addEntryListener(EntryListener listener) {
+		events.add(listener);
+	}
+
+	@Override
+	public void removeEntryListener(EntryListener listener) {
+		events.remove(listener);
+	}
+
+	@Override
+	public long getQueryCount() {
+		return queryCount.get();
+	}
+
+	@Override
+	public Metrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public List<Entry> fetchAllEntries() {
+		return fetchEntriesByMonth(null);
+	}
+
+	@Override
+	public List<Entry> fetchEntriesByMonth(DateRange range) {
+		List<Entry> entries = new ArrayList<>();
+		forEachEntry(range, entry -> entries.add(entry));
+		return entries;
+	}
+
+	@Override
+	public int forEachEntry(DateRange range, EntryVisitor visitor) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		int count = 0;
+		Iterator<Entry> it = iterator(range, 0);
+		while (it.hasNext()) {
+			count++;
+			if (!visitor.visit(it.next())) {
+				break;
+			}
+		}
+		metrics.record("streamEntries", start, count);
+		return count;
+	}
+
+	@Override
+	public int streamEntries(DateRange range, EntryVisitor visitor) {
+		return forEachEntry(range, visitor);
+	}
+
+	@Override
+	public int countEntries(DateRange range) {
+		queryCount.incrementAndGet();
+		return count(range);
+	}
+
+	private int count(DateRange range) {
+		// ConcurrentSkipListMap.size() läuft über alle Einträge, die Zähler nicht
+		Collection<AtomicLongArray> stats = range == null ? byMonthStats.values()
+				: byMonthStats.subMap(range.getFrom(), true, range.getTo(), false).values();
+		long count = 0;
+		for (AtomicLongArray month : stats) {
+			count += month.get(EINNAHME * 2 + 1) + month.get(AUSGABE * 2 + 1);
+		}
+		return (int) count;
+	}
+
+	@Override
+	public List<Entry> fetchEntryPage(DateRange range, int afterKey, int limit) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		List<Entry> entries = new ArrayList<>(Math.max(0, limit));
+		Iterator<Entry> it = iterator(range, afterKey);
+		while (entries.size() < limit && it.hasNext()) {
+			entries.add(it.next());
+		}
+		metrics.record("fetchEntryPage", start, entries.size());
+		return entries;
+	}
+
+	/**
+	 * Läuft wie LIMIT/OFFSET in der Datenbank ab dem Ausgangsschlüssel über
+	 * {@code steps} Schlüssel des Index, vorwärts oder rückwärts; gebraucht
+	 * wird das nur beim Springen zu einer Seite, deren Vorgängerseite noch
+	 * nicht geladen ist.
+	 */
+	@Override
+	public int seekKey(DateRange range, int fromKey, int steps) {
+		if (steps == 0) {
+			return fromKey;
+		}
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		Iterator<Entry> it = iterator(range, fromKey, steps < 0);
+		int remaining = Math.abs(steps);
+		int skipped = 0;
+		int key = -1;
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			skipped++;
+			if (--remaining == 0) {
+				key = entry.getId();
+				break;
+			}
+		}
+		metrics.record("seekKey", start, skipped);
+		return key;
+	}
+
+	@Override
+	public List<Entry> fetchEntriesById(int[] ids) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		List<Entry> entries = new ArrayList<>(ids.length);
+		for (int id : ids) {
+			Entry entry = byId.get(id);
+			if (entry != null) {
+				entries.add(entry);
+			}
+		}
+		metrics.record("fetchEntriesById", start, entries.size());
+		return entries;
+	}
+
+	@Override
+	public List<MonthlyTotal> fetchMonthlyTotals() {
+		return recomputeMonthlyTotals();
+	}
+
+	/**
+	 * Die Summen werden bei jedem Schreibzugriff nachgeführt; es gibt keine
+	 * getrennte Summentabelle, die abweichen könnte.
+	 */
+	@Override
+	public List<MonthlyTotal> recomputeMonthlyTotals() {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		List<MonthlyTotal> totals = new ArrayList<>();
+		synchronized (writeLock) {
+			for (Map.Entry<YearMonth, AtomicLongArray> month : byMonthStats.entrySet()) {
+				AtomicLongArray stats = month.getValue();
+				for (int type = EINNAHME; type <= AUSGABE; type++) {
+					int count = (int) stats.get(type * 2 + 1);
+					if (count > 0) {
+						totals.add(new MonthlyTotal(month.getKey(), typeName(type), stats.get(type * 2), count));
+					}
+				}
+			}
+		}
+		metrics.record("recomputeMonthlyTotals", start, totals.size());
+		return totals;
+	}
+
+	@Override
+	public List<CategoryTotal> fetchCategoryTotals() {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		List<CategoryTotal> totals = new ArrayList<>();
+		synchronized (writeLock) {
+			for (Map.Entry<String, AtomicLongArray> category : byCategory.entrySet()) {
+				AtomicLongArray stats = category.getValue();
+				for (int type = EINNAHME; type <= AUSGABE; type++) {
+					int count = (int) stats.get(type * 2 + 1);
+					if (count > 0) {
+						totals.add(new CategoryTotal(category.getKey(), typeName(type), stats.get(type * 2), count));
+					}
+				}
+			}
+		}
+		totals.sort((a, b) -> Long.compare(Math.abs(b.getSumCents()), Math.abs(a.getSumCents())));
+		metrics.record("fetchCategoryTotals", start, totals.size());
+		return totals;
+	}
+
+	/**
+	 * Die Kategorie ist der Titel; die Schlüssel werden beim Laden vergeben.
+	 */
+	@Override
+	public CategorySnapshot fetchCategorySnapshot() {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		CategorySnapshot.Builder builder = new CategorySnapshot.Builder();
+		Map<String, Integer> keys = new HashMap<>();
+		for (Entry entry : byId.values()) {
+			Integer key = keys.get(entry.getTitle());
+			if (key == null) {
+				key = keys.size() + 1;
+				keys.put(entry.getTitle(), key);
+				builder.addCategory(key, entry.getTitle());
+			}
+			builder.add(key, entry.getAmountCents(), entry.isIncome(), entry.getDate());
+		}
+		CategorySnapshot snapshot = builder.build();
+		metrics.record("fetchCategorySnapshot", start, snapshot.size());
+		return snapshot;
+	}
+
+	/**
+	 * Keine Summentabelle vorhanden, es gibt nichts neu zu berechnen.
+	 */
+	@Override
+	public void rebuildRollup() {
+	}
+
+	@Override
+	public boolean deleteEntryById(int id) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		synchronized (writeLock) {
+			Entry entry = byId.get(id);
+			if (entry == null) {
+				metrics.record("deleteEntryById", start, 0);
+				System.err.println("Kein Eintrag mit ID " + id + " gefunden.");
+				return false;
+			}
+			try {
+				beforeDelete(entry);
+			} catch (UncheckedIOException e) {
+				metrics.recordError("deleteEntryById", start);
+				System.err.println("Fehler beim Löschen des Eintrags: " + e.getMessage());
+				e.printStackTrace();
+				return false;
+			}
+			byId.remove(id);
+			unindex(entry);
+			afterWrite();
+			events.fireRemoved(id);
+		}
+		metrics.record("deleteEntryById", start, 1);
+		System.out.println("Eintrag mit ID " + id + " wurde gelöscht.");
+		return true;
+	}
+
+	@Override
+	public int deleteAllEntries() {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		int deleted;
+		synchronized (writeLock) {
+			try {
+				beforeClear();
+			} catch (UncheckedIOException e) {
+				metrics.recordError("deleteAllEntries", start);
+				System.err.println("Fehler beim Löschen aller Einträge: " + e.getMessage());
+				e.printStackTrace();
+				return -1;
+			}
+			deleted = clear();
+			afterWrite();
+			events.fireCleared();
+		}
+		metrics.record("deleteAllEntries", start, deleted);
+		System.out.println("Alle " + deleted + " Einträge wurden gelöscht.");
+		return deleted;
+	}
+
+	@Override
+	public Entry insertEntry(String titel, double betrag, String typ, LocalDate datum) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		Entry saved;
+		synchronized (writeLock) {
+			try {
+				saved = store(new Entry(0, titel, Math.round(betrag * 100), typ, datum));
+			} catch (UncheckedIOException e) {
+				metrics.recordError("insertEntry", start);
+				System.err.println("Fehler beim Speichern des Eintrags: " + e.getMessage());
+				e.printStackTrace();
+				return null;
+			}
+			if (saved != null) {
+				afterWrite();
+				events.fireAdded(Collections.singletonList(saved));
+			}
+		}
+		if (saved == null) {
+			metrics.recordError("insertEntry", start);
+			return null;
+		}
+		metrics.record("insertEntry", start, 1);
+		System.out.println("Eintrag erfolgreich gespeichert: " + titel);
+		return saved;
+	}
+
+	/**
+	 * Schlägt das Speichern eines Eintrags fehl, wird abgebrochen; bereits
+	 * gespeicherte Einträge bleiben erhalten (wie bei DatabaseHelper).
+	 */
+	@Override
+	public List<Entry> insertEntries(Collection<Entry> entries) {
+		List<Entry> saved = new ArrayList<>(entries.size());
+		if (entries.isEmpty()) {
+			return saved;
+		}
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		synchronized (writeLock) {
+			try {
+				for (Entry entry : entries) {
+					Entry stored = store(entry);
+					if (stored != null) {
+						saved.add(stored);
+					}
+				}
+				metrics.record("insertEntries", start, saved.size());
+			} catch (UncheckedIOException e) {
+				metrics.recordError("insertEntries", start);
+				System.err.println("Fehler beim Speichern mehrerer Einträge: " + e.getMessage());
+				e.printStackTrace();
+			}
+			afterWrite();
+			events.fireAdded(saved);
+		}
+		return saved;
+	}
+
+	@Override
+	public List<RecurringEntry> fetchRecurringEntries() {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		List<RecurringEntry> items = new ArrayList<>(recurring.values());
+		metrics.record("fetchRecurringEntries", start, items.size());
+		return items;
+	}
+
+	@Override
+	public RecurringEntry saveRecurringEntry(RecurringEntry item) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		RecurringEntry saved;
+		synchronized (writeLock) {
+			if (item.getId() != 0 && !recurring.containsKey(item.getId())) {
+				metrics.recordError("saveRecurringEntry", start);
+				System.err.println("Wiederkehrender Eintrag mit ID " + item.getId() + " nicht gefunden.");
+				return null;
+			}
+			saved = item.getId() != 0 ? item : item.withId(nextRecurringId);
+			try {
+				beforeSaveRecurring(saved);
+			} catch (UncheckedIOException e) {
+				metrics.recordError("saveRecurringEntry", start);
+				System.err.println("Fehler beim Speichern des wiederkehrenden Eintrags: " + e.getMessage());
+				e.printStackTrace();
+				return null;
+			}
+			restoreRecurring(saved);
+			afterWrite();
+		}
+		metrics.record("saveRecurringEntry", start, 1);
+		System.out.println("Wiederkehrender Eintrag gespeichert: " + saved);
+		return saved;
+	}
+
+	@Override
+	public boolean deleteRecurringEntry(int id) {
+		long start = System.nanoTime();
+		queryCount.incrementAndGet();
+		synchronized (writeLock) {
+			if (!recurring.containsKey(id)) {
+				metrics.record("deleteRecurringEntry", start, 0);
+				System.err.println("Kein wiederkehrender Eintrag mit ID " + id + " gefunden.");
+				return false;
+			}
+			try {
+				beforeDeleteRecurring(id);
+			} catch (UncheckedIOException e) {
+				metrics.recordError("deleteRecurringEntry", start);
+				System.err.println("Fehler beim Löschen des wiederkehrenden Eintrags: " + e.getMessage());
+				e.printStackTrace();
+				return false;
+			}
+			recurring.remove(id);
+			afterWrite();
+		}
+		metrics.record("deleteRecurringEntry", start, 1);
+		System.out.println("Wiederkehrender Eintrag mit ID " + id + " wurde gelöscht.");
+		return true;
+	}
+
+	/**
+	 * Wird vor dem Aufnehmen eines neuen Eintrags (mit bereits vergebener ID)
+	 * unter writeLock aufgerufen. Wirft die Methode eine Ausnahme, wird der
+	 * Eintrag nicht gespeichert. Für Unterklassen, die Änderungen zusätzlich
+	 * festhalten (siehe {@link JournalEntryStore}).
+	 *
+	 * @param entry der neue Eintrag.
+	 */
+	protected void beforeInsert(Entry entry) {
+	}
+
+	/**
+	 * Wie {@link #beforeInsert(Entry)}, vor dem Löschen eines Eintrags.
+	 *
+	 * @param entry der zu löschende Eintrag.
+	 */
+	protected void beforeDelete(Entry entry) {
+	}
+
+	/**
+	 * Wie {@link #beforeInsert(Entry)}, vor dem Löschen aller Einträge.
+	 */
+	protected void beforeClear() {
+	}
+
+	/**
+	 * Wie {@link #beforeInsert(Entry)}, vor dem Speichern einer Vorlage für
+	 * wiederkehrende Einträge (neu oder geändert, mit vergebener ID).
+	 *
+	 * @param item die zu speichernde Vorlage.
+	 */
+	protected void beforeSaveRecurring(RecurringEntry item) {
+	}
+
+	/**
+	 * Wie {@link #beforeInsert(Entry)}, vor dem Löschen einer Vorlage.
+	 *
+	 * @param id die ID der Vorlage.
+	 */
+	protected void beforeDeleteRecurring(int id) {
+	}
+
+	/**
+	 * Wird nach jeder schreibenden Operation noch unter writeLock aufgerufen.
+	 */
+	protected void afterWrite() {
+	}
+
+	/**
+	 * Nimmt einen Eintrag mit seiner bisherigen ID auf, ohne die Hooks
+	 * aufzurufen (beim Wiederherstellen). Muss unter writeLock aufgerufen
+	 * werden.
+	 *
+	 * @return der Eintrag oder null, wenn Datum oder Typ ungültig sind.
+	 */
+	protected Entry restore(Entry entry) {
+		if (!isValid(entry)) {
+			return null;
+		}
+		nextId = Math.max(nextId, entry.getId() + 1);
+		return indexEntry(entry);
+	}
+
+	/**
+	 * Entfernt einen Eintrag ohne Hooks (beim Wiederherstellen). Muss unter
+	 * writeLock aufgerufen werden.
+	 */
+	protected void restoreDelete(int id) {
+		Entry entry = byId.remove(id);
+		if (entry != null) {
+			unindex(entry);
+		}
+	}
+
+	/**
+	 * Entfernt alle Einträge ohne Hooks. Muss unter writeLock aufgerufen
+	 * werden.
+	 *
+	 * @return Anzahl entfernter Einträge.
+	 */
+	protected int clear() {
+		int cleared = byId.size();
+		byId.clear();
+		byMonth.clear();
+		byMonthStats.clear();
+		byCategory.clear();
+		return cleared;
+	}
+
+	/** Alle Einträge aufsteigend nach ID, ohne Kopie und ohne Zähler. */
+	protected Collection<Entry> entries() {
+		return Collections.unmodifiableCollection(byId.values());
+	}
+
+	/** Die nächste zu vergebende ID. Muss unter writeLock gelesen werden. */
+	protected int getNextId() {
+		return nextId;
+	}
+
+	/**
+	 * Setzt die nächste zu vergebende ID (nie kleiner als bisher), damit IDs
+	 * gelöschter Einträge nicht erneut vergeben werden.
+	 */
+	protected void restoreNextId(int id) {
+		nextId = Math.max(nextId, id);
+	}
+
+	/**
+	 * Nimmt eine Vorlage mit ihrer ID auf oder ersetzt sie, ohne Hooks (beim
+	 * Wiederherstellen). Muss unter writeLock aufgerufen werden.
+	 */
+	protected void restoreRecurring(RecurringEntry item) {
+		nextRecurringId = Math.max(nextRecurringId, item.getId() + 1);
+		recurring.put(item.getId(), item);
+	}
+
+	/**
+	 * Entfernt eine Vorlage ohne Hooks. Muss unter writeLock aufgerufen werden.
+	 */
+	protected void restoreDeleteRecurring(int id) {
+		recurring.remove(id);
+	}
+
+	/** Alle Vorlagen aufsteigend nach ID, ohne Kopie und ohne Zähler. */
+	protected Collection<RecurringEntry> recurringEntries() {
+		return Collections.unmodifiableCollection(recurring.values());
+	}
+
+	/** Die nächste zu vergebende ID einer Vorlage. Muss unter writeLock gelesen werden. */
+	protected int getNextRecurringId() {
+		return nextRecurringId;
+	}
+
+	/**
+	 * Setzt die nächste zu vergebende ID einer Vorlage (nie kleiner als bisher).
+	 */
+	protected void restoreNextRecurringId(int id) {
+		nextRecurringId = Math.max(nextRecurringId, id);
+	}
+
+	/**
+	 * Vergibt die nächste ID und nimmt den Eintrag in alle Indizes auf. Muss
+	 * unter writeLock aufgerufen werden.
+	 *
+	 * @return der gespeicherte Eintrag oder null, wenn Datum oder Typ ungültig sind.
+	 */
+	private Entry store(Entry entry) {
+		if (!isValid(entry)) {
+			return null;
+		}
+		Entry saved = new Entry(nextId++, entry.getTitle(), entry.getAmountCents(), entry.getType(),
+				entry.getDate());
+		beforeInsert(saved);
+		return indexEntry(saved);
+	}
+
+	private static boolean isValid(Entry entry) {
+		if (entry.getDate() == null) {
+			System.err.println("Datum fehlt, Eintrag übersprungen: " + entry.getTitle());
+			return false;
+		}
+		if (!Entry.EINNAHME.equals(entry.getType()) && !Entry.AUSGABE.equals(entry.getType())) {
+			System.err.println("Unbekannter Typ, Eintrag übersprungen: " + entry);
+			return false;
+		}
+		return true;
+	}
+
+	private Entry indexEntry(Entry entry) {
+		int id = entry.getId();
+		YearMonth month = entry.getYearMonth();
+		int type = entry.isIncome() ? EINNAHME : AUSGABE;
+		byMonth.computeIfAbsent(month, k -> new ConcurrentSkipListMap<>()).put(id, entry);
+		AtomicLongArray stats = byMonthStats.computeIfAbsent(month, k -> new AtomicLongArray(4));
+		stats.addAndGet(type * 2, entry.getAmountCents());
+		stats.incrementAndGet(type * 2 + 1);
+		AtomicLongArray category = byCategory.computeIfAbsent(entry.getTitle(), k -> new AtomicLongArray(4));
+		category.addAndGet(type * 2, entry.getAmountCents());
+		category.incrementAndGet(type * 2 + 1);
+		// zuletzt in den Hauptindex, damit "Alle Monate" keinen halb indexierten Eintrag sieht
+		byId.put(id, entry);
+		return entry;
+	}
+
+	/**
+	 * Entfernt einen Eintrag aus den Monats- und Kategorieindizes. Muss unter
+	 * writeLock aufgerufen werden.
+	 */
+	private void unindex(Entry entry) {
+		YearMonth month = entry.getYearMonth();
+		int type = entry.isIncome() ? EINNAHME : AUSGABE;
+		byMonth.get(month).remove(entry.getId());
+		AtomicLongArray stats = byMonthStats.get(month);
+		stats.addAndGet(type * 2, -entry.getAmountCents());
+		stats.decrementAndGet(type * 2 + 1);
+		AtomicLongArray category = byCategory.get(entry.getTitle());
+		if (category != null) {
+			category.addAndGet(type * 2, -entry.getAmountCents());
+			if (category.decrementAndGet(type * 2 + 1) == 0 && category.get(3 - type * 2) == 0) {
+				byCategory.remove(entry.getTitle());
+			}
+		}
+	}
+
+	/**
+	 * Liefert die Einträge eines Zeitraums mit einer ID grösser als
+	 * {@code afterKey}, aufsteigend nach ID. Umfasst der Zeitraum mehrere
+	 * Monate, werden deren Indizes über eine Prioritätswarteschlange
+	 * zusammengeführt (pro Eintrag O(log Anzahl Monate)).
+	 */
+	private Iterator<Entry> iterator(DateRange range, int afterKey) {
+		return iterator(range, afterKey, false);
+	}
+
+	/**
+	 * @param fromKey    der Ausgangsschlüssel (selbst nicht enthalten).
+	 * @param descending true für die Einträge vor fromKey, absteigend nach ID.
+	 */
+	private Iterator<Entry> iterator(DateRange range, int fromKey, boolean descending) {
+		if (range == null) {
+			return section(byId, fromKey, descending).values().iterator();
+		}
+		Collection<ConcurrentSkipListMap<Integer, Entry>> months =
+				byMonth.subMap(range.getFrom(), true, range.getTo(), false).values();
+		if (months.size() == 1) {
+			return section(months.iterator().next(), fromKey, descending).values().iterator();
+		}
+		List<Iterator<Entry>> iterators = new ArrayList<>(months.size());
+		for (ConcurrentSkipListMap<Integer, Entry> month : months) {
+			iterators.add(section(month, fromKey, descending).values().iterator());
+		}
+		return new MergingIterator(iterators, descending);
+	}
+
+	private static NavigableMap<Integer, Entry> section(ConcurrentSkipListMap<Integer, Entry> entries, int fromKey,
+			boolean descending) {
+		return descending ? entries.headMap(fromKey, false).descendingMap() : entries.tailMap(fromKey, false);
+	}
+
+	private static String typeName(int type) {
+		return type == EINNAHME ? Entry.EINNAHME : Entry.AUSGABE;
+	}
+
+	/**
+	 * Führt mehrere nach ID sortierte Iteratoren (alle auf- oder alle
+	 * absteigend) zu einem zusammen.
+	 */
+	private static final class MergingIterator implements Iterator<Entry> {
+		// Pro Iterator der nächste Eintrag und der Iterator selbst
+		private final PriorityQueue<Map.Entry<Entry, Iterator<Entry>>> heads;
+
+		MergingIterator(List<Iterator<Entry>> iterators, boolean descending) {
+			Comparator<Map.Entry<Entry, Iterator<Entry>>> order = Comparator.comparingInt(head -> head.getKey().getId());
+			heads = new PriorityQueue<>(Math.max(1, iterators.size()), descending ? order.reversed() : order);
+			for (Iterator<Entry> it : iterators) {
+				advance(it);
+			}
+		}
+
+		private void advance(Iterator<Entry> it) {
+			if (it.hasNext()) {
+				heads.add(new AbstractMap.SimpleImmutableEntry<>(it.next(), it));
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !heads.isEmpty();
+		}
+
+		@Override
+		public Entry next() {
+			Map.Entry<Entry, Iterator<Entry>> head = heads.poll();
+			if (head == null) {
+				throw new NoSuchElementException();
+			}
+			advance(head.getValue());
+			return head.getKey();
+		}
+	}
+
+	/**
+	 * Gibt nichts frei; die Einträge bleiben bis zum Ende des Programms erhalten.
+	 */
+	@Override
+	public void close() {
+	}
+}
@@ -0,0 +1,184 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Hash-Map von int auf long ohne Boxing, für Gruppierungen über viele
+ * Zeilen (z. B. Summe pro Kategorie). Schlüssel und Werte liegen in zwei
+ * Arrays mit offener Adressierung (lineares Sondieren); ein Eintrag kostet
+ * damit 12 Bytes statt zweier Objekte und eines Map-Knotens.
+ *
+ * Einträge werden nur hinzugefügt oder aufsummiert, nie entfernt. Nicht
+ * threadsicher: Bei paralleler Auswertung hat jeder Teil seine eigene Map,
+ * die danach mit {@link #addAll(IntLongHashMap)} zusammengeführt werden.
+ */
+public final class IntLongHashMap {
+	// Markiert freie Plätze; der Schlüssel selbst wird in hasFreeKey geführt
+	private static final int FREE = 0;
+
+	private int[] keys;
+	private long[] values;
+	private int size;
+	private int mask;
+	private boolean hasFreeKey;
+	private long freeValue;
+
+	/**
+	 * Besucht die Einträge einer Map.
+	 */
+	@FunctionalInterface
+	public interface Visitor {
+		void visit(int key, long value);
+	}
+
+	public IntLongHashMap() {
+		this(16);
+	}
+
+	/**
+	 * @param expectedSize erwartete Anzahl Schlüssel (vermeidet Vergrössern).
+	 */
+	public IntLongHashMap(int expectedSize) {
+		int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+		keys = new int[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Addiert einen Wert zum Wert eines Schlüssels (fehlende Schlüssel haben 0).
+	 *
+	 * @param key   der Schlüssel.
+	 * @param delta der zu addierende Wert.
+	 */
+	public void add(int key, long delta) {
+		if (key == FREE) {
+			if (!hasFreeKey) {
+				hasFreeKey = true;
+				size++;
+			}
+			freeValue += delta;
+			return;
+		}
+		int slot = slot(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				values[slot] += delta;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = delta;
+		if (++size > keys.length >> 1) {
+			grow();
+		}
+	}
+
+	/**
+	 * @param key der Schlüssel.
+	 * @return der Wert oder 0, wenn der Schlüssel fehlt.
+	 */
+	public long get(int key) {
+		if (key == FREE) {
+			return freeValue;
+		}
+		int slot = slot(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				return values[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	/**
+	 * @param key der Schlüssel.
+	 * @return true, wenn der Schlüssel vorkommt (auch mit Wert 0).
+	 */
+	public boolean containsKey(int key) {
+		if (key == FREE) {
+			return hasFreeKey;
+		}
+		int slot = slot(key);
+		while (keys[slot] != FREE) {
+			if (keys[slot] == key) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Addiert alle Einträge einer anderen Map (Zusammenführen von Teilergebnissen).
+	 *
+	 * @param other die andere Map.
+	 */
+	public void addAll(IntLongHashMap other) {
+		other.forEach(this::add);
+	}
+
+	/**
+	 * Übergibt jeden Eintrag in unbestimmter Reihenfolge.
+	 *
+	 * @param visitor erhält Schlüssel und Wert.
+	 */
+	public void forEach(Visitor visitor) {
+		if (hasFreeKey) {
+			visitor.visit(FREE, freeValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != FREE) {
+				visitor.visit(keys[i], values[i]);
+			}
+		}
+	}
+
+	private int slot(int key) {
+		// Streut aufeinanderfolgende Schlüssel (z. B. Auto-Increment-IDs)
+		int h = key * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	private void grow() {
+		int[] oldKeys = keys;
+		long[] oldValues = values;
+		keys = new int[oldKeys.length * 2];
+		values = new long[keys.length];
+		mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				int slot = slot(oldKeys[i]);
+				while (keys[slot] != FREE) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * @return die Schlüssel, aufsteigend sortiert.
+	 */
+	public int[] keys() {
+		int[] result = new int[size];
+		int[] next = { 0 };
+		forEach((key, value) -> result[next[0]++] = key);
+		Arrays.sort(result);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder("{");
+		forEach((key, value) -> text.append(text.length() > 1 ? ", " : "").append(key).append('=').append(value));
+		return text.append('}').toString();
+	}
+}
@@ -0,0 +1,515 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Lokaler Speicher ohne Datenbankserver (store.engine=journal). Die Einträge
+ * liegen wie beim {@link InMemoryEntryStore} im Arbeitsspeicher; jede
+ * Änderung wird vorher an ein Journal auf der Festplatte angehängt.
+ *
+ * Im Verzeichnis journal.dir liegen:
+ * - "snapshot.dat": alle Einträge und Vorlagen für wiederkehrende Einträge
+ * zum Zeitpunkt der letzten Verdichtung, mit Generation und Prüfsumme,
+ * - "journal-<Generation>.dat": die Änderungen seit diesem Snapshot, als
+ * Datensätze [Länge][CRC32][Operation][Daten].
+ *
+ * Das Journal ist per MappedByteBuffer eingeblendet; ein Datensatz ist damit
+ * nur ein Kopieren in den Seitencache, ohne Systemaufruf. Die Daten
+ * überstehen einen Absturz des Programms; gegen einen Absturz des
+ * Betriebssystems hilft journal.sync=true (force() nach jeder Änderung,
+ * entsprechend langsamer).
+ *
+ * Wird das Journal grösser als journal.compactBytes und beim Schliessen, wird
+ * ein neuer Snapshot geschrieben (zuerst in eine temporäre Datei, dann
+ * atomar umbenannt) und ein leeres Journal der nächsten Generation begonnen.
+ * Beim Start wird der Snapshot gelesen und das Journal seiner Generation
+ * nachgespielt; ein unvollständiger letzter Datensatz (Absturz beim
+ * Schreiben) wird an der Prüfsumme erkannt und verworfen.
+ *
+ * Einträge werden mit ihrem Buchungsdatum (Tage seit 1970) gespeichert.
+ */
+public class JournalEntryStore extends InMemoryEntryStore {
+	// Datum als Tag seit 1970 und Vorlagen; "LPS1" (nur Monat) wird nicht mehr gelesen
+	private static final int SNAPSHOT_MAGIC = 0x4C505332; // "LPS2"
+	private static final int JOURNAL_MAGIC = 0x4C504A31; // "LPJ1"
+	private static final String SNAPSHOT_FILE = "snapshot.dat";
+	private static final Pattern JOURNAL_FILE = Pattern.compile("journal-(\\d+)\\.dat");
+	// Kopf des Journals: Magic, Generation, reserviert
+	private static final int HEADER_BYTES = 16;
+	// Länge und Prüfsumme vor jedem Datensatz
+	private static final int RECORD_OVERHEAD = 8;
+	// Das Journal wird in Schritten dieser Grösse eingeblendet und vergrössert
+	private static final int MAP_CHUNK = 16 * 1024 * 1024;
+
+	private static final byte OP_DELETE = 2;
+	private static final byte OP_CLEAR = 3;
+	private static final byte OP_INSERT = 4;
+	private static final byte OP_SAVE_RECURRING = 5;
+	private static final byte OP_DELETE_RECURRING = 6;
+	// Statt eines Enddatums bei unbefristeten Vorlagen
+	private static final int NO_END = Integer.MIN_VALUE;
+
+	private final File directory;
+	private final boolean sync;
+	private final long compactBytes;
+	private final CRC32 crc = new CRC32();
+	// Puffer für den Inhalt eines Datensatzes (wächst bei langen Titeln)
+	private ByteBuffer record = ByteBuffer.allocate(256);
+
+	private long generation;
+	private FileChannel channel;
+	private MappedByteBuffer journal;
+	private boolean dirty;
+
+	/**
+	 * Öffnet den Speicher und stellt den letzten Stand aus Snapshot und
+	 * Journal wieder her.
+	 *
+	 * @param config die Konfiguration (journal.dir, journal.sync, journal.compactBytes).
+	 * @throws UncheckedIOException wenn die Dateien nicht gelesen werden können.
+	 */
+	public JournalEntryStore(DatabaseConfig config) {
+		super(config);
+		this.directory = new File(config.getString("journal.dir", "liquiplanner-daten"));
+		this.sync = config.getBoolean("journal.sync", false);
+		this.compactBytes = Math.max(MAP_CHUNK,
+				Math.min(config.getLong("journal.compactBytes", 64L * 1024 * 1024), Integer.MAX_VALUE - MAP_CHUNK));
+		long start = System.nanoTime();
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException("Verzeichnis kann nicht angelegt werden: " + directory);
+			}
+			synchronized (writeLock) {
+				int loaded = loadSnapshot();
+				int replayed = openJournal();
+				deleteStaleJournals();
+				System.out.println(String.format(
+						"Journal %s geladen: %d Einträge aus dem Snapshot, %d Änderungen nachgespielt (%.0f ms).",
+						directory.getAbsolutePath(), loaded, replayed, (System.nanoTime() - start) / 1_000_000.0));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Journal kann nicht geöffnet werden: " + e.getMessage(), e);
+		}
+	}
+
+	@Override
+	protected void beforeInsert(Entry entry) {
+		byte[] title = entry.getTitle().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer data = recordBuffer(22 + title.length);
+		data.put(OP_INSERT);
+		data.putInt(entry.getId());
+		data.putLong(entry.getAmountCents());
+		data.put((byte) (entry.isIncome() ? 0 : 1));
+		data.putInt((int) entry.getDate().toEpochDay());
+		data.putInt(title.length);
+		data.put(title);
+		append(data);
+	}
+
+	@Override
+	protected void beforeDelete(Entry entry) {
+		ByteBuffer data = recordBuffer(5);
+		data.put(OP_DELETE);
+		data.putInt(entry.getId());
+		append(data);
+	}
+
+	@Override
+	protected void beforeClear() {
+		ByteBuffer data = recordBuffer(1);
+		data.put(OP_CLEAR);
+		append(data);
+	}
+
+	@Override
+	protected void beforeSaveRecurring(RecurringEntry item) {
+		byte[] title = item.getTitle().getBytes(StandardCharsets.UTF_8);
+		ByteBuffer data = recordBuffer(30 + title.length);
+		data.put(OP_SAVE_RECURRING);
+		data.putInt(item.getId());
+		data.putLong(item.getAmountCents());
+		data.put((byte) (item.isIncome() ? 0 : 1));
+		data.putInt((int) item.getStart().toEpochDay());
+		data.putInt(item.getEnd() != null ? (int) item.getEnd().toEpochDay() : NO_END);
+		data.putInt(item.getIntervalMonths());
+		data.putInt(title.length);
+		data.put(title);
+		append(data);
+	}
+
+	@Override
+	protected void beforeDeleteRecurring(int id) {
+		ByteBuffer data = recordBuffer(5);
+		data.put(OP_DELETE_RECURRING);
+		data.putInt(id);
+		append(data);
+	}
+
+	@Override
+	protected void afterWrite() {
+		if (sync) {
+			journal.force();
+		}
+	}
+
+	/**
+	 * Schreibt einen Snapshot, falls sich seit dem letzten etwas geändert hat,
+	 * damit der nächste Start nichts nachspielen muss, und schliesst das
+	 * Journal.
+	 */
+	@Override
+	public void close() {
+		synchronized (writeLock) {
+			if (channel == null) {
+				return;
+			}
+			try {
+				if (dirty) {
+					compact();
+				}
+				journal.force();
+				channel.close();
+			} catch (IOException e) {
+				System.err.println("Fehler beim Schliessen des Journals: " + e.getMessage());
+				e.printStackTrace();
+			}
+			channel = null;
+		}
+	}
+
+	private ByteBuffer recordBuffer(int size) {
+		if (record.capacity() < size) {
+			record = ByteBuffer.allocate(Math.max(size, record.capacity() * 2));
+		}
+		record.clear();
+		return record;
+	}
+
+	/**
+	 * Hängt einen Datensatz an das Journal an. Wird es dabei zu gross, wird
+	 * vorher verdichtet; der Datensatz landet dann im neuen Journal.
+	 */
+	private void append(ByteBuffer data) {
+		int length = data.position();
+		try {
+			if (journal.position() + RECORD_OVERHEAD + length > compactBytes) {
+				compact();
+			}
+			ensureCapacity(RECORD_OVERHEAD + length);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Journal kann nicht geschrieben werden: " + e.getMessage(), e);
+		}
+		crc.reset();
+		crc.update(data.array(), 0, length);
+		journal.putInt(length);
+		journal.putInt((int) crc.getValue());
+		journal.put(data.array(), 0, length);
+		dirty = true;
+	}
+
+	/**
+	 * Blendet das Journal bei Bedarf grösser ein (die Datei wächst dabei mit,
+	 * der neue Bereich ist mit Nullen gefüllt).
+	 */
+	private void ensureCapacity(int bytes) throws IOException {
+		if (journal.remaining() >= bytes) {
+			return;
+		}
+		int position = journal.position();
+		long size = ((long) position + bytes + MAP_CHUNK - 1) / MAP_CHUNK * MAP_CHUNK;
+		journal = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		journal.position(position);
+	}
+
+	/**
+	 * Liest den Snapshot, falls vorhanden.
+	 *
+	 * @return Anzahl gelesener Einträge.
+	 */
+	private int loadSnapshot() throws IOException {
+		File file = new File(directory, SNAPSHOT_FILE);
+		if (!file.exists()) {
+			generation = 1;
+			return 0;
+		}
+		CheckedInputStream checked = new CheckedInputStream(
+				new BufferedInputStream(new FileInputStream(file), 1 << 16), new CRC32());
+		try (DataInputStream in = new DataInputStream(checked)) {
+			int magic = in.readInt();
+			if (magic != SNAPSHOT_MAGIC) {
+				throw new IOException("Keine Snapshot-Datei oder unbekanntes Format: " + file);
+			}
+			generation = in.readLong();
+			restoreNextId(in.readInt());
+			// Gleiche Titel nur einmal im Speicher halten
+			Map<String, String> titles = new HashMap<>();
+			int count = 0;
+			while (in.readBoolean()) {
+				int id = in.readInt();
+				long amount = in.readLong();
+				String type = in.readByte() == 0 ? Entry.EINNAHME : Entry.AUSGABE;
+				LocalDate date = LocalDate.ofEpochDay(in.readInt());
+				String title = in.readUTF();
+				String shared = titles.putIfAbsent(title, title);
+				restore(new Entry(id, shared != null ? shared : title, amount, type, date));
+				count++;
+			}
+			restoreNextRecurringId(in.readInt());
+			while (in.readBoolean()) {
+				int id = in.readInt();
+				long amount = in.readLong();
+				String type = in.readByte() == 0 ? Entry.EINNAHME : Entry.AUSGABE;
+				LocalDate start = LocalDate.ofEpochDay(in.readInt());
+				int end = in.readInt();
+				int interval = in.readInt();
+				restoreRecurring(new RecurringEntry(id, in.readUTF(), amount, type, start,
+						end != NO_END ? LocalDate.ofEpochDay(end) : null, interval));
+			}
+			long expected = checked.getChecksum().getValue();
+			if (in.readInt() != (int) expected) {
+				throw new IOException("Prüfsumme des Snapshots stimmt nicht: " + file);
+			}
+			return count;
+		} catch (EOFException e) {
+			throw new IOException("Snapshot ist unvollständig: " + file, e);
+		}
+	}
+
+	/**
+	 * Öffnet das Journal der aktuellen Generation (oder legt es an) und
+	 * spielt seine Datensätze nach.
+	 *
+	 * @return Anzahl nachgespielter Datensätze.
+	 */
+	private int openJournal() throws IOException {
+		File file = journalFile(generation);
+		channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Journal ist zu gross: " + file);
+		}
+		journal = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				Math.max(MAP_CHUNK, (size + MAP_CHUNK - 1) / MAP_CHUNK * MAP_CHUNK));
+		int magic = journal.getInt(0);
+		if (magic == 0) {
+			journal.putInt(JOURNAL_MAGIC);
+			journal.putLong(generation);
+			journal.putInt(0);
+			return 0;
+		}
+		if (magic != JOURNAL_MAGIC || journal.getLong(4) != generation) {
+			throw new IOException("Journal passt nicht zum Snapshot: " + file);
+		}
+		journal.position(HEADER_BYTES);
+
+		int replayed = 0;
+		while (journal.remaining() >= RECORD_OVERHEAD) {
+			int start = journal.position();
+			int length = journal.getInt();
+			if (length == 0) {
+				journal.position(start);
+				break;
+			}
+			int checksum = journal.getInt();
+			boolean intact;
+			try {
+				intact = length > 0 && length <= journal.remaining() && replay(length, checksum);
+			} catch (IOException e) {
+				// Vollständiger Datensatz in unbekanntem Format: nichts verwerfen
+				channel.close();
+				throw new IOException(e.getMessage() + " (Position " + start + " in " + file + ")", e);
+			}
+			if (!intact) {
+				System.err.println("Journal ab Position " + start
+						+ " unvollständig (Absturz beim Schreiben?), der Rest wird verworfen.");
+				discardTail(start);
+				break;
+			}
+			replayed++;
+		}
+		return replayed;
+	}
+
+	/**
+	 * Prüft und spielt einen Datensatz nach.
+	 *
+	 * @return false, wenn die Prüfsumme nicht stimmt.
+	 * @throws IOException bei einem unversehrten Datensatz mit unbekannter
+	 *                     Operation (z. B. von einer neueren Version geschrieben).
+	 */
+	private boolean replay(int length, int checksum) throws IOException {
+		ByteBuffer data = recordBuffer(length);
+		journal.get(data.array(), 0, length);
+		crc.reset();
+		crc.update(data.array(), 0, length);
+		if ((int) crc.getValue() != checksum) {
+			return false;
+		}
+		data.limit(length);
+		byte op = data.get();
+		switch (op) {
+			case OP_INSERT:
+				int id = data.getInt();
+				long amount = data.getLong();
+				String type = data.get() == 0 ? Entry.EINNAHME : Entry.AUSGABE;
+				LocalDate date = LocalDate.ofEpochDay(data.getInt());
+				int titleLength = data.getInt();
+				String title = new String(data.array(), data.position(), titleLength, StandardCharsets.UTF_8);
+				restore(new Entry(id, title, amount, type, date));
+				break;
+			case OP_DELETE:
+				restoreDelete(data.getInt());
+				break;
+			case OP_CLEAR:
+				clear();
+				break;
+			case OP_SAVE_RECURRING:
+				int itemId = data.getInt();
+				long itemAmount = data.getLong();
+				String itemType = data.get() == 0 ? Entry.EINNAHME : Entry.AUSGABE;
+				LocalDate start = LocalDate.ofEpochDay(data.getInt());
+				int end = data.getInt();
+				int interval = data.getInt();
+				int itemTitleLength = data.getInt();
+				String itemTitle = new String(data.array(), data.position(), itemTitleLength, StandardCharsets.UTF_8);
+				restoreRecurring(new RecurringEntry(itemId, itemTitle, itemAmount, itemType, start,
+						end != NO_END ? LocalDate.ofEpochDay(end) : null, interval));
+				break;
+			case OP_DELETE_RECURRING:
+				restoreDeleteRecurring(data.getInt());
+				break;
+			default:
+				throw new IOException("Unbekannte Operation " + op + " im Journal");
+		}
+		dirty = true;
+		return true;
+	}
+
+	/**
+	 * Überschreibt alles ab {@code position} mit Nullen, damit Reste eines
+	 * abgebrochenen Datensatzes später nicht als gültig gelesen werden.
+	 */
+	private void discardTail(int position) {
+		byte[] zeros = new byte[8192];
+		journal.position(position);
+		while (journal.hasRemaining()) {
+			journal.put(zeros, 0, Math.min(zeros.length, journal.remaining()));
+		}
+		journal.position(position);
+		journal.force();
+	}
+
+	/**
+	 * Schreibt alle Einträge als Snapshot der nächsten Generation und beginnt
+	 * ein leeres Journal. Bis zum Umbenennen des Snapshots bleibt der alte
+	 * Stand (Snapshot und Journal) gültig.
+	 */
+	private void compact() throws IOException {
+		long start = System.nanoTime();
+		long next = generation + 1;
+		File temp = new File(directory, SNAPSHOT_FILE + ".tmp");
+		int count = 0;
+		try (FileOutputStream file = new FileOutputStream(temp)) {
+			CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16),
+					new CRC32());
+			DataOutputStream out = new DataOutputStream(checked);
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeLong(next);
+			out.writeInt(getNextId());
+			for (Entry entry : entries()) {
+				out.writeBoolean(true);
+				out.writeInt(entry.getId());
+				out.writeLong(entry.getAmountCents());
+				out.writeByte(entry.isIncome() ? 0 : 1);
+				out.writeInt((int) entry.getDate().toEpochDay());
+				out.writeUTF(entry.getTitle());
+				count++;
+			}
+			out.writeBoolean(false);
+			out.writeInt(getNextRecurringId());
+			for (RecurringEntry item : recurringEntries()) {
+				out.writeBoolean(true);
+				out.writeInt(item.getId());
+				out.writeLong(item.getAmountCents());
+				out.writeByte(item.isIncome() ? 0 : 1);
+				out.writeInt((int) item.getStart().toEpochDay());
+				out.writeInt(item.getEnd() != null ? (int) item.getEnd().toEpochDay() : NO_END);
+				out.writeInt(item.getIntervalMonths());
+				out.writeUTF(item.getTitle());
+			}
+			out.writeBoolean(false);
+			out.writeInt((int) checked.getChecksum().getValue());
+			out.flush();
+			file.getFD().sync();
+		}
+		Files.move(temp.toPath(), new File(directory, SNAPSHOT_FILE).toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+		// Ab hier gilt der neue Snapshot; das alte Journal wird nicht mehr gebraucht
+		File old = journalFile(generation);
+		channel.close();
+		generation = next;
+		openJournal();
+		journal.force();
+		dirty = false;
+		if (!old.delete()) {
+			// Unter Windows ist eine eingeblendete Datei gesperrt; sie wird beim nächsten Start gelöscht
+			old.deleteOnExit();
+		}
+		System.out.println(String.format("Journal verdichtet: %d Einträge im Snapshot (%.0f ms).", count,
+				(System.nanoTime() - start) / 1_000_000.0));
+	}
+
+	/**
+	 * Löscht Journale älterer Generationen (ihr Inhalt steckt im Snapshot;
+	 * übrig bleiben sie, wenn das Löschen unter Windows nicht möglich war).
+	 * Neuere Journale werden nur gemeldet: Ohne ihren Snapshot lassen sie
+	 * sich nicht nachspielen, sie könnten aber noch gebraucht werden.
+	 */
+	private void deleteStaleJournals() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			Matcher matcher = JOURNAL_FILE.matcher(file.getName());
+			if (!matcher.matches()) {
+				continue;
+			}
+			long fileGeneration = Long.parseLong(matcher.group(1));
+			if (fileGeneration > generation) {
+				System.err.println("Journal ohne passenden Snapshot wird ignoriert: " + file);
+			} else if (fileGeneration < generation && !file.delete()) {
+				System.err.println("Altes Journal konnte nicht gelöscht werden: " + file);
+			}
+		}
+	}
+
+	private File journalFile(long generation) {
+		return new File(directory, "journal-" + generation + ".dat");
+	}
+}
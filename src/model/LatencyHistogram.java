@@ -0,0 +1,115 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Threadsicheres Histogramm über gemessene Laufzeiten. Neben Anzahl,
+ * Durchschnitt und Maximum lassen sich daraus auch Perzentile (z. B. p95)
+ * ablesen, an denen man einzelne langsame Aufrufe erkennt, die im
+ * Durchschnitt untergehen.
+ *
+ * Die Buckets sind logarithmisch: Pro Zweierpotenz gibt es acht gleich breite
+ * Buckets. Ein Perzentil ist damit auf 12.5 % genau, egal ob es um
+ * Mikrosekunden oder Sekunden geht. Eine Messung kostet nur einige atomare
+ * Additionen, ohne Sperre und ohne neuen Speicher.
+ */
+public class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	// Reicht bis Long.MAX_VALUE Nanosekunden
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder totalNanos = new LongAdder();
+	private final AtomicLong maxNanos = new AtomicLong();
+
+	/**
+	 * Erfasst eine Messung.
+	 *
+	 * @param nanos die gemessene Dauer in Nanosekunden.
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		totalNanos.add(value);
+		maxNanos.accumulateAndGet(value, Math::max);
+	}
+
+	/** Anzahl Messungen. */
+	public long getCount() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += counts.get(i);
+		}
+		return count;
+	}
+
+	/** Summe aller Messungen in Nanosekunden. */
+	public long getTotalNanos() {
+		return totalNanos.sum();
+	}
+
+	/** Längste Messung in Nanosekunden. */
+	public long getMaxNanos() {
+		return maxNanos.get();
+	}
+
+	/**
+	 * Ermittelt mehrere Perzentile aus demselben Stand des Histogramms.
+	 *
+	 * @param quantiles die gesuchten Anteile, aufsteigend (z. B. 0.5, 0.95, 0.99).
+	 * @return die Perzentile in Nanosekunden (obere Grenze des jeweiligen
+	 *         Buckets, höchstens die längste Messung); 0 ohne Messungen.
+	 */
+	public long[] getPercentileNanos(double... quantiles) {
+		long[] snapshot = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		long max = maxNanos.get();
+		long[] result = new long[quantiles.length];
+		int bucket = 0;
+		long seen = snapshot[0];
+		for (int q = 0; q < quantiles.length && count > 0; q++) {
+			long rank = Math.max(1, (long) Math.ceil(quantiles[q] * count));
+			while (seen < rank && bucket < BUCKETS - 1) {
+				seen += snapshot[++bucket];
+			}
+			result[q] = Math.min(upperBound(bucket), max);
+		}
+		return result;
+	}
+
+	/**
+	 * Setzt das Histogramm zurück. Gleichzeitig erfasste Messungen können dabei
+	 * teilweise verloren gehen.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		totalNanos.reset();
+		maxNanos.set(0);
+	}
+
+	private static int bucketOf(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	private static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + ((1L << shift) - 1);
+	}
+}
@@ -0,0 +1,247 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Erwarteter Kontostand Monat für Monat, vom laufenden Monat an über einen
+ * Zeitraum von einigen Jahren.
+ *
+ * Pro Monat werden zwei Beträge geführt: die schon gebuchten Einträge (aus
+ * den {@link BalanceAggregates}) und die noch ausstehenden Buchungen der
+ * wiederkehrenden Einträge ({@link RecurringEntry}), jeweils Einnahmen minus
+ * Ausgaben. Der Kontostand am Ende eines Monats ist die Präfixsumme darüber,
+ * ausgehend vom Stand aller Einträge vor dem laufenden Monat. Als ausstehend
+ * gelten Buchungen nach dem heutigen Tag; frühere stehen, falls erfasst,
+ * schon in den Einträgen.
+ *
+ * Änderungen werden einzeln nachgeführt: Eine geänderte Vorlage zieht ihre
+ * bisherigen Buchungen ab und addiert die neuen (eine pro Buchung im
+ * Zeitraum, nicht pro Monat), ein Eintrag ändert einen Monat. Die
+ * Präfixsummen werden erst beim nächsten Lesen und nur ab dem frühesten
+ * geänderten Monat neu berechnet. Ein "Was wäre, wenn" kostet so höchstens
+ * einen Durchlauf über die Monate des Zeitraums.
+ *
+ * Nicht threadsicher; wird nur im EDT verwendet.
+ */
+public final class LiquidityProjection {
+	private final LocalDate today;
+	// Monatsnummer (wie CategorySnapshot.monthIndex) des laufenden Monats = Index 0
+	private final int firstIndex;
+	private final int monthCount;
+	// Kontostand vor dem laufenden Monat
+	private long opening;
+	// Pro Monat: gebuchte Einträge, ausstehende Buchungen der Vorlagen, Kontostand am Monatsende
+	private final long[] booked;
+	private final long[] planned;
+	private final long[] balance;
+	// Ab diesem Monat sind die Kontostände veraltet (monthCount: alle aktuell)
+	private int dirtyFrom;
+	// Berücksichtigte Vorlagen nach ID, in der Reihenfolge des Hinzufügens
+	private final Map<Integer, RecurringEntry> items = new LinkedHashMap<>();
+
+	/**
+	 * Berechnet die Prognose.
+	 *
+	 * @param aggregates die Summen der gebuchten Einträge pro Monat.
+	 * @param items      die zu berücksichtigenden Vorlagen (mit ID).
+	 * @param today      der heutige Tag; sein Monat ist der erste der Prognose.
+	 * @param years      Länge der Prognose in Jahren.
+	 */
+	public LiquidityProjection(BalanceAggregates aggregates, Collection<RecurringEntry> items, LocalDate today,
+			int years) {
+		this.today = today;
+		YearMonth current = YearMonth.from(today);
+		this.firstIndex = CategorySnapshot.monthIndex(current);
+		this.monthCount = Math.max(1, years) * 12;
+		this.booked = new long[monthCount];
+		this.planned = new long[monthCount];
+		this.balance = new long[monthCount];
+		this.opening = aggregates.getNetBefore(current);
+		for (int i = 0; i < monthCount; i++) {
+			booked[i] = aggregates.getNet(current.plusMonths(i));
+		}
+		for (RecurringEntry item : items) {
+			put(item);
+		}
+	}
+
+	/**
+	 * Nimmt eine Vorlage auf oder ersetzt die mit derselben ID.
+	 *
+	 * @param item die Vorlage.
+	 */
+	public void put(RecurringEntry item) {
+		RecurringEntry old = items.put(item.getId(), item);
+		if (old != null) {
+			apply(old, -1);
+		}
+		apply(item, 1);
+	}
+
+	/**
+	 * Nimmt eine Vorlage aus der Prognose.
+	 *
+	 * @param id die ID der Vorlage.
+	 */
+	public void remove(int id) {
+		RecurringEntry old = items.remove(id);
+		if (old != null) {
+			apply(old, -1);
+		}
+	}
+
+	/**
+	 * @param id die ID einer Vorlage.
+	 * @return true, wenn die Vorlage berücksichtigt wird.
+	 */
+	public boolean contains(int id) {
+		return items.containsKey(id);
+	}
+
+	/**
+	 * Addiert bzw. subtrahiert die ausstehenden Buchungen einer Vorlage. Die
+	 * Buchungen werden über {@link RecurringEntry#nextOccurrence(int)}
+	 * direkt angesprungen.
+	 */
+	private void apply(RecurringEntry item, int sign) {
+		long amount = sign * item.getAmountCents();
+		int end = firstIndex + monthCount;
+		int month = item.nextOccurrence(firstIndex);
+		if (month == firstIndex && !item.dateIn(YearMonth.from(today)).isAfter(today)) {
+			// Im laufenden Monat schon fällig: steht, falls erfasst, bei den Einträgen
+			month = item.nextOccurrence(firstIndex + 1);
+		}
+		if (month < 0 || month >= end) {
+			return;
+		}
+		dirtyFrom = Math.min(dirtyFrom, month - firstIndex);
+		for (; month >= 0 && month < end; month = item.nextOccurrence(month + 1)) {
+			planned[month - firstIndex] += amount;
+		}
+	}
+
+	/**
+	 * Berücksichtigt einen gebuchten Eintrag (hinzugefügt oder, mit
+	 * negativem Vorzeichen, gelöscht).
+	 *
+	 * @param entry der Eintrag.
+	 * @param sign  1 für hinzugefügt, -1 für gelöscht.
+	 */
+	public void addBooked(Entry entry, int sign) {
+		long amount = sign * entry.getAmountCents();
+		int month = CategorySnapshot.monthIndex(entry.getYearMonth()) - firstIndex;
+		if (month < 0) {
+			opening += amount;
+			dirtyFrom = 0;
+		} else if (month < monthCount) {
+			booked[month] += amount;
+			dirtyFrom = Math.min(dirtyFrom, month);
+		}
+	}
+
+	/**
+	 * Übernimmt die gebuchten Beträge neu aus den Summen (z. B. nach dem
+	 * Löschen aller Einträge); die Vorlagen bleiben.
+	 *
+	 * @param aggregates die Summen der gebuchten Einträge pro Monat.
+	 */
+	public void resetBooked(BalanceAggregates aggregates) {
+		YearMonth current = getMonth(0);
+		opening = aggregates.getNetBefore(current);
+		for (int i = 0; i < monthCount; i++) {
+			booked[i] = aggregates.getNet(current.plusMonths(i));
+		}
+		dirtyFrom = 0;
+	}
+
+	/** Berechnet die veralteten Kontostände neu, ab dem frühesten geänderten Monat. */
+	private void update() {
+		if (dirtyFrom >= monthCount) {
+			return;
+		}
+		long running = dirtyFrom == 0 ? opening : balance[dirtyFrom - 1];
+		for (int i = dirtyFrom; i < monthCount; i++) {
+			running += booked[i] + planned[i];
+			balance[i] = running;
+		}
+		dirtyFrom = monthCount;
+	}
+
+	/** Anzahl Monate der Prognose. */
+	public int getMonthCount() {
+		return monthCount;
+	}
+
+	/** Der Monat mit dem Index {@code month} (0 ist der laufende). */
+	public YearMonth getMonth(int month) {
+		return YearMonth.of((firstIndex + month) / 12, (firstIndex + month) % 12 + 1);
+	}
+
+	/** Kontostand vor dem laufenden Monat in Rappen. */
+	public long getOpeningBalance() {
+		return opening;
+	}
+
+	/** Einnahmen minus Ausgaben der gebuchten Einträge eines Monats in Rappen. */
+	public long getBooked(int month) {
+		return booked[month];
+	}
+
+	/** Einnahmen minus Ausgaben der ausstehenden Buchungen eines Monats in Rappen. */
+	public long getPlanned(int month) {
+		return planned[month];
+	}
+
+	/** Erwarteter Kontostand am Ende eines Monats in Rappen. */
+	public long getBalance(int month) {
+		update();
+		return balance[month];
+	}
+
+	/**
+	 * @return der Index des Monats mit dem tiefsten erwarteten Kontostand
+	 *         (bei mehreren der früheste).
+	 */
+	public int getLowestMonth() {
+		update();
+		int lowest = 0;
+		for (int i = 1; i < monthCount; i++) {
+			if (balance[i] < balance[lowest]) {
+				lowest = i;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * @return der Index des ersten Monats mit negativem erwartetem
+	 *         Kontostand oder -1, wenn er nie negativ wird.
+	 */
+	public int getFirstNegativeMonth() {
+		update();
+		for (int i = 0; i < monthCount; i++) {
+			if (balance[i] < 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Die berücksichtigten Vorlagen. */
+	public List<RecurringEntry> getItems() {
+		return new ArrayList<>(items.values());
+	}
+
+	@Override
+	public String toString() {
+		update();
+		return "LiquidityProjection[" + getMonth(0) + ", " + monthCount + " Monate, Start " + opening + ", Ende "
+				+ balance[monthCount - 1] + ", " + items.size() + " Vorlagen]";
+	}
+}
@@ -0,0 +1,221 @@
+package model;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Sammelt Kennzahlen eines Bereichs der Anwendung: pro Operation ein
+ * Laufzeit-Histogramm, die Anzahl Fehler und die Anzahl gelesener bzw.
+ * geänderter Zeilen, dazu Messgrössen wie Zeilen und geschätzter Speicher der
+ * angezeigten Modelle.
+ *
+ * Jeder EntryStore führt seine eigenen Kennzahlen pro Speicherzugriff (siehe
+ * {@link EntryStore#getMetrics()}), der Controller die Dauer der
+ * Benutzeraktionen von der Eingabe bis zur Anzeige. Über
+ * {@link #registerMBean()} werden sie per JMX veröffentlicht, damit sich
+ * Verschlechterungen auch im Betrieb erkennen lassen.
+ *
+ * Alle Methoden sind threadsicher; das Erfassen einer Messung sperrt nicht.
+ */
+public class Metrics implements MetricsMXBean {
+	private final String name;
+	private final ConcurrentMap<String, Operation> operations = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+	private ObjectName objectName;
+
+	/**
+	 * @param name Name des Bereichs, zugleich Teil des JMX-Objektnamens.
+	 */
+	public Metrics(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Erfasst einen erfolgreichen Aufruf.
+	 *
+	 * @param operation  Name der Operation.
+	 * @param startNanos Zeitpunkt des Beginns (System.nanoTime()).
+	 * @param rows       Anzahl gelesener bzw. geänderter Zeilen.
+	 */
+	public void record(String operation, long startNanos, long rows) {
+		Operation op = operation(operation);
+		op.latency.record(System.nanoTime() - startNanos);
+		op.rows.add(rows);
+	}
+
+	/**
+	 * Erfasst einen fehlgeschlagenen Aufruf; seine Dauer zählt mit.
+	 *
+	 * @param operation  Name der Operation.
+	 * @param startNanos Zeitpunkt des Beginns (System.nanoTime()).
+	 */
+	public void recordError(String operation, long startNanos) {
+		Operation op = operation(operation);
+		op.latency.record(System.nanoTime() - startNanos);
+		op.errors.increment();
+	}
+
+	private Operation operation(String operation) {
+		Operation op = operations.get(operation);
+		return op != null ? op : operations.computeIfAbsent(operation, k -> new Operation());
+	}
+
+	/**
+	 * Setzt eine Messgrösse auf einen festen Wert, z. B. nach dem Anzeigen
+	 * eines neuen Modells.
+	 *
+	 * @param gauge Name der Messgrösse.
+	 * @param value der aktuelle Wert.
+	 */
+	public void setGauge(String gauge, long value) {
+		LongSupplier supplier = gauges.get(gauge);
+		if (supplier instanceof ValueGauge) {
+			((ValueGauge) supplier).value.set(value);
+		} else {
+			ValueGauge created = new ValueGauge();
+			created.value.set(value);
+			gauges.put(gauge, created);
+		}
+	}
+
+	/**
+	 * Meldet eine Messgrösse an, deren Wert erst beim Abfragen ermittelt wird.
+	 * Der Supplier muss threadsicher sein.
+	 *
+	 * @param gauge    Name der Messgrösse.
+	 * @param supplier liefert den aktuellen Wert.
+	 */
+	public void registerGauge(String gauge, LongSupplier supplier) {
+		gauges.put(gauge, supplier);
+	}
+
+	/**
+	 * @param operation Name der Operation.
+	 * @return die Kennzahlen der Operation oder null, wenn sie noch nie
+	 *         aufgerufen wurde.
+	 */
+	public OperationStatistics getStatistics(String operation) {
+		Operation op = operations.get(operation);
+		return op != null ? op.getStatistics() : null;
+	}
+
+	@Override
+	public Map<String, OperationStatistics> getOperations() {
+		Map<String, OperationStatistics> result = new TreeMap<>();
+		for (Map.Entry<String, Operation> op : operations.entrySet()) {
+			result.put(op.getKey(), op.getValue().getStatistics());
+		}
+		return result;
+	}
+
+	@Override
+	public Map<String, Long> getGauges() {
+		Map<String, Long> result = new TreeMap<>();
+		for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+			result.put(gauge.getKey(), gauge.getValue().getAsLong());
+		}
+		return result;
+	}
+
+	@Override
+	public void reset() {
+		for (Operation op : operations.values()) {
+			op.reset();
+		}
+	}
+
+	/**
+	 * Veröffentlicht die Kennzahlen per JMX unter
+	 * "LiquiPlanner:type=Metrics,name=&lt;Name&gt;". Ein bereits unter diesem
+	 * Namen angemeldetes Objekt wird ersetzt. Fehler werden nur protokolliert.
+	 */
+	public synchronized void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = new ObjectName("LiquiPlanner:type=Metrics,name=" + ObjectName.quote(name));
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(this, objectName);
+			this.objectName = objectName;
+		} catch (JMException e) {
+			System.err.println("Kennzahlen konnten nicht per JMX veröffentlicht werden: " + e.getMessage());
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Meldet die Kennzahlen bei JMX wieder ab, falls sie angemeldet sind.
+	 */
+	public synchronized void unregisterMBean() {
+		if (objectName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) {
+			System.err.println("Kennzahlen konnten nicht bei JMX abgemeldet werden: " + e.getMessage());
+		}
+		objectName = null;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(name).append(':');
+		for (Map.Entry<String, OperationStatistics> op : getOperations().entrySet()) {
+			text.append(System.lineSeparator()).append("  ").append(op.getKey()).append(": ").append(op.getValue());
+		}
+		for (Map.Entry<String, Long> gauge : getGauges().entrySet()) {
+			text.append(System.lineSeparator()).append("  ").append(gauge.getKey()).append(" = ")
+					.append(gauge.getValue());
+		}
+		return text.toString();
+	}
+
+	/**
+	 * Kennzahlen einer Operation.
+	 */
+	private static final class Operation {
+		final LatencyHistogram latency = new LatencyHistogram();
+		final LongAdder rows = new LongAdder();
+		final LongAdder errors = new LongAdder();
+
+		OperationStatistics getStatistics() {
+			long[] percentiles = latency.getPercentileNanos(0.5, 0.95, 0.99);
+			return new OperationStatistics(latency.getCount(), errors.sum(), rows.sum(), latency.getTotalNanos(),
+					percentiles[0], percentiles[1], percentiles[2], latency.getMaxNanos());
+		}
+
+		void reset() {
+			latency.reset();
+			rows.reset();
+			errors.reset();
+		}
+	}
+
+	/**
+	 * Messgrösse mit fest gesetztem Wert.
+	 */
+	private static final class ValueGauge implements LongSupplier {
+		final AtomicLong value = new AtomicLong();
+
+		@Override
+		public long getAsLong() {
+			return value.get();
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package model;
+
+import java.util.Map;
+
+/**
+ * JMX-Schnittstelle von {@link Metrics}, z. B. für JConsole oder VisualVM
+ * (Objektname "LiquiPlanner:type=Metrics,name=...").
+ */
+public interface MetricsMXBean {
+
+	/** Name des Bereichs, z. B. "Speicher" oder "Aktionen". */
+	String getName();
+
+	/** Kennzahlen pro Operation, nach Name sortiert. */
+	Map<String, OperationStatistics> getOperations();
+
+	/** Aktuelle Werte der Messgrössen (Zeilen, geschätzte Bytes, Pool usw.). */
+	Map<String, Long> getGauges();
+
+	/** Setzt die Kennzahlen der Operationen zurück (nicht die Messgrössen). */
+	void reset();
+}
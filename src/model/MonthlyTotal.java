@@ -0,0 +1,48 @@
+package model;
+
+import java.time.YearMonth;
+
+/**
+ * Summe und Anzahl der Einträge eines Typs in einem Monat (eines bestimmten
+ * Jahres), wie sie von der Datenbank aggregiert geliefert werden.
+ */
+public final class MonthlyTotal {
+	private final YearMonth month;
+	private final String type;
+	private final long sumCents;
+	private final int count;
+
+	/**
+	 * @param month    Monat und Jahr.
+	 * @param type     "Einnahme" oder "Ausgabe".
+	 * @param sumCents die Summe der Beträge in Rappen (Ausgaben negativ).
+	 * @param count    die Anzahl Einträge.
+	 */
+	public MonthlyTotal(YearMonth month, String type, long sumCents, int count) {
+		this.month = month;
+		this.type = type;
+		this.sumCents = sumCents;
+		this.count = count;
+	}
+
+	public YearMonth getMonth() {
+		return month;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	/** Summe in Rappen (Ausgaben negativ). */
+	public long getSumCents() {
+		return sumCents;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public boolean isIncome() {
+		return Entry.EINNAHME.equals(type);
+	}
+}
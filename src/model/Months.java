@@ -0,0 +1,37 @@
+package model;
+
+import java.time.YearMonth;
+
+/**
+ * Die zwölf Monatsnamen, wie sie in der Tabelle "Monate" gespeichert sind.
+ */
+public final class Months {
+	public static final String[] NAMES = { "Januar", "Februar", "März", "April", "Mai", "Juni", "Juli", "August",
+			"September", "Oktober", "November", "Dezember" };
+
+	private Months() {
+	}
+
+	/**
+	 * Liefert den Index (0 = Januar) eines Monatsnamens.
+	 *
+	 * @param name der Monatsname (z. B. "Februar").
+	 * @return der Index oder -1, falls der Name unbekannt ist.
+	 */
+	public static int indexOf(String name) {
+		for (int i = 0; i < NAMES.length; i++) {
+			if (NAMES[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param month Monat und Jahr.
+	 * @return z. B. "Februar 2025".
+	 */
+	public static String label(YearMonth month) {
+		return NAMES[month.getMonthValue() - 1] + " " + month.getYear();
+	}
+}
@@ -0,0 +1,75 @@
+package model;
+
+/**
+ * Unveränderliche Momentaufnahme der Kennzahlen einer gemessenen Operation
+ * (Speicherzugriff oder Benutzeraktion), siehe {@link Metrics}.
+ */
+public class OperationStatistics {
+	private final long count;
+	private final long errors;
+	private final long rows;
+	private final long totalNanos;
+	private final long p50Nanos;
+	private final long p95Nanos;
+	private final long p99Nanos;
+	private final long maxNanos;
+
+	public OperationStatistics(long count, long errors, long rows, long totalNanos, long p50Nanos, long p95Nanos,
+			long p99Nanos, long maxNanos) {
+		this.count = count;
+		this.errors = errors;
+		this.rows = rows;
+		this.totalNanos = totalNanos;
+		this.p50Nanos = p50Nanos;
+		this.p95Nanos = p95Nanos;
+		this.p99Nanos = p99Nanos;
+		this.maxNanos = maxNanos;
+	}
+
+	/** Anzahl Aufrufe (einschliesslich fehlgeschlagener). */
+	public long getCount() {
+		return count;
+	}
+
+	/** Anzahl fehlgeschlagener Aufrufe. */
+	public long getErrors() {
+		return errors;
+	}
+
+	/** Anzahl gelesener bzw. geänderter Zeilen über alle Aufrufe. */
+	public long getRows() {
+		return rows;
+	}
+
+	public double getTotalMillis() {
+		return totalNanos / 1_000_000.0;
+	}
+
+	public double getAverageMillis() {
+		return count == 0 ? 0.0 : totalNanos / 1_000_000.0 / count;
+	}
+
+	/** Median der Dauer in Millisekunden. */
+	public double getP50Millis() {
+		return p50Nanos / 1_000_000.0;
+	}
+
+	public double getP95Millis() {
+		return p95Nanos / 1_000_000.0;
+	}
+
+	public double getP99Millis() {
+		return p99Nanos / 1_000_000.0;
+	}
+
+	public double getMaxMillis() {
+		return maxNanos / 1_000_000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d Aufrufe, %d Fehler, %d Zeilen | Ø %.2f ms, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms, "
+				+ "max. %.2f ms", count, errors, rows, getAverageMillis(), getP50Millis(), getP95Millis(),
+				getP99Millis(), getMaxMillis());
+	}
+}
@@ -0,0 +1,85 @@
+package model;
+
+/**
+ * Unveränderliche Momentaufnahme der Kennzahlen eines ConnectionPool.
+ */
+public class PoolStatistics {
+	private final int maxSize;
+	private final int active;
+	private final int idle;
+	private final long created;
+	private final long destroyed;
+	private final long borrowed;
+	private final long waitTimeouts;
+	private final long validationFailures;
+	private final long totalWaitNanos;
+	private final long maxWaitNanos;
+
+	public PoolStatistics(int maxSize, int active, int idle, long created, long destroyed, long borrowed,
+			long waitTimeouts, long validationFailures, long totalWaitNanos, long maxWaitNanos) {
+		this.maxSize = maxSize;
+		this.active = active;
+		this.idle = idle;
+		this.created = created;
+		this.destroyed = destroyed;
+		this.borrowed = borrowed;
+		this.waitTimeouts = waitTimeouts;
+		this.validationFailures = validationFailures;
+		this.totalWaitNanos = totalWaitNanos;
+		this.maxWaitNanos = maxWaitNanos;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/** Anzahl aktuell ausgeliehener Verbindungen. */
+	public int getActive() {
+		return active;
+	}
+
+	/** Anzahl offener Verbindungen im Leerlauf. */
+	public int getIdle() {
+		return idle;
+	}
+
+	/** Anzahl physisch aufgebauter Verbindungen seit dem Start. */
+	public long getCreated() {
+		return created;
+	}
+
+	public long getDestroyed() {
+		return destroyed;
+	}
+
+	/** Anzahl Ausleihen seit dem Start. */
+	public long getBorrowed() {
+		return borrowed;
+	}
+
+	public long getWaitTimeouts() {
+		return waitTimeouts;
+	}
+
+	public long getValidationFailures() {
+		return validationFailures;
+	}
+
+	/** Durchschnittliche Wartezeit pro Ausleihe in Millisekunden. */
+	public double getAverageWaitMillis() {
+		return borrowed == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / borrowed;
+	}
+
+	public double getMaxWaitMillis() {
+		return maxWaitNanos / 1_000_000.0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"Pool: %d aktiv, %d frei (max. %d) | %d ausgeliehen, %d aufgebaut, %d geschlossen | "
+						+ "Wartezeit Ø %.2f ms, max. %.2f ms | %d Zeitüberschreitungen, %d ungültig",
+				active, idle, maxSize, borrowed, created, destroyed, getAverageWaitMillis(), getMaxWaitMillis(),
+				waitTimeouts, validationFailures);
+	}
+}
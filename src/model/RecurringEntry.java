@@ -0,0 +1,185 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Unveränderliche Vorlage für einen wiederkehrenden Eintrag (z. B. Miete oder
+ * Lohn) aus der Tabelle "WiederkehrendeEinträge".
+ *
+ * Gespeichert wird nur die Regel: erste Buchung, Abstand in Monaten und
+ * optional die letzte mögliche Buchung. Die einzelnen Buchungen werden nie
+ * als Zeilen angelegt, sondern bei Bedarf aus der Monatsnummer berechnet
+ * ({@link #occursIn(int)}, {@link #nextOccurrence(int)}); eine Miete über
+ * zehn Jahre kostet damit so viel wie eine über einen Monat.
+ *
+ * Gebucht wird jeweils am Tag der ersten Buchung, in kürzeren Monaten am
+ * letzten Tag (31. Januar, 28. Februar, 31. März, ...).
+ */
+public final class RecurringEntry {
+	private final int id;
+	private final String title;
+	private final long amountCents;
+	private final String type;
+	private final LocalDate start;
+	private final LocalDate end;
+	private final int intervalMonths;
+	// Monatsnummern (wie CategorySnapshot.monthIndex) der ersten und der letzten möglichen Buchung
+	private final int startIndex;
+	private final int lastIndex;
+
+	/**
+	 * @param id             der Primärschlüssel (wkKey), 0 für noch nicht
+	 *                       gespeicherte Vorlagen.
+	 * @param title          der Titel der Buchungen.
+	 * @param amountCents    der Betrag pro Buchung in Rappen (negativ bei Ausgaben).
+	 * @param type           "Einnahme" oder "Ausgabe".
+	 * @param start          das Datum der ersten Buchung.
+	 * @param end            das letzte mögliche Buchungsdatum oder null für unbefristet.
+	 * @param intervalMonths Abstand der Buchungen in Monaten (1 monatlich, 3
+	 *                       vierteljährlich, 12 jährlich).
+	 * @throws IllegalArgumentException wenn das Startdatum fehlt, das Ende davor
+	 *                                  liegt oder der Abstand kleiner als 1 ist.
+	 */
+	public RecurringEntry(int id, String title, long amountCents, String type, LocalDate start, LocalDate end,
+			int intervalMonths) {
+		if (start == null) {
+			throw new IllegalArgumentException("Datum der ersten Buchung fehlt");
+		}
+		if (end != null && end.isBefore(start)) {
+			throw new IllegalArgumentException("Letzte Buchung liegt vor der ersten");
+		}
+		if (intervalMonths < 1) {
+			throw new IllegalArgumentException("Abstand muss mindestens einen Monat betragen: " + intervalMonths);
+		}
+		this.id = id;
+		this.title = title;
+		this.amountCents = amountCents;
+		this.type = type;
+		this.start = start;
+		this.end = end;
+		this.intervalMonths = intervalMonths;
+		this.startIndex = CategorySnapshot.monthIndex(YearMonth.from(start));
+		if (end == null) {
+			lastIndex = Integer.MAX_VALUE;
+		} else {
+			YearMonth endMonth = YearMonth.from(end);
+			// Fällt die Buchung im letzten Monat nach das Ende, ist der Vormonat der letzte
+			int last = CategorySnapshot.monthIndex(endMonth);
+			lastIndex = dayIn(endMonth) > end.getDayOfMonth() ? last - 1 : last;
+		}
+	}
+
+	/**
+	 * @param id die neue ID.
+	 * @return eine Kopie mit dieser ID (nach dem Speichern).
+	 */
+	public RecurringEntry withId(int id) {
+		return new RecurringEntry(id, title, amountCents, type, start, end, intervalMonths);
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	/** Betrag pro Buchung in Rappen. */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public boolean isIncome() {
+		return Entry.EINNAHME.equals(type);
+	}
+
+	/** Datum der ersten Buchung. */
+	public LocalDate getStart() {
+		return start;
+	}
+
+	/** Letztes mögliches Buchungsdatum oder null für unbefristet. */
+	public LocalDate getEnd() {
+		return end;
+	}
+
+	/** Abstand der Buchungen in Monaten. */
+	public int getIntervalMonths() {
+		return intervalMonths;
+	}
+
+	/**
+	 * @param monthIndex eine Monatsnummer wie {@link CategorySnapshot#monthIndex}.
+	 * @return true, wenn in diesem Monat gebucht wird.
+	 */
+	public boolean occursIn(int monthIndex) {
+		return monthIndex >= startIndex && monthIndex <= lastIndex
+				&& (monthIndex - startIndex) % intervalMonths == 0;
+	}
+
+	/**
+	 * Die erste Buchung ab einem Monat, ohne die dazwischen aufzuzählen.
+	 *
+	 * @param monthIndex eine Monatsnummer wie {@link CategorySnapshot#monthIndex}.
+	 * @return die Monatsnummer der ersten Buchung in oder nach diesem Monat
+	 *         oder -1, wenn danach nicht mehr gebucht wird.
+	 */
+	public int nextOccurrence(int monthIndex) {
+		int next = startIndex;
+		if (monthIndex > startIndex) {
+			int steps = (monthIndex - startIndex + intervalMonths - 1) / intervalMonths;
+			next = startIndex + steps * intervalMonths;
+		}
+		return next <= lastIndex ? next : -1;
+	}
+
+	/**
+	 * @param month ein Monat mit Buchung.
+	 * @return das Buchungsdatum in diesem Monat.
+	 */
+	public LocalDate dateIn(YearMonth month) {
+		return month.atDay(dayIn(month));
+	}
+
+	private int dayIn(YearMonth month) {
+		return Math.min(start.getDayOfMonth(), month.lengthOfMonth());
+	}
+
+	/**
+	 * @return z. B. "monatlich", "vierteljährlich", "jährlich" oder "alle 2 Monate".
+	 */
+	public String getIntervalLabel() {
+		return intervalLabel(intervalMonths);
+	}
+
+	/**
+	 * @param months Abstand in Monaten.
+	 * @return die Bezeichnung des Abstands wie {@link #getIntervalLabel()}.
+	 */
+	public static String intervalLabel(int months) {
+		switch (months) {
+			case 1:
+				return "monatlich";
+			case 3:
+				return "vierteljährlich";
+			case 6:
+				return "halbjährlich";
+			case 12:
+				return "jährlich";
+			default:
+				return "alle " + months + " Monate";
+		}
+	}
+
+	@Override
+	public String toString() {
+		return title + " " + Entry.formatAmount(amountCents, isIncome()) + " " + getIntervalLabel() + " ab "
+				+ Entry.formatDate(start) + (end != null ? " bis " + Entry.formatDate(end) : "");
+	}
+}
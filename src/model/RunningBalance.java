@@ -0,0 +1,250 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Laufender Saldo über die Einträge eines {@link EntrySnapshot}: für jeden
+ * Eintrag der Kontostand nach seiner Buchung, also die Summe der Beträge bis
+ * und mit diesem Eintrag in der Reihenfolge Buchungsdatum, dann ID (bei
+ * gleichem Datum die Reihenfolge der Erfassung). Ein Zeitraum ist in dieser
+ * Reihenfolge ein zusammenhängender Abschnitt; mit dem Stand vor dem
+ * Zeitraum als Anfangswert zeigt ein gefilterter Monat deshalb dieselben
+ * Salden wie die ungefilterte Tabelle. Die Zeilen selbst bleiben nach ID
+ * geordnet.
+ *
+ * Die Beträge liegen in einem Fenwick-Baum (Binary Indexed Tree) über
+ * Plätzen, die nach (Datum, ID) sortiert sind. Der Platz eines Eintrags wird
+ * binär gesucht, eine Präfixsumme kostet O(log n). Ein Eintrag, der in dieser
+ * Reihenfolge hinter allen anderen liegt (der Normalfall beim Erfassen),
+ * belegt den nächsten freien Platz in O(log n). Ein gelöschter Eintrag wird
+ * nicht herausgeschoben, sondern sein Platz nur geleert; überwiegen die
+ * leeren Plätze, wird der Baum einmal in O(n) neu aufgebaut. Nur ein
+ * rückdatierter Eintrag (früheres Datum als der letzte) baut ebenfalls neu
+ * auf.
+ *
+ * Nicht threadsicher; wird wie der Snapshot nur im EDT verwendet.
+ */
+public final class RunningBalance {
+	// Unter dieser Grösse lohnt sich das Aufräumen der leeren Plätze nicht
+	private static final int MIN_COMPACT = 64;
+
+	// Sortierschlüssel (Datum, ID), Betrag und Belegung pro Platz (ab 1), dazu der Baum
+	private long[] keys;
+	private long[] values;
+	private boolean[] used;
+	private long[] sums;
+	// Benutzte Plätze (belegt oder geleert) und davon belegte
+	private int slots;
+	private int size;
+
+	/**
+	 * Baut den Baum über alle Einträge eines Snapshots auf (Sortieren in
+	 * O(n log n), der Baum selbst in O(n)).
+	 *
+	 * @param snapshot die Einträge.
+	 */
+	public RunningBalance(EntrySnapshot snapshot) {
+		int count = snapshot.size();
+		long[][] rows = new long[count][];
+		for (int row = 0; row < count; row++) {
+			rows[row] = new long[] { key(snapshot.getEpochDay(row), snapshot.getId(row)),
+					snapshot.getAmountCents(row) };
+		}
+		Arrays.sort(rows, (a, b) -> Long.compare(a[0], b[0]));
+		long[] sortedKeys = new long[count];
+		long[] amounts = new long[count];
+		for (int i = 0; i < count; i++) {
+			sortedKeys[i] = rows[i][0];
+			amounts[i] = rows[i][1];
+		}
+		rebuild(sortedKeys, amounts, count, count);
+	}
+
+	/** Anzahl Einträge. */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param day Buchungsdatum des Eintrags (Tage seit 1970).
+	 * @param id  ID des Eintrags.
+	 * @return Summe der Beträge aller Einträge bis und mit (day, id) in Rappen.
+	 */
+	public long getBalance(int day, int id) {
+		return prefixSum(lastSlotAtMost(key(day, id)));
+	}
+
+	/** Summe aller Beträge in Rappen. */
+	public long getTotal() {
+		return prefixSum(slots);
+	}
+
+	/**
+	 * Nimmt einen Eintrag auf. Ist er schon enthalten, passiert nichts.
+	 *
+	 * @param day         Buchungsdatum (Tage seit 1970).
+	 * @param id          ID des Eintrags.
+	 * @param amountCents sein Betrag in Rappen.
+	 * @return true, wenn es Einträge nach ihm gibt, deren Saldo sich damit ändert.
+	 */
+	public boolean insert(int day, int id, long amountCents) {
+		long key = key(day, id);
+		int slot = lastSlotAtMost(key);
+		if (slot > 0 && keys[slot] == key) {
+			if (!used[slot]) {
+				// Wieder aufgenommen: Der Platz ist noch da
+				values[slot] = amountCents;
+				used[slot] = true;
+				size++;
+				add(slot, amountCents);
+				return slot < slots;
+			}
+			return false;
+		}
+		if (slot < slots) {
+			// Rückdatiert: ohne leere Plätze und mit dem neuen Eintrag neu aufbauen
+			long[] newKeys = new long[size + 1];
+			long[] amounts = new long[size + 1];
+			int target = 0;
+			boolean placed = false;
+			for (int i = 1; i <= slots; i++) {
+				if (!placed && keys[i] > key) {
+					newKeys[target] = key;
+					amounts[target++] = amountCents;
+					placed = true;
+				}
+				if (used[i]) {
+					newKeys[target] = keys[i];
+					amounts[target++] = values[i];
+				}
+			}
+			rebuild(newKeys, amounts, target, Math.max(16, target + (target >> 1)));
+			return true;
+		}
+		if (slots == values.length - 1) {
+			compact(Math.max(16, size + 1 + ((size + 1) >> 1)));
+		}
+		slot = ++slots;
+		keys[slot] = key;
+		values[slot] = amountCents;
+		used[slot] = true;
+		size++;
+		add(slot, amountCents);
+		return false;
+	}
+
+	/**
+	 * Entfernt einen Eintrag. Unbekannte Einträge werden ignoriert.
+	 *
+	 * @param day Buchungsdatum (Tage seit 1970).
+	 * @param id  ID des Eintrags.
+	 */
+	public void remove(int day, int id) {
+		long key = key(day, id);
+		int slot = lastSlotAtMost(key);
+		if (slot == 0 || keys[slot] != key || !used[slot]) {
+			return;
+		}
+		add(slot, -values[slot]);
+		used[slot] = false;
+		values[slot] = 0;
+		size--;
+		if (slots >= MIN_COMPACT && slots - size > size) {
+			compact(Math.max(16, size + (size >> 1)));
+		}
+	}
+
+	/** Sortierschlüssel: Datum in den oberen, ID in den unteren 32 Bit. */
+	private static long key(int day, int id) {
+		return (long) day << 32 | (id & 0xFFFFFFFFL);
+	}
+
+	/** Baut den Baum ohne die leeren Plätze neu auf. */
+	private void compact(int capacity) {
+		long[] newKeys = new long[size];
+		long[] amounts = new long[size];
+		int target = 0;
+		for (int slot = 1; slot <= slots; slot++) {
+			if (used[slot]) {
+				newKeys[target] = keys[slot];
+				amounts[target++] = values[slot];
+			}
+		}
+		rebuild(newKeys, amounts, target, capacity);
+	}
+
+	/**
+	 * Baut den Baum in O(n) auf: Jeder Knoten gibt seine Summe an den
+	 * nächsten ihn umfassenden Knoten weiter.
+	 *
+	 * @param sortedKeys die Schlüssel, aufsteigend.
+	 * @param amounts    die Beträge in derselben Reihenfolge.
+	 * @param count      Anzahl Einträge am Anfang der Arrays.
+	 * @param capacity   gewünschte Anzahl Plätze (mindestens count).
+	 */
+	private void rebuild(long[] sortedKeys, long[] amounts, int count, int capacity) {
+		capacity = Math.max(1, Math.max(capacity, count));
+		keys = new long[capacity + 1];
+		values = new long[capacity + 1];
+		used = new boolean[capacity + 1];
+		sums = new long[capacity + 1];
+		for (int slot = 1; slot <= count; slot++) {
+			keys[slot] = sortedKeys[slot - 1];
+			values[slot] = amounts[slot - 1];
+			used[slot] = true;
+		}
+		// Auch die leeren Plätze geben die Summen ihrer Kinder weiter
+		for (int slot = 1; slot <= capacity; slot++) {
+			sums[slot] += values[slot];
+			int parent = slot + (slot & -slot);
+			if (parent <= capacity) {
+				sums[parent] += sums[slot];
+			}
+		}
+		slots = count;
+		size = count;
+	}
+
+	private void add(int slot, long amount) {
+		for (int i = slot; i < sums.length; i += i & -i) {
+			sums[i] += amount;
+		}
+	}
+
+	private long prefixSum(int slot) {
+		long sum = 0;
+		for (int i = slot; i > 0; i -= i & -i) {
+			sum += sums[i];
+		}
+		return sum;
+	}
+
+	/** Letzter benutzter Platz mit einem Schlüssel bis und mit {@code key}, 0 wenn keiner. */
+	private int lastSlotAtMost(long key) {
+		int low = 1;
+		int high = slots;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid] <= key) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Schätzt den Speicherbedarf der Bäume in Bytes.
+	 *
+	 * @return geschätzte Bytes.
+	 */
+	public long estimateHeapBytes() {
+		return (long) keys.length * 8 + (long) values.length * 8 + used.length + (long) sums.length * 8;
+	}
+
+	@Override
+	public String toString() {
+		return "RunningBalance[" + size + " Einträge, " + (slots - size) + " leere Plätze, Summe " + getTotal() + "]";
+	}
+}
@@ -0,0 +1,400 @@
+package model;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Bringt das Datenbankschema schrittweise auf den aktuellen Stand.
+ *
+ * Jede Migration hat eine fortlaufende Versionsnummer und wird genau einmal
+ * ausgeführt. Ausgeführte Migrationen werden mit einer Prüfsumme über ihre
+ * SQL-Anweisungen in der Tabelle "SchemaVersion" vermerkt. Wurde eine bereits
+ * ausgeführte Migration nachträglich geändert, bricht migrate() mit einem
+ * Fehler ab, statt das Schema stillschweigend auseinanderlaufen zu lassen.
+ *
+ * Neue Schemaänderungen werden nur als neue Migration am Ende von
+ * {@link #MIGRATIONS} angehängt, bestehende werden nie verändert.
+ *
+ * Optionale Migrationen (z. B. {@link #PARTITION_BY_YEAR}) werden nur
+ * ausgeführt, wenn sie in der Liste stehen ({@link #migrations(boolean)});
+ * sie können auch nach späteren Migrationen noch nachgeholt werden.
+ */
+public class SchemaMigrator {
+	// Sperre, damit zwei gleichzeitig gestartete Instanzen nicht beide migrieren
+	private static final String LOCK_NAME = "LiquiPlanner.schema";
+	private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * Ein Migrationsschritt, dessen Anweisungen vom Zustand der Datenbank
+	 * abhängen (z. B. von den Namen der Fremdschlüssel). Er muss erneut
+	 * ausgeführt werden können, falls er beim ersten Mal mittendrin abbrach.
+	 */
+	@FunctionalInterface
+	public interface Step {
+		void run(Connection conn) throws SQLException;
+	}
+
+	/**
+	 * Eine Migration: Versionsnummer, Beschreibung und SQL-Anweisungen oder
+	 * ein {@link Step}.
+	 */
+	public static final class Migration {
+		private final int version;
+		private final String description;
+		private final List<String> statements;
+		private final Step step;
+
+		public Migration(int version, String description, String... statements) {
+			this(version, description, null, statements);
+		}
+
+		/**
+		 * @param version     die Versionsnummer.
+		 * @param description die Beschreibung.
+		 * @param step        führt die Migration statt der Anweisungen aus oder null.
+		 * @param statements  die SQL-Anweisungen; bei einem Schritt nur die
+		 *                    Vorlagen seiner Anweisungen, damit die Prüfsumme
+		 *                    Änderungen erkennt.
+		 */
+		public Migration(int version, String description, Step step, String... statements) {
+			this.version = version;
+			this.description = description;
+			this.step = step;
+			this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+		}
+
+		public int getVersion() {
+			return version;
+		}
+
+		public String getDescription() {
+			return description;
+		}
+
+		public List<String> getStatements() {
+			return statements;
+		}
+
+		/** Der Schritt, der die Migration ausführt, oder null. */
+		public Step getStep() {
+			return step;
+		}
+
+		/**
+		 * CRC32 über alle Anweisungen; ändert sich, sobald eine Anweisung
+		 * geändert wird.
+		 */
+		public long getChecksum() {
+			CRC32 crc = new CRC32();
+			for (String statement : statements) {
+				crc.update(statement.getBytes(StandardCharsets.UTF_8));
+				crc.update('\n');
+			}
+			return crc.getValue();
+		}
+	}
+
+	/** Alle Migrationen in aufsteigender Reihenfolge. */
+	public static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+			// 1: Schema, wie es bisher von createTables() angelegt wurde. Dank
+			// IF NOT EXISTS läuft es auch auf bestehenden Datenbanken durch.
+			new Migration(1, "Grundschema",
+					"CREATE TABLE IF NOT EXISTS Monate ("
+							+ "monatKey INT AUTO_INCREMENT PRIMARY KEY, "
+							+ "monatName VARCHAR(20) UNIQUE NOT NULL"
+							+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+					"CREATE TABLE IF NOT EXISTS Einträge ("
+							+ "eintragKey INT AUTO_INCREMENT PRIMARY KEY, "
+							+ "eintragTitel VARCHAR(255) NOT NULL, "
+							+ "eintragBetrag DECIMAL(15,2) NOT NULL, "
+							+ "eintragTyp ENUM('Einnahme','Ausgabe') NOT NULL, "
+							+ "eintragMonat INT, "
+							+ "erstellt_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP, "
+							+ "FOREIGN KEY (eintragMonat) REFERENCES Monate(monatKey) ON DELETE CASCADE"
+							+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+					"CREATE TABLE IF NOT EXISTS Kategorien ("
+							+ "katKey INT AUTO_INCREMENT PRIMARY KEY, "
+							+ "katName VARCHAR(100) NOT NULL UNIQUE"
+							+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+					"CREATE TABLE IF NOT EXISTS Transaktionen ("
+							+ "transEintragId INT NOT NULL, "
+							+ "transKatId INT NOT NULL, "
+							+ "PRIMARY KEY (transEintragId, transKatId), "
+							+ "FOREIGN KEY (transEintragId) REFERENCES Einträge(eintragKey) "
+							+ "ON DELETE CASCADE ON UPDATE CASCADE, "
+							+ "FOREIGN KEY (transKatId) REFERENCES Kategorien(katKey) "
+							+ "ON DELETE CASCADE ON UPDATE CASCADE"
+							+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4"),
+			// 2: Deckender Index für die Summen pro Monat und Typ sowie für Filter
+			// nach Monat und Typ. Die Summen lassen sich damit allein aus dem
+			// Index berechnen ("Using index"), ohne die Zeilen zu lesen.
+			new Migration(2, "Deckender Index für Monat, Typ und Betrag",
+					"CREATE INDEX idx_eintrag_monat_typ_betrag "
+							+ "ON Einträge (eintragMonat, eintragTyp, eintragBetrag)"),
+			// 3-6: Buchungsdatum statt nur Monatsname. eintragMonat bleibt als
+			// abgeleitete Spalte erhalten, damit ältere Versionen weiterlesen können.
+			new Migration(3, "Spalte für das Buchungsdatum",
+					"ALTER TABLE Einträge ADD COLUMN eintragDatum DATE NULL"),
+			// Bestehende Einträge erhalten den ersten Tag ihres Monats im Jahr,
+			// in dem sie erfasst wurden; ohne Monat das Erfassungsdatum.
+			new Migration(4, "Buchungsdatum aus Monat und Erfassungsjahr übernehmen",
+					"UPDATE Einträge SET eintragDatum = COALESCE("
+							+ "(SELECT CAST(CONCAT(YEAR(COALESCE(Einträge.erstellt_am, CURRENT_TIMESTAMP)), '-', "
+							+ "CASE m.monatName "
+							+ "WHEN 'Januar' THEN '01' WHEN 'Februar' THEN '02' WHEN 'März' THEN '03' "
+							+ "WHEN 'April' THEN '04' WHEN 'Mai' THEN '05' WHEN 'Juni' THEN '06' "
+							+ "WHEN 'Juli' THEN '07' WHEN 'August' THEN '08' WHEN 'September' THEN '09' "
+							+ "WHEN 'Oktober' THEN '10' WHEN 'November' THEN '11' WHEN 'Dezember' THEN '12' "
+							+ "END, '-01') AS DATE) "
+							+ "FROM Monate m WHERE m.monatKey = Einträge.eintragMonat), "
+							+ "CAST(COALESCE(erstellt_am, CURRENT_TIMESTAMP) AS DATE)) "
+							+ "WHERE eintragDatum IS NULL"),
+			new Migration(5, "Buchungsdatum ist Pflicht",
+					"ALTER TABLE Einträge MODIFY eintragDatum DATE NOT NULL"),
+			// 6: Wie Migration 2, aber für Bereichsabfragen über das Datum
+			// (ein Monat oder ein Jahr) und die Summen pro Jahr, Monat und Typ.
+			new Migration(6, "Deckender Index für Datum, Typ und Betrag",
+					"CREATE INDEX idx_eintrag_datum_typ_betrag "
+							+ "ON Einträge (eintragDatum, eintragTyp, eintragBetrag)"),
+			// 7: Vorlagen für wiederkehrende Einträge. Gespeichert wird nur die
+			// Regel; die einzelnen Buchungen berechnet die Prognose.
+			new Migration(7, "Vorlagen für wiederkehrende Einträge",
+					"CREATE TABLE IF NOT EXISTS WiederkehrendeEinträge ("
+							+ "wkKey INT AUTO_INCREMENT PRIMARY KEY, "
+							+ "wkTitel VARCHAR(255) NOT NULL, "
+							+ "wkBetrag DECIMAL(15,2) NOT NULL, "
+							+ "wkTyp ENUM('Einnahme','Ausgabe') NOT NULL, "
+							+ "wkStart DATE NOT NULL, "
+							+ "wkEnde DATE NULL, "
+							+ "wkIntervall INT NOT NULL DEFAULT 1"
+							+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4")));
+
+	// Vorlagen der Anweisungen von PARTITION_BY_YEAR (auch für die Prüfsumme)
+	private static final String DROP_FOREIGN_KEY = "ALTER TABLE %s DROP FOREIGN KEY %s";
+	private static final String PRIMARY_KEY_WITH_DATE = "ALTER TABLE Einträge DROP PRIMARY KEY, "
+			+ "ADD PRIMARY KEY (eintragKey, eintragDatum)";
+	private static final String PARTITION_BY_RANGE = "ALTER TABLE Einträge PARTITION BY RANGE (YEAR(eintragDatum)) "
+			+ "(PARTITION p<Jahr> VALUES LESS THAN (<Jahr + 1>), ..., PARTITION pmax VALUES LESS THAN MAXVALUE)";
+
+	/**
+	 * Optionale Migration 8 (db.partitionByYear, nur MySQL): partitioniert
+	 * "Einträge" nach dem Jahr des Buchungsdatums, vom ersten Jahr mit
+	 * Einträgen bis zum nächsten Jahr. Abfragen auf einen Monat oder ein Jahr
+	 * lesen dann nur die Partition dieses Jahres.
+	 *
+	 * MySQL verlangt dafür, dass das Jahr Teil des Primärschlüssels ist, und
+	 * erlaubt bei partitionierten Tabellen keine Fremdschlüssel. Die
+	 * Fremdschlüssel von und auf "Einträge" werden deshalb entfernt; das lässt
+	 * sich nicht rückgängig machen, auch nicht durch Ausschalten der Option.
+	 * Bricht der Schritt ab, wird er beim nächsten Start fortgesetzt: Schon
+	 * entfernte Fremdschlüssel und ein schon geänderter Primärschlüssel werden
+	 * übersprungen.
+	 */
+	public static final Migration PARTITION_BY_YEAR = new Migration(8, "Einträge nach Jahr partitionieren",
+			SchemaMigrator::partitionByYear, DROP_FOREIGN_KEY, PRIMARY_KEY_WITH_DATE, PARTITION_BY_RANGE);
+
+	/**
+	 * @param partitionByYear true, wenn "Einträge" nach Jahr partitioniert werden soll.
+	 * @return die Migrationen für diese Konfiguration in aufsteigender Reihenfolge.
+	 */
+	public static List<Migration> migrations(boolean partitionByYear) {
+		if (!partitionByYear) {
+			return MIGRATIONS;
+		}
+		List<Migration> migrations = new ArrayList<>(MIGRATIONS);
+		migrations.add(PARTITION_BY_YEAR);
+		migrations.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+		return migrations;
+	}
+
+	private static void partitionByYear(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			if (isPartitioned(conn)) {
+				return;
+			}
+			List<String> foreignKeys = new ArrayList<>();
+			try (ResultSet rs = stmt.executeQuery("SELECT TABLE_NAME, CONSTRAINT_NAME "
+					+ "FROM information_schema.REFERENTIAL_CONSTRAINTS WHERE CONSTRAINT_SCHEMA = DATABASE() "
+					+ "AND (TABLE_NAME = 'Einträge' OR REFERENCED_TABLE_NAME = 'Einträge')")) {
+				while (rs.next()) {
+					foreignKeys.add(String.format(DROP_FOREIGN_KEY, rs.getString(1), rs.getString(2)));
+				}
+			}
+			for (String sql : foreignKeys) {
+				stmt.execute(sql);
+			}
+			boolean dateInKey;
+			try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM information_schema.KEY_COLUMN_USAGE "
+					+ "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Einträge' "
+					+ "AND CONSTRAINT_NAME = 'PRIMARY' AND COLUMN_NAME = 'eintragDatum'")) {
+				dateInKey = rs.next() && rs.getInt(1) > 0;
+			}
+			if (!dateInKey) {
+				stmt.execute(PRIMARY_KEY_WITH_DATE);
+			}
+			int nextYear = Year.now().getValue() + 1;
+			int firstYear = nextYear - 1;
+			try (ResultSet rs = stmt.executeQuery("SELECT MIN(YEAR(eintragDatum)) FROM Einträge")) {
+				if (rs.next() && rs.getInt(1) > 0) {
+					firstYear = Math.min(firstYear, rs.getInt(1));
+				}
+			}
+			StringBuilder sql = new StringBuilder("ALTER TABLE Einträge PARTITION BY RANGE (YEAR(eintragDatum)) (");
+			for (int year = firstYear; year <= nextYear; year++) {
+				sql.append("PARTITION p").append(year).append(" VALUES LESS THAN (").append(year + 1).append("), ");
+			}
+			stmt.execute(sql.append("PARTITION pmax VALUES LESS THAN MAXVALUE)").toString());
+			System.out.println("Einträge nach Jahr partitioniert (" + firstYear + " bis " + nextYear + ").");
+		}
+	}
+
+	/**
+	 * @param conn die Verbindung.
+	 * @return true, wenn "Einträge" partitioniert ist.
+	 * @throws SQLException bei einem Fehler.
+	 */
+	public static boolean isPartitioned(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM information_schema.PARTITIONS "
+					 + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'Einträge' AND PARTITION_NAME IS NOT NULL")) {
+			return rs.next() && rs.getInt(1) > 0;
+		}
+	}
+
+	private final List<Migration> migrations;
+
+	public SchemaMigrator() {
+		this(MIGRATIONS);
+	}
+
+	/**
+	 * @param migrations die Migrationen in aufsteigender Reihenfolge.
+	 */
+	public SchemaMigrator(List<Migration> migrations) {
+		this.migrations = migrations;
+	}
+
+	/**
+	 * Führt alle noch fehlenden Migrationen aus.
+	 *
+	 * MySQL führt DDL-Anweisungen nicht in Transaktionen aus; bricht eine
+	 * Migration mittendrin ab, muss sie von Hand bereinigt werden. Deshalb
+	 * besteht jede Migration möglichst aus einer einzigen Änderung.
+	 *
+	 * @param conn die Verbindung.
+	 * @return Anzahl ausgeführter Migrationen.
+	 * @throws SQLException bei einem Fehler oder einer geänderten Prüfsumme.
+	 */
+	public int migrate(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement()) {
+			stmt.execute("CREATE TABLE IF NOT EXISTS SchemaVersion ("
+					+ "version INT PRIMARY KEY, "
+					+ "beschreibung VARCHAR(200) NOT NULL, "
+					+ "pruefsumme BIGINT NOT NULL, "
+					+ "ausgefuehrt_am TIMESTAMP DEFAULT CURRENT_TIMESTAMP"
+					+ ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+		}
+		lock(conn);
+		try {
+			Map<Integer, Long> applied = loadApplied(conn);
+			int executed = 0;
+			for (Migration migration : migrations) {
+				Long checksum = applied.get(migration.getVersion());
+				if (checksum != null) {
+					if (checksum != migration.getChecksum()) {
+						throw new SQLException("Migration " + migration.getVersion() + " (" + migration.getDescription()
+								+ ") wurde nach dem Ausführen geändert: Prüfsumme " + checksum + " erwartet, "
+								+ migration.getChecksum() + " gefunden.");
+					}
+					continue;
+				}
+				apply(conn, migration);
+				executed++;
+			}
+			if (executed > 0) {
+				System.out.println(
+						executed + " Schema-Migration(en) ausgeführt, Schemaversion " + getVersion(conn) + ".");
+			}
+			return executed;
+		} finally {
+			unlock(conn);
+		}
+	}
+
+	/**
+	 * @param conn die Verbindung.
+	 * @return die höchste ausgeführte Version oder 0.
+	 * @throws SQLException bei einem Fehler.
+	 */
+	public int getVersion(Connection conn) throws SQLException {
+		try (Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM SchemaVersion")) {
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+	}
+
+	private Map<Integer, Long> loadApplied(Connection conn) throws SQLException {
+		Map<Integer, Long> applied = new HashMap<>();
+		try (Statement stmt = conn.createStatement();
+			 ResultSet rs = stmt.executeQuery("SELECT version, pruefsumme FROM SchemaVersion")) {
+			while (rs.next()) {
+				applied.put(rs.getInt(1), rs.getLong(2));
+			}
+		}
+		return applied;
+	}
+
+	private void apply(Connection conn, Migration migration) throws SQLException {
+		System.out.println("Schema-Migration " + migration.getVersion() + ": " + migration.getDescription());
+		try (Statement stmt = conn.createStatement()) {
+			if (migration.getStep() != null) {
+				migration.getStep().run(conn);
+			} else {
+				for (String statement : migration.getStatements()) {
+					stmt.execute(statement);
+				}
+			}
+		}
+		try (PreparedStatement pstmt = conn.prepareStatement(
+				"INSERT INTO SchemaVersion (version, beschreibung, pruefsumme) VALUES (?, ?, ?)")) {
+			pstmt.setInt(1, migration.getVersion());
+			pstmt.setString(2, migration.getDescription());
+			pstmt.setLong(3, migration.getChecksum());
+			pstmt.executeUpdate();
+		}
+	}
+
+	private static void lock(Connection conn) throws SQLException {
+		try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+			pstmt.setString(1, LOCK_NAME);
+			pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+			try (ResultSet rs = pstmt.executeQuery()) {
+				if (!rs.next() || rs.getInt(1) != 1) {
+					throw new SQLException("Schema-Sperre konnte nicht innerhalb von " + LOCK_TIMEOUT_SECONDS
+							+ " Sekunden gesetzt werden.");
+				}
+			}
+		}
+	}
+
+	private static void unlock(Connection conn) {
+		try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+			pstmt.setString(1, LOCK_NAME);
+			pstmt.executeQuery().close();
+		} catch (SQLException e) {
+			System.err.println("Fehler beim Freigeben der Schema-Sperre: " + e.getMessage());
+		}
+	}
+}
@@ -0,0 +1,604 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Suchindex über die Titel der Einträge für das Suchfeld und die
+ * Vervollständigung im Titelfeld.
+ *
+ * Da der Titel zugleich die Kategorie ist (Tabelle "Kategorien"), gibt es
+ * meist wenige verschiedene Titel für sehr viele Einträge. Indexiert werden
+ * deshalb nur die verschiedenen Titel, klein geschrieben, jeder mit einem
+ * Code und der Anzahl Einträge:
+ *
+ * - ein Präfixbaum (Trie) über die ganzen Titel für die Vervollständigung,
+ * - ein Präfixbaum über die Wortanfänge für kurze Suchbegriffe,
+ * - ein Trigramm-Index (je drei aufeinanderfolgende Zeichen) für
+ * Suchbegriffe ab drei Zeichen, die irgendwo im Titel vorkommen dürfen.
+ *
+ * Eine Suche liest damit nur die Kandidaten eines Trigramms bzw. eines
+ * Teilbaums, nie alle Einträge. Pro Eintrag werden ID, Titel-Code und
+ * Buchungstag gehalten (12 Bytes), damit gelöschte Einträge allein über ihre
+ * ID entfernt werden können und die seitenweise Tabelle die Treffer eines
+ * Zeitraums ohne Datenbank findet (siehe {@link Selection}). Titel ohne
+ * Einträge bleiben im Index, werden aber nicht mehr gefunden.
+ */
+public class SearchIndex {
+	/** Ab so vielen Zeichen wird ein Suchbegriff über Trigramme gesucht. */
+	private static final int GRAM = 3;
+
+	// Code -> Titel (klein geschrieben) bzw. Schreibweise bei der ersten Verwendung
+	private String[] keys = new String[64];
+	private String[] displays = new String[64];
+	private int[] entryCounts = new int[64];
+	private int titleCount;
+	private final Map<String, Integer> codes = new HashMap<>();
+	private final TrieNode titles = new TrieNode();
+	private final TrieNode words = new TrieNode();
+	// Trigramm (drei Zeichen in einem long) -> Codes der Titel, aufsteigend
+	private final Map<Long, Postings> grams = new HashMap<>();
+
+	// Einträge: ID -> Titel-Code und Tag (seit 1970), aufsteigend nach ID; gelöschte haben Code -1
+	private int[] ids = new int[64];
+	private int[] entryCodes = new int[64];
+	private int[] days = new int[64];
+	private int size;
+	private int removed;
+
+	/**
+	 * Baut den Index mit einer Abfrage über alle Einträge auf.
+	 *
+	 * @param dbHelper der Datenbankzugriff.
+	 * @return der aufgebaute Index.
+	 */
+	public static SearchIndex build(EntryStore dbHelper) {
+		SearchIndex index = new SearchIndex();
+		dbHelper.forEachEntry(null, entry -> {
+			index.add(entry);
+			return !Thread.currentThread().isInterrupted();
+		});
+		return index;
+	}
+
+	/**
+	 * Nimmt einen Eintrag auf. Ist seine ID schon enthalten, passiert nichts.
+	 *
+	 * @param entry der Eintrag.
+	 */
+	public synchronized void add(Entry entry) {
+		int id = entry.getId();
+		int row = size == 0 || id > ids[size - 1] ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+		if (row >= 0) {
+			if (entryCodes[row] >= 0) {
+				return;
+			}
+			removed--; // gelöschte ID kommt wieder (z. B. Journal nachgespielt)
+		} else {
+			row = -row - 1;
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size + (size >> 1));
+				entryCodes = Arrays.copyOf(entryCodes, ids.length);
+				days = Arrays.copyOf(days, ids.length);
+			}
+			if (row < size) {
+				System.arraycopy(ids, row, ids, row + 1, size - row);
+				System.arraycopy(entryCodes, row, entryCodes, row + 1, size - row);
+				System.arraycopy(days, row, days, row + 1, size - row);
+			}
+			ids[row] = id;
+			size++;
+		}
+		int code = titleCode(entry.getTitle());
+		entryCodes[row] = code;
+		days[row] = (int) entry.getDate().toEpochDay();
+		entryCounts[code]++;
+	}
+
+	/**
+	 * Nimmt mehrere Einträge auf.
+	 *
+	 * @param entries die Einträge.
+	 */
+	public synchronized void addAll(List<Entry> entries) {
+		for (Entry entry : entries) {
+			add(entry);
+		}
+	}
+
+	/**
+	 * Entfernt einen gelöschten Eintrag. Unbekannte IDs werden ignoriert.
+	 *
+	 * @param id die ID des Eintrags.
+	 */
+	public synchronized void remove(int id) {
+		int row = Arrays.binarySearch(ids, 0, size, id);
+		if (row < 0 || entryCodes[row] < 0) {
+			return;
+		}
+		entryCounts[entryCodes[row]]--;
+		entryCodes[row] = -1;
+		removed++;
+		if (removed > 1024 && removed > size / 2) {
+			compact();
+		}
+	}
+
+	/**
+	 * Leert den Index (nach dem Löschen aller Einträge).
+	 */
+	public synchronized void clear() {
+		Arrays.fill(entryCounts, 0, titleCount, 0);
+		size = 0;
+		removed = 0;
+	}
+
+	/** Anzahl Einträge im Index. */
+	public synchronized int getEntryCount() {
+		return size - removed;
+	}
+
+	/** Anzahl verschiedener Titel, die noch Einträge haben. */
+	public synchronized int getTitleCount() {
+		int count = 0;
+		for (int code = 0; code < titleCount; code++) {
+			if (entryCounts[code] > 0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Vervollständigt einen angefangenen Titel.
+	 *
+	 * @param prefix der Anfang des Titels (Gross- und Kleinschreibung egal).
+	 * @param limit  höchstens so viele Vorschläge.
+	 * @return die Titel in der zuerst verwendeten Schreibweise, die häufigsten
+	 *         zuerst; leer bei einem leeren Anfang.
+	 */
+	public synchronized List<String> complete(String prefix, int limit) {
+		String key = normalize(prefix);
+		TrieNode node = key.isEmpty() ? null : titles.find(key);
+		if (node == null || limit <= 0) {
+			return Collections.emptyList();
+		}
+		// Die häufigsten behalten: kleinster Eintrag oben, wird verdrängt
+		PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, (a, b) -> entryCounts[a] != entryCounts[b]
+				? Integer.compare(entryCounts[a], entryCounts[b]) : keys[b].compareTo(keys[a]));
+		BitSet found = new BitSet(titleCount);
+		node.collect(found);
+		for (int code = found.nextSetBit(0); code >= 0; code = found.nextSetBit(code + 1)) {
+			if (entryCounts[code] > 0) {
+				best.add(code);
+				if (best.size() > limit) {
+					best.poll();
+				}
+			}
+		}
+		String[] result = new String[best.size()];
+		for (int i = result.length - 1; i >= 0; i--) {
+			result[i] = displays[best.poll()];
+		}
+		return Arrays.asList(result);
+	}
+
+	/**
+	 * Sucht die Titel, die alle Begriffe der Suche enthalten (siehe
+	 * {@link #matches(String, String)}).
+	 *
+	 * @param query die Suchbegriffe, durch Leerzeichen getrennt.
+	 * @return die gefundenen Titel klein geschrieben (wie {@link #normalize});
+	 *         leer, wenn die Suche keine Begriffe enthält.
+	 */
+	public synchronized Set<String> findTitles(String query) {
+		String[] terms = terms(query);
+		if (terms.length == 0) {
+			return Collections.emptySet();
+		}
+		BitSet hits = null;
+		for (String term : terms) {
+			BitSet termHits = find(term);
+			if (hits == null) {
+				hits = termHits;
+			} else {
+				hits.and(termHits);
+			}
+			if (hits.isEmpty()) {
+				break;
+			}
+		}
+		Set<String> result = new HashSet<>();
+		for (int code = hits.nextSetBit(0); code >= 0; code = hits.nextSetBit(code + 1)) {
+			if (entryCounts[code] > 0) {
+				result.add(keys[code]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Wählt die Einträge eines Zeitraums aus, deren Titel alle Begriffe der
+	 * Suche enthalten. Die Auswahl wird bei jedem Zugriff auf dem aktuellen
+	 * Index ausgewertet, enthält also auch später aufgenommene Einträge und
+	 * keine gelöschten mehr.
+	 *
+	 * @param query die Suchbegriffe, durch Leerzeichen getrennt.
+	 * @param range der Zeitraum oder null für alle Einträge.
+	 * @return die Auswahl.
+	 */
+	public synchronized Selection select(String query, DateRange range) {
+		return new Selection(terms(query), range);
+	}
+
+	private BitSet find(String term) {
+		BitSet hits = new BitSet(titleCount);
+		if (term.length() < GRAM) {
+			TrieNode node = words.find(term);
+			if (node != null) {
+				node.collect(hits);
+			}
+			return hits;
+		}
+		// Kandidaten aus dem seltensten Trigramm, dann den ganzen Begriff prüfen
+		Postings rarest = null;
+		for (int i = 0; i + GRAM <= term.length(); i++) {
+			Postings postings = grams.get(gram(term, i));
+			if (postings == null) {
+				return hits;
+			}
+			if (rarest == null || postings.size < rarest.size) {
+				rarest = postings;
+			}
+		}
+		for (int i = 0; i < rarest.size; i++) {
+			int code = rarest.codes[i];
+			if (keys[code].contains(term)) {
+				hits.set(code);
+			}
+		}
+		return hits;
+	}
+
+	/**
+	 * Prüft einen einzelnen Titel wie {@link #findTitles(String)}: Jeder
+	 * Begriff ab drei Zeichen muss irgendwo im Titel vorkommen, kürzere
+	 * Begriffe am Anfang eines Worts.
+	 *
+	 * @param title der Titel.
+	 * @param query die Suchbegriffe.
+	 * @return true, wenn der Titel gefunden würde.
+	 */
+	public static boolean matches(String title, String query) {
+		String[] terms = terms(query);
+		return terms.length > 0 && matchesKey(normalize(title), terms);
+	}
+
+	private static boolean matchesKey(String key, String[] terms) {
+		List<String> titleWords = splitWords(key);
+		for (String term : terms) {
+			boolean found = false;
+			if (term.length() >= GRAM) {
+				found = key.contains(term);
+			} else {
+				for (String word : titleWords) {
+					if (word.startsWith(term)) {
+						found = true;
+						break;
+					}
+				}
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Bringt einen Titel in die Form, in der er indexiert wird: ohne
+	 * Leerzeichen am Rand und klein geschrieben.
+	 *
+	 * @param title der Titel.
+	 * @return der normalisierte Titel.
+	 */
+	public static String normalize(String title) {
+		return title.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private static String[] terms(String query) {
+		String key = normalize(query);
+		return key.isEmpty() ? new String[0] : key.split("\\s+");
+	}
+
+	private static List<String> splitWords(String key) {
+		List<String> result = new ArrayList<>();
+		int start = -1;
+		for (int i = 0; i <= key.length(); i++) {
+			boolean letter = i < key.length() && Character.isLetterOrDigit(key.charAt(i));
+			if (letter && start < 0) {
+				start = i;
+			} else if (!letter && start >= 0) {
+				result.add(key.substring(start, i));
+				start = -1;
+			}
+		}
+		return result;
+	}
+
+	private static long gram(String key, int offset) {
+		return (long) key.charAt(offset) << 32 | (long) key.charAt(offset + 1) << 16 | key.charAt(offset + 2);
+	}
+
+	private int titleCode(String title) {
+		String key = normalize(title);
+		Integer code = codes.get(key);
+		if (code != null) {
+			return code;
+		}
+		if (titleCount == keys.length) {
+			keys = Arrays.copyOf(keys, titleCount * 2);
+			displays = Arrays.copyOf(displays, keys.length);
+			entryCounts = Arrays.copyOf(entryCounts, keys.length);
+		}
+		int newCode = titleCount++;
+		keys[newCode] = key;
+		displays[newCode] = title.trim();
+		codes.put(key, newCode);
+		titles.insert(key, newCode);
+		for (String word : splitWords(key)) {
+			words.insert(word, newCode);
+		}
+		for (int i = 0; i + GRAM <= key.length(); i++) {
+			// Neue Codes sind die grössten, die Listen bleiben damit sortiert
+			grams.computeIfAbsent(gram(key, i), g -> new Postings()).append(newCode);
+		}
+		return newCode;
+	}
+
+	/**
+	 * Entfernt die als gelöscht markierten Einträge aus den Arrays.
+	 */
+	private void compact() {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (entryCodes[i] >= 0) {
+				ids[kept] = ids[i];
+				entryCodes[kept] = entryCodes[i];
+				days[kept] = days[i];
+				kept++;
+			}
+		}
+		size = kept;
+		removed = 0;
+	}
+
+	/**
+	 * Die Einträge eines Zeitraums mit passendem Titel, aufsteigend nach ID.
+	 * Liefert der seitenweisen Tabelle die Schlüssel der Treffer wie ein
+	 * Keyset über den Index; die Einträge selbst werden danach über ihre IDs
+	 * gelesen. Eine Abfrage läuft über die IDs ab dem Ausgangsschlüssel, bis
+	 * genügend Treffer gefunden sind. Threadsicher.
+	 */
+	public final class Selection {
+		private final String[] terms;
+		private final int fromDay;
+		private final int toDay;
+		// Passende Titel-Codes; neue Titel werden beim nächsten Zugriff geprüft
+		private final BitSet hits = new BitSet();
+		private int checkedTitles;
+
+		private Selection(String[] terms, DateRange range) {
+			this.terms = terms;
+			this.fromDay = range != null ? (int) range.getStartDate().toEpochDay() : Integer.MIN_VALUE;
+			this.toDay = range != null ? (int) range.getEndDate().toEpochDay() : Integer.MAX_VALUE;
+			BitSet found = null;
+			for (String term : terms) {
+				BitSet termHits = find(term);
+				if (found == null) {
+					found = termHits;
+				} else {
+					found.and(termHits);
+				}
+			}
+			if (found != null) {
+				hits.or(found);
+			}
+			checkedTitles = titleCount;
+		}
+
+		/** @return Anzahl ausgewählter Einträge. */
+		public int count() {
+			synchronized (SearchIndex.this) {
+				updateTitles();
+				int count = 0;
+				for (int row = 0; row < size; row++) {
+					if (selected(row)) {
+						count++;
+					}
+				}
+				return count;
+			}
+		}
+
+		/**
+		 * @param afterId ID vor den gesuchten Einträgen (0 für den Anfang).
+		 * @param limit   höchstens so viele IDs.
+		 * @return die IDs der nächsten ausgewählten Einträge, aufsteigend.
+		 */
+		public int[] idsAfter(int afterId, int limit) {
+			synchronized (SearchIndex.this) {
+				updateTitles();
+				int[] result = new int[Math.max(0, limit)];
+				int found = 0;
+				for (int row = firstRowAfter(afterId); row < size && found < result.length; row++) {
+					if (selected(row)) {
+						result[found++] = ids[row];
+					}
+				}
+				return Arrays.copyOf(result, found);
+			}
+		}
+
+		/**
+		 * Wie {@link EntryStore#seekKey}, nur über die ausgewählten Einträge.
+		 *
+		 * @param fromId die Ausgangs-ID (0 für den Anfang, Integer.MAX_VALUE für das Ende).
+		 * @param steps  Anzahl Treffer nach (positiv) bzw. vor (negativ) fromId.
+		 * @return die ID, {@code fromId} bei 0 Schritten oder -1, wenn es sie nicht gibt.
+		 */
+		public int seekId(int fromId, int steps) {
+			if (steps == 0) {
+				return fromId;
+			}
+			synchronized (SearchIndex.this) {
+				updateTitles();
+				int remaining = Math.abs(steps);
+				int row = firstRowAfter(fromId);
+				if (steps > 0) {
+					for (; row < size; row++) {
+						if (selected(row) && --remaining == 0) {
+							return ids[row];
+						}
+					}
+				} else {
+					// firstRowAfter ist die erste grössere ID; die gleiche zählt nicht
+					if (row > 0 && ids[row - 1] == fromId) {
+						row--;
+					}
+					for (row--; row >= 0; row--) {
+						if (selected(row) && --remaining == 0) {
+							return ids[row];
+						}
+					}
+				}
+				return -1;
+			}
+		}
+
+		private boolean selected(int row) {
+			int code = entryCodes[row];
+			return code >= 0 && hits.get(code) && days[row] >= fromDay && days[row] < toDay;
+		}
+
+		/** Erste Zeile mit einer ID grösser als {@code id}. */
+		private int firstRowAfter(int id) {
+			if (id == Integer.MAX_VALUE) {
+				return size;
+			}
+			int row = Arrays.binarySearch(ids, 0, size, id + 1);
+			return row >= 0 ? row : -row - 1;
+		}
+
+		/** Prüft die seit der letzten Abfrage neu aufgenommenen Titel. */
+		private void updateTitles() {
+			if (terms.length == 0) {
+				return;
+			}
+			for (; checkedTitles < titleCount; checkedTitles++) {
+				if (matchesKey(keys[checkedTitles], terms)) {
+					hits.set(checkedTitles);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Aufsteigende Liste von Titel-Codes ohne Duplikate.
+	 */
+	private static final class Postings {
+		int[] codes = new int[4];
+		int size;
+
+		void append(int code) {
+			if (size > 0 && codes[size - 1] == code) {
+				return; // Trigramm kommt im selben Titel mehrmals vor
+			}
+			if (size == codes.length) {
+				codes = Arrays.copyOf(codes, size * 2);
+			}
+			codes[size++] = code;
+		}
+	}
+
+	/**
+	 * Knoten eines Präfixbaums. Die Kinder sind nach Zeichen sortiert und
+	 * werden binär gesucht; ein Knoten kennt die Codes der Schlüssel, die bei
+	 * ihm enden.
+	 */
+	private static final class TrieNode {
+		private static final char[] NO_LABELS = new char[0];
+		private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+		private static final int[] NO_CODES = new int[0];
+
+		char[] labels = NO_LABELS;
+		TrieNode[] children = NO_CHILDREN;
+		int[] codes = NO_CODES;
+
+		void insert(String key, int code) {
+			TrieNode node = this;
+			for (int i = 0; i < key.length(); i++) {
+				node = node.child(key.charAt(i), true);
+			}
+			int count = node.codes.length;
+			if (count == 0 || node.codes[count - 1] != code) {
+				node.codes = Arrays.copyOf(node.codes, count + 1);
+				node.codes[count] = code;
+			}
+		}
+
+		TrieNode find(String prefix) {
+			TrieNode node = this;
+			for (int i = 0; i < prefix.length() && node != null; i++) {
+				node = node.child(prefix.charAt(i), false);
+			}
+			return node;
+		}
+
+		/**
+		 * Sammelt die Codes dieses Knotens und aller darunter.
+		 */
+		void collect(BitSet result) {
+			List<TrieNode> stack = new ArrayList<>();
+			stack.add(this);
+			while (!stack.isEmpty()) {
+				TrieNode node = stack.remove(stack.size() - 1);
+				for (int code : node.codes) {
+					result.set(code);
+				}
+				Collections.addAll(stack, node.children);
+			}
+		}
+
+		private TrieNode child(char label, boolean create) {
+			int index = Arrays.binarySearch(labels, label);
+			if (index >= 0) {
+				return children[index];
+			}
+			if (!create) {
+				return null;
+			}
+			index = -index - 1;
+			char[] newLabels = new char[labels.length + 1];
+			TrieNode[] newChildren = new TrieNode[children.length + 1];
+			System.arraycopy(labels, 0, newLabels, 0, index);
+			System.arraycopy(children, 0, newChildren, 0, index);
+			System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+			System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+			newLabels[index] = label;
+			newChildren[index] = new TrieNode();
+			labels = newLabels;
+			children = newChildren;
+			return newChildren[index];
+		}
+	}
+}
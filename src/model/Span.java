@@ -0,0 +1,201 @@
+package model;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Abschnitt einer verfolgten Benutzeraktion (Trace), z. B. "Hinzufügen" mit
+ * je einem Kind-Abschnitt pro SQL-Anweisung. Ein Abschnitt kennt Dauer,
+ * Anzahl Zeilen und einen allfälligen Fehler; als Baum ausgegeben zeigt er,
+ * welcher Schritt einer langsamen Aktion die Zeit gebraucht hat.
+ *
+ * Der aktive Abschnitt eines Threads steht in {@link #current()}. Der
+ * Controller aktiviert ihn mit {@link #activate()}, der BackgroundExecutor
+ * reicht ihn an seine Threads weiter, und die Verbindungen des
+ * {@link ConnectionPool} hängen jede Anweisung als Kind an. Ohne aktiven
+ * Abschnitt wird nichts aufgezeichnet.
+ *
+ * Kinder dürfen aus mehreren Threads angehängt werden. Pro Abschnitt werden
+ * höchstens {@value #MAX_CHILDREN} Kinder gespeichert, weitere nur gezählt.
+ */
+public final class Span {
+	private static final int MAX_CHILDREN = 1000;
+	private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+	private final String name;
+	private final String detail;
+	private final long startMillis = System.currentTimeMillis();
+	private final long startNanos = System.nanoTime();
+	// 0, solange der Abschnitt läuft
+	private volatile long endNanos;
+	// -1, wenn keine Zeilen gezählt werden
+	private long rows = -1;
+	private String error;
+	private final List<Span> children = new ArrayList<>();
+	private int droppedChildren;
+	private final Span root;
+
+	private Span(String name, String detail, Span root) {
+		this.name = name;
+		this.detail = detail;
+		this.root = root != null ? root : this;
+	}
+
+	/**
+	 * Beginnt eine neue Aktion (Wurzel eines Trace).
+	 *
+	 * @param name   Name der Aktion, z. B. "Hinzufügen".
+	 * @param detail Zusatzangabe oder null.
+	 * @return der laufende Abschnitt.
+	 */
+	public static Span start(String name, String detail) {
+		return new Span(name, detail, null);
+	}
+
+	/**
+	 * @return der im aktuellen Thread aktive Abschnitt oder null.
+	 */
+	public static Span current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Beginnt einen Kind-Abschnitt.
+	 *
+	 * @param name   Name des Schritts, z. B. "SQL".
+	 * @param detail Zusatzangabe (z. B. der SQL-Text) oder null.
+	 * @return der laufende Kind-Abschnitt.
+	 */
+	public Span startChild(String name, String detail) {
+		Span child = new Span(name, detail, root);
+		synchronized (root) {
+			if (children.size() < MAX_CHILDREN) {
+				children.add(child);
+			} else {
+				droppedChildren++;
+			}
+		}
+		return child;
+	}
+
+	/**
+	 * Macht diesen Abschnitt im aktuellen Thread zum aktiven, bis der
+	 * zurückgegebene Scope geschlossen wird.
+	 *
+	 * @return der Scope, der den vorher aktiven Abschnitt wiederherstellt.
+	 */
+	public Scope activate() {
+		Span previous = CURRENT.get();
+		CURRENT.set(this);
+		return () -> {
+			if (previous == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(previous);
+			}
+		};
+	}
+
+	/**
+	 * @param count Anzahl weiterer gelesener bzw. geänderter Zeilen.
+	 */
+	public void addRows(long count) {
+		synchronized (root) {
+			rows = Math.max(0, rows) + count;
+		}
+	}
+
+	/**
+	 * Beendet den Abschnitt. Weitere Aufrufe ändern die Dauer nicht mehr.
+	 */
+	public void end() {
+		if (endNanos == 0) {
+			endNanos = Math.max(1, System.nanoTime());
+		}
+	}
+
+	/**
+	 * Beendet den Abschnitt mit einem Fehler.
+	 *
+	 * @param failure der aufgetretene Fehler.
+	 */
+	public void fail(Throwable failure) {
+		synchronized (root) {
+			error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+		}
+		end();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isEnded() {
+		return endNanos != 0;
+	}
+
+	/**
+	 * @return die Dauer in Nanosekunden; bei einem laufenden Abschnitt bis jetzt.
+	 */
+	public long getDurationNanos() {
+		long end = endNanos;
+		return (end != 0 ? end : System.nanoTime()) - startNanos;
+	}
+
+	/**
+	 * Gibt den Abschnitt mit allen Kindern als eingerückten Baum aus, mit
+	 * Startzeit, Dauer, Beginn relativ zur Wurzel und Zeilen.
+	 *
+	 * @return der formatierte Baum.
+	 */
+	public String format() {
+		StringBuilder text = new StringBuilder();
+		text.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(startMillis))).append(' ');
+		synchronized (root) {
+			format(text, 0, startNanos);
+		}
+		return text.toString();
+	}
+
+	private void format(StringBuilder text, int depth, long rootStart) {
+		for (int i = 0; i < depth; i++) {
+			text.append("  ");
+		}
+		text.append(name).append(String.format(" %.2f ms", getDurationNanos() / 1_000_000.0));
+		if (depth > 0) {
+			text.append(String.format(" (ab +%.2f ms)", (startNanos - rootStart) / 1_000_000.0));
+		}
+		if (!isEnded()) {
+			text.append(", läuft noch");
+		}
+		if (rows >= 0) {
+			text.append(", ").append(rows).append(rows == 1 ? " Zeile" : " Zeilen");
+		}
+		if (error != null) {
+			text.append(", Fehler: ").append(error);
+		}
+		if (detail != null) {
+			text.append(": ").append(detail.replaceAll("\\s+", " "));
+		}
+		text.append(System.lineSeparator());
+		for (Span child : children) {
+			child.format(text, depth + 1, rootStart);
+		}
+		if (droppedChildren > 0) {
+			for (int i = 0; i <= depth; i++) {
+				text.append("  ");
+			}
+			text.append("... ").append(droppedChildren).append(" weitere Abschnitte").append(System.lineSeparator());
+		}
+	}
+
+	/**
+	 * Stellt beim Schliessen den vorher aktiven Abschnitt wieder her.
+	 */
+	public interface Scope extends AutoCloseable {
+		@Override
+		void close();
+	}
+}
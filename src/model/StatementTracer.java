@@ -0,0 +1,160 @@
+package model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Zeichnet die Anweisungen einer Verbindung als Kind-Abschnitte des aktiven
+ * {@link Span} auf: pro Ausführung ein Abschnitt "SQL" mit dem SQL-Text und
+ * der Anzahl gelesener bzw. geänderter Zeilen. Bei Abfragen läuft der
+ * Abschnitt bis zum Schliessen des ResultSet, enthält also auch das Lesen
+ * der Zeilen.
+ *
+ * Wird vom {@link ConnectionPool} nur verwendet, wenn beim Erstellen der
+ * Anweisung ein Abschnitt aktiv ist; sonst bleibt die Anweisung unverändert.
+ */
+final class StatementTracer {
+
+	private StatementTracer() {
+	}
+
+	/**
+	 * @param statement die Anweisung des Treibers.
+	 * @param sql       der SQL-Text bei vorbereiteten Anweisungen, sonst null.
+	 * @param parent    der aktive Abschnitt.
+	 * @return die Anweisung als Stellvertreter, der die Ausführungen aufzeichnet.
+	 */
+	static Statement wrap(Statement statement, String sql, Span parent) {
+		Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+				: statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+		return (Statement) Proxy.newProxyInstance(StatementTracer.class.getClassLoader(), new Class<?>[] { type },
+				new StatementHandler(statement, sql, parent));
+	}
+
+	private static final class StatementHandler implements InvocationHandler {
+		private final Statement statement;
+		private final String sql;
+		private final Span parent;
+		// ResultSet der letzten Abfrage, bis es geschlossen wird
+		private ResultSetHandler open;
+
+		StatementHandler(Statement statement, String sql, Span parent) {
+			this.statement = statement;
+			this.sql = sql;
+			this.parent = parent;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("close".equals(name)) {
+				endOpen();
+			}
+			if (!name.startsWith("execute")) {
+				return call(method, args);
+			}
+			endOpen();
+			String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+			Span span = parent.startChild("SQL", "executeBatch".equals(name) ? text + " (Batch)" : text);
+			Object result;
+			try {
+				result = call(method, args);
+			} catch (Throwable t) {
+				span.fail(t);
+				throw t;
+			}
+			if (result instanceof ResultSet) {
+				open = new ResultSetHandler((ResultSet) result, span);
+				return Proxy.newProxyInstance(StatementTracer.class.getClassLoader(),
+						new Class<?>[] { ResultSet.class }, open);
+			}
+			if (result instanceof Number) {
+				span.addRows(((Number) result).longValue());
+			} else if (result instanceof int[]) {
+				long rows = 0;
+				for (int count : (int[]) result) {
+					rows += Math.max(0, count);
+				}
+				span.addRows(rows);
+			} else if (Boolean.FALSE.equals(result)) {
+				span.addRows(Math.max(0, statement.getUpdateCount()));
+			}
+			span.end();
+			return result;
+		}
+
+		private void endOpen() {
+			if (open != null) {
+				open.finish();
+				open = null;
+			}
+		}
+
+		private Object call(Method method, Object[] args) throws Throwable {
+			try {
+				return method.invoke(statement, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * Zählt die gelesenen Zeilen und beendet den Abschnitt beim Schliessen.
+	 */
+	private static final class ResultSetHandler implements InvocationHandler {
+		private final ResultSet resultSet;
+		private final Span span;
+		private long rows;
+
+		ResultSetHandler(ResultSet resultSet, Span span) {
+			this.resultSet = resultSet;
+			this.span = span;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			Object result;
+			try {
+				result = method.invoke(resultSet, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			if ("next".equals(name) && Boolean.TRUE.equals(result)) {
+				rows++;
+			} else if ("close".equals(name)) {
+				finish();
+			}
+			return result;
+		}
+
+		/**
+		 * Beendet den Abschnitt (beim Schliessen des ResultSet oder der Anweisung).
+		 */
+		void finish() {
+			if (!span.isEnded()) {
+				span.addRows(rows);
+				span.end();
+			}
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package view;
+
+import model.Entry;
+
+import javax.swing.JTable;
+import javax.swing.SwingConstants;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
+
+/**
+ * Formatiert Beträge (in Rappen) erst beim Zeichnen, z. B. "+12.00 CHF" für
+ * Einnahmen und "-7.50 CHF" für Ausgaben. Der Typ wird aus dem EntryRowModel
+ * gelesen, so dass auch Beträge von 0 das richtige Vorzeichen erhalten.
+ * Andere Spalten mit Beträgen (z. B. der Saldo) erhalten das Vorzeichen des
+ * Werts.
+ */
+public class AmountCellRenderer extends DefaultTableCellRenderer {
+	private static final long serialVersionUID = 1L;
+
+	private transient JTable currentTable;
+	private int currentRow;
+	private int currentColumn;
+
+	public AmountCellRenderer() {
+		setHorizontalAlignment(SwingConstants.RIGHT);
+	}
+
+	@Override
+	public java.awt.Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+			boolean hasFocus, int row, int column) {
+		currentTable = table;
+		currentRow = row;
+		currentColumn = column;
+		return super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+	}
+
+	@Override
+	protected void setValue(Object value) {
+		if (!(value instanceof Long)) {
+			super.setValue(value);
+			return;
+		}
+		long cents = (Long) value;
+		boolean income = cents >= 0;
+		if (currentTable != null && currentRow >= 0) {
+			TableModel model = currentTable.getModel();
+			if (model instanceof EntryRowModel
+					&& currentTable.convertColumnIndexToModel(currentColumn) == EntryTableModel.COLUMN_AMOUNT) {
+				income = ((EntryRowModel) model).isIncome(currentTable.convertRowIndexToModel(currentRow));
+			}
+		}
+		setText(Entry.formatAmount(cents, income));
+	}
+}
@@ -0,0 +1,120 @@
+package view;
+
+import model.CategoryAnalytics;
+import model.CategoryDelta;
+import model.CategoryTotal;
+import model.Entry;
+import model.Months;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * Register "Analyse" der MainView: Summen pro Kategorie im gewählten
+ * Zeitraum, die Kategorien mit den höchsten Ausgaben und die Veränderung
+ * jeder Kategorie gegenüber dem Vormonat.
+ *
+ * Die Zahlen berechnet der MainController im Hintergrund
+ * ({@link CategoryAnalytics}); das Panel zeigt sie nur an.
+ */
+public class AnalyticsPanel extends JPanel {
+	private static final long serialVersionUID = 1L;
+
+	private final JLabel summaryLabel = new JLabel(" ");
+	private final JButton refreshButton = new JButton("Aktualisieren");
+	private final DefaultTableModel totalModel = readOnlyModel("Kategorie", "Typ", "Anzahl", "Summe (CHF)");
+	private final DefaultTableModel topModel = readOnlyModel("Rang", "Kategorie", "Anzahl", "Ausgaben (CHF)");
+	private final DefaultTableModel deltaModel = readOnlyModel("Kategorie", "Vormonat (CHF)", "Monat (CHF)",
+			"Veränderung (CHF)");
+	private final TitledBorder topBorder = new TitledBorder("Höchste Ausgaben");
+	private final TitledBorder deltaBorder = new TitledBorder("Veränderung zum Vormonat");
+
+	public AnalyticsPanel() {
+		super(new BorderLayout(10, 10));
+		JPanel header = new JPanel(new BorderLayout(10, 0));
+		header.add(summaryLabel, BorderLayout.CENTER);
+		header.add(refreshButton, BorderLayout.EAST);
+
+		JScrollPane totalScroll = new JScrollPane(new JTable(totalModel));
+		totalScroll.setBorder(new TitledBorder("Summen pro Kategorie"));
+		JScrollPane topScroll = new JScrollPane(new JTable(topModel));
+		topScroll.setBorder(topBorder);
+		JScrollPane deltaScroll = new JScrollPane(new JTable(deltaModel));
+		deltaScroll.setBorder(deltaBorder);
+
+		JPanel right = new JPanel(new GridLayout(2, 1, 10, 10));
+		right.add(topScroll);
+		right.add(deltaScroll);
+		JPanel tables = new JPanel(new GridLayout(1, 2, 10, 10));
+		tables.add(totalScroll);
+		tables.add(right);
+
+		setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		add(header, BorderLayout.NORTH);
+		add(tables, BorderLayout.CENTER);
+	}
+
+	private static DefaultTableModel readOnlyModel(String... columns) {
+		return new DefaultTableModel(columns, 0) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public boolean isCellEditable(int row, int column) {
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Zeigt eine Auswertung an.
+	 *
+	 * @param analytics die Auswertung.
+	 * @param millis    Dauer von Laden und Auswerten in Millisekunden.
+	 */
+	public void showAnalytics(CategoryAnalytics analytics, double millis) {
+		String label = analytics.getRange() != null ? analytics.getRange().getLabel() : "alle Jahre";
+		summaryLabel.setText(String.format("Kategorien für %s, %d Einträge ausgewertet in %.1f ms%s", label,
+				analytics.getRowCount(), millis, analytics.isParallel() ? " (parallel)" : ""));
+
+		totalModel.setRowCount(0);
+		for (CategoryTotal total : analytics.getTotals()) {
+			totalModel.addRow(new Object[] { total.getCategory(), total.getType(), total.getCount(),
+					Entry.formatAmount(total.getSumCents(), total.isIncome()) });
+		}
+
+		topBorder.setTitle("Höchste Ausgaben (" + label + ")");
+		topModel.setRowCount(0);
+		int rank = 1;
+		for (CategoryTotal total : analytics.getTopExpenses()) {
+			topModel.addRow(new Object[] { rank++, total.getCategory(), total.getCount(),
+					Entry.formatAmount(total.getSumCents(), false) });
+		}
+
+		deltaBorder.setTitle("Veränderung " + Months.label(analytics.getMonth()) + " zum Vormonat");
+		deltaModel.setRowCount(0);
+		for (CategoryDelta delta : analytics.getDeltas()) {
+			deltaModel.addRow(new Object[] { delta.getCategory(), signed(delta.getPreviousCents()),
+					signed(delta.getCurrentCents()), signed(delta.getDeltaCents()) });
+		}
+		repaint();
+	}
+
+	private static String signed(long cents) {
+		return Entry.formatAmount(cents, cents >= 0);
+	}
+
+	/**
+	 * Zeigt einen Hinweis statt der Zahlen (z. B. während des Ladens).
+	 *
+	 * @param text der Hinweis.
+	 */
+	public void showMessage(String text) {
+		summaryLabel.setText(text);
+	}
+
+	public JButton getRefreshButton() {
+		return refreshButton;
+	}
+}
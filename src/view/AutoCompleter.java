@@ -0,0 +1,154 @@
+package view;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Schlägt beim Tippen in einem Textfeld passende Werte in einer Liste unter
+ * dem Feld vor. Mit den Pfeiltasten wird ein Vorschlag gewählt, mit Enter
+ * oder Mausklick übernommen und mit Escape die Liste geschlossen. Das Feld
+ * behält dabei den Fokus.
+ *
+ * Die Vorschläge liefert eine Funktion, die im EDT bei jeder Änderung
+ * aufgerufen wird und deshalb schnell sein muss (z. B. ein Präfixbaum).
+ */
+public class AutoCompleter {
+	private final JTextField field;
+	private final Function<String, List<String>> suggestions;
+	private final JList<String> list = new JList<>();
+	private final JPopupMenu popup = new JPopupMenu();
+	// true, solange ein Vorschlag ins Feld geschrieben wird
+	private boolean adjusting;
+
+	/**
+	 * @param field       das Textfeld.
+	 * @param suggestions liefert zum Text im Feld die Vorschläge (leer für keine).
+	 */
+	public AutoCompleter(JTextField field, Function<String, List<String>> suggestions) {
+		this.field = field;
+		this.suggestions = suggestions;
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		list.setFocusable(false);
+		JScrollPane scroll = new JScrollPane(list);
+		scroll.setBorder(BorderFactory.createEmptyBorder());
+		popup.setBorder(BorderFactory.createLineBorder(UIManager.getColor("controlShadow")));
+		popup.setFocusable(false);
+		popup.add(scroll);
+
+		field.getDocument().addDocumentListener(new DocumentListener() {
+			@Override
+			public void insertUpdate(DocumentEvent e) {
+				changed();
+			}
+
+			@Override
+			public void removeUpdate(DocumentEvent e) {
+				changed();
+			}
+
+			@Override
+			public void changedUpdate(DocumentEvent e) {
+				// Nur Attribute geändert
+			}
+		});
+		field.addKeyListener(new KeyAdapter() {
+			@Override
+			public void keyPressed(KeyEvent e) {
+				if (!popup.isVisible()) {
+					return;
+				}
+				int size = list.getModel().getSize();
+				switch (e.getKeyCode()) {
+				case KeyEvent.VK_DOWN:
+					select(Math.min(size - 1, list.getSelectedIndex() + 1));
+					e.consume();
+					break;
+				case KeyEvent.VK_UP:
+					select(Math.max(0, list.getSelectedIndex() - 1));
+					e.consume();
+					break;
+				case KeyEvent.VK_ENTER:
+					if (list.getSelectedIndex() >= 0) {
+						accept(list.getSelectedValue());
+						e.consume();
+					}
+					break;
+				case KeyEvent.VK_ESCAPE:
+					popup.setVisible(false);
+					e.consume();
+					break;
+				default:
+					break;
+				}
+			}
+		});
+		field.addFocusListener(new FocusAdapter() {
+			@Override
+			public void focusLost(FocusEvent e) {
+				popup.setVisible(false);
+			}
+		});
+		list.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				int index = list.locationToIndex(e.getPoint());
+				if (index >= 0) {
+					accept(list.getModel().getElementAt(index));
+				}
+			}
+		});
+	}
+
+	private void changed() {
+		if (!adjusting) {
+			// Erst nach der Benachrichtigung, das Dokument ist dann wieder veränderbar
+			SwingUtilities.invokeLater(this::update);
+		}
+	}
+
+	/**
+	 * Holt die Vorschläge zum aktuellen Text und zeigt sie an. Ist der Text
+	 * leer, das Feld nicht fokussiert oder der einzige Vorschlag schon
+	 * eingegeben, wird die Liste geschlossen.
+	 */
+	private void update() {
+		String text = field.getText();
+		List<String> values = text.trim().isEmpty() || !field.isFocusOwner() ? null : suggestions.apply(text);
+		if (values == null || values.isEmpty()
+				|| values.size() == 1 && values.get(0).equalsIgnoreCase(text.trim())) {
+			popup.setVisible(false);
+			return;
+		}
+		list.setListData(values.toArray(new String[0]));
+		list.setVisibleRowCount(Math.min(values.size(), 8));
+		list.clearSelection();
+		popup.pack();
+		popup.setPopupSize(Math.max(field.getWidth(), popup.getPreferredSize().width),
+				popup.getPreferredSize().height);
+		popup.show(field, 0, field.getHeight());
+	}
+
+	private void select(int index) {
+		list.setSelectedIndex(index);
+		list.ensureIndexIsVisible(index);
+	}
+
+	private void accept(String value) {
+		adjusting = true;
+		try {
+			field.setText(value);
+		} finally {
+			adjusting = false;
+		}
+		popup.setVisible(false);
+	}
+}
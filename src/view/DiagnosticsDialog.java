@@ -0,0 +1,118 @@
+package view;
+
+import model.Metrics;
+import model.OperationStatistics;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fenster mit den Kennzahlen der Anwendung: pro Operation Aufrufe, Fehler,
+ * Zeilen und Dauer (Durchschnitt, p50, p95, p99, Maximum), darunter die
+ * Messgrössen wie Zeilen und geschätzter Speicher der Modelle.
+ *
+ * Solange das Fenster offen ist, wird es jede Sekunde aktualisiert. Es sperrt
+ * das Hauptfenster nicht. Dieselben Werte sind per JMX abrufbar.
+ */
+public class DiagnosticsDialog extends JDialog {
+	private static final long serialVersionUID = 1L;
+	private static final int REFRESH_MILLIS = 1000;
+
+	private final transient List<Metrics> sources;
+	private final DefaultTableModel operationModel = new DefaultTableModel(new String[] { "Bereich", "Operation",
+			"Aufrufe", "Fehler", "Zeilen", "Ø ms", "p50 ms", "p95 ms", "p99 ms", "max. ms" }, 0) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+	};
+	private final DefaultTableModel gaugeModel = new DefaultTableModel(
+			new String[] { "Bereich", "Messgrösse", "Wert" }, 0) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+	};
+	private final Timer timer = new Timer(REFRESH_MILLIS, e -> update());
+
+	/**
+	 * @param owner   das Hauptfenster.
+	 * @param sources die anzuzeigenden Kennzahlen.
+	 */
+	public DiagnosticsDialog(Frame owner, List<Metrics> sources) {
+		super(owner, "Diagnose", false);
+		this.sources = sources;
+		setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+
+		JTable operationTable = new JTable(operationModel);
+		operationTable.setAutoCreateRowSorter(true);
+		JTable gaugeTable = new JTable(gaugeModel);
+		JScrollPane gaugeScroll = new JScrollPane(gaugeTable);
+		gaugeScroll.setPreferredSize(new Dimension(800, 160));
+
+		JButton resetButton = new JButton("Zurücksetzen");
+		resetButton.addActionListener(e -> {
+			for (Metrics metrics : sources) {
+				metrics.reset();
+			}
+			update();
+		});
+		JButton closeButton = new JButton("Schliessen");
+		closeButton.addActionListener(e -> dispose());
+		JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+		buttonPanel.add(resetButton);
+		buttonPanel.add(closeButton);
+
+		JPanel southPanel = new JPanel(new BorderLayout());
+		southPanel.add(gaugeScroll, BorderLayout.CENTER);
+		southPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+		setLayout(new BorderLayout());
+		add(new JScrollPane(operationTable), BorderLayout.CENTER);
+		add(southPanel, BorderLayout.SOUTH);
+		setSize(900, 550);
+		setLocationRelativeTo(owner);
+
+		addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosed(WindowEvent e) {
+				timer.stop();
+			}
+		});
+		update();
+		timer.start();
+	}
+
+	/**
+	 * Liest die aktuellen Kennzahlen und füllt die Tabellen neu.
+	 */
+	private void update() {
+		operationModel.setRowCount(0);
+		gaugeModel.setRowCount(0);
+		for (Metrics metrics : sources) {
+			for (Map.Entry<String, OperationStatistics> op : metrics.getOperations().entrySet()) {
+				OperationStatistics stats = op.getValue();
+				operationModel.addRow(new Object[] { metrics.getName(), op.getKey(), stats.getCount(),
+						stats.getErrors(), stats.getRows(), format(stats.getAverageMillis()),
+						format(stats.getP50Millis()), format(stats.getP95Millis()), format(stats.getP99Millis()),
+						format(stats.getMaxMillis()) });
+			}
+			for (Map.Entry<String, Long> gauge : metrics.getGauges().entrySet()) {
+				gaugeModel.addRow(new Object[] { metrics.getName(), gauge.getKey(), gauge.getValue() });
+			}
+		}
+	}
+
+	private static String format(double millis) {
+		return String.format("%.2f", millis);
+	}
+}
@@ -0,0 +1,169 @@
+package view;
+
+import model.Entry;
+import model.EntrySnapshot;
+import model.ListItem;
+
+import javax.swing.AbstractListModel;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import java.util.Arrays;
+
+/**
+ * ListModel für die Einnahmen- bzw. Ausgabenliste über einem EntrySnapshot.
+ *
+ * Es merkt sich nur die Zeilennummern des gewünschten Typs; die angezeigten
+ * ListItems ("Titel  +Betrag CHF (Datum)") werden erst beim Zeichnen erzeugt.
+ * Gibt es keine passenden Einträge, wird ein Hinweistext angezeigt.
+ *
+ * Als TableModelListener am EntryTableModel desselben Snapshots werden
+ * eingefügte und gelöschte Zeilen nachgeführt, ohne die Liste neu aufzubauen.
+ */
+public class EntryListModel extends AbstractListModel<ListItem> implements TableModelListener {
+	private static final long serialVersionUID = 1L;
+
+	private final transient EntrySnapshot snapshot;
+	private final boolean income;
+	private final String emptyText;
+	// Zeilennummern im Snapshot, aufsteigend; gültig sind die ersten count
+	private int[] rows;
+	private int count;
+
+	/**
+	 * @param snapshot  die Einträge.
+	 * @param income    true für die Einnahmen, false für die Ausgaben.
+	 * @param emptyText Text, der bei fehlenden Einträgen angezeigt wird.
+	 */
+	public EntryListModel(EntrySnapshot snapshot, boolean income, String emptyText) {
+		this.snapshot = snapshot;
+		this.income = income;
+		this.emptyText = emptyText;
+		collectRows();
+	}
+
+	private void collectRows() {
+		int matching = 0;
+		for (int i = 0; i < snapshot.size(); i++) {
+			if (snapshot.isIncome(i) == income) {
+				matching++;
+			}
+		}
+		rows = new int[Math.max(matching, 16)];
+		count = 0;
+		for (int i = 0; i < snapshot.size() && count < matching; i++) {
+			if (snapshot.isIncome(i) == income) {
+				rows[count++] = i;
+			}
+		}
+	}
+
+	@Override
+	public int getSize() {
+		return count == 0 ? 1 : count;
+	}
+
+	@Override
+	public ListItem getElementAt(int index) {
+		if (count == 0) {
+			return new ListItem(emptyText);
+		}
+		int row = rows[index];
+		return new ListItem(snapshot.getTitle(row) + "  "
+				+ Entry.formatAmount(snapshot.getAmountCents(row), snapshot.isIncome(row)) + " ("
+				+ Entry.formatDate(snapshot.getDate(row)) + ")");
+	}
+
+	@Override
+	public void tableChanged(TableModelEvent e) {
+		int first = e.getFirstRow();
+		int last = e.getLastRow();
+		if (e.getType() == TableModelEvent.INSERT && first >= 0) {
+			rowsInserted(first, last);
+		} else if (e.getType() == TableModelEvent.DELETE && first >= 0) {
+			rowsDeleted(first, last);
+		} else if (e.getType() != TableModelEvent.UPDATE || first == TableModelEvent.HEADER_ROW
+				|| last == Integer.MAX_VALUE) {
+			// Ganze Tabelle geändert: neu aufbauen
+			int oldSize = getSize();
+			collectRows();
+			fireContentsChanged(this, 0, Math.max(oldSize, getSize()) - 1);
+		}
+	}
+
+	private void rowsInserted(int first, int last) {
+		int shift = last - first + 1;
+		int position = lowerBound(first);
+		for (int i = position; i < count; i++) {
+			rows[i] += shift;
+		}
+		int added = 0;
+		for (int row = first; row <= last; row++) {
+			if (snapshot.isIncome(row) == income) {
+				added++;
+			}
+		}
+		if (added == 0) {
+			return;
+		}
+		if (count + added > rows.length) {
+			rows = Arrays.copyOf(rows, Math.max(count + added, rows.length + (rows.length >> 1)));
+		}
+		System.arraycopy(rows, position, rows, position + added, count - position);
+		int next = position;
+		for (int row = first; row <= last; row++) {
+			if (snapshot.isIncome(row) == income) {
+				rows[next++] = row;
+			}
+		}
+		boolean wasEmpty = count == 0;
+		count += added;
+		if (wasEmpty) {
+			// Der Hinweistext wird durch den ersten Eintrag ersetzt
+			fireContentsChanged(this, 0, 0);
+			if (added > 1) {
+				fireIntervalAdded(this, 1, added - 1);
+			}
+		} else {
+			fireIntervalAdded(this, position, position + added - 1);
+		}
+	}
+
+	private void rowsDeleted(int first, int last) {
+		int shift = last - first + 1;
+		int from = lowerBound(first);
+		int to = lowerBound(last + 1);
+		for (int i = to; i < count; i++) {
+			rows[i] -= shift;
+		}
+		int removed = to - from;
+		if (removed == 0) {
+			return;
+		}
+		System.arraycopy(rows, to, rows, from, count - to);
+		count -= removed;
+		if (count == 0) {
+			// An Stelle des letzten Eintrags erscheint der Hinweistext
+			if (removed > 1) {
+				fireIntervalRemoved(this, 1, removed - 1);
+			}
+			fireContentsChanged(this, 0, 0);
+		} else {
+			fireIntervalRemoved(this, from, to - 1);
+		}
+	}
+
+	// Erste Position, deren Zeilennummer >= row ist
+	private int lowerBound(int row) {
+		int low = 0;
+		int high = count;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (rows[mid] < row) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,51 @@
+package view;
+
+import model.Entry;
+
+import javax.swing.table.TableModel;
+import java.util.List;
+
+/**
+ * Gemeinsame Schnittstelle der Eintragstabellen (vollständig geladen oder
+ * seitenweise). Die Spalten sind ID, Titel, Betrag in Rappen (Long), Typ und
+ * Buchungsdatum (LocalDate); nur das vollständig geladene Modell hat dazu
+ * den Saldo in Rappen (Long).
+ */
+public interface EntryRowModel extends TableModel {
+	/**
+	 * @param row Zeile im Modell.
+	 * @return true, wenn die Zeile eine Einnahme ist.
+	 */
+	boolean isIncome(int row);
+
+	/**
+	 * @param row Zeile im Modell.
+	 * @return der Eintrag oder null, wenn die Zeile (noch) nicht geladen ist.
+	 */
+	Entry getEntry(int row);
+
+	/**
+	 * Zeigt neu gespeicherte Einträge an, ohne neu zu laden; gemeldet werden
+	 * nur die neuen Zeilen. Die Einträge müssen zum angezeigten Zeitraum
+	 * passen. Nur im EDT aufrufen.
+	 *
+	 * @param entries die neuen Einträge.
+	 * @return Anzahl neuer Zeilen.
+	 */
+	int addEntries(List<Entry> entries);
+
+	/**
+	 * Entfernt einen gelöschten Eintrag aus der Anzeige. Nur im EDT aufrufen.
+	 *
+	 * @param id die ID des Eintrags.
+	 * @return der entfernte Eintrag oder null, wenn er nicht (geladen) angezeigt war.
+	 */
+	Entry removeEntry(int id);
+
+	/**
+	 * Schätzt den Speicherbedarf der geladenen Zeilen (für die Diagnose).
+	 *
+	 * @return geschätzte Bytes.
+	 */
+	long estimateHeapBytes();
+}
@@ -0,0 +1,224 @@
+package view;
+
+import model.Entry;
+import model.EntrySnapshot;
+import model.RunningBalance;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * TableModel über einem spaltenweise gespeicherten EntrySnapshot.
+ *
+ * Anders als ein DefaultTableModel hält es keine Zeilenobjekte: Die Werte
+ * werden erst beim Zeichnen aus den primitiven Spalten gelesen. Die Spalte
+ * "Betrag (CHF)" liefert den Betrag in Rappen als Long; formatiert wird er
+ * erst im AmountCellRenderer, ebenso das Datum (LocalDate) erst im
+ * Datumsrenderer der MainView. Ein neues Modell zu setzen kostet damit nur das
+ * Umhängen einer Referenz.
+ *
+ * Hinzugefügte und gelöschte Einträge werden im Snapshot nachgeführt und als
+ * einzelne eingefügte bzw. gelöschte Zeilen gemeldet; die Listen hängen als
+ * TableModelListener daran (siehe EntryListModel).
+ *
+ * Die Spalte "Saldo (CHF)" zeigt den Kontostand nach der Buchung der Zeile,
+ * gerechnet nach Buchungsdatum, dann ID: den Stand vor dem Zeitraum
+ * ({@link #setOpeningBalance(long)}) plus die Beträge aller Einträge des
+ * Zeitraums bis und mit diesem. Da ein Zeitraum in dieser Reihenfolge
+ * zusammenhängt, zeigt ein Eintrag gefiltert und ungefiltert denselben
+ * Saldo, auch wenn er rückdatiert wurde. Die Summen führt ein
+ * {@link RunningBalance} (Fenwick-Baum), der beim ersten Zeichnen der Spalte
+ * aufgebaut wird; danach kosten ein hinzugefügter oder gelöschter Eintrag und
+ * jede gezeichnete Zeile O(log n), statt alle Einträge neu zu summieren.
+ */
+public class EntryTableModel extends AbstractTableModel implements EntryRowModel {
+	private static final long serialVersionUID = 1L;
+
+	public static final int COLUMN_ID = 0;
+	public static final int COLUMN_TITLE = 1;
+	public static final int COLUMN_AMOUNT = 2;
+	public static final int COLUMN_TYPE = 3;
+	public static final int COLUMN_DATE = 4;
+	public static final int COLUMN_BALANCE = 5;
+
+	static final String[] COLUMN_NAMES = { "ID", "Titel", "Betrag (CHF)", "Typ", "Datum", "Saldo (CHF)" };
+	static final Class<?>[] COLUMN_CLASSES = { Integer.class, String.class, Long.class, String.class,
+			LocalDate.class, Long.class };
+
+	private final transient EntrySnapshot snapshot;
+	// Erst beim ersten Lesen der Saldo-Spalte aufgebaut
+	private transient RunningBalance balances;
+	private long openingBalance;
+
+	/**
+	 * @param snapshot die anzuzeigenden Einträge.
+	 */
+	public EntryTableModel(EntrySnapshot snapshot) {
+		this.snapshot = snapshot;
+	}
+
+	public EntrySnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * Setzt den Kontostand vor dem Zeitraum, also den aller Einträge mit
+	 * früherem Buchungsdatum. Geändert wird nur die
+	 * Saldo-Spalte; die Listen reagieren nicht darauf.
+	 *
+	 * @param cents der Kontostand in Rappen.
+	 */
+	public void setOpeningBalance(long cents) {
+		if (cents == openingBalance) {
+			return;
+		}
+		openingBalance = cents;
+		if (snapshot.size() > 0) {
+			fireTableChanged(new TableModelEvent(this, 0, snapshot.size() - 1, COLUMN_BALANCE));
+		}
+	}
+
+	/** Der Kontostand vor dem Zeitraum in Rappen. */
+	public long getOpeningBalance() {
+		return openingBalance;
+	}
+
+	/**
+	 * @param row die Zeile.
+	 * @return der Kontostand nach der Buchung dieser Zeile in Rappen.
+	 */
+	public long getBalance(int row) {
+		if (balances == null) {
+			balances = new RunningBalance(snapshot);
+		}
+		return openingBalance + balances.getBalance(snapshot.getEpochDay(row), snapshot.getId(row));
+	}
+
+	@Override
+	public boolean isIncome(int row) {
+		return snapshot.isIncome(row);
+	}
+
+	@Override
+	public Entry getEntry(int row) {
+		return snapshot.getEntry(row);
+	}
+
+	@Override
+	public int addEntries(List<Entry> entries) {
+		int added = 0;
+		// Aufeinanderfolgende Einträge am Ende werden als ein Bereich gemeldet
+		int first = -1;
+		int last = -1;
+		// Ein rückdatierter Eintrag ändert den Saldo späterer Buchungen
+		boolean backdated = false;
+		for (Entry entry : entries) {
+			if (!snapshot.accepts(entry)) {
+				continue;
+			}
+			boolean append = snapshot.size() == 0 || entry.getId() > snapshot.getId(snapshot.size() - 1);
+			if (!append && first >= 0) {
+				fireTableRowsInserted(first, last);
+				first = -1;
+			}
+			int row = snapshot.insert(entry);
+			if (row < 0) {
+				continue; // schon enthalten
+			}
+			if (balances != null) {
+				backdated |= balances.insert((int) entry.getDate().toEpochDay(), entry.getId(),
+						entry.getAmountCents());
+			}
+			added++;
+			if (!append) {
+				fireTableRowsInserted(row, row);
+			} else {
+				if (first < 0) {
+					first = row;
+				}
+				last = row;
+			}
+		}
+		if (first >= 0) {
+			fireTableRowsInserted(first, last);
+		}
+		if (backdated) {
+			fireTableChanged(new TableModelEvent(this, 0, snapshot.size() - 1, COLUMN_BALANCE));
+		}
+		return added;
+	}
+
+	@Override
+	public Entry removeEntry(int id) {
+		int row = snapshot.indexOf(id);
+		if (row < 0) {
+			return null;
+		}
+		Entry entry = snapshot.getEntry(row);
+		snapshot.remove(row);
+		fireTableRowsDeleted(row, row);
+		if (balances != null) {
+			balances.remove((int) entry.getDate().toEpochDay(), entry.getId());
+			if (snapshot.size() > 0) {
+				fireTableChanged(new TableModelEvent(this, 0, snapshot.size() - 1, COLUMN_BALANCE));
+			}
+		}
+		return entry;
+	}
+
+	@Override
+	public long estimateHeapBytes() {
+		return snapshot.estimateHeapBytes() + (balances != null ? balances.estimateHeapBytes() : 0);
+	}
+
+	@Override
+	public int getRowCount() {
+		return snapshot.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return COLUMN_CLASSES[column];
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		if (column == COLUMN_BALANCE) {
+			return getBalance(row);
+		}
+		return valueAt(snapshot, row, column);
+	}
+
+	/**
+	 * Liest einen Zellwert aus einem Snapshot (ohne Saldo); wird auch vom
+	 * PagedEntryTableModel für die geladenen Seiten verwendet.
+	 */
+	static Object valueAt(EntrySnapshot snapshot, int row, int column) {
+		switch (column) {
+		case COLUMN_ID:
+			return snapshot.getId(row);
+		case COLUMN_TITLE:
+			return snapshot.getTitle(row);
+		case COLUMN_AMOUNT:
+			return snapshot.getAmountCents(row);
+		case COLUMN_TYPE:
+			return snapshot.getType(row);
+		case COLUMN_DATE:
+			return snapshot.getDate(row);
+		default:
+			throw new IllegalArgumentException("Unbekannte Spalte: " + column);
+		}
+	}
+}
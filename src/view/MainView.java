@@ -1,17 +1,24 @@
 package view;
 
+import model.CategoryTotal;
+import model.Entry;
 import model.ListItem;
-import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfWriter;
+import model.MonthlyTotal;
+import model.Months;
 
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+import javax.swing.table.TableRowSorter;
 import java.awt.*;
+import java.awt.event.ActionListener;
 import java.awt.print.PrinterException;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Stellt die Benutzeroberflaeche für den Liquid-Planner bereit.
@@ -34,27 +41,45 @@ public class MainView extends JFrame {
 	private JTextField titleField;
 	private JTextField amountField;
 	private JComboBox<String> typeCombo;
-	private JComboBox<String> monthCombo;
+	private JTextField dateField;
 	private JButton addButton;
 
 	// Tabelle für die Datensätze
 	private JTable table;
+	// Register "Einträge" (Tabelle), "Analyse" (Auswertung pro Kategorie) und
+	// "Prognose" (wiederkehrende Einträge und erwarteter Kontostand)
+	private JTabbedPane mainTabs;
+	private AnalyticsPanel analyticsPanel;
+	private ProjectionPanel projectionPanel;
 
 	// Labels für die Bilanzübersicht
 	private JLabel incomeLabel;
 	private JLabel expenseLabel;
 	private JLabel balanceLabel;
 
+	// Statuszeile (z. B. Anzahl Datenbankabfragen der letzten Aktion)
+	private JLabel statusLabel;
+	// Wird angezeigt, solange im Hintergrund auf die Datenbank gewartet wird
+	private JProgressBar busyIndicator;
+
 	// Buttons und Filter-Elemente
 	private JButton deleteButton;
+	private JComboBox<String> filterYearCombo;
 	private JComboBox<String> filterMonthCombo;
+	// Suchbegriffe für den Titel; gefiltert wird über einen RowFilter
+	private JTextField searchField;
+	private RowFilter<TableModel, Integer> rowFilter;
 	private JList<ListItem> incomeList;
 	private JList<ListItem> expenseList;
 
 	// Menüelemente
 	private JMenuItem saveMenuItem;
+	private JMenuItem importMenuItem;
 	private JMenuItem printMenuItem;
 	private JMenuItem exitMenuItem;
+	private JMenuItem verifyBalanceMenuItem;
+	private JMenuItem overviewMenuItem;
+	private JMenuItem diagnosticsMenuItem;
 
 	/**
 	 * Konstruktor für die MainView.
@@ -72,12 +97,22 @@ public class MainView extends JFrame {
 		JMenuBar menuBar = new JMenuBar();
 		JMenu fileMenu = new JMenu("Datei");
 		saveMenuItem = new JMenuItem("Speichern als PDF");
+		importMenuItem = new JMenuItem("CSV importieren...");
 		printMenuItem = new JMenuItem("Drucken");
 		exitMenuItem = new JMenuItem("Beenden");
 		fileMenu.add(saveMenuItem);
+		fileMenu.add(importMenuItem);
 		fileMenu.add(printMenuItem);
 		fileMenu.add(exitMenuItem);
 		menuBar.add(fileMenu);
+		JMenu extrasMenu = new JMenu("Extras");
+		verifyBalanceMenuItem = new JMenuItem("Bilanz prüfen");
+		overviewMenuItem = new JMenuItem("Monatsübersicht");
+		extrasMenu.add(overviewMenuItem);
+		extrasMenu.add(verifyBalanceMenuItem);
+		diagnosticsMenuItem = new JMenuItem("Diagnose");
+		extrasMenu.add(diagnosticsMenuItem);
+		menuBar.add(extrasMenu);
 		setJMenuBar(menuBar);
 
 		// Eingabepanel erstellen
@@ -86,13 +121,13 @@ public class MainView extends JFrame {
 		inputPanel.setBorder(new TitledBorder("Eingabe und Listen"));
 		inputPanel.setPreferredSize(new Dimension(500, 0));
 
-		// Formular-Panel für Titel, Betrag, Typ und Monat
+		// Formular-Panel für Titel, Betrag, Typ und Buchungsdatum (vorbelegt mit heute)
 		JPanel formPanel = new JPanel(new GridLayout(5, 2, 5, 5));
 		titleField = new JTextField();
 		amountField = new JTextField();
 		typeCombo = new JComboBox<>(new String[] { "Einnahme", "Ausgabe" });
-		monthCombo = new JComboBox<>(new String[] { "Januar", "Februar", "März", "April", "Mai", "Juni", "Juli",
-				"August", "September", "Oktober", "November", "Dezember" });
+		dateField = new JTextField(Entry.formatDate(LocalDate.now()));
+		dateField.setToolTipText("Buchungsdatum, z. B. 25.01.2025");
 		addButton = new JButton("Hinzufügen");
 
 		formPanel.add(new JLabel("Titel:"));
@@ -101,8 +136,8 @@ public class MainView extends JFrame {
 		formPanel.add(amountField);
 		formPanel.add(new JLabel("Typ:"));
 		formPanel.add(typeCombo);
-		formPanel.add(new JLabel("Monat:"));
-		formPanel.add(monthCombo);
+		formPanel.add(new JLabel("Datum:"));
+		formPanel.add(dateField);
 		formPanel.add(new JLabel()); // Platzhalter für Layout
 		formPanel.add(addButton);
 
@@ -164,22 +199,42 @@ public class MainView extends JFrame {
 
 		inputPanel.add(listsPanel, BorderLayout.CENTER);
 
-		// Filter-Panel für Monat und Löschen
+		// Filter-Panel für Jahr, Monat und Löschen. Die Jahre setzt der
+		// MainController, sobald die Summen geladen sind (setFilterYears).
 		JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 10));
-		filterPanel.setBorder(new TitledBorder("Monatsfilter"));
+		filterPanel.setBorder(new TitledBorder("Zeitraum"));
+		filterYearCombo = new JComboBox<>(new String[] { "Alle Jahre" });
 		filterMonthCombo = new JComboBox<>(new String[] { "Alle Monate", "Januar", "Februar", "März", "April", "Mai",
 				"Juni", "Juli", "August", "September", "Oktober", "November", "Dezember" });
 		deleteButton = new JButton("Auswahl löschen");
+		searchField = new JTextField(15);
+		searchField.setToolTipText("Titel suchen; mehrere Begriffe mit Leerzeichen trennen");
+		filterPanel.add(new JLabel("Jahr:"));
+		filterPanel.add(filterYearCombo);
 		filterPanel.add(new JLabel("Monat:"));
 		filterPanel.add(filterMonthCombo);
+		filterPanel.add(new JLabel("Suche:"));
+		filterPanel.add(searchField);
 		filterPanel.add(deleteButton);
 
 		// Tabelle einrichten 
 		DefaultTableModel tableModel = new DefaultTableModel(new Object[][] {},
-				new String[] { "ID", "Titel", "Betrag (CHF)", "Typ", "Monat" });
+				new String[] { "ID", "Titel", "Betrag (CHF)", "Typ", "Datum" });
 		table = new JTable(tableModel);
 		table.setRowHeight(25);
 		table.setFillsViewportHeight(true);
+		// Beträge kommen als Rappen (Long) und werden erst beim Zeichnen formatiert
+		table.setDefaultRenderer(Long.class, new AmountCellRenderer());
+		// Ebenso das Buchungsdatum (LocalDate)
+		table.setDefaultRenderer(LocalDate.class, new DefaultTableCellRenderer() {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void setValue(Object value) {
+				setText(value instanceof LocalDate ? Entry.formatDate((LocalDate) value) : "");
+			}
+		});
 		// Die ID-Spalte wird später über die Methode setTableModel(...) aus der
 		// Ansicht entfernt.
 		JScrollPane tableScrollPane = new JScrollPane(table);
@@ -194,16 +249,33 @@ public class MainView extends JFrame {
 		balancePanel.add(expenseLabel);
 		balancePanel.add(balanceLabel);
 
+		// Statuszeile unterhalb der Bilanz
+		statusLabel = new JLabel(" ");
+		statusLabel.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+		busyIndicator = new JProgressBar();
+		busyIndicator.setIndeterminate(true);
+		busyIndicator.setVisible(false);
+		busyIndicator.setPreferredSize(new Dimension(120, 14));
+		JPanel statusPanel = new JPanel(new BorderLayout());
+		statusPanel.add(statusLabel, BorderLayout.CENTER);
+		statusPanel.add(busyIndicator, BorderLayout.EAST);
+		JPanel southPanel = new JPanel(new BorderLayout());
+		southPanel.add(balancePanel, BorderLayout.CENTER);
+		southPanel.add(statusPanel, BorderLayout.SOUTH);
+
 		// Komponenten in das Hauptfenster einfügen
 		add(filterPanel, BorderLayout.NORTH);
 		add(inputPanel, BorderLayout.WEST);
-		add(tableScrollPane, BorderLayout.CENTER);
-		add(balancePanel, BorderLayout.SOUTH);
-
-		// Menü-ActionListener 
-		saveMenuItem.addActionListener(e -> saveToPDF());
-		printMenuItem.addActionListener(e -> printTable());
-		exitMenuItem.addActionListener(e -> System.exit(0));
+		mainTabs = new JTabbedPane();
+		mainTabs.addTab("Einträge", tableScrollPane);
+		analyticsPanel = new AnalyticsPanel();
+		mainTabs.addTab("Analyse", analyticsPanel);
+		projectionPanel = new ProjectionPanel();
+		mainTabs.addTab("Prognose", projectionPanel);
+		add(mainTabs, BorderLayout.CENTER);
+		add(southPanel, BorderLayout.SOUTH);
+
+		// Die Menü-ActionListener richtet der MainController ein
 	}
 
 	/**
@@ -211,59 +283,139 @@ public class MainView extends JFrame {
 	 * der Ansicht.
 	 * 
 	 * Die ID-Spalte bleibt im zugrunde liegenden Model erhalten, wird aber aus der
-	 * GUI entfernt, so dass der Endbenutzer sie nicht sieht.
+	 * GUI entfernt, so dass der Endbenutzer sie nicht sieht. Ein gesetzter
+	 * RowFilter gilt auch für das neue Modell.
 	 *
-	 * @param model das zu setzende DefaultTableModel.
+	 * @param model das zu setzende TableModel.
 	 */
-	public void setTableModel(DefaultTableModel model) {
+	public void setTableModel(TableModel model) {
+		table.setRowSorter(null);
 		table.setModel(model);
 		if (table.getColumnCount() > 0 && "ID".equals(table.getColumnName(0))) {
 			table.removeColumn(table.getColumnModel().getColumn(0));
 		}
+		applyRowFilter();
 	}
 
 	/**
-	 * Exportiert die Inhalte der Tabelle als PDF.
-	 * 
-	 * Der PDF-Export berücksichtigt nur die in der GUI sichtbaren Spalten (ohne die
-	 * ID-Spalte). Wird der Dialog abgebrochen oder geschlossen, wird die Methode
-	 * ohne weitere Aktion beendet.
+	 * Zeigt in der Tabelle nur die Zeilen an, die der Filter annimmt. Der
+	 * Filter prüft dafür jede Zeile; für ein seitenweise geladenes Modell darf
+	 * deshalb keiner gesetzt werden.
+	 *
+	 * @param filter der Filter oder null, um alle Zeilen anzuzeigen.
+	 */
+	public void setRowFilter(RowFilter<TableModel, Integer> filter) {
+		rowFilter = filter;
+		applyRowFilter();
+	}
+
+	private void applyRowFilter() {
+		if (rowFilter == null) {
+			table.setRowSorter(null);
+			return;
+		}
+		TableRowSorter<TableModel> sorter = new TableRowSorter<>(table.getModel());
+		// Nur filtern; die Reihenfolge bleibt die des Modells
+		for (int column = 0; column < table.getModel().getColumnCount(); column++) {
+			sorter.setSortable(column, false);
+		}
+		sorter.setRowFilter(rowFilter);
+		table.setRowSorter(sorter);
+	}
+
+	/**
+	 * Zeigt an, ob im Hintergrund auf die Datenbank gewartet wird. Die
+	 * Oberfläche bleibt dabei bedienbar; nur Tabelle und Listen zeigen den
+	 * Wartecursor.
+	 *
+	 * @param busy true, solange Hintergrundaufgaben laufen.
 	 */
-	public void saveToPDF() {
+	public void setBusy(boolean busy) {
+		busyIndicator.setVisible(busy);
+		Cursor cursor = busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor();
+		table.setCursor(cursor);
+		incomeList.setCursor(cursor);
+		expenseList.setCursor(cursor);
+	}
+
+	/**
+	 * Sperrt oder entsperrt die Eingabeelemente, z. B. solange noch keine
+	 * Datenbankverbindung besteht.
+	 *
+	 * @param enabled true, um die Eingaben freizugeben.
+	 */
+	public void setInputEnabled(boolean enabled) {
+		addButton.setEnabled(enabled);
+		deleteButton.setEnabled(enabled);
+		filterYearCombo.setEnabled(enabled);
+		filterMonthCombo.setEnabled(enabled);
+		searchField.setEnabled(enabled);
+		saveMenuItem.setEnabled(enabled);
+		importMenuItem.setEnabled(enabled);
+		overviewMenuItem.setEnabled(enabled);
+		verifyBalanceMenuItem.setEnabled(enabled);
+		diagnosticsMenuItem.setEnabled(enabled);
+		analyticsPanel.getRefreshButton().setEnabled(enabled);
+		projectionPanel.getAddButton().setEnabled(enabled);
+		projectionPanel.getDeleteButton().setEnabled(enabled);
+	}
+
+	/**
+	 * Lässt den Benutzer den Speicherort für den PDF-Bericht wählen. Der Export
+	 * selbst läuft im Hintergrund (siehe PdfReportExporter).
+	 *
+	 * @return die gewählte Datei oder null, wenn der Dialog abgebrochen wurde.
+	 */
+	public File chooseExportFile() {
 		JFileChooser fileChooser = new JFileChooser();
 		fileChooser.setDialogTitle("Speicherort wählen");
 		fileChooser.setSelectedFile(new File("LiquiPlanner_Raport.pdf"));
+		if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return null;
+		}
+		return fileChooser.getSelectedFile();
+	}
 
-		int userSelection = fileChooser.showSaveDialog(this);
-		if (userSelection != JFileChooser.APPROVE_OPTION) {
-			return;
+	/**
+	 * Lässt den Benutzer eine CSV-Datei für den Import auswählen.
+	 *
+	 * @return die gewählte Datei oder null, wenn der Dialog abgebrochen wurde.
+	 */
+	public File chooseImportFile() {
+		JFileChooser fileChooser = new JFileChooser();
+		fileChooser.setDialogTitle("CSV-Datei importieren");
+		fileChooser.setFileFilter(new FileNameExtensionFilter("CSV-Dateien", "csv", "txt"));
+		if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+			return null;
 		}
+		return fileChooser.getSelectedFile();
+	}
 
-		File fileToSave = fileChooser.getSelectedFile();
-		if (fileToSave == null) {
-			return;
+	/**
+	 * Zeigt die von der Datenbank aggregierten Summen pro Monat und pro Kategorie
+	 * in einem Dialog an.
+	 *
+	 * @param monthlyTotals  Summen pro Monat und Typ.
+	 * @param categoryTotals Summen pro Kategorie und Typ.
+	 */
+	public void showOverview(List<MonthlyTotal> monthlyTotals, List<CategoryTotal> categoryTotals) {
+		DefaultTableModel monthModel = new DefaultTableModel(new String[] { "Monat", "Typ", "Anzahl", "Summe (CHF)" },
+				0);
+		for (MonthlyTotal total : monthlyTotals) {
+			monthModel.addRow(new Object[] { Months.label(total.getMonth()), total.getType(), total.getCount(),
+					Entry.formatAmount(total.getSumCents(), total.isIncome()) });
 		}
-		try {
-			Document document = new Document();
-			PdfWriter.getInstance(document, new FileOutputStream(fileToSave));
-			document.open();
-			document.add(new Paragraph("Liqui-Planner Bericht\n\n"));
-			PdfPTable pdfTable = new PdfPTable(4);
-			pdfTable.addCell("Titel");
-			pdfTable.addCell("Betrag (CHF)");
-			pdfTable.addCell("Typ");
-			pdfTable.addCell("Monat");
-			for (int i = 0; i < table.getRowCount(); i++) {
-				for (int j = 0; j < table.getColumnCount(); j++) {
-					pdfTable.addCell(table.getValueAt(i, j).toString());
-				}
-			}
-			document.add(pdfTable);
-			document.close();
-			JOptionPane.showMessageDialog(this, "PDF gespeichert unter: " + fileToSave.getAbsolutePath());
-		} catch (Exception e) {
-			e.printStackTrace();
+		DefaultTableModel categoryModel = new DefaultTableModel(
+				new String[] { "Kategorie", "Typ", "Anzahl", "Summe (CHF)" }, 0);
+		for (CategoryTotal total : categoryTotals) {
+			categoryModel.addRow(new Object[] { total.getCategory(), total.getType(), total.getCount(),
+					Entry.formatAmount(total.getSumCents(), total.isIncome()) });
 		}
+		JTabbedPane tabs = new JTabbedPane();
+		tabs.addTab("Pro Monat", new JScrollPane(new JTable(monthModel)));
+		tabs.addTab("Pro Kategorie", new JScrollPane(new JTable(categoryModel)));
+		tabs.setPreferredSize(new Dimension(600, 400));
+		JOptionPane.showMessageDialog(this, tabs, "Monatsübersicht", JOptionPane.PLAIN_MESSAGE);
 	}
 
 	/**
@@ -283,10 +435,69 @@ public class MainView extends JFrame {
 		return table;
 	}
 
+	/**
+	 * Setzt die wählbaren Jahre im Filter. Die Auswahl bleibt erhalten, solange
+	 * das gewählte Jahr weiterhin vorkommt; die Listener werden dabei nicht
+	 * ausgelöst.
+	 *
+	 * @param years die Jahre, aufsteigend.
+	 */
+	public void setFilterYears(List<Integer> years) {
+		Object selected = filterYearCombo.getSelectedItem();
+		ActionListener[] listeners = filterYearCombo.getActionListeners();
+		for (ActionListener listener : listeners) {
+			filterYearCombo.removeActionListener(listener);
+		}
+		filterYearCombo.removeAllItems();
+		filterYearCombo.addItem("Alle Jahre");
+		// Neueste Jahre zuerst
+		for (int i = years.size() - 1; i >= 0; i--) {
+			filterYearCombo.addItem(String.valueOf(years.get(i)));
+		}
+		filterYearCombo.setSelectedItem(selected != null ? selected : "Alle Jahre");
+		for (ActionListener listener : listeners) {
+			filterYearCombo.addActionListener(listener);
+		}
+	}
+
+	public JComboBox<String> getFilterYearCombo() {
+		return filterYearCombo;
+	}
+
 	public JComboBox<String> getFilterMonthCombo() {
 		return filterMonthCombo;
 	}
 
+	public JTabbedPane getMainTabs() {
+		return mainTabs;
+	}
+
+	public AnalyticsPanel getAnalyticsPanel() {
+		return analyticsPanel;
+	}
+
+	/**
+	 * @return true, wenn das Register "Analyse" angezeigt wird.
+	 */
+	public boolean isAnalyticsVisible() {
+		return mainTabs.getSelectedComponent() == analyticsPanel;
+	}
+
+	public ProjectionPanel getProjectionPanel() {
+		return projectionPanel;
+	}
+
+	/**
+	 * @return true, wenn das Register "Prognose" angezeigt wird.
+	 */
+	public boolean isProjectionVisible() {
+		return mainTabs.getSelectedComponent() == projectionPanel;
+	}
+
+	public JTextField getSearchField() {
+		return searchField;
+	}
+
 	public JLabel getIncomeLabel() {
 		return incomeLabel;
 	}
@@ -299,10 +510,18 @@ public class MainView extends JFrame {
 		return balanceLabel;
 	}
 
+	public JLabel getStatusLabel() {
+		return statusLabel;
+	}
+
 	public JMenuItem getSaveMenuItem() {
 		return saveMenuItem;
 	}
 
+	public JMenuItem getImportMenuItem() {
+		return importMenuItem;
+	}
+
 	public JMenuItem getPrintMenuItem() {
 		return printMenuItem;
 	}
@@ -311,6 +530,18 @@ public class MainView extends JFrame {
 		return exitMenuItem;
 	}
 
+	public JMenuItem getVerifyBalanceMenuItem() {
+		return verifyBalanceMenuItem;
+	}
+
+	public JMenuItem getOverviewMenuItem() {
+		return overviewMenuItem;
+	}
+
+	public JMenuItem getDiagnosticsMenuItem() {
+		return diagnosticsMenuItem;
+	}
+
 	public JTextField getTitleField() {
 		return titleField;
 	}
@@ -323,8 +554,8 @@ public class MainView extends JFrame {
 		return typeCombo;
 	}
 
-	public JComboBox<String> getMonthCombo() {
-		return monthCombo;
+	public JTextField getDateField() {
+		return dateField;
 	}
 
 	public JButton getAddButton() {
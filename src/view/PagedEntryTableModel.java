@@ -0,0 +1,282 @@
+package view;
+
+import model.Entry;
+import model.EntrySnapshot;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * TableModel für sehr grosse Datenbestände: Es kennt nur die Gesamtzahl der
+ * Zeilen und lädt die Einträge seitenweise nach, sobald die Tabelle sie
+ * zeichnen will.
+ *
+ * Seiten werden per Keyset geladen ("eintragKey > ? LIMIT n"). Dafür merkt
+ * sich das Modell, nach welchem Schlüssel jede Seite beginnt; ist die
+ * Vorgängerseite unbekannt (Sprung mit der Bildlaufleiste), wird die Grenze
+ * einmalig über den Index gesucht, ausgehend von der nächsten bekannten
+ * Grenze davor oder danach oder vom Ende der Tabelle. Die Kosten hängen so
+ * vom Abstand zur nächsten bekannten Stelle ab, nicht von der Zeilennummer;
+ * der Sprung ans Ende kostet eine Seite. Es werden höchstens {@code maxPages}
+ * Seiten im Speicher gehalten, die am längsten nicht gelesene fällt zuerst
+ * heraus (LRU). Noch nicht geladene Zeilen werden als "Wird geladen..."
+ * angezeigt.
+ *
+ * Neue Einträge haben immer grössere IDs als die vorhandenen und kommen
+ * daher ans Ende: Die Zeilenzahl wächst, und nur die letzte (angebrochene)
+ * Seite wird verworfen. Wird ein geladener Eintrag gelöscht, werden seine
+ * Seite und alle folgenden verworfen und beim nächsten Zeichnen neu geladen.
+ * Ergebnisse von Ladevorgängen, die vor einer solchen Änderung angestossen
+ * wurden, werden verworfen.
+ *
+ * Die Saldo-Spalte des EntryTableModel fehlt hier: Der Kontostand einer
+ * Zeile hinge von allen Zeilen davor ab, auch von den nicht geladenen.
+ *
+ * Alle Methoden ausser dem Laden selbst laufen im EDT.
+ */
+public class PagedEntryTableModel extends AbstractTableModel implements EntryRowModel {
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Datenquelle für die Seiten. Die Methoden werden im Hintergrund
+	 * aufgerufen.
+	 */
+	public interface PageSource {
+		/**
+		 * @param afterKey Schlüssel des letzten Eintrags vor der Seite (0 für den Anfang).
+		 * @param limit    maximale Anzahl Einträge.
+		 * @return die Einträge, aufsteigend nach Schlüssel.
+		 */
+		List<Entry> fetchAfter(int afterKey, int limit);
+
+		/**
+		 * @param fromKey ein bekannter Schlüssel (0 für den Anfang, Integer.MAX_VALUE für das Ende).
+		 * @param steps   Anzahl Einträge nach (positiv) bzw. vor (negativ) fromKey.
+		 * @return der Schlüssel des Eintrags dort oder -1, wenn es ihn nicht gibt.
+		 */
+		int seekKey(int fromKey, int steps);
+	}
+
+	private static final String LOADING = "Wird geladen...";
+
+	private final transient PageSource source;
+	private final transient Executor background;
+	private int rowCount;
+	private final int pageSize;
+	// Geladene Seiten in Zugriffsreihenfolge; die älteste wird verdrängt
+	private final Map<Integer, EntrySnapshot> pages;
+	// Seiten, deren Laden angestossen, aber noch nicht abgeschlossen ist
+	private final Set<Integer> loading = new HashSet<>();
+	// Seitennummer -> Schlüssel, nach dem die Seite beginnt
+	private final NavigableMap<Integer, Integer> pageStartKeys = new TreeMap<>();
+	private int loadedPages;
+	// Wird bei jeder Änderung erhöht; ältere Ladeergebnisse sind ungültig
+	private int version;
+
+	/**
+	 * @param rowCount   Gesamtzahl der Zeilen (z. B. aus den nachgeführten Summen).
+	 * @param pageSize   Zeilen pro Seite.
+	 * @param maxPages   höchstens gleichzeitig gehaltene Seiten.
+	 * @param source     lädt die Seiten.
+	 * @param background führt das Laden ausserhalb des EDT aus.
+	 */
+	public PagedEntryTableModel(int rowCount, int pageSize, int maxPages, PageSource source, Executor background) {
+		this.rowCount = rowCount;
+		this.pageSize = Math.max(1, pageSize);
+		this.source = source;
+		this.background = background;
+		int capacity = Math.max(3, maxPages);
+		this.pages = new LinkedHashMap<Integer, EntrySnapshot>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, EntrySnapshot> eldest) {
+				return size() > capacity;
+			}
+		};
+		pageStartKeys.put(0, 0);
+	}
+
+	/** Anzahl bisher geladener Seiten (inkl. erneut geladener). */
+	public int getLoadedPageCount() {
+		return loadedPages;
+	}
+
+	@Override
+	public int addEntries(List<Entry> entries) {
+		if (entries.isEmpty()) {
+			return 0;
+		}
+		int firstRow = rowCount;
+		rowCount += entries.size();
+		invalidateFrom(firstRow / pageSize);
+		fireTableRowsInserted(firstRow, rowCount - 1);
+		return entries.size();
+	}
+
+	@Override
+	public Entry removeEntry(int id) {
+		for (Map.Entry<Integer, EntrySnapshot> loaded : pages.entrySet()) {
+			EntrySnapshot page = loaded.getValue();
+			int index = page.indexOf(id);
+			if (index >= 0) {
+				int pageNumber = loaded.getKey();
+				Entry entry = page.getEntry(index);
+				int row = pageNumber * pageSize + index;
+				rowCount--;
+				invalidateFrom(pageNumber);
+				fireTableRowsDeleted(row, row);
+				return entry;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Zählt nur die Seiten im Speicher; die übrigen Zeilen belegen nichts.
+	 */
+	@Override
+	public long estimateHeapBytes() {
+		long bytes = 0;
+		for (EntrySnapshot page : pages.values()) {
+			bytes += page.estimateHeapBytes();
+		}
+		return bytes;
+	}
+
+	/**
+	 * Verwirft die Seite {@code pageNumber} und alle folgenden samt ihren
+	 * Startschlüsseln.
+	 */
+	private void invalidateFrom(int pageNumber) {
+		version++;
+		pages.keySet().removeIf(p -> p >= pageNumber);
+		pageStartKeys.tailMap(pageNumber, false).clear();
+		loading.clear();
+	}
+
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return EntryTableModel.COLUMN_BALANCE; // ohne Saldo
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return EntryTableModel.COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return EntryTableModel.COLUMN_CLASSES[column];
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		EntrySnapshot page = pageFor(row);
+		int index = row % pageSize;
+		if (page == null) {
+			return column == EntryTableModel.COLUMN_TITLE ? LOADING : null;
+		}
+		if (index >= page.size()) {
+			return null; // Datenbestand ist seit dem Zählen geschrumpft
+		}
+		return EntryTableModel.valueAt(page, index, column);
+	}
+
+	@Override
+	public boolean isIncome(int row) {
+		EntrySnapshot page = pageFor(row);
+		int index = row % pageSize;
+		return page == null || index >= page.size() || page.isIncome(index);
+	}
+
+	@Override
+	public Entry getEntry(int row) {
+		EntrySnapshot page = pageFor(row);
+		int index = row % pageSize;
+		return page == null || index >= page.size() ? null : page.getEntry(index);
+	}
+
+	/**
+	 * Liefert die Seite einer Zeile oder stösst ihr Laden an.
+	 */
+	private EntrySnapshot pageFor(int row) {
+		int pageNumber = row / pageSize;
+		EntrySnapshot page = pages.get(pageNumber);
+		if (page == null) {
+			requestPage(pageNumber);
+		}
+		return page;
+	}
+
+	private void requestPage(int pageNumber) {
+		if (!loading.add(pageNumber)) {
+			return;
+		}
+		int firstRow = pageNumber * pageSize;
+		// Nächste bekannte Grenze davor (Seite 0 beginnt immer nach Schlüssel 0)
+		Map.Entry<Integer, Integer> lower = pageStartKeys.floorEntry(pageNumber);
+		int fromKey = lower.getValue();
+		int steps = (pageNumber - lower.getKey()) * pageSize;
+		// Oder danach: die nächste bekannte Grenze bzw. das Ende der Tabelle
+		Map.Entry<Integer, Integer> upper = pageStartKeys.higherEntry(pageNumber);
+		int backward = upper != null ? (upper.getKey() - pageNumber) * pageSize : rowCount - firstRow + 1;
+		if (steps > 0 && backward < steps) {
+			fromKey = upper != null ? upper.getValue() : Integer.MAX_VALUE;
+			steps = -backward;
+		}
+		int seekFrom = fromKey;
+		int seekSteps = steps;
+		int requestedVersion = version;
+		background.execute(() -> {
+			EntrySnapshot page;
+			try {
+				int afterKey = seekSteps == 0 ? seekFrom : source.seekKey(seekFrom, seekSteps);
+				List<Entry> entries = afterKey < 0 ? Collections.<Entry>emptyList()
+						: source.fetchAfter(afterKey, pageSize);
+				page = EntrySnapshot.of(null, entries);
+			} catch (RuntimeException e) {
+				System.err.println("Fehler beim Laden der Seite " + pageNumber + ": " + e.getMessage());
+				e.printStackTrace();
+				SwingUtilities.invokeLater(() -> {
+					if (requestedVersion == version) {
+						loading.remove(pageNumber);
+					}
+				});
+				return;
+			}
+			SwingUtilities.invokeLater(() -> pageLoaded(pageNumber, page, requestedVersion));
+		});
+	}
+
+	private void pageLoaded(int pageNumber, EntrySnapshot page, int requestedVersion) {
+		if (requestedVersion != version) {
+			return; // vor einer Änderung geladen, wird beim nächsten Zeichnen neu angefordert
+		}
+		loading.remove(pageNumber);
+		pages.put(pageNumber, page);
+		loadedPages++;
+		if (page.size() > 0) {
+			pageStartKeys.put(pageNumber + 1, page.getId(page.size() - 1));
+		}
+		int firstRow = pageNumber * pageSize;
+		int lastRow = Math.min(firstRow + pageSize, rowCount) - 1;
+		if (lastRow >= firstRow) {
+			fireTableRowsUpdated(firstRow, lastRow);
+		}
+	}
+}
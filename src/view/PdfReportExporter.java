@@ -0,0 +1,156 @@
+package view;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+import model.DateRange;
+import model.Entry;
+import model.EntryStore;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+
+/**
+ * Schreibt den Bericht (Titel, Betrag, Typ, Datum) als PDF, direkt aus dem
+ * Datenbank-Cursor und ohne Umweg über die JTable. Datenbankfehler führen zu
+ * einer Ausnahme statt zu einem stillschweigend unvollständigen Bericht.
+ *
+ * Die Tabelle wird mit setComplete(false) angelegt und alle
+ * {@link #FLUSH_ROWS} Zeilen ins Dokument geschrieben. iText gibt die bereits
+ * geschriebenen Zeilen dabei frei und schreibt fertige Seiten sofort in den
+ * Ausgabestrom; der Speicherbedarf hängt damit nicht von der Grösse des
+ * Berichts ab.
+ */
+public class PdfReportExporter {
+	/** Zeilen, nach denen die Tabelle ins Dokument geschrieben wird. */
+	public static final int FLUSH_ROWS = 500;
+
+	/**
+	 * Erhält den Fortschritt nach jedem geschriebenen Block.
+	 */
+	public interface ProgressListener {
+		/**
+		 * @param rows bisher geschriebene Zeilen.
+		 * @return false, um den Export abzubrechen.
+		 */
+		boolean onProgress(int rows);
+	}
+
+	private final EntryStore dbHelper;
+
+	/**
+	 * @param dbHelper der Datenbankzugriff.
+	 */
+	public PdfReportExporter(EntryStore dbHelper) {
+		this.dbHelper = dbHelper;
+	}
+
+	/**
+	 * Exportiert in eine Datei. Geschrieben wird in eine temporäre Datei im
+	 * selben Verzeichnis, die erst nach erfolgreichem Abschluss an den Zielort
+	 * verschoben wird; bei Abbruch oder Fehler bleibt eine bestehende Datei
+	 * unverändert.
+	 *
+	 * @param range    der Zeitraum oder null für alle Einträge.
+	 * @param target   die Zieldatei.
+	 * @param listener erhält den Fortschritt, darf null sein.
+	 * @return Anzahl geschriebener Zeilen oder -1, wenn der Listener abgebrochen hat.
+	 * @throws DocumentException bei einem Fehler von iText.
+	 * @throws IOException       bei einem Schreibfehler.
+	 * @throws SQLException      bei einem Datenbankfehler.
+	 */
+	public int exportToFile(DateRange range, File target, ProgressListener listener)
+			throws DocumentException, IOException, SQLException {
+		File temp = File.createTempFile("liquiplanner", ".pdf.tmp", target.getAbsoluteFile().getParentFile());
+		boolean moved = false;
+		try {
+			boolean[] cancelled = { false };
+			int rows = export(range, new BufferedOutputStream(new FileOutputStream(temp)), written -> {
+				cancelled[0] = listener != null && !listener.onProgress(written);
+				return !cancelled[0];
+			});
+			if (cancelled[0]) {
+				return -1;
+			}
+			Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			moved = true;
+			return rows;
+		} finally {
+			if (!moved && !temp.delete()) {
+				System.err.println("Temporäre Datei konnte nicht gelöscht werden: " + temp);
+			}
+		}
+	}
+
+	/**
+	 * Exportiert die Einträge eines Zeitraums oder alle Einträge. Der Ausgabestrom
+	 * wird am Ende geschlossen, auch bei einem Abbruch (das PDF enthält dann
+	 * die bis dahin geschriebenen Zeilen).
+	 *
+	 * @param range    der Zeitraum oder null für alle Einträge.
+	 * @param out      Ziel des PDF.
+	 * @param listener erhält den Fortschritt, darf null sein.
+	 * @return Anzahl geschriebener Zeilen.
+	 * @throws DocumentException bei einem Fehler von iText.
+	 * @throws IOException       bei einem Schreibfehler.
+	 * @throws SQLException      bei einem Datenbankfehler.
+	 */
+	public int export(DateRange range, OutputStream out, ProgressListener listener)
+			throws DocumentException, IOException, SQLException {
+		Document document = new Document();
+		PdfWriter.getInstance(document, out);
+		document.open();
+		int[] rows = { 0 };
+		try {
+			document.add(new Paragraph("Liqui-Planner Bericht" + (range != null ? " - " + range.getLabel() : "") + "\n\n"));
+			PdfPTable pdfTable = new PdfPTable(4);
+			pdfTable.setHeaderRows(1);
+			pdfTable.setComplete(false);
+			pdfTable.addCell("Titel");
+			pdfTable.addCell("Betrag (CHF)");
+			pdfTable.addCell("Typ");
+			pdfTable.addCell("Datum");
+
+			dbHelper.streamEntries(range, entry -> {
+				pdfTable.addCell(entry.getTitle());
+				pdfTable.addCell(entry.getFormattedAmount());
+				pdfTable.addCell(entry.getType());
+				pdfTable.addCell(Entry.formatDate(entry.getDate()));
+				rows[0]++;
+				if (rows[0] % FLUSH_ROWS != 0) {
+					return true;
+				}
+				try {
+					document.add(pdfTable);
+				} catch (DocumentException e) {
+					throw new ExceptionConverter(e);
+				}
+				return listener == null || listener.onProgress(rows[0]);
+			});
+
+			pdfTable.setComplete(true);
+			document.add(pdfTable);
+		} catch (ExceptionConverter e) {
+			if (e.getException() instanceof DocumentException) {
+				throw (DocumentException) e.getException();
+			}
+			throw e;
+		} finally {
+			document.close();
+			out.close();
+		}
+		if (listener != null) {
+			listener.onProgress(rows[0]);
+		}
+		return rows[0];
+	}
+}
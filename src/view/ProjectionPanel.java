@@ -0,0 +1,133 @@
+package view;
+
+import model.Entry;
+import model.LiquidityProjection;
+import model.Months;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+
+/**
+ * Register "Prognose" der MainView: oben die Vorlagen für wiederkehrende
+ * Einträge (Miete, Lohn, ...), direkt in der Tabelle bearbeitbar, unten der
+ * daraus erwartete Kontostand Monat für Monat.
+ *
+ * Die Prognose führt der MainController bei jeder Änderung nach
+ * ({@link LiquidityProjection}); das Panel zeigt sie nur an.
+ */
+public class ProjectionPanel extends JPanel {
+	private static final long serialVersionUID = 1L;
+
+	private final JLabel summaryLabel = new JLabel(" ");
+	private final JButton addButton = new JButton("Neue Vorlage");
+	private final JButton deleteButton = new JButton("Vorlage löschen");
+	private final JSpinner yearsSpinner = new JSpinner(new SpinnerNumberModel(3, 1, 30, 1));
+	private final RecurringTableModel recurringModel = new RecurringTableModel();
+	private final JTable recurringTable = new JTable(recurringModel);
+	private final ProjectionTableModel projectionModel = new ProjectionTableModel();
+
+	public ProjectionPanel() {
+		super(new BorderLayout(10, 10));
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+		buttons.add(new JLabel("Jahre:"));
+		buttons.add(yearsSpinner);
+		buttons.add(addButton);
+		buttons.add(deleteButton);
+		JPanel header = new JPanel(new BorderLayout(10, 0));
+		header.add(summaryLabel, BorderLayout.CENTER);
+		header.add(buttons, BorderLayout.EAST);
+
+		JComboBox<String> typeEditor = new JComboBox<>(new String[] { Entry.EINNAHME, Entry.AUSGABE });
+		recurringTable.getColumnModel().getColumn(RecurringTableModel.COLUMN_TYPE)
+				.setCellEditor(new DefaultCellEditor(typeEditor));
+		recurringTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		recurringTable.putClientProperty("terminateEditOnFocusLost", Boolean.TRUE);
+		JScrollPane recurringScroll = new JScrollPane(recurringTable);
+		recurringScroll.setBorder(new TitledBorder("Wiederkehrende Einträge"));
+
+		JTable projectionTable = new JTable(projectionModel);
+		projectionTable.setDefaultRenderer(Long.class, new BalanceCellRenderer());
+		JScrollPane projectionScroll = new JScrollPane(projectionTable);
+		projectionScroll.setBorder(new TitledBorder("Erwarteter Kontostand am Monatsende"));
+
+		JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, recurringScroll, projectionScroll);
+		split.setResizeWeight(0.4);
+
+		setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+		add(header, BorderLayout.NORTH);
+		add(split, BorderLayout.CENTER);
+	}
+
+	/**
+	 * Zeigt eine Prognose an bzw. nach einer Änderung erneut an.
+	 *
+	 * @param projection die Prognose.
+	 */
+	public void showProjection(LiquidityProjection projection) {
+		projectionModel.setProjection(projection);
+		int last = projection.getMonthCount() - 1;
+		int lowest = projection.getLowestMonth();
+		int negative = projection.getFirstNegativeMonth();
+		summaryLabel.setText(String.format("Kontostand Ende %s: %s, Ende %s: %s, tiefster: %s (%s)%s",
+				Months.label(projection.getMonth(0)), signed(projection.getBalance(0)),
+				Months.label(projection.getMonth(last)), signed(projection.getBalance(last)),
+				signed(projection.getBalance(lowest)), Months.label(projection.getMonth(lowest)),
+				negative >= 0 ? ", negativ ab " + Months.label(projection.getMonth(negative)) : ""));
+		summaryLabel.setForeground(negative >= 0 ? Color.RED : new Color(0, 100, 0));
+	}
+
+	private static String signed(long cents) {
+		return Entry.formatAmount(cents, cents >= 0);
+	}
+
+	/**
+	 * Zeigt einen Hinweis statt der Zahlen (z. B. während des Ladens).
+	 *
+	 * @param text der Hinweis.
+	 */
+	public void showMessage(String text) {
+		summaryLabel.setForeground(Color.BLACK);
+		summaryLabel.setText(text);
+	}
+
+	public RecurringTableModel getRecurringModel() {
+		return recurringModel;
+	}
+
+	public JTable getRecurringTable() {
+		return recurringTable;
+	}
+
+	public JButton getAddButton() {
+		return addButton;
+	}
+
+	public JButton getDeleteButton() {
+		return deleteButton;
+	}
+
+	public JSpinner getYearsSpinner() {
+		return yearsSpinner;
+	}
+
+	/**
+	 * Formatiert Beträge in Rappen mit Vorzeichen; negative Kontostände rot.
+	 */
+	private static final class BalanceCellRenderer extends AmountCellRenderer {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+				boolean hasFocus, int row, int column) {
+			Component component = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row,
+					column);
+			if (!isSelected) {
+				boolean negative = value instanceof Long && (Long) value < 0
+						&& table.convertColumnIndexToModel(column) == ProjectionTableModel.COLUMN_BALANCE;
+				component.setForeground(negative ? Color.RED : table.getForeground());
+			}
+			return component;
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package view;
+
+import model.LiquidityProjection;
+import model.Months;
+
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * TableModel über einer {@link LiquidityProjection}: eine Zeile pro Monat
+ * mit gebuchten und ausstehenden Beträgen und dem erwarteten Kontostand.
+ *
+ * Die Werte werden erst beim Zeichnen aus der Prognose gelesen; nach einer
+ * Änderung genügt {@link #fireTableDataChanged()}, neu berechnet werden nur
+ * die Kontostände ab dem ersten geänderten Monat.
+ */
+public class ProjectionTableModel extends AbstractTableModel {
+	private static final long serialVersionUID = 1L;
+
+	public static final int COLUMN_MONTH = 0;
+	public static final int COLUMN_BOOKED = 1;
+	public static final int COLUMN_PLANNED = 2;
+	public static final int COLUMN_BALANCE = 3;
+
+	private static final String[] COLUMN_NAMES = { "Monat", "Gebucht (CHF)", "Ausstehend (CHF)",
+			"Kontostand (CHF)" };
+
+	private transient LiquidityProjection projection;
+
+	/**
+	 * @param projection die anzuzeigende Prognose oder null.
+	 */
+	public void setProjection(LiquidityProjection projection) {
+		this.projection = projection;
+		fireTableDataChanged();
+	}
+
+	@Override
+	public int getRowCount() {
+		return projection != null ? projection.getMonthCount() : 0;
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return column == COLUMN_MONTH ? String.class : Long.class;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		switch (column) {
+			case COLUMN_MONTH:
+				return Months.label(projection.getMonth(row));
+			case COLUMN_BOOKED:
+				return projection.getBooked(row);
+			case COLUMN_PLANNED:
+				return projection.getPlanned(row);
+			case COLUMN_BALANCE:
+				return projection.getBalance(row);
+			default:
+				return null;
+		}
+	}
+}
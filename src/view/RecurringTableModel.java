@@ -0,0 +1,296 @@
+package view;
+
+import model.Entry;
+import model.RecurringEntry;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * TableModel der Vorlagen für wiederkehrende Einträge im Register
+ * "Prognose". Bis auf die Spalte "Einbeziehen" führt jede Änderung zu einer
+ * neuen Vorlage, die dem {@link EditListener} gemeldet wird; er übernimmt
+ * sie in Prognose und Speicher. "Einbeziehen" nimmt eine Vorlage nur
+ * vorübergehend aus der Prognose ("Was wäre, wenn") und wird nicht
+ * gespeichert.
+ *
+ * Ungültige Eingaben werden nicht übernommen, sondern dem Listener gemeldet.
+ */
+public class RecurringTableModel extends AbstractTableModel {
+	private static final long serialVersionUID = 1L;
+
+	public static final int COLUMN_INCLUDED = 0;
+	public static final int COLUMN_TITLE = 1;
+	public static final int COLUMN_TYPE = 2;
+	public static final int COLUMN_AMOUNT = 3;
+	public static final int COLUMN_INTERVAL = 4;
+	public static final int COLUMN_START = 5;
+	public static final int COLUMN_END = 6;
+
+	private static final String[] COLUMN_NAMES = { "Einbeziehen", "Titel", "Typ", "Betrag (CHF)",
+			"Intervall (Monate)", "Erste Buchung", "Letzte Buchung" };
+	private static final Class<?>[] COLUMN_CLASSES = { Boolean.class, String.class, String.class, String.class,
+			Integer.class, String.class, String.class };
+
+	/**
+	 * Erhält die Änderungen des Benutzers.
+	 */
+	public interface EditListener {
+		/**
+		 * Eine Vorlage wurde geändert; die Tabelle zeigt schon die neue.
+		 *
+		 * @param before die bisherige Vorlage.
+		 * @param after  die geänderte Vorlage (mit derselben ID).
+		 */
+		void edited(RecurringEntry before, RecurringEntry after);
+
+		/**
+		 * Eine Vorlage wurde in die Prognose aufgenommen oder herausgenommen.
+		 *
+		 * @param item     die Vorlage.
+		 * @param included true, wenn sie berücksichtigt werden soll.
+		 */
+		void includedChanged(RecurringEntry item, boolean included);
+
+		/**
+		 * Eine Eingabe war ungültig und wurde nicht übernommen.
+		 *
+		 * @param message die Begründung.
+		 */
+		void rejected(String message);
+	}
+
+	private final List<RecurringEntry> items = new ArrayList<>();
+	private final List<Boolean> included = new ArrayList<>();
+	private transient EditListener listener;
+
+	/**
+	 * @param listener erhält die Änderungen des Benutzers.
+	 */
+	public void setEditListener(EditListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Zeigt die Vorlagen an, alle einbezogen.
+	 *
+	 * @param items die Vorlagen.
+	 */
+	public void setItems(List<RecurringEntry> items) {
+		this.items.clear();
+		this.included.clear();
+		for (RecurringEntry item : items) {
+			this.items.add(item);
+			this.included.add(Boolean.TRUE);
+		}
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Hängt eine (gespeicherte) Vorlage an, einbezogen.
+	 *
+	 * @param item die Vorlage.
+	 * @return die Zeile der Vorlage.
+	 */
+	public int addItem(RecurringEntry item) {
+		items.add(item);
+		included.add(Boolean.TRUE);
+		int row = items.size() - 1;
+		fireTableRowsInserted(row, row);
+		return row;
+	}
+
+	/**
+	 * Ersetzt die Vorlage mit derselben ID, z. B. um eine Änderung
+	 * zurückzunehmen, die nicht gespeichert werden konnte.
+	 *
+	 * @param item die Vorlage.
+	 */
+	public void replaceItem(RecurringEntry item) {
+		int row = indexOf(item.getId());
+		if (row >= 0) {
+			items.set(row, item);
+			fireTableRowsUpdated(row, row);
+		}
+	}
+
+	/**
+	 * Entfernt die Vorlage mit einer ID.
+	 *
+	 * @param id die ID der Vorlage.
+	 */
+	public void removeItem(int id) {
+		int row = indexOf(id);
+		if (row >= 0) {
+			items.remove(row);
+			included.remove(row);
+			fireTableRowsDeleted(row, row);
+		}
+	}
+
+	private int indexOf(int id) {
+		for (int row = 0; row < items.size(); row++) {
+			if (items.get(row).getId() == id) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	/** Die Vorlage einer Zeile. */
+	public RecurringEntry getItem(int row) {
+		return items.get(row);
+	}
+
+	/** true, wenn die Vorlage einer Zeile in die Prognose einbezogen wird. */
+	public boolean isIncluded(int row) {
+		return included.get(row);
+	}
+
+	@Override
+	public int getRowCount() {
+		return items.size();
+	}
+
+	@Override
+	public int getColumnCount() {
+		return COLUMN_NAMES.length;
+	}
+
+	@Override
+	public String getColumnName(int column) {
+		return COLUMN_NAMES[column];
+	}
+
+	@Override
+	public Class<?> getColumnClass(int column) {
+		return COLUMN_CLASSES[column];
+	}
+
+	@Override
+	public boolean isCellEditable(int row, int column) {
+		return true;
+	}
+
+	@Override
+	public Object getValueAt(int row, int column) {
+		RecurringEntry item = items.get(row);
+		switch (column) {
+			case COLUMN_INCLUDED:
+				return included.get(row);
+			case COLUMN_TITLE:
+				return item.getTitle();
+			case COLUMN_TYPE:
+				return item.getType();
+			case COLUMN_AMOUNT:
+				return String.format("%.2f", Math.abs(item.getAmountCents()) / 100.0);
+			case COLUMN_INTERVAL:
+				return item.getIntervalMonths();
+			case COLUMN_START:
+				return Entry.formatDate(item.getStart());
+			case COLUMN_END:
+				return item.getEnd() != null ? Entry.formatDate(item.getEnd()) : "";
+			default:
+				return null;
+		}
+	}
+
+	@Override
+	public void setValueAt(Object value, int row, int column) {
+		RecurringEntry before = items.get(row);
+		if (column == COLUMN_INCLUDED) {
+			boolean include = Boolean.TRUE.equals(value);
+			if (include != included.get(row)) {
+				included.set(row, include);
+				fireTableCellUpdated(row, column);
+				if (listener != null) {
+					listener.includedChanged(before, include);
+				}
+			}
+			return;
+		}
+		RecurringEntry after;
+		try {
+			after = edit(before, column, value == null ? "" : value.toString().trim());
+		} catch (IllegalArgumentException e) {
+			if (listener != null) {
+				listener.rejected(e.getMessage());
+			}
+			return;
+		}
+		if (after == null) {
+			return; // unverändert
+		}
+		items.set(row, after);
+		fireTableRowsUpdated(row, row);
+		if (listener != null) {
+			listener.edited(before, after);
+		}
+	}
+
+	/**
+	 * Erstellt die Vorlage mit dem geänderten Wert einer Spalte.
+	 *
+	 * @return die neue Vorlage oder null, wenn sich nichts ändert.
+	 * @throws IllegalArgumentException bei einer ungültigen Eingabe.
+	 */
+	private static RecurringEntry edit(RecurringEntry item, int column, String text) {
+		String title = item.getTitle();
+		String type = item.getType();
+		long amount = Math.abs(item.getAmountCents());
+		int interval = item.getIntervalMonths();
+		LocalDate start = item.getStart();
+		LocalDate end = item.getEnd();
+		switch (column) {
+			case COLUMN_TITLE:
+				if (text.isEmpty()) {
+					throw new IllegalArgumentException("Der Titel darf nicht leer sein.");
+				}
+				title = text;
+				break;
+			case COLUMN_TYPE:
+				if (!Entry.EINNAHME.equals(text) && !Entry.AUSGABE.equals(text)) {
+					throw new IllegalArgumentException("Typ muss \"Einnahme\" oder \"Ausgabe\" sein.");
+				}
+				type = text;
+				break;
+			case COLUMN_AMOUNT:
+				try {
+					amount = Math.abs(Math.round(Double.parseDouble(text) * 100));
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Betrag muss eine Zahl sein!");
+				}
+				break;
+			case COLUMN_INTERVAL:
+				try {
+					interval = Integer.parseInt(text);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Abstand muss eine ganze Zahl von Monaten sein!");
+				}
+				break;
+			case COLUMN_START:
+				start = Entry.parseDate(text);
+				if (start == null) {
+					throw new IllegalArgumentException("Erste Buchung im Format TT.MM.JJJJ eingeben!");
+				}
+				break;
+			case COLUMN_END:
+				end = text.isEmpty() ? null : Entry.parseDate(text);
+				if (!text.isEmpty() && end == null) {
+					throw new IllegalArgumentException("Letzte Buchung im Format TT.MM.JJJJ eingeben oder leer lassen!");
+				}
+				break;
+			default:
+				return null;
+		}
+		long signed = Entry.AUSGABE.equals(type) ? -amount : amount;
+		RecurringEntry edited = new RecurringEntry(item.getId(), title, signed, type, start, end, interval);
+		boolean unchanged = edited.getTitle().equals(item.getTitle()) && edited.getType().equals(item.getType())
+				&& edited.getAmountCents() == item.getAmountCents() && interval == item.getIntervalMonths()
+				&& start.equals(item.getStart()) && Objects.equals(end, item.getEnd());
+		return unchanged ? null : edited;
+	}
+}